@@ -0,0 +1,85 @@
+package FixItNow.bench;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.manager.AvailabilityIndex;
+import FixItNow.manager.WeeklySchedule;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ServicesRepository;
+
+/**
+ * GET /service/available without the database: a weekday morning slot most providers work, and
+ * a Sunday evening one few do. One provider in fifty is already booked at the slot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    @Param({"100000"})
+    int providers;
+
+    private AvailabilityIndex index;
+    private final LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    private final LocalDate sunday = monday.plusDays(6);
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        List<Object[]> rows = new ArrayList<>(providers);
+        List<String> booked = new ArrayList<>();
+        for (int i = 0; i < providers; i++) {
+            String id = String.format("U%06d", i);
+            Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+            for (DayOfWeek d : DayOfWeek.values()) {
+                if (rnd.nextInt(10) < 7) days.add(d);
+            }
+            LocalTime from = LocalTime.of(7 + rnd.nextInt(4), 30 * rnd.nextInt(2));
+            LocalTime to = LocalTime.of(16 + rnd.nextInt(6), 0);
+            rows.add(new Object[] {id, WeeklySchedule.of(days, from, to).toBytes(), null});
+            if (i % 50 == 0) booked.add(id);
+        }
+        index = new AvailabilityIndex();
+        ReflectionTestUtils.setField(index, "sr", RepositoryStub.of(ServicesRepository.class, Map.of(
+                "findScheduleFields", args -> rows)));
+        ReflectionTestUtils.setField(index, "bookingRepository", RepositoryStub.of(BookingRepository.class, Map.of(
+                "findProvidersHoldingSlot", args -> booked)));
+        index.rebuild();
+    }
+
+    @Benchmark
+    public List<String> weekdayMorning() {
+        return index.available(monday, LocalTime.of(11, 0));
+    }
+
+    @Benchmark
+    public List<String> sundayEvening() {
+        return index.available(sunday, LocalTime.of(19, 0));
+    }
+}
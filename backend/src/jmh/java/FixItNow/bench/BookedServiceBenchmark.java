@@ -0,0 +1,94 @@
+package FixItNow.bench;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.model.BookedServiceJson;
+import FixItNow.model.BookingStatus;
+import FixItNow.model.ProviderBookingView;
+
+/**
+ * Rendering a provider's booking list to JSON bytes: the old path that decodes
+ * booked_service into a Map for every row, against emitting the canonical
+ * booked_service_items text verbatim from ProviderBookingView.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookedServiceBenchmark {
+
+    @Param({"50", "500"})
+    int rows;
+
+    private ObjectMapper mapper;
+    private final ObjectMapper rowMapper = new ObjectMapper();
+    private List<Object[]> dbRows;
+
+    @Setup
+    public void setUp() {
+        // same configuration Spring MVC uses for responses
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        dbRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> booked = new HashMap<>();
+            booked.put("Pipe leak repair", 450 + i % 7);
+            booked.put("Tap installation", 300);
+            booked.put("Drain cleaning", 600);
+            String json = BookedServiceJson.canonicalize(booked);
+            dbRows.add(new Object[] {"B" + i, LocalDate.of(2025, 1, 1).plusDays(i % 60), "10:00",
+                    BookingStatus.PENDING, json, "Customer " + i, "c" + i + "@mail.com", "9876543210", "Bangalore"});
+        }
+    }
+
+    @Benchmark
+    public byte[] parsePerRow() throws Exception {
+        List<Map<String, Object>> out = new ArrayList<>(dbRows.size());
+        for (Object[] r : dbRows) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("customerName", r[5]);
+            item.put("customerEmail", r[6]);
+            item.put("customerPhone", r[7]);
+            item.put("customerLocation", r[8]);
+            item.put("bookedServices", rowMapper.readValue((String) r[4], new TypeReference<Map<String, Object>>() {}));
+            item.put("bookingDate", r[1].toString());
+            item.put("timeSlot", r[2]);
+            item.put("bookingId", r[0]);
+            item.put("status", ((BookingStatus) r[3]).name());
+            out.add(item);
+        }
+        return mapper.writeValueAsBytes(out);
+    }
+
+    @Benchmark
+    public byte[] canonicalVerbatim() throws Exception {
+        List<ProviderBookingView> out = new ArrayList<>(dbRows.size());
+        for (Object[] r : dbRows) {
+            out.add(new ProviderBookingView((String) r[0], (LocalDate) r[1], (String) r[2], (BookingStatus) r[3],
+                    (String) r[4], null, (String) r[5], (String) r[6], (String) r[7], (String) r[8]));
+        }
+        return mapper.writeValueAsBytes(out);
+    }
+}
@@ -0,0 +1,100 @@
+package FixItNow.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import FixItNow.FixItNowApplication;
+import FixItNow.manager.ChatWritePipeline;
+import FixItNow.manager.MessageManager;
+import FixItNow.model.Message;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.UsersRepository;
+
+/**
+ * Storing chat messages from 16 concurrent senders: one transaction per message
+ * (MessageManager.saveMessage) against the group-committing ChatWritePipeline.
+ * Runs against the test profile's in-memory H2, so absolute numbers flatter both
+ * paths; on MySQL every saved commit is also a saved fsync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(16)
+@Fork(1)
+public class ChatWriteBenchmark {
+
+    private static final int PAIRS = 16;
+
+    private ConfigurableApplicationContext context;
+    private MessageManager messageManager;
+    private ChatWritePipeline pipeline;
+
+    @State(Scope.Thread)
+    public static class Sender {
+        private static final AtomicInteger NEXT = new AtomicInteger();
+        String from;
+        String to;
+        int n;
+
+        @Setup
+        public void pick() {
+            int i = NEXT.getAndIncrement() % PAIRS;
+            from = "CB" + (2 * i);
+            to = "CB" + (2 * i + 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(FixItNowApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        messageManager = context.getBean(MessageManager.class);
+        pipeline = context.getBean(ChatWritePipeline.class);
+        UsersRepository users = context.getBean(UsersRepository.class);
+        for (int i = 0; i < 2 * PAIRS; i++) {
+            Users u = new Users();
+            u.setId("CB" + i);
+            u.setName("bench " + i);
+            u.setEmail("cb" + i + "@bench.test");
+            u.setPassword("secret");
+            u.setRole(UserRole.CUSTOMER);
+            users.save(u);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    @Benchmark
+    public Message perMessageTransaction(Sender s) {
+        return messageManager.saveMessage(s.from, s.to, "message " + s.n++);
+    }
+
+    @Benchmark
+    public Message groupCommit(Sender s) {
+        return pipeline.submit(s.from, s.to, "message " + s.n++).join();
+    }
+}
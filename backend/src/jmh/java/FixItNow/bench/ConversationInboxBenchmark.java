@@ -0,0 +1,120 @@
+package FixItNow.bench;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.manager.MessageManager;
+import FixItNow.model.ConversationSummary;
+import FixItNow.model.Message;
+import FixItNow.model.Users;
+import FixItNow.repository.ConversationRepository;
+
+/**
+ * Building one user's inbox once the rows are in memory: the old ChatController loop that
+ * grouped the user's whole message history by peer, against MessageManager.getConversations
+ * merging the two (user, last_at) index reads of the conversations table. The gap grows with
+ * the history while the new side only depends on the number of peers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversationInboxBenchmark {
+
+    private static final String ME = "U0";
+
+    @Param({"1000", "20000"})
+    int messages;
+
+    @Param({"50"})
+    int peers;
+
+    private List<Message> history;
+    private MessageManager manager;
+
+    @Setup
+    public void setUp() {
+        Users me = user(ME);
+        Users[] others = new Users[peers];
+        for (int p = 0; p < peers; p++) others[p] = user("U" + (p + 1));
+
+        // newest first, as findBySender_IdOrReceiver_IdOrderBySentAtDesc returned it
+        LocalDateTime now = LocalDateTime.of(2025, 1, 31, 12, 0);
+        history = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            Users peer = others[(i * 7) % peers];
+            Message m = new Message();
+            m.setId("M" + i);
+            m.setSender(i % 2 == 0 ? me : peer);
+            m.setReceiver(i % 2 == 0 ? peer : me);
+            m.setContent("message " + i);
+            m.setSentAt(now.minusMinutes(i));
+            history.add(m);
+        }
+
+        List<ConversationSummary> asA = new ArrayList<>();
+        List<ConversationSummary> asB = new ArrayList<>();
+        for (int p = 0; p < peers; p++) {
+            ConversationSummary s = new ConversationSummary(others[p].getId(), others[p].getName(), "message " + p,
+                    now.minusMinutes(p), p % 3);
+            (p % 2 == 0 ? asA : asB).add(s);
+        }
+        manager = new MessageManager();
+        ReflectionTestUtils.setField(manager, "conversationRepository", RepositoryStub.of(ConversationRepository.class,
+                Map.of("findInboxAsUserA", args -> asA, "findInboxAsUserB", args -> asB)));
+    }
+
+    private static Users user(String id) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("name " + id);
+        return u;
+    }
+
+    @Benchmark
+    public List<ConversationSummary> groupHistory() {
+        Map<String, ConversationSummary> map = new LinkedHashMap<>();
+        for (Message m : history) {
+            String peerId = null;
+            String peerName = null;
+            if (m.getSender() != null && ME.equals(m.getSender().getId())) {
+                if (m.getReceiver() == null) continue;
+                peerId = m.getReceiver().getId();
+                peerName = m.getReceiver().getName();
+            } else if (m.getReceiver() != null && ME.equals(m.getReceiver().getId())) {
+                if (m.getSender() == null) continue;
+                peerId = m.getSender().getId();
+                peerName = m.getSender().getName();
+            }
+            if (peerId == null) continue;
+            if (!map.containsKey(peerId)) {
+                map.put(peerId, new ConversationSummary(peerId, peerName, m.getContent(), m.getSentAt()));
+            }
+        }
+        return new ArrayList<>(map.values());
+    }
+
+    @Benchmark
+    public List<ConversationSummary> conversationTable() {
+        return manager.getConversations(ME);
+    }
+}
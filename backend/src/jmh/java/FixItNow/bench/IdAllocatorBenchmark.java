@@ -0,0 +1,103 @@
+package FixItNow.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import FixItNow.manager.IdAllocator;
+import FixItNow.repository.IdSequenceRepository;
+
+/**
+ * IdAllocator.next() with the id_sequences row held in memory, for an empty table and for one
+ * that already holds a million ids: the cost per id should not change, since the table is only
+ * read once to seed the sequence and the row is bumped once per block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdAllocatorBenchmark {
+
+    @Param({"0", "1000000"})
+    long existingRows;
+
+    private IdAllocator allocator;
+    private IdAllocator.IdSource existing;
+
+    @Setup
+    public void setUp() {
+        AtomicLong row = new AtomicLong();
+        AtomicBoolean seeded = new AtomicBoolean();
+        // the UPDATE's result as the following SELECT in the same transaction would see it
+        ThreadLocal<Long> bumped = new ThreadLocal<>();
+        IdSequenceRepository isr = RepositoryStub.of(IdSequenceRepository.class, Map.of(
+                "advance", args -> {
+                    if (!seeded.get()) return 0;
+                    bumped.set(row.addAndGet((Long) args[1]));
+                    return 1;
+                },
+                "currentValue", args -> bumped.get(),
+                "insertSequence", args -> {
+                    row.set((Long) args[1]);
+                    seeded.set(true);
+                    return 1;
+                }));
+        existing = page -> existingRows == 0 ? List.of() : List.of("U" + existingRows);
+        allocator = new IdAllocator();
+        ReflectionTestUtils.setField(allocator, "isr", isr);
+        ReflectionTestUtils.setField(allocator, "transactionManager", new NoopTransactionManager());
+    }
+
+    @Benchmark
+    public String next() {
+        return allocator.next("U", existing);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextContended() {
+        return allocator.next("U", existing);
+    }
+
+    static final class NoopTransactionManager extends AbstractPlatformTransactionManager {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
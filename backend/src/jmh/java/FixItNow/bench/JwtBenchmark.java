@@ -0,0 +1,77 @@
+package FixItNow.bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.manager.AuthPrincipalCache;
+import FixItNow.manager.JWTManager;
+import FixItNow.model.AuthPrincipal;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.UsersRepository;
+import io.jsonwebtoken.Jwts;
+
+/**
+ * Per-request token work: signing a token, verifying one with the shared parser (and, for
+ * comparison, with a parser built per call as before), and resolving a repeat token through
+ * AuthPrincipalCache, which skips both the HMAC check and the users lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JWTManager jwt;
+    private AuthPrincipalCache principals;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwt = new JWTManager();
+        token = jwt.generateToken("bench@fixitnow.test");
+        Users u = new Users();
+        u.setId("U1");
+        u.setEmail("bench@fixitnow.test");
+        u.setRole(UserRole.CUSTOMER);
+        principals = new AuthPrincipalCache();
+        ReflectionTestUtils.setField(principals, "jwt", jwt);
+        ReflectionTestUtils.setField(principals, "usersRepository",
+                RepositoryStub.of(UsersRepository.class, Map.of("findByEmail", args -> u)));
+        principals.resolve(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwt.generateToken("bench@fixitnow.test");
+    }
+
+    @Benchmark
+    public String validateToken() {
+        return jwt.validateToken(token);
+    }
+
+    @Benchmark
+    public String validateWithFreshParser() {
+        return Jwts.parserBuilder().setSigningKey(jwt.key).build().parseClaimsJws(token).getBody().get("email", String.class);
+    }
+
+    @Benchmark
+    public AuthPrincipal resolveCachedPrincipal() {
+        return principals.resolve(token);
+    }
+}
@@ -0,0 +1,106 @@
+package FixItNow.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import FixItNow.FixItNowApplication;
+import FixItNow.controller.UsersController;
+import FixItNow.manager.JWTManager;
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+/**
+ * A sign-in storm: 16 threads signing in random providers. legacy replays the old sequence
+ * (load user, count query on email+password, services lookup for the verified flag, token);
+ * signIn is UsersController.loginUser with its single projection query. In-memory H2, so the
+ * gap is the saved statements and entity hydration, not network round trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(16)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final int PROVIDERS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private UsersController controller;
+    private UsersRepository users;
+    private ServicesRepository services;
+    private JWTManager jwt;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(FixItNowApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        controller = context.getBean(UsersController.class);
+        users = context.getBean(UsersRepository.class);
+        services = context.getBean(ServicesRepository.class);
+        jwt = context.getBean(JWTManager.class);
+        for (int i = 0; i < PROVIDERS; i++) {
+            Users u = new Users();
+            u.setId("LB" + i);
+            u.setName("provider " + i);
+            u.setEmail("lb" + i + "@bench.test");
+            u.setPassword("secret" + i);
+            u.setRole(UserRole.PROVIDER);
+            users.save(u);
+            Services s = new Services();
+            s.setId("LS" + i);
+            s.setProvider(u);
+            s.setCategory("Plumbing");
+            services.save(s);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object legacy() {
+        int i = ThreadLocalRandom.current().nextInt(PROVIDERS);
+        String email = "lb" + i + "@bench.test";
+        String password = "secret" + i;
+        Users u = users.findByEmail(email);
+        if (u == null || !password.equals(u.getPassword())) return null;
+        if (users.validatecredentials(email, password) == 0) return null;
+        String token = jwt.generateToken(email);
+        List<Services> list = services.findByProvider(u);
+        return list.isEmpty() ? token : list.get(0).getVerified();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> signIn() {
+        int i = ThreadLocalRandom.current().nextInt(PROVIDERS);
+        return controller.loginUser(Map.of("email", "lb" + i + "@bench.test", "password", "secret" + i, "role", "provider"));
+    }
+}
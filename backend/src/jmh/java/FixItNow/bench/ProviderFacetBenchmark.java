@@ -0,0 +1,97 @@
+package FixItNow.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.manager.ProviderFacetIndex;
+import FixItNow.manager.WeeklySchedule;
+import FixItNow.model.ProviderFacetResult;
+import FixItNow.model.ServicesVerified;
+import FixItNow.repository.ServicesRepository;
+
+/**
+ * GET /service/facets without the database: unfiltered returns the first page and every count,
+ * oneFacet filters on a category, multiFacet on category, verification and two weekdays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderFacetBenchmark {
+
+    private static final String[][] CATEGORIES = {
+            {"Plumbing", "Leak repair", "Tap installation", "Drain cleaning"},
+            {"Electrical", "Fan installation", "Wiring", "Switchboard repair"},
+            {"Cleaning", "Deep cleaning", "Sofa shampoo", "Bathroom cleaning"},
+            {"Carpentry", "Furniture assembly", "Door repair", "Modular kitchen"},
+            {"Painting", "Wall painting", "Texture finish", "Waterproofing"},
+            {"Appliance Repair", "AC service", "Washing machine repair", "Refrigerator repair"},
+            {"Pest Control", "Termite treatment", "Cockroach control", "Bed bugs"},
+            {"Gardening", "Lawn mowing", "Hedge trimming", "Plant care"}};
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    @Param({"100000"})
+    int providers;
+
+    private ProviderFacetIndex index;
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        ServicesVerified[] states = ServicesVerified.values();
+        List<Object[]> rows = new ArrayList<>(providers);
+        for (int i = 0; i < providers; i++) {
+            String[] c = CATEGORIES[rnd.nextInt(CATEGORIES.length)];
+            String sub = "{\"" + c[1 + rnd.nextInt(3)] + "\":300,\"" + c[1 + rnd.nextInt(3)] + "\":500}";
+            StringBuilder days = new StringBuilder();
+            for (String d : DAYS) {
+                if (rnd.nextInt(10) < 7) days.append(days.length() == 0 ? "" : ",").append('"').append(d).append('"');
+            }
+            String availability = "{\"from\":\"9:00 am\",\"to\":\"6:00 pm\",\"days\":[" + days + "]}";
+            rows.add(new Object[] {String.format("U%06d", i), c[0], sub, states[rnd.nextInt(states.length)],
+                    WeeklySchedule.decode(availability).toBytes(), availability});
+        }
+        index = new ProviderFacetIndex();
+        ReflectionTestUtils.setField(index, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(index, "sr", RepositoryStub.of(ServicesRepository.class, Map.of(
+                "findFacetFields", args -> rows)));
+        index.rebuild();
+    }
+
+    @Benchmark
+    public ProviderFacetResult unfiltered() {
+        return index.query(Map.of(), 0, 20);
+    }
+
+    @Benchmark
+    public ProviderFacetResult oneFacet() {
+        return index.query(Map.of(ProviderFacetIndex.CATEGORY, List.of("plumbing")), 0, 20);
+    }
+
+    @Benchmark
+    public ProviderFacetResult multiFacet() {
+        return index.query(Map.of(
+                ProviderFacetIndex.CATEGORY, List.of("plumbing", "electrical"),
+                ProviderFacetIndex.VERIFIED, List.of("APPROVED"),
+                ProviderFacetIndex.DAY, List.of("SATURDAY", "SUNDAY")), 0, 20);
+    }
+}
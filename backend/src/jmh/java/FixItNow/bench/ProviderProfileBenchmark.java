@@ -0,0 +1,104 @@
+package FixItNow.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.manager.ProviderProfileCache;
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+/**
+ * GET /users/providers without the database: renderAll parses every provider's availability and
+ * subcategory JSON and serializes all profiles, which is what the endpoint used to do on each
+ * request; refreshOne is the cost a provider update now pays (one re-render plus reassembly);
+ * cached is the steady-state request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderProfileBenchmark {
+
+    @Param({"100", "2000"})
+    int providers;
+
+    private ProviderProfileCache cache;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Users> users = new ArrayList<>(providers);
+        List<Services> services = new ArrayList<>(providers);
+        Map<String, Users> byId = new HashMap<>();
+        Map<Users, List<Services>> byProvider = new HashMap<>();
+        for (int i = 0; i < providers; i++) {
+            Users u = new Users();
+            u.setId("U" + i);
+            u.setName("Provider " + i);
+            u.setEmail("p" + i + "@bench.test");
+            u.setPhno("9876543210");
+            u.setLocation("Bengaluru");
+            u.setRole(UserRole.PROVIDER);
+            Services s = new Services();
+            s.setId("S" + i);
+            s.setProvider(u);
+            s.setCategory("Plumbing");
+            s.setDescription("Plumbing services in Bengaluru");
+            s.setSubcategory("{\"Leak repair\":" + (300 + i % 9 * 50) + ",\"Tap installation\":250,\"Drain cleaning\":600}");
+            s.setAvailability("{\"from\":\"9:00 am\",\"to\":\"6:00 pm\"}");
+            users.add(u);
+            services.add(s);
+            byId.put(u.getId(), u);
+            byProvider.put(u, List.of(s));
+        }
+        cache = new ProviderProfileCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(cache, "ur", RepositoryStub.of(UsersRepository.class, Map.of(
+                "findByRole", args -> users,
+                "findById", args -> Optional.ofNullable(byId.get(args[0])))));
+        ReflectionTestUtils.setField(cache, "sr", RepositoryStub.of(ServicesRepository.class, Map.of(
+                "findAll", args -> services,
+                "findByProvider", args -> byProvider.get(args[0]))));
+        cache.rebuild();
+    }
+
+    @Benchmark
+    public byte[] renderAll() {
+        cache.rebuild();
+        return cache.allProfilesJson();
+    }
+
+    @Benchmark
+    public byte[] refreshOne() {
+        cache.refresh("U" + (next++ % providers));
+        return cache.allProfilesJson();
+    }
+
+    @Benchmark
+    public byte[] cached() {
+        return cache.allProfilesJson();
+    }
+}
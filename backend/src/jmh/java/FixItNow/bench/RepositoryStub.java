@@ -0,0 +1,29 @@
+package FixItNow.bench;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Spring Data repository interfaces answered from memory, by method name, so a benchmark measures
+ * the manager's own work and not H2. Methods without an answer throw.
+ */
+final class RepositoryStub {
+
+    private RepositoryStub() {}
+
+    @SuppressWarnings("unchecked")
+    static <T> T of(Class<T> repository, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] {repository}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "toString": return repository.getSimpleName() + " stub";
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                default:
+            }
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) throw new UnsupportedOperationException(method.getName());
+            return answer.apply(args);
+        });
+    }
+}
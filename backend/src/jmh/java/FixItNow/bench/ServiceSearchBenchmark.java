@@ -0,0 +1,92 @@
+package FixItNow.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.manager.ServiceSearchIndex;
+import FixItNow.model.ServiceSearchHit;
+import FixItNow.repository.ServicesRepository;
+
+/**
+ * GET /service/search without the database. rare hits a handful of services, common matches one
+ * category in ten, and prefix expands the last word over every term starting with "ins".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceSearchBenchmark {
+
+    private static final String[][] CATEGORIES = {
+            {"Plumbing", "Leak repair", "Tap installation", "Drain cleaning"},
+            {"Electrical", "Fan installation", "Wiring", "Switchboard repair"},
+            {"Cleaning", "Deep cleaning", "Sofa shampoo", "Bathroom cleaning"},
+            {"Carpentry", "Furniture assembly", "Door repair", "Modular kitchen"},
+            {"Painting", "Wall painting", "Texture finish", "Waterproofing"},
+            {"Appliance Repair", "AC service", "Washing machine repair", "Refrigerator repair"},
+            {"Pest Control", "Termite treatment", "Cockroach control", "Bed bugs"},
+            {"Gardening", "Lawn mowing", "Hedge trimming", "Plant care"},
+            {"Beauty", "Haircut at home", "Facial", "Manicure"},
+            {"Moving", "Packing", "Local shifting", "Vehicle transport"}};
+    private static final String[] CITIES = {"Bengaluru", "Hyderabad", "Chennai", "Pune", "Mumbai", "Delhi", "Kochi", "Jaipur"};
+
+    @Param({"100000"})
+    int services;
+
+    private ServiceSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        List<Object[]> rows = new ArrayList<>(services);
+        for (int i = 0; i < services; i++) {
+            String[] c = CATEGORIES[i % CATEGORIES.length];
+            String city = CITIES[rnd.nextInt(CITIES.length)];
+            String sub = "{\"" + c[1] + "\":" + (200 + rnd.nextInt(20) * 50) + ",\"" + c[2] + "\":400,\"" + c[3] + "\":650}";
+            // a few services carry a rare word so the selective query has something to find
+            String extra = i % 20_000 == 0 ? " Specialist in heritage restoration." : "";
+            String description = c[0] + " professionals serving " + city + " with " + (1 + rnd.nextInt(15))
+                    + " years of experience." + extra;
+            rows.add(new Object[] {"S" + i, "U" + i, c[0], sub, description});
+        }
+        index = new ServiceSearchIndex();
+        ReflectionTestUtils.setField(index, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(index, "sr", RepositoryStub.of(ServicesRepository.class, Map.of(
+                "findSearchFields", args -> rows)));
+        index.rebuild();
+    }
+
+    @Benchmark
+    public List<ServiceSearchHit> rare() {
+        return index.search("heritage restoration", 20);
+    }
+
+    @Benchmark
+    public List<ServiceSearchHit> common() {
+        return index.search("leak repair pune", 20);
+    }
+
+    @Benchmark
+    public List<ServiceSearchHit> prefix() {
+        return index.search("fan ins", 20);
+    }
+}
@@ -0,0 +1,108 @@
+package FixItNow.bench;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import FixItNow.websocket.WebSocketSessionRegistry;
+
+/**
+ * WebSocketSessionRegistry under contention, on top of 10k sessions of 5k users already online:
+ * connectDisconnect has 8 threads registering and removing sessions of random users; the
+ * "presence" group runs 4 such churn threads next to 4 threads doing the isOnline checks that
+ * every chat send and conversation push performs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionRegistryBenchmark {
+
+    private static final int USERS = 5_000;
+
+    private WebSocketSessionRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = new WebSocketSessionRegistry();
+        for (int i = 0; i < USERS * 2; i++) registry.register("U" + (i % USERS), new BenchSession());
+    }
+
+    private void churn() {
+        String user = "U" + ThreadLocalRandom.current().nextInt(USERS);
+        WebSocketSession raw = new BenchSession();
+        registry.register(user, raw);
+        registry.removeBySession(raw);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void connectDisconnect() {
+        churn();
+    }
+
+    @Benchmark
+    @Group("presence")
+    @GroupThreads(4)
+    public void presenceChurn() {
+        churn();
+    }
+
+    @Benchmark
+    @Group("presence")
+    @GroupThreads(4)
+    public boolean presenceLookup() {
+        return registry.isOnline("U" + ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    /** The least a session has to do for the registry: an id and an open flag. */
+    static final class BenchSession implements WebSocketSession {
+        private static final AtomicInteger IDS = new AtomicInteger();
+        private final String id = Integer.toString(IDS.incrementAndGet());
+
+        @Override public String getId() { return id; }
+        @Override public URI getUri() { return null; }
+        @Override public HttpHeaders getHandshakeHeaders() { return HttpHeaders.EMPTY; }
+        @Override public Map<String, Object> getAttributes() { return new ConcurrentHashMap<>(); }
+        @Override public Principal getPrincipal() { return null; }
+        @Override public InetSocketAddress getLocalAddress() { return null; }
+        @Override public InetSocketAddress getRemoteAddress() { return null; }
+        @Override public String getAcceptedProtocol() { return null; }
+        @Override public void setTextMessageSizeLimit(int messageSizeLimit) {}
+        @Override public int getTextMessageSizeLimit() { return 0; }
+        @Override public void setBinaryMessageSizeLimit(int messageSizeLimit) {}
+        @Override public int getBinaryMessageSizeLimit() { return 0; }
+        @Override public List<WebSocketExtension> getExtensions() { return List.of(); }
+        @Override public boolean isOpen() { return true; }
+        @Override public void sendMessage(WebSocketMessage<?> message) {}
+        @Override public void close() {}
+        @Override public void close(CloseStatus status) {}
+    }
+}
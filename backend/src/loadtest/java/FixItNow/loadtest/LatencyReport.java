@@ -0,0 +1,139 @@
+package FixItNow.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency per endpoint in microseconds (HdrHistogram, 3 significant digits, up to one minute)
+ * plus an error count. Nothing is recorded until start() so warm-up traffic stays out.
+ * write() emits summary.tsv (one line per endpoint, sorted, fixed formatting, so two runs diff
+ * cleanly) and one percentile distribution (.hgrm, in milliseconds) per endpoint.
+ */
+final class LatencyReport {
+
+    static final String HEADER = "endpoint\trequests\terrors\tthroughput_rps\tp50_ms\tp95_ms\tp99_ms\tmax_ms";
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private volatile long startedAt;
+    private volatile long stoppedAt;
+
+    void start() {
+        startedAt = System.nanoTime();
+    }
+
+    void stop() {
+        stoppedAt = System.nanoTime();
+    }
+
+    boolean recording() {
+        return startedAt != 0 && stoppedAt == 0;
+    }
+
+    void record(String endpoint, long startNanos, boolean ok) {
+        if (!recording()) return;
+        long micros = Math.min(MAX_MICROS, Math.max(1, (System.nanoTime() - startNanos) / 1000));
+        latencies.computeIfAbsent(endpoint, k -> new ConcurrentHistogram(MAX_MICROS, 3)).recordValue(micros);
+        if (!ok) errors.computeIfAbsent(endpoint, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /** endpoint -> [requests, errors, throughput, p50, p95, p99, max], sorted by endpoint. */
+    Map<String, double[]> rows() {
+        double seconds = (stoppedAt - startedAt) / 1e9;
+        Map<String, double[]> out = new TreeMap<>();
+        latencies.forEach((endpoint, h) -> {
+            AtomicLong e = errors.get(endpoint);
+            out.put(endpoint, new double[] {h.getTotalCount(), e == null ? 0 : e.get(), h.getTotalCount() / seconds,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(95)), ms(h.getValueAtPercentile(99)),
+                    ms(h.getMaxValue())});
+        });
+        return out;
+    }
+
+    void write(Path dir, List<String> settings) throws IOException {
+        Files.createDirectories(dir);
+        List<String> lines = new ArrayList<>();
+        for (String s : settings) lines.add("# " + s);
+        lines.add(HEADER);
+        rows().forEach((endpoint, r) -> lines.add(line(endpoint, r)));
+        Files.write(dir.resolve("summary.tsv"), lines);
+        for (Map.Entry<String, Histogram> e : latencies.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(fileName(e.getKey()) + ".hgrm")))) {
+                e.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-28s %9s %7s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        rows().forEach((endpoint, r) -> out.printf(Locale.ROOT, "%-28s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, (long) r[0], (long) r[1], r[2], r[3], r[4], r[5], r[6]));
+    }
+
+    /**
+     * Print p50/p99 against a previous summary.tsv. Returns the endpoints whose p99 grew by more
+     * than maxRegression (0.25 = 25%).
+     */
+    List<String> compare(Path baseline, double maxRegression, PrintStream out) throws IOException {
+        Map<String, double[]> before = parse(Files.readAllLines(baseline));
+        List<String> regressed = new ArrayList<>();
+        out.printf("%-28s %21s %21s%n", "vs " + baseline, "p50 ms (change)", "p99 ms (change)");
+        rows().forEach((endpoint, now) -> {
+            double[] was = before.get(endpoint);
+            if (was == null) {
+                out.printf("%-28s %21s%n", endpoint, "new");
+                return;
+            }
+            double p50 = change(was[3], now[3]);
+            double p99 = change(was[5], now[5]);
+            out.printf(Locale.ROOT, "%-28s %9.2f (%+8.1f%%) %9.2f (%+8.1f%%)%n", endpoint, now[3], p50 * 100, now[5], p99 * 100);
+            if (p99 > maxRegression) regressed.add(endpoint);
+        });
+        return regressed;
+    }
+
+    static Map<String, double[]> parse(List<String> summaryLines) {
+        Map<String, double[]> out = new LinkedHashMap<>();
+        for (String line : summaryLines) {
+            if (line.startsWith("#") || line.equals(HEADER) || line.isBlank()) continue;
+            String[] f = line.split("\t");
+            double[] r = new double[f.length - 1];
+            for (int i = 1; i < f.length; i++) r[i - 1] = Double.parseDouble(f[i]);
+            out.put(f[0], r);
+        }
+        return out;
+    }
+
+    private static String line(String endpoint, double[] r) {
+        return String.format(Locale.ROOT, "%s\t%d\t%d\t%.1f\t%.3f\t%.3f\t%.3f\t%.3f",
+                endpoint, (long) r[0], (long) r[1], r[2], r[3], r[4], r[5], r[6]);
+    }
+
+    private static double change(double was, double now) {
+        return was <= 0 ? 0 : (now - was) / was;
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String fileName(String endpoint) {
+        return endpoint.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+    }
+}
@@ -0,0 +1,343 @@
+package FixItNow.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.FixItNowApplication;
+import FixItNow.SyntheticDataSeeder;
+
+/**
+ * End-to-end load test: boots the app on the seeded H2 profile (or targets base-url), signs in a
+ * pool of seeded users, then drives a weighted HTTP mix from `users` threads and chat round trips
+ * over /ws/chat from `ws-clients` sockets. Latency is recorded per endpoint after the warm-up and
+ * written to `out` as summary.tsv plus one .hgrm per endpoint; with `baseline` the p50/p99 are
+ * compared against an earlier summary.tsv and the run fails if a p99 grew past max-regression.
+ *
+ * Options are key=value: base-url, profiles (test,seed), users (64), ws-clients (32), warmup (10 s),
+ * duration (60 s), pool (200 signed-in users per role), out (target/loadtest), baseline,
+ * max-regression (0.25), random-seed (7). Keys starting with app. or spring. are handed to the
+ * booted app, e.g. app.seed.customers=20000.
+ *
+ * Every worker waits for its response before sending the next request (closed loop), so when the
+ * server stalls fewer requests are issued and the tail is understated; compare runs with the same
+ * users/duration rather than reading the numbers as absolute service levels.
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+    static {
+        DEFAULTS.put("base-url", "");
+        DEFAULTS.put("profiles", "test,seed");
+        DEFAULTS.put("users", "64");
+        DEFAULTS.put("ws-clients", "32");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("duration", "60");
+        DEFAULTS.put("pool", "200");
+        DEFAULTS.put("out", "target/loadtest");
+        DEFAULTS.put("baseline", "");
+        DEFAULTS.put("max-regression", "0.25");
+        DEFAULTS.put("random-seed", "7");
+    }
+
+    // smaller than the seed profile's defaults so a run boots in well under a minute; SQL echo
+    // to the console would otherwise dominate the latencies
+    private static final Map<String, String> APP_DEFAULTS = Map.of(
+            "spring.jpa.show-sql", "false",
+            "app.seed.customers", "5000",
+            "app.seed.providers", "500",
+            "app.seed.bookings-per-provider", "20",
+            "app.seed.conversations", "5000",
+            "app.seed.messages", "100000");
+
+    // weighted request mix, summing to 100
+    private static final String[] MIX = {"POST /users/signin", "GET /users/providers", "POST /bookings/create",
+            "GET /bookings/provider/me", "GET /api/chat/history"};
+    private static final int[] WEIGHTS = {10, 25, 10, 25, 30};
+
+    private static final String WS = "WS /ws/chat round trip";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private record Account(String email, String role, String id, String token, List<String> peers) {}
+
+    private final Map<String, String> opts;
+    private final LatencyReport report = new LatencyReport();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(TIMEOUT)
+            .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    private String baseUrl;
+    private volatile boolean running = true;
+
+    private LoadTest(Map<String, String> opts) {
+        this.opts = opts;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new LinkedHashMap<>(DEFAULTS);
+        Map<String, String> appProps = new TreeMap<>(APP_DEFAULTS);
+        for (String a : args) {
+            int eq = a.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("expected key=value: " + a);
+            String key = a.substring(0, eq), value = a.substring(eq + 1);
+            if (key.startsWith("app.") || key.startsWith("spring.")) appProps.put(key, value);
+            else if (DEFAULTS.containsKey(key)) opts.put(key, value);
+            else throw new IllegalArgumentException("unknown option " + key + ", known: " + DEFAULTS.keySet());
+        }
+        System.exit(new LoadTest(opts).run(appProps));
+    }
+
+    private int run(Map<String, String> appProps) throws Exception {
+        ConfigurableApplicationContext app = null;
+        baseUrl = opts.get("base-url");
+        if (baseUrl.isEmpty()) {
+            List<String> appArgs = new ArrayList<>();
+            appProps.forEach((k, v) -> appArgs.add("--" + k + "=" + v));
+            // devtools would relaunch main() with the Spring arguments in a restart class loader
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            System.out.println("booting the app with profiles " + opts.get("profiles") + " " + appArgs);
+            app = new SpringApplicationBuilder(FixItNowApplication.class)
+                    .profiles(opts.get("profiles").split(","))
+                    .properties("server.port=0", "logging.level.root=WARN")
+                    .run(appArgs.toArray(String[]::new));
+            baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            return drive(appProps);
+        } finally {
+            if (app != null) app.close();
+        }
+    }
+
+    private int drive(Map<String, String> appProps) throws Exception {
+        int pool = intOpt("pool");
+        List<Account> customers = signIn("c", "CUSTOMER", pool);
+        List<Account> providers = signIn("p", "PROVIDER", pool);
+        if (customers.isEmpty() || providers.isEmpty()) {
+            System.err.println("no seeded users answered at " + baseUrl + "; run with the seed profile");
+            return 2;
+        }
+        List<Account> chatters = new ArrayList<>();
+        for (Account a : customers) if (!a.peers().isEmpty()) chatters.add(a);
+        for (Account a : providers) if (!a.peers().isEmpty()) chatters.add(a);
+        System.out.printf("signed in %d customers, %d providers, %d with conversations%n",
+                customers.size(), providers.size(), chatters.size());
+
+        long seed = Long.parseLong(opts.get("random-seed"));
+        int users = intOpt("users"), sockets = chatters.isEmpty() ? 0 : intOpt("ws-clients");
+        ExecutorService workers = Executors.newFixedThreadPool(users + sockets);
+        for (int i = 0; i < users; i++) {
+            SplittableRandom rnd = new SplittableRandom(seed * 31 + i);
+            workers.submit(() -> httpLoop(rnd, customers, providers, chatters));
+        }
+        for (int i = 0; i < sockets; i++) {
+            SplittableRandom rnd = new SplittableRandom(seed * 31 + users + i);
+            Account self = chatters.get(i % chatters.size());
+            workers.submit(() -> socketLoop(rnd, self));
+        }
+
+        TimeUnit.SECONDS.sleep(intOpt("warmup"));
+        report.start();
+        System.out.printf("warm-up done, measuring for %d s%n", intOpt("duration"));
+        TimeUnit.SECONDS.sleep(intOpt("duration"));
+        report.stop();
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(TIMEOUT.toSeconds() * 2, TimeUnit.SECONDS);
+
+        List<String> settings = new ArrayList<>();
+        opts.forEach((k, v) -> {
+            if (!k.equals("out") && !k.equals("baseline")) settings.add(k + "=" + v);
+        });
+        if (opts.get("base-url").isEmpty()) appProps.forEach((k, v) -> settings.add(k + "=" + v));
+        Path out = Path.of(opts.get("out"));
+        report.write(out, settings);
+        report.print(System.out);
+        System.out.println("wrote " + out.resolve("summary.tsv"));
+
+        if (opts.get("baseline").isEmpty()) return 0;
+        List<String> regressed = report.compare(Path.of(opts.get("baseline")),
+                Double.parseDouble(opts.get("max-regression")), System.out);
+        if (regressed.isEmpty()) return 0;
+        System.err.println("p99 regressed beyond " + opts.get("max-regression") + ": " + regressed);
+        return 1;
+    }
+
+    // setup traffic, not measured
+    private List<Account> signIn(String prefix, String role, int n) throws Exception {
+        List<Account> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            String email = prefix + i + SyntheticDataSeeder.EMAIL_DOMAIN;
+            HttpResponse<String> r = send(post("/users/signin", signInBody(email, role), null));
+            if (r.statusCode() != 200) break;
+            String token = JSON.readTree(r.body()).path("token").asText();
+            String id = JSON.readTree(send(get("/users/me", token)).body()).path("id").asText();
+            List<String> peers = new ArrayList<>();
+            for (JsonNode c : JSON.readTree(send(get("/api/chat/conversations?userId=" + id, token)).body())) {
+                peers.add(c.path("peerId").asText());
+            }
+            out.add(new Account(email, role, id, token, peers));
+        }
+        return out;
+    }
+
+    private void httpLoop(SplittableRandom rnd, List<Account> customers, List<Account> providers, List<Account> chatters) {
+        while (running) {
+            int pick = rnd.nextInt(100), i = 0;
+            while (pick >= WEIGHTS[i]) pick -= WEIGHTS[i++];
+            String endpoint = MIX[i];
+            HttpRequest request = switch (i) {
+                case 0 -> {
+                    Account a = rnd.nextBoolean() ? any(rnd, customers) : any(rnd, providers);
+                    yield post("/users/signin", signInBody(a.email(), a.role()), null);
+                }
+                case 1 -> get("/users/providers", any(rnd, customers).token());
+                case 2 -> post("/bookings/create", bookingBody(rnd, any(rnd, providers)), any(rnd, customers).token());
+                case 3 -> get("/bookings/provider/me", any(rnd, providers).token());
+                default -> {
+                    Account a = chatters.isEmpty() ? any(rnd, customers) : any(rnd, chatters);
+                    String peer = a.peers().isEmpty() ? a.id() : a.peers().get(rnd.nextInt(a.peers().size()));
+                    yield get("/api/chat/history?userA=" + a.id() + "&userB=" + peer + "&limit=50", a.token());
+                }
+            };
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                int status = send(request).statusCode();
+                // a slot someone else already took is a normal answer under load
+                ok = status < 400 || (i == 2 && status == 409);
+            } catch (Exception e) {
+                ok = false;
+            }
+            report.record(endpoint, start, ok);
+        }
+    }
+
+    private void socketLoop(SplittableRandom rnd, Account self) {
+        Map<String, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+        AtomicLong ids = new AtomicLong();
+        WebSocket socket;
+        try {
+            socket = http.newWebSocketBuilder().connectTimeout(TIMEOUT)
+                    .buildAsync(URI.create(baseUrl.replaceFirst("^http", "ws") + "/ws/chat?token=" + self.token()),
+                            new Replies(pending))
+                    .get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("socket for " + self.email() + " failed to connect: " + e);
+            return;
+        }
+        while (running) {
+            String tempId = self.id() + "-" + ids.incrementAndGet();
+            String peer = self.peers().get(rnd.nextInt(self.peers().size()));
+            CompletableFuture<JsonNode> reply = new CompletableFuture<>();
+            pending.put(tempId, reply);
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                socket.sendText(JSON.createObjectNode().put("to", peer).put("content", "load " + tempId)
+                        .put("tempId", tempId).toString(), true).join();
+                ok = !reply.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS).path("system").asBoolean(false);
+            } catch (TimeoutException e) {
+                ok = false;
+            } catch (Exception e) {
+                ok = false;
+            } finally {
+                pending.remove(tempId);
+            }
+            report.record(WS, start, ok);
+            if (socket.isInputClosed()) {
+                if (running) System.err.println("socket for " + self.email() + " closed by the server");
+                return;
+            }
+        }
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+    }
+
+    /** Completes the pending send whose tempId the echo or error frame carries. */
+    private static final class Replies implements WebSocket.Listener {
+        private final Map<String, CompletableFuture<JsonNode>> pending;
+        private final StringBuilder partial = new StringBuilder();
+
+        Replies(Map<String, CompletableFuture<JsonNode>> pending) {
+            this.pending = pending;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                try {
+                    JsonNode frame = JSON.readTree(partial.toString());
+                    CompletableFuture<JsonNode> f = pending.get(frame.path("tempId").asText(""));
+                    if (f != null) f.complete(frame);
+                } catch (Exception ignored) {
+                    // frames without JSON or tempId (messages from peers) are not ours to time
+                }
+                partial.setLength(0);
+            }
+            ws.request(1);
+            return null;
+        }
+    }
+
+    private static <T> T any(SplittableRandom rnd, List<T> list) {
+        return list.get(rnd.nextInt(list.size()));
+    }
+
+    private static String signInBody(String email, String role) {
+        return JSON.createObjectNode().put("email", email).put("password", SyntheticDataSeeder.PASSWORD)
+                .put("role", role).toString();
+    }
+
+    // seeded availability always covers 10:00 to 15:00
+    private static String bookingBody(SplittableRandom rnd, Account provider) {
+        String slot = String.format("%02d:%s", 10 + rnd.nextInt(5), rnd.nextBoolean() ? "00" : "30");
+        return "{\"providerId\":\"" + provider.id() + "\",\"bookingDate\":\"" + LocalDate.now().plusDays(1 + rnd.nextInt(13))
+                + "\",\"timeSlot\":\"" + slot + "\",\"bookedServices\":{\"Inspection\":1}}";
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + token).GET().build();
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b.build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int intOpt(String key) {
+        return Integer.parseInt(opts.get(key));
+    }
+}
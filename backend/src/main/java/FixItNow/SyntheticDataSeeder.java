@@ -0,0 +1,414 @@
+package FixItNow;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import FixItNow.manager.AnalyticsManager;
+import FixItNow.manager.AvailabilityIndex;
+import FixItNow.manager.IdAllocator;
+import FixItNow.manager.ProviderFacetIndex;
+import FixItNow.manager.ProviderRatingManager;
+import FixItNow.manager.ServiceSearchIndex;
+import FixItNow.manager.SlotCalendar;
+import FixItNow.manager.UserLocationHeatmap;
+import FixItNow.manager.WeeklySchedule;
+import FixItNow.model.BookedServiceJson;
+import FixItNow.model.Conversation;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ReviewsRepository;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+/**
+ * Synthetic load-test data (profile "seed"): customers, providers with a service each, bookings
+ * spread over past and upcoming days, reviews and reports on them, and chat conversations with
+ * their messages. Volumes come from app.seed.*. Every table draws from its own random stream
+ * derived from app.seed.random-seed, so the same settings always produce the same data shape.
+ * Rows go in through batched JDBC inserts, batch-size rows per statement batch and transaction.
+ * Ids are reserved from IdAllocator, so the app keeps allocating after the seeded ranges.
+ * Seeded users have emails @seed.fixitnow.test; if c0 exists the run is skipped.
+ */
+@Component
+@Profile("seed")
+public class SyntheticDataSeeder implements CommandLineRunner {
+
+    public static final String EMAIL_DOMAIN = "@seed.fixitnow.test";
+    public static final String PASSWORD = "password123";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private IdAllocator ids;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ReviewsRepository reviewsRepository;
+    @Autowired
+    private ProviderRatingManager ratings;
+    @Autowired
+    private AnalyticsManager analytics;
+    @Autowired
+    private UserLocationHeatmap heatmap;
+    @Autowired
+    private ServiceSearchIndex search;
+    @Autowired
+    private ProviderFacetIndex facets;
+    @Autowired
+    private AvailabilityIndex availability;
+
+    @Value("${app.seed.customers:20000}")
+    private int customers = 20000;
+    @Value("${app.seed.providers:2000}")
+    private int providers = 2000;
+    @Value("${app.seed.bookings-per-provider:40}")
+    private int bookingsPerProvider = 40;
+    // share of completed bookings that get a review
+    @Value("${app.seed.review-ratio:0.6}")
+    private double reviewRatio = 0.6;
+    @Value("${app.seed.reports:1000}")
+    private int reports = 1000;
+    @Value("${app.seed.conversations:20000}")
+    private int conversations = 20000;
+    @Value("${app.seed.messages:1000000}")
+    private long messages = 1000000;
+    // bookings are spread from past-days ago to the end of the booking horizon
+    @Value("${app.seed.past-days:180}")
+    private int pastDays = 180;
+    @Value("${app.booking.horizon-days:14}")
+    private int horizonDays = 14;
+    @Value("${app.seed.random-seed:42}")
+    private long seed = 42;
+    @Value("${app.seed.batch-size:1000}")
+    private int batchSize = 1000;
+
+    private static final String[] FIRST = {"Aarav", "Priya", "Rahul", "Ananya", "Vikram", "Sneha", "Arjun", "Kavya",
+            "Rohan", "Meera", "Karan", "Divya", "Aditya", "Pooja", "Nikhil", "Isha", "Siddharth", "Neha", "Varun", "Riya"};
+    private static final String[] LAST = {"Sharma", "Iyer", "Reddy", "Patel", "Nair", "Gupta", "Rao", "Das", "Menon",
+            "Singh", "Kumar", "Joshi", "Pillai", "Bose", "Verma"};
+    // city, latitude, longitude
+    private static final Object[][] CITIES = {
+            {"Hyderabad", 17.385, 78.4867}, {"Bengaluru", 12.9716, 77.5946}, {"Chennai", 13.0827, 80.2707},
+            {"Mumbai", 19.076, 72.8777}, {"Pune", 18.5204, 73.8567}, {"Delhi", 28.6139, 77.209},
+            {"Kolkata", 22.5726, 88.3639}, {"Visakhapatnam", 17.6868, 83.2185}};
+    private static final String[] CATEGORIES = {"Plumbing", "Electrical", "Cleaning", "Carpentry", "Painting",
+            "Appliance Repair", "Pest Control", "Gardening"};
+    private static final String[][] SUBCATEGORIES = {
+            {"Leak repair", "Tap installation", "Drain cleaning", "Water tank cleaning"},
+            {"Wiring", "Fan installation", "Switchboard repair", "Inverter setup"},
+            {"Home deep cleaning", "Sofa cleaning", "Kitchen cleaning", "Bathroom cleaning"},
+            {"Furniture repair", "Door fitting", "Cabinet making", "Bed assembly"},
+            {"Interior painting", "Exterior painting", "Texture painting", "Waterproofing"},
+            {"AC service", "Washing machine repair", "Refrigerator repair", "Microwave repair"},
+            {"Termite control", "Cockroach control", "Bed bug treatment", "Mosquito control"},
+            {"Lawn mowing", "Hedge trimming", "Plant care", "Garden design"}};
+    private static final String[] PHRASES = {"Hi, are you available tomorrow?", "Yes, I can come at 10.",
+            "What is the charge for this?", "Please bring the spare parts.", "On my way.", "Reached your gate.",
+            "Thanks, the work is done.", "Can we reschedule to the evening?", "Sure, see you then.",
+            "Please share the exact address.", "Payment done, thank you!", "The issue is back again."};
+    private static final String[] COMMENTS = {"Great work, very professional.", "Arrived on time and fixed it quickly.",
+            "Okay service, a bit expensive.", "Did not finish the job properly.", "Excellent, will book again.",
+            "Polite and clean work."};
+    private static final String[] REASONS = {"Provider did not show up.", "Overcharged compared to the quote.",
+            "Work quality was poor.", "Rude behaviour.", "Charged twice for one booking."};
+    // rating 1..5 weights (skewed positive like real reviews)
+    private static final int[] RATING_WEIGHTS = {5, 7, 15, 33, 40};
+
+    private final LocalDateTime started = LocalDate.now().atStartOfDay();
+
+    @Override
+    public void run(String... args) {
+        Integer seeded = jdbc.queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, "c0" + EMAIL_DOMAIN);
+        if (seeded != null && seeded > 0) {
+            System.out.println("Synthetic data already present - skipping seed.");
+            return;
+        }
+        long t0 = System.nanoTime();
+        seed();
+        System.out.printf("Synthetic data seeded in %.1f s%n", (System.nanoTime() - t0) / 1e9);
+    }
+
+    /** Per-provider facts later tables need. */
+    private static final class Provider {
+        String userId;
+        String serviceId;
+        int category;
+        int fromHour;
+        int toHour;
+        String city;
+    }
+
+    public void seed() {
+        long userBase = ids.reserveRange("U", customers + providers, usersRepository::findIdsHighestFirst);
+        String[] customerIds = new String[customers];
+        for (int i = 0; i < customers; i++) customerIds[i] = "U" + (userBase + i);
+        Provider[] provs = new Provider[providers];
+
+        seedUsers(customerIds, provs, userBase);
+        seedServices(provs);
+        seedBookings(customerIds, provs);
+        seedConversations(customerIds, provs);
+        ratings.rebuild();
+        analytics.rebuild();
+        heatmap.rebuild();
+        search.rebuild();
+        facets.rebuild();
+        availability.rebuild();
+    }
+
+    private void seedUsers(String[] customerIds, Provider[] provs, long userBase) {
+        SplittableRandom rnd = stream(1);
+        try (Batch b = new Batch("INSERT INTO users (user_id, name, email, role, password, phno, location, latitude, longitude, created_on) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < customers + providers; i++) {
+                boolean customer = i < customers;
+                Object[] city = CITIES[rnd.nextInt(CITIES.length)];
+                String id = "U" + (userBase + i);
+                String email = customer ? "c" + i + EMAIL_DOMAIN : "p" + (i - customers) + EMAIL_DOMAIN;
+                double lat = (Double) city[1] + (rnd.nextDouble() - 0.5) * 0.3;
+                double lon = (Double) city[2] + (rnd.nextDouble() - 0.5) * 0.3;
+                b.add(id, FIRST[rnd.nextInt(FIRST.length)] + " " + LAST[rnd.nextInt(LAST.length)], email,
+                        customer ? "CUSTOMER" : "PROVIDER", PASSWORD, "9" + (100000000 + rnd.nextInt(900000000)),
+                        city[0], lat, lon, ts(started.minusMinutes(rnd.nextInt(365 * 24 * 60))));
+                if (!customer) {
+                    Provider p = new Provider();
+                    p.userId = id;
+                    p.city = (String) city[0];
+                    provs[i - customers] = p;
+                }
+            }
+        }
+    }
+
+    private void seedServices(Provider[] provs) {
+        if (provs.length == 0) return;
+        SplittableRandom rnd = stream(2);
+        long base = ids.reserveRange("S", provs.length, servicesRepository::findIdsHighestFirst);
+        try (Batch b = new Batch("INSERT INTO services (service_id, provider_id, category, verified, subcategory, description, "
+                + "availability, weekly_schedule) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int j = 0; j < provs.length; j++) {
+                Provider p = provs[j];
+                p.serviceId = "S" + (base + j);
+                p.category = rnd.nextInt(CATEGORIES.length);
+                p.fromHour = 8 + rnd.nextInt(3);
+                p.toHour = 17 + rnd.nextInt(3);
+                Map<String, Integer> prices = new LinkedHashMap<>();
+                for (String sub : SUBCATEGORIES[p.category]) prices.put(sub, 100 * (2 + rnd.nextInt(15)));
+                int v = rnd.nextInt(100);
+                String verified = v < 80 ? "APPROVED" : v < 95 ? "PENDING" : "REJECTED";
+                String availability = "{\"from\":\"" + p.fromHour + ":00 am\",\"to\":\"" + (p.toHour - 12) + ":00 pm\"}";
+                b.add(p.serviceId, p.userId, CATEGORIES[p.category], verified, BookedServiceJson.canonicalize(prices),
+                        CATEGORIES[p.category] + " services in " + p.city, availability, WeeklySchedule.decode(availability).toBytes());
+            }
+        }
+    }
+
+    private void seedBookings(String[] customerIds, Provider[] provs) {
+        if (provs.length == 0 || customerIds.length == 0 || bookingsPerProvider <= 0) return;
+        SplittableRandom rnd = stream(3);
+        SplittableRandom reviewRnd = stream(4);
+        SplittableRandom reportRnd = stream(5);
+        LocalDate today = started.toLocalDate();
+        LocalDate first = today.minusDays(pastDays);
+        int days = pastDays + horizonDays;
+        long total = (long) provs.length * bookingsPerProvider;
+        long bookingBase = ids.reserveRange("B", total, bookingRepository::findIdsHighestFirst);
+        double reportChance = Math.min(1.0, reports / (double) total);
+        long n = 0;
+
+        try (Batch bookings = new Batch("INSERT INTO bookings (booking_id, service_id, customer_id, provider_id, booked_service, "
+                + "booked_service_items, booking_date, time_slot, slot_hold, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch reviews = new Batch("INSERT INTO reviews (reviews_id, booking_id, customer_id, provider_id, rating, comment, created_at) "
+                     + "VALUES (?, ?, ?, ?, ?, ?, ?)", "R", reviewsRepository::findIdsHighestFirst).after(bookings);
+             Batch reps = new Batch("INSERT INTO reports (reported_on, reported_by, reason, reply, status, category, booking_id, created_at) "
+                     + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)").after(bookings)) {
+            for (Provider p : provs) {
+                // the provider's bookable starts, as SlotCalendar derives them from the availability
+                List<String> slots = new ArrayList<>();
+                for (int t = p.fromHour * 60; t <= p.toHour * 60 - 120; t += 30) {
+                    slots.add(SlotCalendar.format(LocalTime.of(t / 60, t % 60)));
+                }
+                // walk the (day, slot) grid in random strides so no two bookings share a slot
+                long space = (long) days * slots.size();
+                int count = (int) Math.min(bookingsPerProvider, space);
+                long maxStride = Math.max(1, 2 * space / count);
+                long cell = -1;
+                for (int k = 0; k < count; k++, n++) {
+                    // never stride so far that the remaining bookings no longer fit
+                    long slack = space - cell - 1 - (count - k - 1);
+                    cell += 1 + rnd.nextLong(Math.max(1, Math.min(maxStride, slack)));
+                    LocalDate date = first.plusDays(cell / slots.size());
+                    String slot = slots.get((int) (cell % slots.size()));
+                    String customer = customerIds[rnd.nextInt(customerIds.length)];
+                    String status = status(rnd, date.isBefore(today));
+                    String[] subs = SUBCATEGORIES[p.category];
+                    String booked = "{\"" + subs[rnd.nextInt(subs.length)] + "\":" + 100 * (2 + rnd.nextInt(15)) + "}";
+                    LocalDateTime createdAt = date.atStartOfDay().minusHours(1 + rnd.nextInt(24 * 7));
+                    String bookingId = "B" + (bookingBase + n);
+                    bookings.add(bookingId, p.serviceId, customer, p.userId, booked, booked, date, slot,
+                            status.equals("CANCELLED") ? null : Boolean.TRUE, status, ts(createdAt));
+
+                    if (status.equals("COMPLETED") && reviewRnd.nextDouble() < reviewRatio) {
+                        int rating = weighted(reviewRnd);
+                        reviews.add(null, bookingId, customer, p.userId, rating,
+                                COMMENTS[reviewRnd.nextInt(COMMENTS.length)],
+                                ts(date.atTime(20, 0).plusMinutes(reviewRnd.nextInt(3 * 24 * 60))));
+                    }
+                    if (reportRnd.nextDouble() < reportChance) {
+                        int s = reportRnd.nextInt(3);
+                        String reportStatus = s == 0 ? "PENDING" : s == 1 ? "APPROVED" : "REJECTED";
+                        reps.add(p.userId, customer, REASONS[reportRnd.nextInt(REASONS.length)],
+                                reportStatus.equals("PENDING") ? null : "We have looked into this. Thanks for reporting.",
+                                reportStatus, reportRnd.nextInt(4) == 0 ? "REFUND" : "REPORT", bookingId,
+                                ts(date.atTime(21, 0)));
+                    }
+                }
+            }
+        }
+    }
+
+    private void seedConversations(String[] customerIds, Provider[] provs) {
+        if (conversations <= 0 || messages <= 0 || provs.length == 0 || customerIds.length == 0) return;
+        SplittableRandom rnd = stream(6);
+        int convs = (int) Math.min(conversations, (long) customerIds.length * provs.length);
+        Set<String> pairs = new HashSet<>();
+        long messageNo = 0;
+        try (Batch msgs = new Batch("INSERT INTO messages (message_id, sender_id, receiver_id, content, conversation_id, sent_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)");
+             Batch convRows = new Batch("INSERT INTO conversations (conversation_id, user_a, user_b, last_message_id, last_sender_id, "
+                     + "last_preview, last_at, unread_a, unread_b) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int c = 0; c < convs; c++) {
+                String customer, provider, key;
+                do {
+                    customer = customerIds[rnd.nextInt(customerIds.length)];
+                    provider = provs[rnd.nextInt(provs.length)].userId;
+                    key = Conversation.keyOf(customer, provider);
+                } while (!pairs.add(key));
+
+                long count = messages / convs + (c < messages % convs ? 1 : 0);
+                if (count == 0) continue;
+                LocalDateTime at = started.minusMinutes(rnd.nextInt(pastDays * 24 * 60 + 1));
+                String lastId = null, lastSender = null, lastContent = null;
+                int run = 0;
+                for (long m = 0; m < count; m++) {
+                    // mostly taking turns, sometimes a follow-up from the same side
+                    boolean fromCustomer = m == 0 || lastSender.equals(customer) == (rnd.nextInt(3) == 0);
+                    String sender = fromCustomer ? customer : provider;
+                    String receiver = fromCustomer ? provider : customer;
+                    at = at.plusSeconds(5 + rnd.nextInt(3600));
+                    String id = String.format("M%012x", messageNo++);
+                    String content = PHRASES[rnd.nextInt(PHRASES.length)];
+                    msgs.add(id, sender, receiver, content, key, ts(at));
+                    run = sender.equals(lastSender) ? run + 1 : 1;
+                    lastId = id;
+                    lastSender = sender;
+                    lastContent = content;
+                }
+                // the receiver of the final run has either read it or not
+                String a = customer.compareTo(provider) <= 0 ? customer : provider;
+                String b = a.equals(customer) ? provider : customer;
+                int unread = rnd.nextBoolean() ? run : 0;
+                convRows.add(key, a, b, lastId, lastSender, Conversation.preview(lastContent), ts(at),
+                        lastSender.equals(b) ? unread : 0, lastSender.equals(a) ? unread : 0);
+            }
+        }
+    }
+
+    private static String status(SplittableRandom rnd, boolean past) {
+        int r = rnd.nextInt(100);
+        if (past) return r < 80 ? "COMPLETED" : r < 95 ? "CANCELLED" : "CONFIRMED";
+        return r < 55 ? "PENDING" : r < 80 ? "CONFIRMED" : r < 90 ? "IN_PROGRESS" : "CANCELLED";
+    }
+
+    private static int weighted(SplittableRandom rnd) {
+        int r = rnd.nextInt(100);
+        for (int i = 0; i < RATING_WEIGHTS.length; i++) {
+            r -= RATING_WEIGHTS[i];
+            if (r < 0) return i + 1;
+        }
+        return 5;
+    }
+
+    // one independent stream per table: changing one table's volume leaves the others unchanged
+    private SplittableRandom stream(int table) {
+        return new SplittableRandom(seed * 1_000_003L + table);
+    }
+
+    private static Timestamp ts(LocalDateTime t) {
+        return Timestamp.valueOf(t);
+    }
+
+    /**
+     * Buffers rows for one INSERT and writes them batch-size at a time with JdbcTemplate.batchUpdate,
+     * each batch in its own transaction. With an id prefix, column 1 is filled at flush time from a
+     * range reserved for exactly that batch. A batch whose rows reference another batch's rows
+     * flushes that one first.
+     */
+    private final class Batch implements AutoCloseable {
+        private final String sql;
+        private final String idPrefix;
+        private final IdAllocator.IdSource existingIds;
+        private final List<Object[]> rows = new ArrayList<>(batchSize);
+        private final TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        private Batch parent;
+
+        Batch(String sql) {
+            this(sql, null, null);
+        }
+
+        Batch(String sql, String idPrefix, IdAllocator.IdSource existingIds) {
+            this.sql = sql;
+            this.idPrefix = idPrefix;
+            this.existingIds = existingIds;
+        }
+
+        Batch after(Batch parent) {
+            this.parent = parent;
+            return this;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= batchSize) flush();
+        }
+
+        void flush() {
+            if (rows.isEmpty()) return;
+            if (parent != null) parent.flush();
+            if (idPrefix != null) {
+                long base = ids.reserveRange(idPrefix, rows.size(), existingIds);
+                for (int i = 0; i < rows.size(); i++) rows.get(i)[0] = idPrefix + (base + i);
+            }
+            tx.executeWithoutResult(status -> jdbc.batchUpdate(sql, rows));
+            rows.clear();
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+}
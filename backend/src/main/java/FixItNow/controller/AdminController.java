@@ -0,0 +1,62 @@
+package FixItNow.controller;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import FixItNow.manager.AnalyticsManager;
+import FixItNow.manager.AuthUser;
+import FixItNow.model.AuthPrincipal;
+import FixItNow.model.UserRole;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired
+    private AnalyticsManager analytics;
+
+    // dashboard rollups, e.g. /admin/stats?from=2025-01-01&to=2025-03-31 (default: the last 30 days)
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats(
+            @AuthUser AuthPrincipal user,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+        if (!user.hasRole(UserRole.ADMIN)) return forbidden();
+        try {
+            LocalDate end = to == null || to.isBlank() ? LocalDate.now() : LocalDate.parse(to);
+            LocalDate start = from == null || from.isBlank() ? end.minusDays(29) : LocalDate.parse(from);
+            return ResponseEntity.ok(analytics.stats(start, end));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", "Invalid date. Use yyyy-MM-dd"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", e.getMessage()));
+        }
+    }
+
+    // re-derive the rollups from the base tables now instead of waiting for the nightly run
+    @PostMapping("/stats/reconcile")
+    public ResponseEntity<?> reconcile(@AuthUser AuthPrincipal user) {
+        if (!user.hasRole(UserRole.ADMIN)) return forbidden();
+        int[] result = analytics.rebuild();
+        Map<String, Integer> body = new LinkedHashMap<>();
+        body.put("cells", result[0]);
+        body.put("drifted", result[1]);
+        return ResponseEntity.ok(body);
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Collections.singletonMap("message", "Admin only"));
+    }
+}
@@ -0,0 +1,22 @@
+package FixItNow.controller;
+
+import java.util.Collections;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import FixItNow.manager.UnauthenticatedException;
+
+/** 401 for a required @AuthUser on an unauthenticated request. */
+@RestControllerAdvice
+public class AuthErrorAdvice {
+
+    // same body shape the controllers use for their own 401s
+    @ExceptionHandler(UnauthenticatedException.class)
+    public ResponseEntity<?> unauthenticated(UnauthenticatedException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Collections.singletonMap("message", e.getMessage()));
+    }
+}
@@ -5,10 +5,13 @@ import FixItNow.model.*;
 import FixItNow.repository.BookingRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -22,47 +25,40 @@ public class BookingController {
     @Autowired
     private BookingManager bookingManager;
     
-    @Autowired
-    private UsersManager usersManager;
-    
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+
+    // ?format=ndjson (or Accept: application/x-ndjson) streams every booking
+    @GetMapping(value = "/all", produces = NdjsonExporter.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllBookings() {
+        return ndjsonExporter.stream(bookingRepository::streamAllOrderById, b -> b);
+    }
+
        
     
+    // Without paging parameters the full list is returned as before; ?after=&limit= returns a keyset page
     @GetMapping("/all")
-    public ResponseEntity<List<Booking>> getAllBookings() {
-        List<Booking> bookings = bookingRepository.findAll();
-        return ResponseEntity.ok(bookings);
+    public ResponseEntity<?> getAllBookings(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (after == null && limit == null) {
+            List<Booking> bookings = bookingRepository.findAll();
+            return ResponseEntity.ok(bookings);
+        }
+        int n = KeysetPage.clampLimit(limit);
+        List<Booking> page = bookingRepository.findByIdGreaterThanOrderByIdAsc(after == null ? "" : after, Limit.of(n));
+        return ResponseEntity.ok(KeysetPage.of(page, n, Booking::getId));
     }
     
 
     @PostMapping("/create")
     public ResponseEntity<?> createBooking(
-             @RequestHeader(value = "Authorization", required = false) String authHeader,
+             @AuthUser AuthPrincipal customer,
              @RequestBody Map<String, Object> payload) {
         try {
-            
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Collections.singletonMap("message", "Missing or invalid Authorization header"));
-            }
-            String token = authHeader.substring(7);
-
-            // Validate token
-            String email = usersManager.validateToken(token);
-            if ("401".equals(email)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Collections.singletonMap("message", "Token expired or invalid"));
-            }
-
-            // Get authenticated user (customer)
-            Users customer = usersManager.getUserByEmail(email);
-            if (customer == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Collections.singletonMap("message", "Authenticated user not found"));
-            }
-        
             String providerId = payload.get("providerId") != null ? payload.get("providerId").toString() : null;
             String bookingDate = payload.get("bookingDate") != null ? payload.get("bookingDate").toString() : null;
             String timeSlot = payload.get("timeSlot") != null ? payload.get("timeSlot").toString() : null;
@@ -70,7 +66,7 @@ public class BookingController {
 
             String statusFromPayload = payload.get("status") != null ? payload.get("status").toString() : null;
 
-            String customerId = (customer.getId() != null && !customer.getId().isBlank()) ? customer.getId() : customer.getId();
+            String customerId = customer.userId();
 
             
             Booking created = bookingManager.createBookingFromPayload(providerId, customerId, bookingDate, timeSlot, bookedService);
@@ -92,6 +88,8 @@ public class BookingController {
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(Collections.singletonMap("bookingId", created.getId()));
+        } catch (SlotTakenException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap("message", e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Collections.singletonMap("message", e.getMessage()));
         } catch (Exception e) {
@@ -100,82 +98,47 @@ public class BookingController {
         }
     }
     
-    @GetMapping("/provider/me")
-    public ResponseEntity<?> getBookingsForAuthenticatedProvider(@RequestHeader(value = "Authorization", required = false) String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Collections.singletonMap("message", "Missing or invalid Authorization header"));
+    // next free start times, e.g. /bookings/slots/U3?date=2025-02-01&limit=20 (date defaults to now)
+    @GetMapping("/slots/{providerId}")
+    public ResponseEntity<?> getFreeSlots(
+            @PathVariable String providerId,
+            @RequestParam(value = "date", required = false) String date,
+            @RequestParam(value = "limit", required = false, defaultValue = "10") int limit) {
+        if (limit <= 0 || limit > 200) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", "limit must be between 1 and 200"));
         }
-        String token = authHeader.substring(7);
-
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Collections.singletonMap("message", "Token expired or invalid"));
-        }
-
-        Users provider = usersManager.getUserByEmail(email);
-        if (provider == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Collections.singletonMap("message", "Authenticated provider not found"));
+        LocalDate from = null;
+        if (date != null && !date.isBlank()) {
+            try {
+                from = LocalDate.parse(date);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Collections.singletonMap("message", "Invalid date. Use yyyy-MM-dd"));
+            }
         }
+        return ResponseEntity.ok(bookingManager.nextFreeSlots(providerId, from, limit));
+    }
 
+    @GetMapping("/provider/me")
+    public ResponseEntity<?> getBookingsForAuthenticatedProvider(@AuthUser AuthPrincipal provider) {
         // Fetch and return bookings for provider
-        List<Map<String, Object>> bookings = bookingManager.getBookingsForProvider(provider);
+        List<ProviderBookingView> bookings = bookingManager.getBookingsForProvider(provider.userId());
         return ResponseEntity.ok(bookings);
     }
     
     
     
     @GetMapping("/customer/me")
-    public ResponseEntity<?> getBookingsForAuthenticatedCustomer(@RequestHeader(value = "Authorization", required = false) String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Collections.singletonMap("message", "Missing or invalid Authorization header"));
-        }
-        String token = authHeader.substring(7);
-
-        // Validate token 
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Collections.singletonMap("message", "Token expired or invalid"));
-        }
-
-        Users customer = usersManager.getUserByEmail(email);
-        if (customer == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Collections.singletonMap("message", "Authenticated user not found"));
-        }
-
-        List<Map<String, Object>> bookings = bookingManager.getBookingsForCustomer(customer);
+    public ResponseEntity<?> getBookingsForAuthenticatedCustomer(@AuthUser AuthPrincipal customer) {
+        List<CustomerBookingView> bookings = bookingManager.getBookingsForCustomer(customer.userId());
         return ResponseEntity.ok(bookings);
     }
     
     
     @PostMapping("/status")
     public ResponseEntity<?> updateBookingStatus(
-            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @AuthUser AuthPrincipal authUser,
             @RequestBody Map<String, Object> payload
     ) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Collections.singletonMap("message", "Missing or invalid Authorization header"));
-        }
-        String token = authHeader.substring(7);
-
-        // Validate token
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Collections.singletonMap("message", "Token expired or invalid"));
-        }
-
-        Users authUser = usersManager.getUserByEmail(email);
-        if (authUser == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Collections.singletonMap("message", "Authenticated user not found"));
-        }
 
         String bookingId = payload.get("bookingId") != null ? payload.get("bookingId").toString() : null;
         String status = payload.get("status") != null ? payload.get("status").toString() : null;
@@ -187,7 +150,7 @@ public class BookingController {
             return ResponseEntity.badRequest().body(Collections.singletonMap("message", "status is required"));
         }
 
-        System.out.println("updateBookingStatus called by user=" + authUser.getId() + " bookingId=" + bookingId + " status=" + status);
+        System.out.println("updateBookingStatus called by user=" + authUser.userId() + " bookingId=" + bookingId + " status=" + status);
 
         try {
             // Verify booking exists
@@ -199,7 +162,7 @@ public class BookingController {
             Booking booking = opt.get();
 
             Users provider = booking.getProvider();
-            if (provider == null || !provider.getId().equals(authUser.getId())) {
+            if (provider == null || !provider.getId().equals(authUser.userId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Collections.singletonMap("message", "Not allowed to update this booking"));
             }
@@ -207,6 +170,8 @@ public class BookingController {
             Booking updated = bookingManager.updateBookingStatusByString(bookingId, status);
 
             return ResponseEntity.ok(Collections.singletonMap("message", "Booking status updated"));
+        } catch (SlotTakenException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap("message", e.getMessage()));
         } catch (IllegalArgumentException iae) {
             return ResponseEntity.badRequest().body(Collections.singletonMap("message", iae.getMessage()));
         } catch (Exception e) {
@@ -216,4 +181,25 @@ public class BookingController {
         }
     }
     
-}
\ No newline at end of file
+    // body: [{"bookingId": "B12", "status": "CONFIRMED"}, ...]; one result per item, in order
+    @PostMapping("/status/batch")
+    public ResponseEntity<?> updateBookingStatuses(
+            @AuthUser AuthPrincipal authUser,
+            @RequestBody List<BookingStatusChange> changes) {
+        try {
+            List<BookingStatusResult> results = bookingManager.updateBookingStatuses(
+                    authUser.userId(), authUser.hasRole(UserRole.ADMIN), changes);
+            long updated = results.stream().filter(BookingStatusResult::applied).count();
+            return ResponseEntity.ok(Map.of("updated", updated, "results", results));
+        } catch (SlotTakenException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Collections.singletonMap("message", e.getMessage()));
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", iae.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Collections.singletonMap("message", "Failed to update booking statuses"));
+        }
+    }
+
+}
@@ -1,16 +1,19 @@
 package FixItNow.controller;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import FixItNow.manager.AuthUser;
+import FixItNow.manager.MessageManager;
+import FixItNow.model.AuthPrincipal;
 import FixItNow.model.Message;
 import FixItNow.model.MessageDTO;
 import FixItNow.model.ConversationSummary;
@@ -21,52 +24,47 @@ import FixItNow.repository.MessageRepository;
 public class ChatController {
 
     private final MessageRepository messageRepository;
+    private final MessageManager messageManager;
 
-    public ChatController(MessageRepository messageRepository) {
+    public ChatController(MessageRepository messageRepository, MessageManager messageManager) {
         this.messageRepository = messageRepository;
+        this.messageManager = messageManager;
     }
 
+    // Without paging parameters the full history is returned as before; ?limit= returns the latest page
+    // and ?before=/?after= (a nextCursor) walk older or newer pages, each page oldest first.
     @GetMapping("/api/chat/history")
-    public List<MessageDTO> getHistory(@RequestParam String userA, @RequestParam String userB) {
-        List<Message> msgs = messageRepository.findConversation(userA, userB);
-        return msgs.stream()
-                .map(m -> new MessageDTO(
-                        m.getId(),
-                        m.getSender() != null ? m.getSender().getId() : null,
-                        m.getReceiver() != null ? m.getReceiver().getId() : null,
-                        m.getContent(),
-                        m.getSentAt()))
-                .collect(Collectors.toList());
+    public ResponseEntity<?> getHistory(@RequestParam String userA, @RequestParam String userB,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (before == null && after == null && limit == null) {
+            List<Message> msgs = messageRepository.findConversation(userA, userB);
+            return ResponseEntity.ok(msgs.stream()
+                    .map(m -> new MessageDTO(
+                            m.getId(),
+                            m.getSender() != null ? m.getSender().getId() : null,
+                            m.getReceiver() != null ? m.getReceiver().getId() : null,
+                            m.getContent(),
+                            m.getSentAt()))
+                    .collect(Collectors.toList()));
+        }
+        try {
+            return ResponseEntity.ok(messageManager.getHistoryPage(userA, userB, before, after, limit));
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", iae.getMessage()));
+        }
     }
 
     
     @GetMapping("/api/chat/conversations")
     public List<ConversationSummary> getConversations(@RequestParam String userId) {
-        List<Message> msgs = messageRepository.findBySender_IdOrReceiver_IdOrderBySentAtDesc(userId, userId);
-
-        Map<String, ConversationSummary> map = new LinkedHashMap<>();
-
-        for (Message m : msgs) {
-            String peerId = null;
-            String peerName = null;
-            if (m.getSender() != null && userId.equals(m.getSender().getId())) {
-                if (m.getReceiver() == null) continue;
-                peerId = m.getReceiver().getId();
-                peerName = m.getReceiver().getName();
-            } else if (m.getReceiver() != null && userId.equals(m.getReceiver().getId())) {
-                if (m.getSender() == null) continue;
-                peerId = m.getSender().getId();
-                peerName = m.getSender().getName();
-            }
-
-            if (peerId == null) continue;
-
-            if (!map.containsKey(peerId)) {
-                ConversationSummary s = new ConversationSummary(peerId, peerName, m.getContent(), m.getSentAt());
-                map.put(peerId, s);
-            }
-        }
+        return messageManager.getConversations(userId);
+    }
 
-        return new ArrayList<>(map.values());
+    // called when the signed-in user opens the conversation with peerId
+    @PostMapping("/api/chat/conversations/read")
+    public void markRead(@AuthUser AuthPrincipal me, @RequestParam String peerId) {
+        messageManager.markRead(me.userId(), peerId);
     }
-}
\ No newline at end of file
+}
@@ -4,13 +4,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import FixItNow.model.KeysetPage;
 import FixItNow.model.Report;
 import FixItNow.model.ReportEnum;
-import FixItNow.model.Users;
+import FixItNow.model.AuthPrincipal;
 import FixItNow.repository.ServicesRepository;
+import FixItNow.manager.NdjsonExporter;
 import FixItNow.manager.ReportManager;
-import FixItNow.manager.UsersManager;
+import FixItNow.manager.AuthUser;
 import FixItNow.controller.ReportRequest;
 
 import java.net.URI;
@@ -25,7 +28,7 @@ import java.util.stream.Collectors;
 public class ReportController {
 	
 	 @Autowired
-	 private UsersManager usersManager;
+	 private NdjsonExporter ndjsonExporter;
 
     private final ReportManager reportManager;
 
@@ -71,10 +74,23 @@ public class ReportController {
         }
     }
 
+    // ?format=ndjson (or Accept: application/x-ndjson) streams every report
+    @GetMapping(produces = NdjsonExporter.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return ndjsonExporter.stream(reportManager::streamAll, r -> r);
+    }
+
     
+    // Without paging parameters the full list is returned as before; ?after=&limit= returns a keyset page
     @GetMapping
-    public ResponseEntity<List<Report>> listAll() {
-        return ResponseEntity.ok(reportManager.findAll());
+    public ResponseEntity<?> listAll(
+            @RequestParam(value = "after", required = false) Integer after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(reportManager.findAll());
+        }
+        int n = KeysetPage.clampLimit(limit);
+        return ResponseEntity.ok(KeysetPage.of(reportManager.findPage(after, n), n, Report::getId));
     }
 
    
@@ -84,22 +100,8 @@ public class ReportController {
     }
     
     @GetMapping("/customer")
-    public ResponseEntity<?> getMyReports(@RequestHeader(value = "Authorization", required = false) String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing Authorization header");
-        }
-        String token = authHeader.substring(7);
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token");
-        }
-
-        Users user = usersManager.getUserByEmail(email);
-        if (user == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
-        }
-
-        List<Report> reports = reportManager.findReportsByReporter(user.getId());
+    public ResponseEntity<?> getMyReports(@AuthUser AuthPrincipal user) {
+        List<Report> reports = reportManager.findReportsByReporter(user.userId());
 
         List<ReportRequest> resp = reports.stream()
             .map(r -> {
@@ -128,16 +130,8 @@ public class ReportController {
     public ResponseEntity<?> updateReportStatusAndReply(
             @PathVariable Integer id,
             @RequestBody Map<String, Object> payload,
-            @RequestHeader(value = "Authorization", required = false) String authHeader
+            @AuthUser AuthPrincipal caller
     ) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Missing Authorization header"));
-        }
-        String token = authHeader.substring(7);
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid or expired token"));
-        }
 
         String statusStr = payload.get("status") != null ? String.valueOf(payload.get("status")).trim() : null;
         String reply = payload.containsKey("reply") ? (payload.get("reply") != null ? String.valueOf(payload.get("reply")) : null) : null;
@@ -1,9 +1,12 @@
 package FixItNow.controller;
 
+import FixItNow.manager.AuthUser;
+import FixItNow.manager.ProviderRatingManager;
 import FixItNow.manager.ReviewsManager;
-import FixItNow.manager.UsersManager;
+import FixItNow.model.AuthPrincipal;
+import FixItNow.model.ProviderRatingSummary;
 import FixItNow.model.Reviews;
-import FixItNow.model.Users;
+import FixItNow.model.UserRole;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,33 +25,15 @@ public class ReviewsController {
     private ReviewsManager reviewsManager;
 
     @Autowired
-    private UsersManager usersManager;
+    private ProviderRatingManager ratings;
 
 
     @PostMapping("/create")
     public ResponseEntity<?> createReview(
-            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @AuthUser AuthPrincipal customer,
             @RequestBody Map<String, Object> payload
     ) {
         try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Collections.singletonMap("message", "Missing or invalid Authorization header"));
-            }
-            String token = authHeader.substring(7);
-
-            String email = usersManager.validateToken(token);
-            if ("401".equals(email)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Collections.singletonMap("message", "Token expired or invalid"));
-            }
-
-            Users customer = usersManager.getUserByEmail(email);
-            if (customer == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Collections.singletonMap("message", "Authenticated user not found"));
-            }
-
             String bookingId = payload.get("bookingId") != null ? payload.get("bookingId").toString() : null;
             Integer rating = null;
             if (payload.get("rating") != null) {
@@ -58,7 +43,7 @@ public class ReviewsController {
             }
             String comment = payload.get("comment") != null ? payload.get("comment").toString() : null;
 
-            Reviews created = reviewsManager.createReview(bookingId, customer.getId(), rating, comment);
+            Reviews created = reviewsManager.createReview(bookingId, customer.userId(), rating, comment);
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(Collections.singletonMap("reviewId", created.getId()));
@@ -79,4 +64,30 @@ public class ReviewsController {
         return ResponseEntity.ok(reviews);
     }
 
-}
\ No newline at end of file
+    @GetMapping("/provider/{providerId}/summary")
+    public ResponseEntity<ProviderRatingSummary> getProviderSummary(@PathVariable String providerId) {
+        return ResponseEntity.ok(ratings.summary(providerId));
+    }
+
+    // e.g. /reviews/providers/summary?ids=U1,U2,U3 - one round trip for a whole provider grid
+    @GetMapping("/providers/summary")
+    public ResponseEntity<?> getProviderSummaries(@RequestParam(value = "ids", required = false) List<String> ids) {
+        try {
+            return ResponseEntity.ok(ratings.summaries(ids));
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", iae.getMessage()));
+        }
+    }
+
+    // recompute all aggregates from the reviews table (admin only)
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<?> rebuildSummaries(@AuthUser AuthPrincipal user) {
+        if (!user.hasRole(UserRole.ADMIN)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Collections.singletonMap("message", "Admin only"));
+        }
+        int providers = ratings.rebuild();
+        return ResponseEntity.ok(Collections.singletonMap("providers", providers));
+    }
+
+}
@@ -1,7 +1,16 @@
 package FixItNow.controller;
 
+import FixItNow.manager.AuthUser;
+import FixItNow.manager.AvailabilityIndex;
+import FixItNow.manager.NdjsonExporter;
+import FixItNow.manager.ProviderFacetIndex;
+import FixItNow.manager.ProviderGeoIndex;
+import FixItNow.manager.ServiceSearchIndex;
 import FixItNow.manager.ServicesManager;
-import FixItNow.manager.UsersManager;
+import FixItNow.manager.SlotCalendar;
+import FixItNow.model.AuthPrincipal;
+import FixItNow.model.KeysetPage;
+import FixItNow.model.NearbyProvider;
 import FixItNow.model.Services;
 import FixItNow.model.ServicesVerified;
 import FixItNow.model.Users;
@@ -9,18 +18,22 @@ import FixItNow.model.UserRole;
 import FixItNow.repository.ServicesRepository;
 import FixItNow.repository.UsersRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 
 
@@ -31,17 +44,40 @@ public class ServicesController {
     @Autowired
     private ServicesRepository servicesRepository;
     @Autowired
-    private UsersManager usersManager;
-    @Autowired
     
     private ServicesManager servicesManager;
     @Autowired
     private UsersRepository usersRepository;
+    @Autowired
+    private ProviderGeoIndex providerGeoIndex;
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+    @Autowired
+    private ServiceSearchIndex serviceSearchIndex;
+    @Autowired
+    private ProviderFacetIndex providerFacetIndex;
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    @Autowired
+    private ObjectMapper objectMapper;
 
-    // Get all services
+    // ?format=ndjson (or Accept: application/x-ndjson) streams every service
+    @GetMapping(produces = NdjsonExporter.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllServices() {
+        return ndjsonExporter.stream(servicesRepository::streamAllOrderById, s -> s);
+    }
+
+    // Get all services; ?after=&limit= returns a keyset page
     @GetMapping
-    public List<Services> getAllServices() {
-        return servicesRepository.findAll();
+    public ResponseEntity<?> getAllServices(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(servicesRepository.findAll());
+        }
+        int n = KeysetPage.clampLimit(limit);
+        List<Services> page = servicesRepository.findByIdGreaterThanOrderByIdAsc(after == null ? "" : after, Limit.of(n));
+        return ResponseEntity.ok(KeysetPage.of(page, n, Services::getId));
     }
      
     
@@ -61,42 +97,113 @@ public class ServicesController {
         return usersRepository.findByRole(UserRole.PROVIDER);
     }
     
+    // Nearest providers to a point, answered from the in-memory grid index (no DB access)
+    @GetMapping("/providers/nearby")
+    public ResponseEntity<?> getNearbyProviders(
+            @RequestParam("lat") double lat,
+            @RequestParam("lon") double lon,
+            @RequestParam(value = "radiusKm", defaultValue = "25") double radiusKm,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid lat/lon"));
+        }
+        if (radiusKm <= 0 || radiusKm > 2000) {
+            return ResponseEntity.badRequest().body(Map.of("message", "radiusKm must be between 0 and 2000"));
+        }
+        if (limit <= 0 || limit > 200) {
+            return ResponseEntity.badRequest().body(Map.of("message", "limit must be between 1 and 200"));
+        }
+        List<NearbyProvider> out = providerGeoIndex.nearby(lat, lon, radiusKm, limit);
+        return ResponseEntity.ok(out);
+    }
+    
+    // Full-text search over category, subcategory names and description, ranked by BM25 (in-memory index, no DB access)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchServices(
+            @RequestParam(value = "q", defaultValue = "") String q,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (q.length() > 200) {
+            return ResponseEntity.badRequest().body(Map.of("message", "q must be at most 200 characters"));
+        }
+        if (limit <= 0 || limit > 200) {
+            return ResponseEntity.badRequest().body(Map.of("message", "limit must be between 1 and 200"));
+        }
+        return ResponseEntity.ok(serviceSearchIndex.search(q, limit));
+    }
+    
+    // Providers filtered by facets (any listed value within a facet, every facet must match), with
+    // per-facet value counts, e.g. /service/facets?category=Plumbing&day=SATURDAY&verified=APPROVED
+    @GetMapping("/facets")
+    public ResponseEntity<?> filterProviders(
+            @RequestParam(value = "category", required = false) List<String> category,
+            @RequestParam(value = "subcategory", required = false) List<String> subcategory,
+            @RequestParam(value = "verified", required = false) List<String> verified,
+            @RequestParam(value = "day", required = false) List<String> day,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (offset < 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "offset must not be negative"));
+        }
+        if (limit < 0 || limit > 200) {
+            return ResponseEntity.badRequest().body(Map.of("message", "limit must be between 0 and 200"));
+        }
+        Map<String, List<String>> filters = new HashMap<>();
+        if (category != null) filters.put(ProviderFacetIndex.CATEGORY, category);
+        if (subcategory != null) filters.put(ProviderFacetIndex.SUBCATEGORY, subcategory);
+        if (verified != null) filters.put(ProviderFacetIndex.VERIFIED, verified);
+        if (day != null) filters.put(ProviderFacetIndex.DAY, day);
+        return ResponseEntity.ok(providerFacetIndex.query(filters, offset, limit));
+    }
+    
+    // Providers a booking fits at slot on date (their weekly schedule covers the job and they are not
+    // booked then), e.g. /service/available?date=2026-10-20&slot=10:30; in-memory bitsets plus one indexed lookup
+    @GetMapping("/available")
+    public ResponseEntity<?> availableProviders(
+            @RequestParam("date") String date,
+            @RequestParam("slot") String slot) {
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid date. Use yyyy-MM-dd"));
+        }
+        if (day.isBefore(LocalDate.now())) {
+            return ResponseEntity.badRequest().body(Map.of("message", "date must not be in the past"));
+        }
+        LocalTime t = SlotCalendar.parseTime(slot);
+        if (t == null || t.getMinute() % 30 != 0) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid slot. Use HH:mm on the hour or half hour"));
+        }
+        return ResponseEntity.ok(availabilityIndex.available(day, t));
+    }
+    
     @PutMapping("/me")
-    public ResponseEntity<?> updateService(@RequestHeader("Authorization") String authHeader, @RequestBody Map<String, Object> data) {
-        String token = authHeader.substring(7);
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(Collections.singletonMap("message", "Token expired or invalid"));
-        }
-        Users provider = usersManager.getUserByEmail(email);
-        servicesManager.updateServiceDetails(provider, data);
+    public ResponseEntity<?> updateService(@AuthUser AuthPrincipal me, @RequestBody Map<String, Object> data) {
+        // reference only: the services lookups need the provider's id, not its row
+        Users provider = usersRepository.getReferenceById(me.userId());
+        try {
+            servicesManager.updateServiceDetails(provider, data);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", e.getMessage()));
+        }
         return ResponseEntity.ok(Collections.singletonMap("message", "Service updated successfully"));
     }
     
     @GetMapping("/me")
-    public ResponseEntity<?> getServiceDetails(@RequestHeader("Authorization") String authHeader) {
-        String token = authHeader.substring(7);
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(Collections.singletonMap("message", "Token expired or invalid"));
-        }
-        Users provider = usersManager.getUserByEmail(email);
+    public ResponseEntity<?> getServiceDetails(@AuthUser AuthPrincipal me) {
+        Users provider = usersRepository.getReferenceById(me.userId());
         List<Services> servicesList = servicesRepository.findByProvider(provider);
         if (servicesList == null || servicesList.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(Collections.singletonMap("message", "Service not found"));
         }
         Services service = servicesList.get(0);
-        
-        ObjectMapper mapper = new ObjectMapper();
 
         Map<String, Object> response = new HashMap<>();
         response.put("description", service.getDescription());
         try {
         	
-        	Map<String, String> availability = mapper.readValue(service.getAvailability(), new TypeReference<Map<String, String>>() {});
+        	Map<String, String> availability = objectMapper.readValue(service.getAvailability(), new TypeReference<Map<String, String>>() {});
             response.put("availability", availability);
         } catch (Exception e) {
             response.put("availability", new HashMap<>());
@@ -109,7 +216,7 @@ public class ServicesController {
             if (subJson == null || subJson.trim().isEmpty()) {
                 response.put("subcategories", new HashMap<>());
             } else {
-                Map<String, Object> subMap = mapper.readValue(subJson, new TypeReference<Map<String, Object>>() {});
+                Map<String, Object> subMap = objectMapper.readValue(subJson, new TypeReference<Map<String, Object>>() {});
                 response.put("subcategories", subMap);
             }
         } catch (Exception e) {
@@ -131,12 +238,6 @@ public class ServicesController {
             return ResponseEntity.badRequest().body(Map.of("message", "Missing 'verified' in body"));
         }
 
-        Optional<Services> opt = servicesRepository.findById(id);
-        if (opt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        Services service = opt.get();
-
         ServicesVerified newStatus;
         if (verifiedObj instanceof Boolean) {
             boolean b = (Boolean) verifiedObj;
@@ -149,8 +250,10 @@ public class ServicesController {
             }
         }
 
-        service.setVerified(newStatus);
-        servicesRepository.save(service);
+        // through the manager so the profile cache and the admin rollups follow
+        if (!servicesManager.updateVerified(id, newStatus)) {
+            return ResponseEntity.notFound().build();
+        }
 
         return ResponseEntity.ok(Map.of("id", id, "verified", newStatus.name()));
     }
@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -16,8 +17,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -28,16 +29,22 @@ import org.springframework.http.ContentDisposition;
 import FixItNow.model.ProviderDocument;
 import FixItNow.repository.ProviderDocumentRepository;
 import FixItNow.manager.FileStorageService;
+import FixItNow.manager.NdjsonExporter;
+import FixItNow.manager.ProviderGeoIndex;
+import FixItNow.manager.ProviderProfileCache;
+import FixItNow.manager.UserLocationHeatmap;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.UUID;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import FixItNow.manager.AuthUser;
 import FixItNow.manager.UsersManager;
+import FixItNow.model.AuthPrincipal;
+import FixItNow.model.KeysetPage;
 import FixItNow.model.Services;
+import FixItNow.model.SignInRow;
 import FixItNow.model.UserRole;
 import FixItNow.model.Users;
 import FixItNow.repository.ServicesRepository;
@@ -66,8 +73,21 @@ public class UsersController {
 	    @Autowired
 	    private FileStorageService fileStorageService;
 
+	    @Autowired
+	    private ProviderGeoIndex providerGeoIndex;
+
+	    @Autowired
+	    private NdjsonExporter ndjsonExporter;
+
+	    @Autowired
+	    private ProviderProfileCache providerProfileCache;
+
+	    @Autowired
+	    private UserLocationHeatmap userLocationHeatmap;
+
 	    private static final long MAX_BYTES = 5L * 1024L * 1024L; // 5MB
 	    private static final DateTimeFormatter ISO = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+	    private static final int MAX_PROFILE_IDS = 500;
 
 	    @PostMapping("/signin")
 	    public ResponseEntity<?> loginUser(@RequestBody Map<String, String> loginData) {
@@ -83,54 +103,33 @@ public class UsersController {
 	                    .body(Collections.singletonMap("message", "Invalid role"));
 	        }
 
-	        // 1) Check email exists
-	        Users user = usersManager.getUserByEmail(email);
+	        // 1) Check email exists (one query: id, password, role and the provider's verification status)
+	        SignInRow user = usersManager.findSignIn(email);
 	        if (user == null) {
 	            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
 	                    .body(Collections.singletonMap("message", "Invalid email"));
 	        }
 
 	        // 2) Check password
-	        String storedPassword = user.getPassword();
+	        String storedPassword = user.password();
 	        if (storedPassword == null || !storedPassword.equals(password)) {
 	            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
 	                    .body(Collections.singletonMap("message", "Invalid password"));
 	        }
 
 	        // 3) Check role matches the requested role
-	        if (user.getRole() == null || user.getRole() != requestedRole) {
+	        if (user.role() == null || user.role() != requestedRole) {
 	            return ResponseEntity.status(HttpStatus.FORBIDDEN)
 	                    .body(Collections.singletonMap("message", "Invalid role for this user"));
 	        }
 
-	        // Credentials validated — obtain token as before
-	        String result = usersManager.validateCredentials(email, password);
-	        if (!result.startsWith("200::")) {
-	            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-	                    .body(Collections.singletonMap("message", "Authentication failed"));
-	        }
-
-	        String token = result.substring(5);
+	        // Credentials validated — mint the token
 	        Map<String, String> response = new HashMap<>();
-	        response.put("token", token);
+	        response.put("token", usersManager.issueToken(email));
 
 	        if (requestedRole == UserRole.PROVIDER) {
-	            try {
-	                List<Services> servicesList = servicesRepository.findByProvider(user);
-	                if (servicesList != null && !servicesList.isEmpty()) {
-	                    Services service = servicesList.get(0);
-	                    if (service != null && service.getVerified() != null) {
-	                        response.put("verified", service.getVerified().name());
-	                    } else {
-	                        response.put("verified", "PENDING");
-	                    }
-	                } else {
-	                    // no service found for provider - default to PENDING
-	                    response.put("verified", "PENDING");
-	                }
-	            } catch (Exception e) {
-	                response.put("verified", "PENDING");
-	            }
+	            // no service row yet counts as pending
+	            response.put("verified", user.verified() != null ? user.verified().name() : "PENDING");
 	        }
 
 	        return ResponseEntity.ok(response);
@@ -315,20 +314,8 @@ public class UsersController {
 	    
     
     @GetMapping("/me")
-    public ResponseEntity<?> getUserProfile(@RequestHeader("Authorization") String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Collections.singletonMap("message", "Missing or invalid Authorization header"));
-        }
-        String token = authHeader.substring(7); // Remove "Bearer "
-
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Collections.singletonMap("message", "Token expired or invalid"));
-        }
-
-        Users user = usersManager.getUserByEmail(email);
+    public ResponseEntity<?> getUserProfile(@AuthUser AuthPrincipal me) {
+        Users user = usersRepository.findById(me.userId()).orElse(null);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Collections.singletonMap("message", "User not found"));
@@ -342,9 +329,24 @@ public class UsersController {
     }
     
     
+    // ?format=ndjson (or Accept: application/x-ndjson) streams every customer
+    @GetMapping(value = "/customers", produces = NdjsonExporter.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllCustomers() {
+        return ndjsonExporter.stream(() -> usersRepository.streamByRoleOrderById(UserRole.CUSTOMER), u -> u);
+    }
+
+    // ?after=&limit= returns a keyset page
     @GetMapping("/customers")
-    public List<Users> getAllCustomers() {
-        return usersRepository.findByRole(UserRole.CUSTOMER);
+    public ResponseEntity<?> getAllCustomers(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(usersRepository.findByRole(UserRole.CUSTOMER));
+        }
+        int n = KeysetPage.clampLimit(limit);
+        List<Users> page = usersRepository.findByRoleAndIdGreaterThanOrderByIdAsc(
+                UserRole.CUSTOMER, after == null ? "" : after, Limit.of(n));
+        return ResponseEntity.ok(KeysetPage.of(page, n, Users::getId));
     }
     
     
@@ -368,28 +370,25 @@ public class UsersController {
     }
     
     
+    // users per normalized location and per grid cell, split by role; see UserLocationHeatmap
+    @GetMapping("/locations/heatmap")
+    public ResponseEntity<?> getLocationHeatmap() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userLocationHeatmap.json());
+    }
+    
+    
     @PutMapping("/me/phone")
-    public ResponseEntity<?> updatePhone(@RequestHeader("Authorization") String authHeader, @RequestBody Map<String, String> data) {
-        String token = authHeader.substring(7);
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(Collections.singletonMap("message", "Token expired or invalid"));
-        }
+    public ResponseEntity<?> updatePhone(@AuthUser AuthPrincipal me, @RequestBody Map<String, String> data) {
         String phone = data.get("phone");
-        usersManager.updatePhone(email, phone);
+        usersManager.updatePhone(me.email(), phone);
         return ResponseEntity.ok(Collections.singletonMap("message", "Phone updated successfully"));
     }
     
     @PutMapping("/me/location")
-    public ResponseEntity<?> updateLocation(@RequestHeader("Authorization") String authHeader, @RequestBody Map<String, String> data) {
-        String token = authHeader.substring(7);
-        String email = usersManager.validateToken(token);
-        if ("401".equals(email)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(Collections.singletonMap("message", "Token expired or invalid"));
-        }
-        Users user = usersManager.getUserByEmail(email);
+    public ResponseEntity<?> updateLocation(@AuthUser AuthPrincipal me, @RequestBody Map<String, String> data) {
+        Users user = usersRepository.findById(me.userId()).orElse(null);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(Collections.singletonMap("message", "User not found"));
@@ -402,69 +401,43 @@ public class UsersController {
         }
         user.setLocation(location);
 
+        // optional coordinates (sent by the dashboards' geolocation lookup); used by /service/providers/nearby
+        String lat = data.get("latitude");
+        String lon = data.get("longitude");
+        if (lat != null && lon != null) {
+            try {
+                double latitude = Double.parseDouble(lat);
+                double longitude = Double.parseDouble(lon);
+                if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                    throw new NumberFormatException();
+                }
+                user.setLatitude(latitude);
+                user.setLongitude(longitude);
+            } catch (NumberFormatException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Collections.singletonMap("message", "Invalid latitude/longitude"));
+            }
+        }
+
         usersRepository.save(user); 
+        providerGeoIndex.put(user);
+        providerProfileCache.refresh(user.getId());
+        userLocationHeatmap.put(user);
         return ResponseEntity.ok(Collections.singletonMap("message", "Location updated successfully"));
     }
     
     
+    // Served from the precomputed read model; see ProviderProfileCache for what invalidates it.
+    // ?ids=a,b,c narrows it to those providers (the customer home asks for the nearby ones only).
     @GetMapping("/providers")
-    public ResponseEntity<?> getAllProviderProfiles() {
-        List<Users> providers = usersRepository.findByRole(UserRole.PROVIDER);
-
-        List<Map<String, Object>> responseList = new ArrayList<>();
-        for (Users user : providers) {
-            Map<String, Object> profile = new HashMap<>();
-            profile.put("id", user.getId()); 
-            profile.put("name", user.getName());
-            profile.put("location", user.getLocation());
-            profile.put("phone", user.getPhno());
-            profile.put("email", user.getEmail());
-
-            ObjectMapper mapper = new ObjectMapper();
-            
-            List<Services> servicesList = servicesRepository.findByProvider(user);
-            if (servicesList != null && !servicesList.isEmpty()) {
-                Services service = servicesList.get(0);
-
-                profile.put("description", service.getDescription() == null ? "" : service.getDescription());
-
-                try {
-                    String availJson = service.getAvailability();
-                    if (availJson == null || availJson.trim().isEmpty()) {
-                        profile.put("availability", new HashMap<String, Object>());
-                    } else {
-                        Map<String, Object> availability = mapper.readValue(availJson, new TypeReference<Map<String, Object>>() {});
-                        profile.put("availability", availability);
-                    }
-                } catch (Exception e) {
-                    profile.put("availability", new HashMap<String, Object>());
-                }
-
-                profile.put("category", service.getCategory() == null ? "" : service.getCategory());
-                profile.put("verified", service.getVerified() == null ? "" : service.getVerified());
-
-                try {
-                    String subJson = service.getSubcategory();
-                    if (subJson == null || subJson.trim().isEmpty()) {
-                        profile.put("subcategory", new HashMap<String, Object>());
-                    } else {
-                        Map<String, Object> subMap = mapper.readValue(subJson, new TypeReference<Map<String, Object>>() {});
-                        profile.put("subcategory", subMap);
-                    }
-                } catch (Exception e) {
-                    profile.put("subcategory", new HashMap<String, Object>());
-                }
-            } else {
-                profile.put("description", "");
-                profile.put("availability", new HashMap<String, Object>());
-                profile.put("category", "");
-                profile.put("verifed", "");
-                profile.put("subcategory", new HashMap<String, Object>());
-            }
-
-            responseList.add(profile);
+    public ResponseEntity<?> getAllProviderProfiles(@RequestParam(value = "ids", required = false) List<String> ids) {
+        if (ids != null && ids.size() > MAX_PROFILE_IDS) {
+            return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("message", "At most " + MAX_PROFILE_IDS + " ids"));
         }
-        return ResponseEntity.ok(responseList);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ids == null ? providerProfileCache.allProfilesJson() : providerProfileCache.profilesJson(ids));
     }
     
     
@@ -0,0 +1,346 @@
+package FixItNow.manager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import FixItNow.model.AdminStat;
+import FixItNow.model.AdminStatEpoch;
+import FixItNow.model.AdminStatKey;
+import FixItNow.repository.AdminStatEpochRepository;
+import FixItNow.repository.AdminStatRepository;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ReportRepository;
+import FixItNow.repository.ReviewsRepository;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Admin dashboard rollups: counts per (metric, dimension, day) in admin_stats.
+ *
+ * The write paths call record()/move(); the deltas are held per transaction and, once it
+ * commits, merged into an in-memory buffer (a rollback drops them). flush() adds the buffer
+ * to the table every few seconds, so writes never wait on a shared counter row. stats()
+ * reads the table plus this node's unflushed deltas. reconcile() re-derives every cell from
+ * the base tables nightly, on whichever node claims admin_stat_epoch first. Each rebuild stores
+ * the time it read the base tables, and every node drops the deltas it buffered before then,
+ * since the rebuild already counted them. That compares clocks across nodes, so it relies on
+ * them being in sync, as the nightly claim does; a write committing while the rebuild reads may
+ * be off by one until the next reconcile.
+ */
+@Service
+public class AnalyticsManager {
+
+    public static final String BOOKINGS = "bookings";                   // dim: BookingStatus, day: booking date
+    public static final String BOOKING_CATEGORIES = "booking_categories"; // dim: service category, day: booking date
+    public static final String SIGNUPS = "signups";                     // dim: UserRole, day: created on
+    public static final String REPORTS = "reports";                     // dim: CATEGORY/STATUS, day: created at
+    public static final String REVIEWS = "reviews";                     // dim: rating, day: created at
+    public static final String VERIFICATION = "verification";           // dim: ServicesVerified, undated
+
+    /** Day of cells that are current state rather than events (and of rows without a date). */
+    public static final LocalDate UNDATED = LocalDate.of(1970, 1, 1);
+
+    public static final int MAX_RANGE_DAYS = 366;
+
+    @Autowired
+    private AdminStatRepository asr;
+
+    @Autowired
+    private AdminStatEpochRepository epochs;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReviewsRepository reviewsRepository;
+
+    @Autowired
+    private ServicesRepository servicesRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // committed deltas not yet in the table, one entry per commit
+    private final ConcurrentLinkedQueue<Buffered> pending = new ConcurrentLinkedQueue<>();
+    // flush and rebuild must not interleave
+    private final ReentrantLock tableLock = new ReentrantLock();
+
+    // when (microseconds since the epoch) the deltas were buffered, i.e. after their commit
+    private record Buffered(long at, Map<AdminStatKey, Long> deltas) {}
+
+    static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+
+    /** Count delta for the cell; applied once the surrounding transaction (if any) commits. */
+    public void record(String metric, Object dim, LocalDate day, long delta) {
+        if (delta == 0 || dim == null) return;
+        AdminStatKey key = new AdminStatKey(metric, dim.toString(), day == null ? UNDATED : day);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending.add(new Buffered(nowMicros(), Map.of(key, delta)));
+            return;
+        }
+        transactionDeltas().merge(key, delta, Long::sum);
+    }
+
+    /** One item moved from one dimension value to another, e.g. a booking from PENDING to CONFIRMED. */
+    public void move(String metric, Object from, Object to, LocalDate day) {
+        if (from != null && from.equals(to)) return;
+        record(metric, from, day, -1);
+        record(metric, to, day, 1);
+    }
+
+    public static LocalDate dayOf(LocalDateTime at) {
+        return (at != null ? at : LocalDateTime.now()).toLocalDate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<AdminStatKey, Long> transactionDeltas() {
+        Map<AdminStatKey, Long> deltas = (Map<AdminStatKey, Long>) TransactionSynchronizationManager.getResource(this);
+        if (deltas != null) return deltas;
+        Map<AdminStatKey, Long> created = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AnalyticsManager.this);
+                if (status == STATUS_COMMITTED && !created.isEmpty()) pending.add(new Buffered(nowMicros(), created));
+            }
+        });
+        return created;
+    }
+
+    /** Add the buffered deltas to admin_stats. Returns the number of cells written. */
+    @Scheduled(fixedDelayString = "${app.analytics.flush-ms:5000}")
+    public int flush() {
+        tableLock.lock();
+        try {
+            List<Buffered> batch = new ArrayList<>();
+            for (Buffered b; (b = pending.poll()) != null; ) batch.add(b);
+            if (batch.isEmpty()) return 0;
+            try {
+                ensureEpoch();
+                // new cells first, outside the flush transaction: an UPDATE of a missing row there
+                // would hold a gap lock that a nested insert could only wait on
+                Set<AdminStatKey> missing = new HashSet<>();
+                for (Buffered b : batch) missing.addAll(b.deltas().keySet());
+                for (AdminStat s : asr.findAllById(new ArrayList<>(missing))) missing.remove(s.getKey());
+                missing.forEach(this::createRow);
+                return new TransactionTemplate(transactionManager).execute(status -> {
+                    long rebuiltAt = epochs.lockShared(AdminStatEpoch.ID).orElseThrow().getRebuiltAtMicros();
+                    // buffered before the last rebuild read the base tables: already in the table
+                    Map<AdminStatKey, Long> sums = sum(batch, rebuiltAt);
+                    sums.forEach(this::apply);
+                    return sums.size();
+                });
+            } catch (RuntimeException e) {
+                // keep them for the next attempt
+                pending.addAll(batch);
+                throw e;
+            }
+        } finally {
+            tableLock.unlock();
+        }
+    }
+
+    private static Map<AdminStatKey, Long> sum(Iterable<Buffered> buffered, long after) {
+        Map<AdminStatKey, Long> sums = new HashMap<>();
+        for (Buffered b : buffered) {
+            if (b.at() >= after) b.deltas().forEach((k, d) -> sums.merge(k, d, Long::sum));
+        }
+        sums.values().removeIf(d -> d == 0);
+        return sums;
+    }
+
+    // the row exists: created above, and only a rebuild (which the epoch lock holds off) deletes rows
+    private void apply(AdminStatKey k, long delta) {
+        if (asr.add(k.metric(), k.dim(), k.day(), delta) == 0) {
+            throw new IllegalStateException("No admin_stats row for " + k);
+        }
+    }
+
+    // new cell: insert the zero row in its own transaction, as ProviderRatingManager does
+    private void createRow(AdminStatKey k) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            tx.executeWithoutResult(status -> asr.insertEmpty(k.metric(), k.dim(), k.day()));
+        } catch (DataIntegrityViolationException ignored) {
+            // another node created it first
+        }
+    }
+
+    /**
+     * All-time totals per metric and dimension, plus daily counts between from and to:
+     * {"totals": {metric: {dim: n}}, "daily": {metric: {day: {dim: n}}}}.
+     */
+    public Map<String, Object> stats(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+        if (from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("At most " + MAX_RANGE_DAYS + " days per request");
+        }
+        // under the lock: a flush in progress has taken its deltas out of pending but not yet committed them
+        tableLock.lock();
+        try {
+            return read(from, to);
+        } finally {
+            tableLock.unlock();
+        }
+    }
+
+    private Map<String, Object> read(LocalDate from, LocalDate to) {
+        Map<String, Map<String, Long>> totals = new TreeMap<>();
+        for (Object[] row : asr.totals()) {
+            totals.computeIfAbsent((String) row[0], m -> new TreeMap<>()).merge((String) row[1], ((Number) row[2]).longValue(), Long::sum);
+        }
+        Map<String, Map<LocalDate, Map<String, Long>>> daily = new TreeMap<>();
+        for (AdminStat s : asr.findDays(from, to)) addDaily(daily, s.getKey(), s.getCount());
+        sum(pending, 0).forEach((k, d) -> {
+            totals.computeIfAbsent(k.metric(), m -> new TreeMap<>()).merge(k.dim(), d, Long::sum);
+            if (!k.day().isBefore(from) && !k.day().isAfter(to)) addDaily(daily, k, d);
+        });
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("from", from);
+        out.put("to", to);
+        out.put("totals", totals);
+        out.put("daily", daily);
+        return out;
+    }
+
+    private static void addDaily(Map<String, Map<LocalDate, Map<String, Long>>> daily, AdminStatKey k, long count) {
+        if (k.day().equals(UNDATED)) return;
+        daily.computeIfAbsent(k.metric(), m -> new TreeMap<>())
+                .computeIfAbsent(k.day(), d -> new TreeMap<>())
+                .merge(k.dim(), count, Long::sum);
+    }
+
+    /** Nightly: re-derive every cell from the base tables, on one node per day. */
+    @Scheduled(cron = "${app.analytics.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        int[] result = rebuild(true);
+        if (result == null) {
+            System.out.println("[Analytics] reconcile already ran today on another node");
+            return;
+        }
+        System.out.println("[Analytics] reconciled " + result[0] + " cells, " + result[1] + " had drifted");
+    }
+
+    /**
+     * Replace admin_stats with counts computed by GROUP BY over bookings, users, reports,
+     * reviews and services. Returns {cells written, cells whose count changed}.
+     */
+    public int[] rebuild() {
+        return rebuild(false);
+    }
+
+    // null when nightly and another node has already reconciled today
+    private int[] rebuild(boolean nightly) {
+        tableLock.lock();
+        try {
+            ensureEpoch();
+            long[] rebuiltAt = {0};
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            int[] result = tx.execute(status -> {
+                // holds the epoch row until commit, so no node flushes into the table being replaced
+                AdminStatEpoch epoch = epochs.lockExclusive(AdminStatEpoch.ID).orElseThrow();
+                LocalDate today = LocalDate.now();
+                if (nightly) {
+                    if (epoch.getReconciledOn() != null && !epoch.getReconciledOn().isBefore(today)) return null;
+                    epochs.markReconciled(AdminStatEpoch.ID, today);
+                }
+                // taken once the lock is held, right before the GROUP BYs read the base tables
+                rebuiltAt[0] = nowMicros();
+                epochs.markRebuilt(AdminStatEpoch.ID, rebuiltAt[0]);
+                return replaceAll();
+            });
+            // the GROUP BYs saw everything committed before rebuiltAt, this node's buffer included
+            if (result != null) pending.removeIf(b -> b.at() < rebuiltAt[0]);
+            return result;
+        } finally {
+            tableLock.unlock();
+        }
+    }
+
+    private void ensureEpoch() {
+        if (epochs.existsById(AdminStatEpoch.ID)) return;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> epochs.insertEpoch(AdminStatEpoch.ID));
+        } catch (DataIntegrityViolationException ignored) {
+            // another node created it first
+        }
+    }
+
+    private int[] replaceAll() {
+        Map<AdminStatKey, Long> derived = new HashMap<>();
+        for (Object[] r : bookingRepository.countByStatusAndDay()) put(derived, BOOKINGS, r[0], r[1], r[2]);
+        for (Object[] r : bookingRepository.countByCategoryAndDay()) put(derived, BOOKING_CATEGORIES, r[0], r[1], r[2]);
+        for (Object[] r : usersRepository.countByRoleAndDay()) put(derived, SIGNUPS, r[0], r[1], r[2]);
+        for (Object[] r : reportRepository.countByCategoryStatusAndDay()) put(derived, REPORTS, r[0] + "/" + r[1], r[2], r[3]);
+        for (Object[] r : reviewsRepository.countByRatingAndDay()) put(derived, REVIEWS, r[0], r[1], r[2]);
+        for (Object[] r : servicesRepository.countByVerified()) put(derived, VERIFICATION, r[0], null, r[1]);
+
+        Map<AdminStatKey, Long> current = new HashMap<>();
+        for (AdminStat s : asr.findAll()) current.put(s.getKey(), s.getCount());
+        int drifted = 0;
+        for (Map.Entry<AdminStatKey, Long> e : derived.entrySet()) {
+            if (!e.getValue().equals(current.getOrDefault(e.getKey(), 0L))) drifted++;
+        }
+        for (Map.Entry<AdminStatKey, Long> e : current.entrySet()) {
+            if (e.getValue() != 0 && !derived.containsKey(e.getKey())) drifted++;
+        }
+
+        asr.deleteAllInBatch();
+        entityManager.clear();
+        List<AdminStat> rows = new ArrayList<>();
+        derived.forEach((k, n) -> rows.add(new AdminStat(k, n)));
+        // persist, not save(): the ids are assigned, so save() would merge and SELECT each row first
+        for (AdminStat s : rows) entityManager.persist(s);
+        return new int[] {rows.size(), drifted};
+    }
+
+    private static void put(Map<AdminStatKey, Long> derived, String metric, Object dim, Object day, Object count) {
+        if (dim == null) return;
+        derived.merge(new AdminStatKey(metric, dim.toString(), day == null ? UNDATED : (LocalDate) day),
+                ((Number) count).longValue(), Long::sum);
+    }
+
+    // first start after upgrading: fill the table from the existing rows
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (asr.count() == 0 && usersRepository.count() > 0) rebuild();
+    }
+}
@@ -0,0 +1,37 @@
+package FixItNow.manager;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import FixItNow.model.AuthPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Resolves the bearer token of every request once, through AuthPrincipalCache, and stores the
+ * principal as a request attribute for @AuthUser parameters. It never rejects a request: whether
+ * an endpoint needs a caller is decided by its @AuthUser parameter.
+ */
+@Component
+public class AuthFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private AuthPrincipalCache principals;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            AuthPrincipal principal = principals.resolve(header.substring(7).trim());
+            if (principal != null) request.setAttribute(AuthPrincipal.ATTRIBUTE, principal);
+        }
+        chain.doFilter(request, response);
+    }
+}
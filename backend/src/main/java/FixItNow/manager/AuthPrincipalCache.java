@@ -0,0 +1,130 @@
+package FixItNow.manager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import FixItNow.model.AuthPrincipal;
+import FixItNow.model.Users;
+import FixItNow.repository.UsersRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Bearer token -> AuthPrincipal, so a repeat request skips both the HMAC check and the users
+ * lookup. Keyed by a SHA-256 digest of the token (raw tokens are never held), each entry lives
+ * until the token's own exp claim. Bounded: on overflow expired entries are swept first, then
+ * arbitrary ones. invalidateUser drops every token of a user; UsersAuthInvalidator calls it when
+ * a password or role change commits, so the change takes effect on the next request.
+ */
+@Service
+public class AuthPrincipalCache {
+
+    @Autowired
+    private JWTManager jwt;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Value("${app.auth.principal-cache-size:10000}")
+    private int maxEntries = 10000;
+
+    private record Cached(AuthPrincipal principal, long expiresAt) {}
+
+    private final ConcurrentMap<String, Cached> byDigest = new ConcurrentHashMap<>();
+    // userId -> digests of that user's cached tokens, for invalidation
+    private final ConcurrentMap<String, Set<String>> digestsByUser = new ConcurrentHashMap<>();
+    // bumped by every invalidation: a lookup that raced one is not kept
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /** The principal for a raw token (no "Bearer " prefix), or null when invalid, expired or unknown. */
+    public AuthPrincipal resolve(String token) {
+        if (token == null || token.isBlank()) return null;
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        Cached e = byDigest.get(digest);
+        if (e != null) {
+            if (e.expiresAt() > now) return e.principal();
+            forget(digest, e);
+        }
+
+        Claims claims;
+        try {
+            claims = jwt.parse(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+        Date exp = claims.getExpiration();
+        String email = claims.get("email", String.class);
+        if (exp == null || exp.getTime() <= now || email == null) return null;
+
+        long seen = invalidations.get();
+        Users u = usersRepository.findByEmail(email);
+        if (u == null) return null;
+        AuthPrincipal principal = new AuthPrincipal(u.getId(), u.getEmail(), u.getRole());
+
+        if (byDigest.size() >= maxEntries) evict(now);
+        Cached fresh = new Cached(principal, exp.getTime());
+        byDigest.put(digest, fresh);
+        digestsByUser.computeIfAbsent(u.getId(), k -> ConcurrentHashMap.newKeySet()).add(digest);
+        if (invalidations.get() != seen) forget(digest, fresh);
+        return principal;
+    }
+
+    /** Drop every cached token of the user; their next request re-reads the users row. */
+    public void invalidateUser(String userId) {
+        if (userId == null) return;
+        invalidations.incrementAndGet();
+        Set<String> digests = digestsByUser.remove(userId);
+        if (digests != null) {
+            for (String d : digests) byDigest.remove(d);
+        }
+    }
+
+    public int size() {
+        return byDigest.size();
+    }
+
+    private void forget(String digest, Cached e) {
+        if (byDigest.remove(digest, e)) {
+            digestsByUser.computeIfPresent(e.principal().userId(), (k, set) -> {
+                set.remove(digest);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private void evict(long now) {
+        byDigest.forEach((d, e) -> {
+            if (e.expiresAt() <= now) forget(d, e);
+        });
+        // still full: make room for a tenth of the capacity
+        Iterator<Map.Entry<String, Cached>> it = byDigest.entrySet().iterator();
+        int excess = byDigest.size() - maxEntries + Math.max(1, maxEntries / 10);
+        while (excess-- > 0 && it.hasNext()) {
+            Map.Entry<String, Cached> next = it.next();
+            forget(next.getKey(), next.getValue());
+        }
+    }
+
+    static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package FixItNow.manager;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the request's AuthPrincipal into a controller parameter. When required (the default)
+ * and the request carries no valid token, the endpoint answers 401 without being called.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuthUser {
+    boolean required() default true;
+}
@@ -0,0 +1,30 @@
+package FixItNow.manager;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import FixItNow.model.AuthPrincipal;
+
+/** Supplies @AuthUser AuthPrincipal parameters from the attribute AuthFilter set. */
+public class AuthUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(AuthUser.class)
+                && AuthPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object principal = webRequest.getAttribute(AuthPrincipal.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (principal == null && parameter.getParameterAnnotation(AuthUser.class).required()) {
+            throw new UnauthenticatedException();
+        }
+        return principal;
+    }
+}
@@ -0,0 +1,202 @@
+package FixItNow.manager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ServicesRepository;
+
+/**
+ * Who works when, behind GET /service/available. Every provider with a schedule gets a dense
+ * int ordinal, and each of the 336 half-hours of the week keeps the providers working then as
+ * a word array. A booking at (date, slot) needs the four half-hours from slot on that weekday,
+ * so the answer is the AND of four bitmaps minus the providers already booked at that slot.
+ * Like SlotCalendar, a provider goes by their first service's schedule. Writers call
+ * refresh(providerId) after a provider's availability changes.
+ */
+@Service
+public class AvailabilityIndex {
+
+    @Autowired
+    private ServicesRepository sr;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private String[] providerIds = new String[1024];
+    // per half-hour of the week (WeeklySchedule.bit), the ordinals of providers working then
+    private long[][] open = new long[WeeklySchedule.BITS][16];
+    private int size;
+
+    // reloads made while a rebuild reads the table, replayed over its result; null otherwise
+    private List<Runnable> duringRebuild;
+    // one rebuild at a time
+    private final Object rebuilding = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuilding) {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                rebuildFromTable();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    duringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    // the table is read without the lock so lookups go on meanwhile; a reload that lands in
+    // between may or may not be in the rows, so it is applied again on top (apply is idempotent)
+    private void rebuildFromTable() {
+        // rows come ordered by provider, then service id; the first row of each provider counts
+        List<Object[]> rows = sr.findScheduleFields();
+        List<String> ids = new ArrayList<>();
+        List<WeeklySchedule> schedules = new ArrayList<>();
+        String last = null;
+        for (Object[] r : rows) {
+            if (r[0].equals(last)) continue;
+            last = (String) r[0];
+            WeeklySchedule s = WeeklySchedule.of((byte[]) r[1], (String) r[2]);
+            if (s.isEmpty()) continue;
+            ids.add(last);
+            schedules.add(s);
+        }
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            providerIds = new String[Math.max(1024, ids.size())];
+            open = new long[WeeklySchedule.BITS][(providerIds.length >>> 6) + 1];
+            size = 0;
+            for (int i = 0; i < ids.size(); i++) apply(ids.get(i), schedules.get(i));
+            duringRebuild.forEach(Runnable::run);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-read the provider's schedule. Inside a transaction this runs after commit, so a
+     * rolled-back change never reaches the index.
+     */
+    public void refresh(String providerId) {
+        if (providerId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(providerId);
+                }
+            });
+        } else {
+            reload(providerId);
+        }
+    }
+
+    private void reload(String providerId) {
+        List<Object[]> first = sr.findScheduleByProviderId(providerId, Limit.of(1));
+        WeeklySchedule s = first.isEmpty() ? WeeklySchedule.EMPTY
+                : WeeklySchedule.of((byte[]) first.get(0)[0], (String) first.get(0)[1]);
+        lock.writeLock().lock();
+        try {
+            apply(providerId, s);
+            if (duringRebuild != null) duringRebuild.add(() -> apply(providerId, s));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // an ordinal stays reserved for its provider even while their schedule is empty
+    private void apply(String providerId, WeeklySchedule schedule) {
+        Integer existing = ordinals.get(providerId);
+        if (existing == null && schedule.isEmpty()) return;
+        int ord = existing != null ? existing : newOrdinal(providerId);
+        int w = ord >>> 6;
+        long bit = 1L << ord;
+        for (int b = 0; b < WeeklySchedule.BITS; b++) {
+            if (schedule.isOpen(b)) {
+                open[b][w] |= bit;
+            } else {
+                open[b][w] &= ~bit;
+            }
+        }
+    }
+
+    private int newOrdinal(String providerId) {
+        int ord = size++;
+        if (ord == providerIds.length) providerIds = Arrays.copyOf(providerIds, ord * 2);
+        if (ord >>> 6 >= open[0].length) {
+            int words = open[0].length * 2;
+            for (int b = 0; b < open.length; b++) open[b] = Arrays.copyOf(open[b], words);
+        }
+        providerIds[ord] = providerId;
+        ordinals.put(providerId, ord);
+        return ord;
+    }
+
+    /**
+     * Providers a booking starting at slot on date fits: their schedule covers the whole job and
+     * they have no active booking starting then. In ordinal order; empty when slot is not on the
+     * half hour or the job would run past midnight.
+     */
+    public List<String> available(LocalDate date, LocalTime slot) {
+        int minutes = slot.toSecondOfDay() / 60;
+        if (minutes % SlotCalendar.SLOT_MINUTES != 0 || slot.getSecond() != 0) return List.of();
+        int start = minutes / SlotCalendar.SLOT_MINUTES;
+        if (start + WeeklySchedule.JOB_SLOTS > WeeklySchedule.SLOTS_PER_DAY) return List.of();
+        int first = WeeklySchedule.bit(date.getDayOfWeek(), start);
+        List<String> booked = bookingRepository.findProvidersHoldingSlot(date, SlotCalendar.format(slot));
+
+        lock.readLock().lock();
+        try {
+            int nWords = (size + 63) >>> 6;
+            long[] match = Arrays.copyOf(open[first], nWords);
+            for (int b = first + 1; b < first + WeeklySchedule.JOB_SLOTS; b++) {
+                long[] m = open[b];
+                for (int i = 0; i < nWords; i++) match[i] &= m[i];
+            }
+            for (String id : booked) {
+                Integer ord = ordinals.get(id);
+                if (ord != null) match[ord >>> 6] &= ~(1L << ord);
+            }
+            int total = 0;
+            for (long w : match) total += Long.bitCount(w);
+            List<String> out = new ArrayList<>(total);
+            for (int i = 0; i < nWords; i++) {
+                long w = match[i];
+                while (w != 0) {
+                    out.add(providerIds[(i << 6) + Long.numberOfTrailingZeros(w)]);
+                    w &= w - 1;
+                }
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
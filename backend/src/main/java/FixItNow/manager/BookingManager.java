@@ -1,21 +1,37 @@
 package FixItNow.manager;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import FixItNow.model.BookedServiceJson;
 import FixItNow.model.Booking;
 import FixItNow.model.BookingStatus;
+import FixItNow.model.BookingStatusChange;
+import FixItNow.model.BookingStatusResult;
+import FixItNow.model.BookingStatusRow;
+import FixItNow.model.CustomerBookingView;
+import FixItNow.model.FreeSlot;
+import FixItNow.model.ProviderBookingView;
 import FixItNow.model.Services;
 import FixItNow.model.Users;
 import FixItNow.repository.BookingRepository;
 import FixItNow.repository.ServicesRepository;
 import FixItNow.repository.UsersRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class BookingManager {
@@ -29,24 +45,26 @@ public class BookingManager {
     @Autowired
     private UsersRepository usersRepository;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    /*Generate the next booking id based on the repository's maximum id.*/
- // Replace existing method in UsersManager
+    @Autowired
+    private IdAllocator ids;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SlotCalendar calendar;
+
+    @Autowired
+    private AnalyticsManager analytics;
+
+    /*Generate the next booking id from the block-reserved id sequence.*/
     public String generateNextBookingId() {
-        int max = 0;
-        // load all users (lightweight for modest user counts). If you prefer, add a repository query to return only ids.
-        for (Booking u : br.findAll()) {
-            String id = u.getId();
-            if (id != null && id.startsWith("B")) {
-                try {
-                    int n = Integer.parseInt(id.substring(1));
-                    if (n > max) max = n;
-                } catch (NumberFormatException ignored) {
-                    // ignore non-numeric suffixes
-                }
-            }
-        }
-        return "B" + (max + 1);
+        return ids.next("B", br::findIdsHighestFirst);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchIds() {
+        ids.prefetch("B", br::findIdsHighestFirst);
     }
     
     
@@ -56,6 +74,8 @@ public class BookingManager {
         if (customerId == null || customerId.isBlank()) throw new IllegalArgumentException("customerId required");
         if (bookingDate == null) throw new IllegalArgumentException("bookingDate required");
         if (timeSlot == null || timeSlot.isBlank()) throw new IllegalArgumentException("timeSlot required");
+        LocalTime slot = SlotCalendar.parseTime(timeSlot);
+        if (slot == null) throw new IllegalArgumentException("Invalid timeSlot. Use HH:mm");
 
         Users provider = usersRepository.findById(providerId).orElseThrow(() -> new IllegalArgumentException("provider not found"));
         Users customer = usersRepository.findById(customerId).orElseThrow(() -> new IllegalArgumentException("customer not found"));
@@ -73,22 +93,76 @@ public class BookingManager {
         booking.setProvider(provider);
         booking.setCustomer(customer);
 
-        // serialize bookedService object to JSON string for booked_service column
-        try {
-            String bookedJson = objectMapper.writeValueAsString(bookedServiceObj == null ? new Object() : bookedServiceObj);
-            booking.setBookedService(bookedJson);
-        } catch (JsonProcessingException e) {
-            // fallback to simple toString if serialization fails
-            booking.setBookedService(bookedServiceObj == null ? "{}" : bookedServiceObj.toString());
-        }
+        // canonical JSON object, encoded once here and emitted as-is by the booking list views;
+        // booked_service keeps the same text for anything still reading the old column
+        String bookedJson = BookedServiceJson.canonicalize(bookedServiceObj);
+        booking.setBookedServiceItems(bookedJson);
+        booking.setBookedService(bookedJson);
 
         booking.setBookingDate(bookingDate);
-        booking.setTimeSlot(timeSlot);
+        booking.setTimeSlot(SlotCalendar.format(slot));
+        booking.setSlotHold(Boolean.TRUE);
 
         // set status to pending when customer requests connection
         booking.setStatus(BookingStatus.PENDING);
 
-        return br.save(booking);
+        // hold the slot first: a concurrent request for it fails here, before any insert
+        calendar.reserve(providerId, bookingDate, slot);
+        // cleared once the calendar has been invalidated: a reloaded calendar holds the slot for the
+        // booking that beat us to it, and releasing it there would free a taken slot
+        AtomicBoolean releaseHold = new AtomicBoolean(true);
+        boolean inTransaction = settleOnCompletion(providerId, bookingDate, slot, releaseHold);
+        try {
+            Booking saved = br.saveAndFlush(booking);
+            analytics.record(AnalyticsManager.BOOKINGS, BookingStatus.PENDING, bookingDate, 1);
+            analytics.record(AnalyticsManager.BOOKING_CATEGORIES, service.getCategory(), bookingDate, 1);
+            if (!inTransaction) calendar.settle(providerId, bookingDate, slot);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, Booking.SLOT_CONSTRAINT)) {
+                // e.g. a booking id collision: the slot itself is still ours to give back
+                if (!inTransaction) calendar.release(providerId, bookingDate, slot);
+                throw e;
+            }
+            // booked through another instance: this calendar was stale
+            releaseHold.set(false);
+            calendar.invalidate(providerId);
+            throw new SlotTakenException("This time slot is already booked");
+        } catch (RuntimeException e) {
+            if (!inTransaction) calendar.release(providerId, bookingDate, slot);
+            throw e;
+        }
+    }
+
+    // settles the hold on commit and releases it on rollback, unless releaseHold has been cleared by then;
+    // false when there is no surrounding transaction (the caller then does both itself)
+    private boolean settleOnCompletion(String providerId, LocalDate date, LocalTime slot, AtomicBoolean releaseHold) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return false;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) calendar.settle(providerId, date, slot);
+                else if (releaseHold.get()) calendar.release(providerId, date, slot);
+            }
+        });
+        return true;
+    }
+
+    // whether the violation is of the named constraint; drivers report it with a table prefix or in upper case
+    static boolean violates(DataIntegrityViolationException e, String constraint) {
+        String wanted = constraint.toLowerCase(Locale.ROOT);
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            String name = t instanceof ConstraintViolationException cve ? cve.getConstraintName() : null;
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(wanted)) return true;
+        }
+        return false;
+    }
+
+    /** The provider's next free start times from now (or from the start of date), at most limit. */
+    public List<FreeSlot> nextFreeSlots(String providerId, LocalDate date, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = date == null || !date.isAfter(now.toLocalDate()) ? now : date.atStartOfDay();
+        return calendar.nextFree(providerId, from, limit);
     }
 
     /**
@@ -105,132 +179,43 @@ public class BookingManager {
     }
     
     
-    public List<Map<String, Object>> getBookingsForProvider(Users provider) {
-        if (provider == null) return Collections.emptyList();
-
-        List<Booking> bookings = br.findByProvider(provider);
-        if (bookings == null || bookings.isEmpty()) return Collections.emptyList();
-
-        List<Map<String, Object>> out = new ArrayList<>(bookings.size());
-
-        for (Booking b : bookings) {
-            Map<String, Object> item = new HashMap<>();
-
-            // customer info from users table
-            Users customer = b.getCustomer();
-            if (customer != null) {
-                // Adjust getter names if your Users entity uses different method names
-                item.put("customerName", customer.getName() != null ? customer.getName() : "");
-                item.put("customerEmail", customer.getEmail() != null ? customer.getEmail() : "");
-                // phone getter used in other places was getPhno()
-                String phone = null;
-                try {
-                    phone = customer.getPhno();
-                } catch (Throwable t) {
-                    // fallback if method name differs
-                    try { phone = customer.getPhno(); } catch (Throwable t2) { phone = null; }
-                }
-                item.put("customerPhone", phone != null ? phone : "");
-                item.put("customerLocation", customer.getLocation() != null ? customer.getLocation() : "");
-            } else {
-                item.put("customerName", "");
-                item.put("customerEmail", "");
-                item.put("customerPhone", "");
-                item.put("customerLocation", "");
-            }
-
-            // booked services stored as JSON string in booking.booked_service
-            String bookedJson = b.getBookedService();
-            if (bookedJson == null || bookedJson.trim().isEmpty()) {
-                item.put("bookedServices", Collections.emptyMap());
-            } else {
-                try {
-                    // deserialize into Map so frontend receives structured JSON
-                    Map<String, Object> bookedMap = objectMapper.readValue(bookedJson, new TypeReference<Map<String, Object>>() {});
-                    item.put("bookedServices", bookedMap);
-                } catch (Exception e) {
-                    // fallback: return raw string under a map key "raw"
-                    Map<String, Object> fallback = new HashMap<>();
-                    fallback.put("raw", bookedJson);
-                    item.put("bookedServices", fallback);
-                }
-            }
-
-            
-            // booking date and time slot
-            if (b.getBookingDate() != null) {
-                item.put("bookingDate", b.getBookingDate().toString()); // yyyy-MM-dd
-            } else {
-                item.put("bookingDate", "");
-            }
-            item.put("timeSlot", b.getTimeSlot() != null ? b.getTimeSlot() : "");
-            item.put("bookingId", b.getId() != null ? b.getId() : "");
-            
-            
-            try {
-                item.put("status", b.getStatus() != null ? b.getStatus().name() : "");
-            } catch (Throwable t) {
-                // safe fallback
-                item.put("status", "");
-            }
-
-            
+    public List<ProviderBookingView> getBookingsForProvider(Users provider) {
+        return getBookingsForProvider(provider == null ? null : provider.getId());
+    }
 
-            out.add(item);
-        }
-        
-        return out;
+    public List<ProviderBookingView> getBookingsForProvider(String providerId) {
+        if (providerId == null) return Collections.emptyList();
+        return br.findProviderBookingViews(providerId);
     }
     
     
-    public List<Map<String, Object>> getBookingsForCustomer(Users customer) {
-        if (customer == null) return Collections.emptyList();
-
-        List<Booking> bookings = br.findByCustomer(customer);
-        if (bookings == null || bookings.isEmpty()) return Collections.emptyList();
-
-        List<Map<String, Object>> out = new ArrayList<>(bookings.size());
+    public List<CustomerBookingView> getBookingsForCustomer(Users customer) {
+        return getBookingsForCustomer(customer == null ? null : customer.getId());
+    }
 
-        for (Booking b : bookings) {
-            Map<String, Object> item = new HashMap<>();
+    public List<CustomerBookingView> getBookingsForCustomer(String customerId) {
+        if (customerId == null) return Collections.emptyList();
+        return br.findCustomerBookingViews(customerId);
+    }
 
-            // booking id, date, time slot
-            item.put("bookingId", b.getId() != null ? b.getId() : "");
-            item.put("bookingDate", b.getBookingDate() != null ? b.getBookingDate().toString() : "");
-            item.put("timeSlot", b.getTimeSlot() != null ? b.getTimeSlot() : "");
 
-            // booked services: stored as JSON string in booked_service column
-            String bookedJson = b.getBookedService();
-            if (bookedJson == null || bookedJson.trim().isEmpty() || "{}".equals(bookedJson.trim())) {
-                item.put("bookedServices", Collections.emptyMap());
-            } else {
-                try {
-                    Map<String, Object> bookedMap = objectMapper.readValue(bookedJson, new TypeReference<Map<String, Object>>() {});
-                    item.put("bookedServices", bookedMap);
-                } catch (Exception e) {
-                    // fallback: return raw string under key "raw"
-                    Map<String, Object> fallback = new HashMap<>();
-                    fallback.put("raw", bookedJson);
-                    item.put("bookedServices", fallback);
+    /**
+     * One-off migration: fill booked_service_items for bookings created before the column existed,
+     * 500 rows per transaction. Rows are decoded here once instead of on every dashboard read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillBookedServiceItems() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int updated;
+        do {
+            updated = tx.execute(status -> {
+                List<Object[]> rows = br.findUncanonicalBookedServices(Limit.of(500));
+                for (Object[] row : rows) {
+                    br.setBookedServiceItems((String) row[0], BookedServiceJson.fromLegacy((String) row[1]));
                 }
-            }
-
-            // status
-            try {
-                item.put("status", b.getStatus() != null ? b.getStatus().name() : "");
-            } catch (Throwable t) {
-                item.put("status", "");
-            }
-
-            // optionally include providerId (useful on frontend) - comment out if not wanted
-            if (b.getProvider() != null) {
-                item.put("providerId", b.getProvider().getId());
-            }
-
-            out.add(item);
-        }
-        
-        return out;
+                return rows.size();
+            });
+        } while (updated > 0);
     }
 
 
@@ -252,9 +237,40 @@ public class BookingManager {
 
         Booking booking = br.findById(bookingId).orElseThrow(() -> new IllegalArgumentException("Booking not found"));
 
-        BookingStatus statusEnum;
+        BookingStatus statusEnum = parseStatus(statusStr);
+
+        // cancelling frees the slot; un-cancelling has to win it back
+        BookingStatus previous = booking.getStatus();
+        String providerId = booking.getProvider().getId();
+        LocalTime slot = SlotCalendar.parseTime(booking.getTimeSlot());
+        AtomicBoolean releaseHold = null;
+        if (statusEnum == BookingStatus.CANCELLED && previous != BookingStatus.CANCELLED) {
+            booking.setSlotHold(null);
+            if (slot != null) releaseAfterCommit(providerId, booking.getBookingDate(), slot);
+        } else if (previous == BookingStatus.CANCELLED && statusEnum != BookingStatus.CANCELLED && slot != null) {
+            calendar.reserve(providerId, booking.getBookingDate(), slot);
+            releaseHold = new AtomicBoolean(true);
+            settleOnCompletion(providerId, booking.getBookingDate(), slot, releaseHold);
+            booking.setSlotHold(Boolean.TRUE);
+        }
+
+        booking.setStatus(statusEnum);
+        analytics.move(AnalyticsManager.BOOKINGS, previous, statusEnum, booking.getBookingDate());
+        if (releaseHold == null) return br.save(booking);
+        // flushed here so a clash with a booking made on another instance is a SlotTaken, as in createBooking
+        try {
+            return br.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, Booking.SLOT_CONSTRAINT)) throw e;
+            releaseHold.set(false);
+            calendar.invalidate(providerId);
+            throw new SlotTakenException("This time slot is already booked");
+        }
+    }
+
+    private static BookingStatus parseStatus(String statusStr) {
         try {
-            statusEnum = BookingStatus.valueOf(statusStr.trim().toUpperCase());
+            return BookingStatus.valueOf(statusStr.trim().toUpperCase());
         } catch (IllegalArgumentException e) {
             StringBuilder allowed = new StringBuilder();
             for (BookingStatus bs : BookingStatus.values()) {
@@ -263,8 +279,125 @@ public class BookingManager {
             }
             throw new IllegalArgumentException("Invalid status. Allowed values: " + allowed.toString());
         }
+    }
 
-        booking.setStatus(statusEnum);
-        return br.save(booking);
+    public static final int MAX_STATUS_BATCH = 500;
+
+    // how a status change touches the slot hold: each kind is its own UPDATE statement
+    private enum HoldChange { NONE, RELEASE, HOLD }
+
+    /**
+     * Apply many status changes in one transaction: the bookings are read with one query and
+     * written with one UPDATE per (target status, hold change), instead of a load and save per
+     * booking. Items are checked independently and each gets its own result; callerId must be the
+     * booking's provider unless admin. Slot holds follow updateBookingStatusByString.
+     */
+    @Transactional
+    public List<BookingStatusResult> updateBookingStatuses(String callerId, boolean admin, List<BookingStatusChange> changes) {
+        if (changes == null || changes.isEmpty()) throw new IllegalArgumentException("At least one change is required");
+        if (changes.size() > MAX_STATUS_BATCH) throw new IllegalArgumentException("At most " + MAX_STATUS_BATCH + " changes per request");
+
+        Set<String> ids = new HashSet<>();
+        for (BookingStatusChange c : changes) {
+            if (c != null && c.bookingId() != null) ids.add(c.bookingId());
+        }
+        Map<String, BookingStatusRow> rows = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (BookingStatusRow r : br.findStatusRows(ids)) rows.put(r.id(), r);
+        }
+
+        BookingStatusResult[] results = new BookingStatusResult[changes.size()];
+        Map<BookingStatus, Map<HoldChange, List<String>>> updates = new EnumMap<>(BookingStatus.class);
+        Set<String> seen = new HashSet<>();
+        Set<String> reheldProviders = new HashSet<>();
+        // cleared once the calendars are invalidated, as in createBooking
+        AtomicBoolean releaseHolds = new AtomicBoolean(true);
+        for (int i = 0; i < changes.size(); i++) {
+            BookingStatusChange c = changes.get(i);
+            String id = c == null ? null : c.bookingId();
+            if (id == null || id.isBlank()) {
+                results[i] = BookingStatusResult.failed(id, "invalid", "bookingId is required");
+                continue;
+            }
+            if (!seen.add(id)) {
+                results[i] = BookingStatusResult.failed(id, "invalid", "Booking appears more than once");
+                continue;
+            }
+            BookingStatus target;
+            try {
+                if (c.status() == null || c.status().isBlank()) throw new IllegalArgumentException("status is required");
+                target = parseStatus(c.status());
+            } catch (IllegalArgumentException e) {
+                results[i] = BookingStatusResult.failed(id, "invalid", e.getMessage());
+                continue;
+            }
+            BookingStatusRow row = rows.get(id);
+            if (row == null) {
+                results[i] = BookingStatusResult.failed(id, "not_found", "Booking not found");
+                continue;
+            }
+            if (!admin && !row.providerId().equals(callerId)) {
+                results[i] = BookingStatusResult.failed(id, "forbidden", "Not allowed to update this booking");
+                continue;
+            }
+            if (row.status() == target) {
+                results[i] = BookingStatusResult.ok(id, "unchanged");
+                continue;
+            }
+
+            HoldChange hold = HoldChange.NONE;
+            LocalTime slot = SlotCalendar.parseTime(row.timeSlot());
+            if (target == BookingStatus.CANCELLED) {
+                hold = HoldChange.RELEASE;
+                if (slot != null) releaseAfterCommit(row.providerId(), row.bookingDate(), slot);
+            } else if (row.status() == BookingStatus.CANCELLED && slot != null) {
+                try {
+                    calendar.reserve(row.providerId(), row.bookingDate(), slot);
+                } catch (SlotTakenException e) {
+                    results[i] = BookingStatusResult.failed(id, "conflict", e.getMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    results[i] = BookingStatusResult.failed(id, "invalid", e.getMessage());
+                    continue;
+                }
+                settleOnCompletion(row.providerId(), row.bookingDate(), slot, releaseHolds);
+                reheldProviders.add(row.providerId());
+                hold = HoldChange.HOLD;
+            }
+            updates.computeIfAbsent(target, t -> new EnumMap<>(HoldChange.class))
+                    .computeIfAbsent(hold, h -> new ArrayList<>()).add(id);
+            analytics.move(AnalyticsManager.BOOKINGS, row.status(), target, row.bookingDate());
+            results[i] = BookingStatusResult.ok(id, "updated");
+        }
+
+        try {
+            updates.forEach((target, byHold) -> byHold.forEach((hold, bookingIds) -> {
+                switch (hold) {
+                    case NONE -> br.updateStatus(bookingIds, target);
+                    case RELEASE -> br.updateStatusReleasingSlot(bookingIds, target);
+                    case HOLD -> br.updateStatusHoldingSlot(bookingIds, target);
+                }
+            }));
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, Booking.SLOT_CONSTRAINT)) throw e;
+            // a slot won back here was booked through another instance; nothing of the batch is kept
+            releaseHolds.set(false);
+            for (String p : reheldProviders) calendar.invalidate(p);
+            throw new SlotTakenException("A booking's time slot is already booked; no changes were saved");
+        }
+        return Arrays.asList(results);
+    }
+
+    private void releaseAfterCommit(String providerId, LocalDate date, LocalTime slot) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            calendar.release(providerId, date, slot);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                calendar.release(providerId, date, slot);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package FixItNow.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import FixItNow.model.Message;
+import FixItNow.model.MessageDraft;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Group commit for chat writes. Socket threads only enqueue; one writer thread drains
+ * whatever has queued up (up to batchSize) and stores it with MessageManager.saveBatch in a
+ * single transaction, then completes each message's future. Under a burst many messages share
+ * one commit; when idle a message is written as soon as it arrives. The queue is bounded:
+ * submit() rejects instead of letting a burst grow the heap.
+ */
+@Service
+public class ChatWritePipeline {
+
+    @Autowired
+    private MessageManager messageManager;
+
+    @Value("${app.chat.write-queue-capacity:10000}")
+    private int capacity = 10000;
+
+    @Value("${app.chat.write-batch-size:200}")
+    private int batchSize = 200;
+
+    private BlockingQueue<Pending> queue;
+    private Thread writer;
+    private volatile boolean running;
+    // set once by stop(); guarded by lifecycle together with the offer in submit()
+    private boolean stopped;
+    private final Object lifecycle = new Object();
+
+    private record Pending(MessageDraft draft, CompletableFuture<Message> result) {}
+
+    @PostConstruct
+    public void start() {
+        open();
+        running = true;
+        writer = new Thread(this::drainLoop, "chat-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void open() {
+        queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Queue a message. The future completes with the stored message once its batch has
+     * committed, or exceptionally if it could not be stored.
+     * Throws RejectedExecutionException when the queue is full (backpressure) or the pipeline
+     * has been stopped.
+     */
+    public CompletableFuture<Message> submit(String senderId, String receiverId, String content) {
+        CompletableFuture<Message> result = new CompletableFuture<>();
+        synchronized (lifecycle) {
+            if (stopped) throw new RejectedExecutionException("Chat write pipeline is stopped");
+            if (!queue.offer(new Pending(new MessageDraft(senderId, receiverId, content), result))) {
+                throw new RejectedExecutionException("Chat write queue is full");
+            }
+        }
+        return result;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<MessageDraft> drafts = new ArrayList<>(batch.size());
+        for (Pending p : batch) drafts.add(p.draft());
+        try {
+            complete(batch, messageManager.saveBatch(drafts));
+        } catch (RuntimeException batchFailure) {
+            // one bad row must not fail its neighbours: retry each message on its own
+            for (Pending p : batch) {
+                try {
+                    complete(List.of(p), messageManager.saveBatch(List.of(p.draft())));
+                } catch (RuntimeException e) {
+                    p.result().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private static void complete(List<Pending> batch, List<Message> saved) {
+        for (int i = 0; i < batch.size(); i++) {
+            Message m = saved.get(i);
+            if (m == null) {
+                batch.get(i).result().completeExceptionally(new IllegalArgumentException("Unknown sender or receiver"));
+            } else {
+                batch.get(i).result().complete(m);
+            }
+        }
+    }
+
+    // lets the writer drain what is already queued before the context (and its DataSource) goes away
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        synchronized (lifecycle) {
+            stopped = true;
+            running = false;
+        }
+        if (writer != null) writer.join(TimeUnit.SECONDS.toMillis(10));
+        // whatever the writer did not get to (it timed out or was interrupted) fails instead of hanging
+        Pending left;
+        while ((left = queue.poll()) != null) {
+            left.result().completeExceptionally(new RejectedExecutionException("Chat write pipeline stopped before the message was stored"));
+        }
+    }
+}
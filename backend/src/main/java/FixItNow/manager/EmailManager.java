@@ -5,13 +5,21 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class EmailManager 
 {
 	@Autowired
 	JavaMailSender JMS;
+	@Autowired
+	MeterRegistry meters;
 	public String sendEmail(String tomail, String subject, String message)
 	{
+		// SMTP round trip, tagged with whether the mail server took it
+		Timer.Sample sample = Timer.start(meters);
+		String outcome = "failure";
 		try 
 		{
 			SimpleMailMessage simplemessage = new SimpleMailMessage();
@@ -20,11 +28,15 @@ public class EmailManager
 			simplemessage.setSubject(subject);
 			simplemessage.setText(message);
 			JMS.send(simplemessage);
+			outcome = "success";
 			return "200::Password sent to registered Mail ID";
 		}
 		catch (Exception e) {
 			return "401::"+e.getMessage();
 		}
+		finally {
+			sample.stop(meters.timer("email.send", "outcome", outcome));
+		}
 		
 	}
 
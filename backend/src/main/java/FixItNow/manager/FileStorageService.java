@@ -1,5 +1,6 @@
 package FixItNow.manager;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.UrlResource;
 import org.springframework.core.io.Resource;
@@ -7,8 +8,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.*;
 import java.util.UUID;
 
@@ -19,6 +21,9 @@ public class FileStorageService {
     private final long maxBytes;
     private final boolean enforcePdf;
 
+    @Autowired
+    private MeterRegistry meters;
+
     public FileStorageService(
             @Value("${app.upload.dir:uploads}") String uploadDir,
             @Value("${app.upload.max-bytes:1048576}") long maxBytes, // default 1MB
@@ -72,7 +77,8 @@ public class FileStorageService {
             if (!target.toAbsolutePath().startsWith(this.rootLocation.toAbsolutePath())) {
                 throw new SecurityException("Cannot store file outside current directory.");
             }
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+            long bytes = Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+            countBytes("in", bytes);
             return target.toString();
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file " + original, e);
@@ -94,15 +100,21 @@ public class FileStorageService {
             }
             Resource resource = new UrlResource(file.toUri());
             if (resource.exists() && resource.isReadable()) {
+                // counted when handed out for streaming
+                countBytes("out", Files.size(file));
                 return resource;
             } else {
                 return null;
             }
-        } catch (MalformedURLException e) {
+        } catch (IOException e) {
             return null;
         }
     }
 
+    private void countBytes(String direction, long bytes) {
+        meters.counter("file.storage.bytes", "direction", direction).increment(bytes);
+    }
+
     /**
      * Helper: returns the configured root uploads path (useful for debugging/tests).
      */
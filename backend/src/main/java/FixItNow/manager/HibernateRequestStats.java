@@ -0,0 +1,56 @@
+package FixItNow.manager;
+
+import java.util.Map;
+
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares and the entities it loads on the current thread
+ * while a scope is open (RequestMetricsFilter opens one per HTTP request). Threads without a
+ * scope, such as the chat writer, are not counted. Registered with Hibernate as both the
+ * statement inspector and the session-factory interceptor.
+ */
+@Component
+public class HibernateRequestStats implements StatementInspector, Interceptor, HibernatePropertiesCustomizer {
+
+    private static final long serialVersionUID = 1L;
+
+    /** statements, entity loads */
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> properties) {
+        properties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        properties.put(AvailableSettings.INTERCEPTOR, this);
+    }
+
+    /** Start counting on this thread; returns the counters end() will read. */
+    public long[] begin() {
+        long[] counts = new long[2];
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    public void end() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        long[] counts = CURRENT.get();
+        if (counts != null) counts[0]++;
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        long[] counts = CURRENT.get();
+        if (counts != null) counts[1]++;
+        return false;
+    }
+}
@@ -0,0 +1,206 @@
+package FixItNow.manager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import FixItNow.repository.IdSequenceRepository;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hands out prefixed ids ("U12", "B40", ...) from blocks reserved in the id_sequences table.
+ * Each node bumps the prefix's row by one block with a single UPDATE and then serves the
+ * block from memory, so allocation cost does not depend on how many rows the tables hold
+ * and nodes never hand out the same id. The next block is reserved on a background thread once
+ * the current one is half used: next() runs inside the callers' transactions, and reserving
+ * there would take a second pooled connection while others wait on the first.
+ */
+@Service
+public class IdAllocator {
+
+    @Autowired
+    private IdSequenceRepository isr;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.ids.block-size:50}")
+    private long blockSize = 50;
+
+    // seed candidates read per query; more pages are only needed when the longest ids are not numeric
+    static final int SEED_PAGE = 16;
+
+    private final ConcurrentMap<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    // where blocks are reserved; its threads never hold a request's connection
+    private Executor refills = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "id-refill");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * A prefix's ids ordered longest first, then descending (ORDER BY LENGTH(id) DESC, id DESC),
+     * so the first numeric one has the highest suffix.
+     */
+    @FunctionalInterface
+    public interface IdSource {
+        List<String> page(Pageable page);
+    }
+
+    /**
+     * Next id for the prefix. existingIds is only consulted the very first time a prefix is used
+     * (no sequence row yet) to start the sequence after the highest numeric suffix already stored.
+     */
+    public String next(String prefix, IdSource existingIds) {
+        Sequence seq = sequence(prefix);
+        while (true) {
+            Block block = seq.current.get();
+            long n = block.cursor.getAndIncrement();
+            if (n < block.limit) {
+                if (n == block.refillAt) refillAhead(seq, prefix, existingIds);
+                return prefix + n;
+            }
+            // block exhausted - one thread per prefix swaps in the block reserved ahead
+            synchronized (seq) {
+                if (seq.current.get() == block) seq.current.set(takeAhead(seq, prefix, existingIds));
+            }
+        }
+    }
+
+    /** Start reserving the prefix's first block now (at startup), so no request waits for it. */
+    public void prefetch(String prefix, IdSource existingIds) {
+        refillAhead(sequence(prefix), prefix, existingIds);
+    }
+
+    private Sequence sequence(String prefix) {
+        return sequences.computeIfAbsent(prefix, p -> new Sequence());
+    }
+
+    private void refillAhead(Sequence seq, String prefix, IdSource existingIds) {
+        if (seq.ahead.get() != null) return;
+        CompletableFuture<Block> block = new CompletableFuture<>();
+        if (!seq.ahead.compareAndSet(null, block)) return;
+        refills.execute(() -> {
+            try {
+                long end = reserveBlock(prefix, existingIds);
+                block.complete(new Block(end - blockSize, end));
+            } catch (Throwable t) {
+                block.completeExceptionally(t);
+            }
+        });
+    }
+
+    // caller holds seq's monitor; only waits when the block ahead has not arrived yet
+    private Block takeAhead(Sequence seq, String prefix, IdSource existingIds) {
+        refillAhead(seq, prefix, existingIds);
+        CompletableFuture<Block> block = seq.ahead.getAndSet(null);
+        try {
+            return block.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refills instanceof ExecutorService es) es.shutdownNow();
+    }
+
+    /**
+     * Reserve the next block for the prefix and return its exclusive upper bound.
+     * Runs on a refill thread, in its own transaction, so the row lock is released as soon as
+     * the block is claimed.
+     */
+    protected long reserveBlock(String prefix, IdSource existingIds) {
+        return advance(prefix, blockSize, existingIds);
+    }
+
+    /**
+     * Reserve count consecutive ids in one step (bulk loads) and return the first number;
+     * prefix + first ... prefix + (first + count - 1) are never handed out by next().
+     */
+    public long reserveRange(String prefix, long count, IdSource existingIds) {
+        if (count <= 0) throw new IllegalArgumentException("count must be positive");
+        return advance(prefix, count, existingIds) - count;
+    }
+
+    private long advance(String prefix, long size, IdSource existingIds) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Long end = tx.execute(status -> isr.advance(prefix, size) == 0 ? null : isr.currentValue(prefix));
+        if (end != null) return end;
+
+        // first use of this prefix: start after the highest id already stored
+        long first = maxSuffix(prefix, existingIds) + 1;
+        try {
+            tx.executeWithoutResult(status -> isr.insertSequence(prefix, first));
+        } catch (DataIntegrityViolationException ignored) {
+            // another node created the row first - use theirs
+        }
+
+        end = tx.execute(status -> isr.advance(prefix, size) == 0 ? null : isr.currentValue(prefix));
+        if (end == null) throw new IllegalStateException("Could not reserve ids for prefix " + prefix);
+        return end;
+    }
+
+    // first numeric suffix in IdSource order: usually one indexed query returning SEED_PAGE ids
+    static long maxSuffix(String prefix, IdSource existingIds) {
+        if (existingIds == null) return 0;
+        for (int p = 0; ; p++) {
+            List<String> ids = existingIds.page(PageRequest.of(p, SEED_PAGE));
+            for (String id : ids) {
+                if (id == null || !id.startsWith(prefix)) continue;
+                String suffix = id.substring(prefix.length());
+                // skip non-numeric suffixes ("U-P4", "Uabc"); parseLong alone would accept "-4"
+                if (suffix.isEmpty() || !suffix.chars().allMatch(c -> c >= '0' && c <= '9')) continue;
+                try {
+                    return Long.parseLong(suffix);
+                } catch (NumberFormatException ignored) {
+                    // longer than a long
+                }
+            }
+            if (ids.size() < SEED_PAGE) return 0;
+        }
+    }
+
+    private static final class Sequence {
+        final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+        // the block after current, once its reservation has started
+        final AtomicReference<CompletableFuture<Block>> ahead = new AtomicReference<>();
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(0, 0);
+
+        final AtomicLong cursor;
+        final long limit;
+        // handing out this number starts reserving the next block
+        final long refillAt;
+
+        Block(long start, long limit) {
+            this.cursor = new AtomicLong(start);
+            this.limit = limit;
+            this.refillAt = start + (limit - start) / 2;
+        }
+    }
+}
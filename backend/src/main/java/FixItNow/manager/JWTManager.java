@@ -8,6 +8,7 @@ import javax.crypto.SecretKey;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -16,6 +17,8 @@ public class JWTManager
 {
 	public final String SEC_KEY = "qwertyuiopasdfghjklzxcvbnm7896541230";
 	public final SecretKey key = Keys.hmacShaKeyFor(SEC_KEY.getBytes());
+	// parsers are immutable and thread-safe: build once instead of per request
+	private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 	
 	public String generateToken(String email)
 	{
@@ -31,11 +34,7 @@ public class JWTManager
 	
 	public String validateToken(String token)
 	{
-		Claims claims = Jwts.parserBuilder()
-				.setSigningKey(key)
-				.build()
-				.parseClaimsJws(token)
-				.getBody();
+		Claims claims = parse(token);
 		Date expiry = claims.getExpiration();
 		if(expiry == null || expiry.before(new Date()))
 		{
@@ -47,4 +46,10 @@ public class JWTManager
 		}
 	}
 
+	/** Verify the signature and return the claims; throws JwtException when invalid or expired. */
+	public Claims parse(String token)
+	{
+		return parser.parseClaimsJws(token).getBody();
+	}
+
 }
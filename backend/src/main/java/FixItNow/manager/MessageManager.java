@@ -1,11 +1,44 @@
 package FixItNow.manager;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import FixItNow.model.Conversation;
+import FixItNow.model.ConversationSummary;
+import FixItNow.model.ConversationUpdated;
+import FixItNow.model.KeysetPage;
 import FixItNow.model.Message;
+import FixItNow.model.MessageDTO;
+import FixItNow.model.MessageDraft;
 import FixItNow.model.Users;
+import FixItNow.repository.ConversationRepository;
 import FixItNow.repository.MessageRepository;
 import FixItNow.repository.UsersRepository;
+import jakarta.persistence.EntityManager;
 
 @Service
 public class MessageManager {
@@ -16,23 +49,256 @@ public class MessageManager {
     @Autowired
     private UsersRepository usersRepository;
 
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
     /**
      * Persist a message given senderId, receiverId and content.
      * Returns the saved Message entity with id and sentAt.
+     * The pair's conversations row is updated in the same transaction, and a
+     * ConversationUpdated event is published for the inbox push.
      */
     public Message saveMessage(String senderId, String receiverId, String content) {
-        Users sender = usersRepository.findById(senderId).orElse(null);
-        Users receiver = usersRepository.findById(receiverId).orElse(null);
-
-        Message msg = new Message();
-        msg.setSender(sender);
-        msg.setReceiver(receiver);
-        msg.setContent(content);
-        
         System.out.println("[MessageManager] saveMessage senderId=" + senderId + " receiverId=" + receiverId + " content=" + content);
 
-        return messageRepository.save(msg);
-        
-       
+        Message saved = saveBatch(List.of(new MessageDraft(senderId, receiverId, content))).get(0);
+        if (saved == null) throw new IllegalArgumentException("Unknown sender or receiver");
+        return saved;
+    }
+
+    /**
+     * Persist several messages in one transaction: one user lookup for the whole batch, one
+     * (JDBC-batched) insert round trip for the messages and one update per conversation touched.
+     * The result is aligned with drafts; an entry is null when its sender or receiver does not exist.
+     * Not @Transactional on purpose: missing conversation rows are created first, each in its own
+     * short transaction, so the message transaction never waits for a second pooled connection.
+     */
+    public List<Message> saveBatch(List<MessageDraft> drafts) {
+        Set<String> userIds = new HashSet<>();
+        for (MessageDraft d : drafts) {
+            if (d.senderId() != null) userIds.add(d.senderId());
+            if (d.receiverId() != null) userIds.add(d.receiverId());
+        }
+        Map<String, Users> users = new HashMap<>();
+        for (Users u : usersRepository.findAllById(userIds)) users.put(u.getId(), u);
+
+        Map<String, ConversationDelta> deltas = new LinkedHashMap<>();
+        for (MessageDraft d : drafts) {
+            Users sender = users.get(d.senderId());
+            Users receiver = users.get(d.receiverId());
+            if (sender == null || receiver == null) continue;
+            deltas.computeIfAbsent(Conversation.keyOf(sender.getId(), receiver.getId()),
+                    k -> new ConversationDelta(sender, receiver));
+        }
+        if (deltas.isEmpty()) return Arrays.asList(new Message[drafts.size()]);
+
+        List<String> existing = conversationRepository.findExistingIds(deltas.keySet());
+        for (Map.Entry<String, ConversationDelta> e : deltas.entrySet()) {
+            ConversationDelta d = e.getValue();
+            if (!existing.contains(e.getKey())) createConversation(e.getKey(), d.userA.getId(), d.userB.getId());
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return tx.execute(status -> writeBatch(drafts, users, deltas));
+    }
+
+    private List<Message> writeBatch(List<MessageDraft> drafts, Map<String, Users> users, Map<String, ConversationDelta> deltas) {
+        List<Message> saved = new ArrayList<>(drafts.size());
+        List<Message> toInsert = new ArrayList<>(drafts.size());
+        for (MessageDraft d : drafts) {
+            Users sender = users.get(d.senderId());
+            Users receiver = users.get(d.receiverId());
+            if (sender == null || receiver == null) {
+                saved.add(null);
+                continue;
+            }
+            Message msg = new Message();
+            msg.setSender(sender);
+            msg.setReceiver(receiver);
+            msg.setContent(d.content());
+            saved.add(msg);
+            toInsert.add(msg);
+        }
+        messageRepository.saveAll(toInsert);
+
+        // fold the batch into one update per conversation: last message plus unread counts per side
+        for (Message m : toInsert) {
+            deltas.get(Conversation.keyOf(m.getSender().getId(), m.getReceiver().getId())).add(m);
+        }
+        for (Map.Entry<String, ConversationDelta> e : deltas.entrySet()) {
+            ConversationDelta d = e.getValue();
+            conversationRepository.recordMessages(e.getKey(), d.last.getId(), d.last.getSender().getId(),
+                    Conversation.preview(d.last.getContent()),
+                    d.last.getSentAt() != null ? d.last.getSentAt() : LocalDateTime.now(), d.unreadA, d.unreadB);
+        }
+        for (Conversation c : conversationRepository.findAllById(deltas.keySet())) {
+            ConversationDelta d = deltas.get(c.getId());
+            events.publishEvent(updatedEvent(c, d.userA, d.userB));
+        }
+        return saved;
+    }
+
+    // what one batch does to one conversation
+    private static final class ConversationDelta {
+        final Users userA;
+        final Users userB;
+        Message last;
+        int unreadA;
+        int unreadB;
+
+        ConversationDelta(Users one, Users two) {
+            boolean ordered = one.getId().compareTo(two.getId()) <= 0;
+            this.userA = ordered ? one : two;
+            this.userB = ordered ? two : one;
+        }
+
+        void add(Message m) {
+            last = m;
+            String sender = m.getSender().getId();
+            if (!sender.equals(userA.getId())) unreadA++;
+            if (!sender.equals(userB.getId())) unreadB++;
+        }
+    }
+
+    private static ConversationUpdated updatedEvent(Conversation c, Users userA, Users userB) {
+        return new ConversationUpdated(c.getUserA(), userA.getName(), c.getUnreadA(), c.getUserB(), userB.getName(), c.getUnreadB(),
+                c.getLastMessageId(), c.getLastSenderId(), c.getLastPreview(), c.getLastAt());
+    }
+
+    // first message between the pair: create the row in its own transaction (before the message
+    // transaction opens) so that one only ever takes a row lock, never a gap lock on a missing key
+    private void createConversation(String key, String user1, String user2) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        boolean ordered = user1.compareTo(user2) <= 0;
+        try {
+            tx.executeWithoutResult(status -> conversationRepository.insertEmpty(key,
+                    ordered ? user1 : user2, ordered ? user2 : user1));
+        } catch (DataIntegrityViolationException ignored) {
+            // the other side's first message created it
+        }
+    }
+
+    /** The user's inbox, newest conversation first: one row per peer, no message history read. */
+    public List<ConversationSummary> getConversations(String userId) {
+        List<ConversationSummary> out = new ArrayList<>(conversationRepository.findInboxAsUserA(userId));
+        out.addAll(conversationRepository.findInboxAsUserB(userId));
+        out.sort(Comparator.comparing(ConversationSummary::getLastAt,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return out;
+    }
+
+    /**
+     * One page of the history between userA and userB, oldest first. Without a cursor it is the
+     * latest limit messages; "before" pages back towards older messages and "after" forward to
+     * newer ones. nextCursor continues in the same direction and is null when there is no more.
+     */
+    public KeysetPage<MessageDTO> getHistoryPage(String userA, String userB, String before, String after, Integer limit) {
+        if (before != null && after != null) throw new IllegalArgumentException("Pass either before or after, not both");
+        String key = Conversation.keyOf(userA, userB);
+        int n = KeysetPage.clampLimit(limit);
+
+        if (after != null) {
+            String[] c = parseCursor(after);
+            List<MessageDTO> rows = messageRepository.findAfterInConversation(key, LocalDateTime.parse(c[0]), c[1], Limit.of(n));
+            String next = rows.size() == n ? cursorOf(rows.get(rows.size() - 1)) : null;
+            return new KeysetPage<>(rows, next);
+        }
+
+        List<MessageDTO> rows;
+        if (before != null) {
+            String[] c = parseCursor(before);
+            rows = messageRepository.findBeforeInConversation(key, LocalDateTime.parse(c[0]), c[1], Limit.of(n));
+        } else {
+            rows = messageRepository.findLatestInConversation(key, Limit.of(n));
+        }
+        // fetched newest first so the index is read backwards from the cursor; the client wants oldest first
+        List<MessageDTO> ascending = new ArrayList<>(rows);
+        Collections.reverse(ascending);
+        String next = rows.size() == n ? cursorOf(ascending.get(0)) : null;
+        return new KeysetPage<>(ascending, next);
+    }
+
+    /** Cursor for a message: its sentAt and id, e.g. "2025-01-31T10:15:30.123_M1a2b3c4d5e6f". */
+    public static String cursorOf(MessageDTO m) {
+        return m.sentAt + "_" + m.id;
+    }
+
+    private static String[] parseCursor(String cursor) {
+        int sep = cursor.lastIndexOf('_');
+        if (sep <= 0 || sep == cursor.length() - 1) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        String[] parts = { cursor.substring(0, sep), cursor.substring(sep + 1) };
+        try {
+            LocalDateTime.parse(parts[0]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return parts;
+    }
+
+    /** Clear the user's unread count for the conversation with peerId. */
+    @Transactional
+    public void markRead(String userId, String peerId) {
+        conversationRepository.markRead(Conversation.keyOf(userId, peerId), userId);
+    }
+
+    // messages stored before conversation_id existed get their key, 500 rows per transaction
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversationIds() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int updated;
+        do {
+            updated = tx.execute(status -> {
+                List<Object[]> rows = messageRepository.findWithoutConversationId(Limit.of(500));
+                for (Object[] row : rows) {
+                    messageRepository.setConversationId((String) row[0], Conversation.keyOf((String) row[1], (String) row[2]));
+                }
+                return rows.size();
+            });
+        } while (updated > 0);
+    }
+
+    // first start after upgrading: build conversations from the existing message history once
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversations() {
+        if (conversationRepository.count() > 0 || messageRepository.count() == 0) return;
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Map<String, Conversation> latest = new HashMap<>();
+            try (Stream<Message> rows = messageRepository.streamAllOrderBySentAt()) {
+                Iterator<Message> it = rows.iterator();
+                int n = 0;
+                while (it.hasNext()) {
+                    Message m = it.next();
+                    if (m.getSender() != null && m.getReceiver() != null) {
+                        String a = m.getSender().getId();
+                        String b = m.getReceiver().getId();
+                        Conversation c = latest.computeIfAbsent(Conversation.keyOf(a, b), key -> {
+                            Conversation nc = new Conversation();
+                            nc.setId(key);
+                            nc.setUserA(a.compareTo(b) <= 0 ? a : b);
+                            nc.setUserB(a.compareTo(b) <= 0 ? b : a);
+                            return nc;
+                        });
+                        c.setLastMessageId(m.getId());
+                        c.setLastSenderId(a);
+                        c.setLastPreview(Conversation.preview(m.getContent()));
+                        c.setLastAt(m.getSentAt());
+                    }
+                    if (++n % 500 == 0) entityManager.clear();
+                }
+            }
+            // history predates unread tracking, so everything starts as read
+            for (Conversation c : latest.values()) entityManager.persist(c);
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package FixItNow.manager;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public method of the @Service beans in this package as app.method{class, method,
+ * exception}. Controllers are covered by Spring's http.server.requests. Calls a bean makes to its
+ * own methods bypass the proxy and count toward the caller.
+ */
+@Aspect
+@Component
+public class MethodTimingAspect {
+
+    @Autowired
+    private MeterRegistry meters;
+
+    // builder lookups are not free on hot paths; the success timer is resolved once per method
+    private final ConcurrentMap<Method, Timer> ok = new ConcurrentHashMap<>();
+
+    @Around("within(FixItNow.manager..*) && @within(org.springframework.stereotype.Service)")
+    public Object time(ProceedingJoinPoint call) throws Throwable {
+        long start = System.nanoTime();
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        try {
+            Object result = call.proceed();
+            ok.computeIfAbsent(method, m -> timer(call, m, "none")).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable t) {
+            timer(call, method, t.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw t;
+        }
+    }
+
+    private Timer timer(ProceedingJoinPoint call, Method method, String exception) {
+        return Timer.builder("app.method")
+                .description("Time spent in service methods")
+                .tag("class", call.getTarget().getClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(meters);
+    }
+}
@@ -0,0 +1,77 @@
+package FixItNow.manager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Writes a JPA result stream to the response as newline-delimited JSON, one row per
+ * line, while it is being read. The persistence context is cleared every FLUSH_EVERY
+ * rows so memory stays flat no matter how many rows the table has.
+ * <p>
+ * Controllers return it from a handler declared as ResponseEntity&lt;StreamingResponseBody&gt;
+ * with produces = NDJSON_VALUE: Spring only runs the body asynchronously when it can see that
+ * type in the signature. ?format=ndjson selects the same handler through content negotiation.
+ */
+@Service
+public class NdjsonExporter {
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+    private static final int FLUSH_EVERY = 500;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(Supplier<Stream<T>> source, Function<T, ?> view) {
+        StreamingResponseBody body = out -> {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.executeWithoutResult(status -> {
+                try (Stream<T> rows = source.get()) {
+                    writeRows(rows, view, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private <T> void writeRows(Stream<T> rows, Function<T, ?> view, OutputStream out) throws IOException {
+        int n = 0;
+        Iterator<T> it = rows.iterator();
+        while (it.hasNext()) {
+            T row = it.next();
+            out.write(objectMapper.writeValueAsBytes(view.apply(row)));
+            out.write('\n');
+            if (++n % FLUSH_EVERY == 0) {
+                out.flush();
+                entityManager.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package FixItNow.manager;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.model.FacetCount;
+import FixItNow.model.ProviderFacetResult;
+import FixItNow.model.ServicesVerified;
+import FixItNow.repository.ServicesRepository;
+
+/**
+ * Faceted provider filtering behind GET /service/facets. Every provider with a service gets a
+ * dense int ordinal, and each facet value (category, subcategory name, verification state,
+ * weekday) keeps the providers that have it as a bitmap. A query ORs the selected values of a
+ * facet, ANDs the facets together and counts every value against the other facets' filters,
+ * all with word-level bit operations. Writers call refresh(providerId) after a provider's
+ * services change.
+ */
+@Service
+public class ProviderFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String SUBCATEGORY = "subcategory";
+    public static final String VERIFIED = "verified";
+    public static final String DAY = "day";
+    static final String[] FACETS = {CATEGORY, SUBCATEGORY, VERIFIED, DAY};
+    private static final int F_CATEGORY = 0, F_SUBCATEGORY = 1, F_VERIFIED = 2, F_DAY = 3;
+    // category and subcategory are open-ended; only the most common values are counted back
+    static final int MAX_VALUES_PER_FACET = 50;
+
+    @Autowired
+    private ServicesRepository sr;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // per facet: value key -> providers with that value; verified and day are pre-filled in enum order
+    private final List<Map<String, Bitmap>> values = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    // by ordinal; an ordinal stays reserved for its provider even while they have no service
+    private String[] providerIds = new String[1024];
+    // value keys per facet of each indexed provider, so a refresh can clear the old bits
+    private String[][][] keysOf = new String[1024][][];
+    // providers that have at least one service
+    private long[] live = new long[16];
+    private int size;
+
+    // reloads made while a rebuild reads the table, replayed over its result; null otherwise
+    private List<Runnable> duringRebuild;
+    // one rebuild at a time
+    private final Object rebuilding = new Object();
+
+    public ProviderFacetIndex() {
+        for (int f = 0; f < FACETS.length; f++) values.add(new LinkedHashMap<>());
+        resetEnumFacets();
+    }
+
+    /**
+     * A set of ordinals: a sorted int array while sparse, a word array once it holds more than
+     * one ordinal in 32 (where the array would outgrow the bits).
+     */
+    static final class Bitmap {
+        final String label;
+        private int[] sparse = new int[4];
+        private long[] words;
+        private int card;
+
+        Bitmap(String label) {
+            this.label = label;
+        }
+
+        int cardinality() {
+            return card;
+        }
+
+        void add(int ord, int universe) {
+            if (words != null) {
+                int w = ord >>> 6;
+                if (w >= words.length) words = Arrays.copyOf(words, Math.max(w + 1, words.length * 2));
+                long bit = 1L << ord;
+                if ((words[w] & bit) == 0) {
+                    words[w] |= bit;
+                    card++;
+                }
+                return;
+            }
+            int i = Arrays.binarySearch(sparse, 0, card, ord);
+            if (i >= 0) return;
+            i = -i - 1;
+            if (card == sparse.length) sparse = Arrays.copyOf(sparse, card * 2);
+            System.arraycopy(sparse, i, sparse, i + 1, card - i);
+            sparse[i] = ord;
+            card++;
+            if (card > 64 && card > universe >>> 5) densify(universe);
+        }
+
+        void remove(int ord) {
+            if (words != null) {
+                int w = ord >>> 6;
+                long bit = 1L << ord;
+                if (w < words.length && (words[w] & bit) != 0) {
+                    words[w] &= ~bit;
+                    card--;
+                }
+                return;
+            }
+            int i = Arrays.binarySearch(sparse, 0, card, ord);
+            if (i < 0) return;
+            System.arraycopy(sparse, i + 1, sparse, i, card - i - 1);
+            card--;
+        }
+
+        private void densify(int universe) {
+            long[] w = new long[(universe >>> 6) + 1];
+            for (int k = 0; k < card; k++) w[sparse[k] >>> 6] |= 1L << sparse[k];
+            words = w;
+            sparse = null;
+        }
+
+        void orInto(long[] acc) {
+            if (words != null) {
+                int n = Math.min(words.length, acc.length);
+                for (int i = 0; i < n; i++) acc[i] |= words[i];
+            } else {
+                for (int k = 0; k < card; k++) acc[sparse[k] >>> 6] |= 1L << sparse[k];
+            }
+        }
+
+        int countIn(long[] mask) {
+            int c = 0;
+            if (words != null) {
+                int n = Math.min(words.length, mask.length);
+                for (int i = 0; i < n; i++) c += Long.bitCount(words[i] & mask[i]);
+            } else {
+                for (int k = 0; k < card; k++) {
+                    int o = sparse[k];
+                    if ((mask[o >>> 6] & (1L << o)) != 0) c++;
+                }
+            }
+            return c;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuilding) {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                rebuildFromTable();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    duringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    // the table is read without the lock so queries go on meanwhile; a reload that lands in
+    // between may or may not be in the rows, so it is applied again on top (apply is idempotent)
+    private void rebuildFromTable() {
+        // rows come ordered by provider, so each provider's services are adjacent
+        List<Object[]> rows = sr.findFacetFields();
+        List<String> ids = new ArrayList<>();
+        List<List<Map<String, String>>> extracted = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i < rows.size() && rows.get(i)[0].equals(rows.get(from)[0])) continue;
+            ids.add((String) rows.get(from)[0]);
+            extracted.add(extract(rows.subList(from, i)));
+            from = i;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Map<String, Bitmap> m : values) m.clear();
+            resetEnumFacets();
+            ordinals.clear();
+            providerIds = new String[Math.max(1024, ids.size())];
+            keysOf = new String[providerIds.length][][];
+            live = new long[(providerIds.length >>> 6) + 1];
+            size = 0;
+            for (int i = 0; i < ids.size(); i++) apply(ids.get(i), extracted.get(i));
+            duringRebuild.forEach(Runnable::run);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void resetEnumFacets() {
+        for (ServicesVerified v : ServicesVerified.values()) values.get(F_VERIFIED).put(v.name(), new Bitmap(v.name()));
+        for (DayOfWeek d : DayOfWeek.values()) values.get(F_DAY).put(d.name(), new Bitmap(d.name()));
+    }
+
+    /**
+     * Re-read the provider's services and move them between facet values. Inside a transaction
+     * this runs after commit, so a rolled-back change never reaches the index.
+     */
+    public void refresh(String providerId) {
+        if (providerId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(providerId);
+                }
+            });
+        } else {
+            reload(providerId);
+        }
+    }
+
+    private void reload(String providerId) {
+        List<Object[]> rows = sr.findFacetFieldsByProviderId(providerId);
+        List<Map<String, String>> extracted = rows.isEmpty() ? null : extract(rows);
+        lock.writeLock().lock();
+        try {
+            apply(providerId, extracted);
+            if (duringRebuild != null) duringRebuild.add(() -> apply(providerId, extracted));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            int n = 0;
+            for (long w : live) n += Long.bitCount(w);
+            return n;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // facetValues: per facet, value key -> label; null when the provider has no service left
+    private void apply(String providerId, List<Map<String, String>> facetValues) {
+        Integer existing = ordinals.get(providerId);
+        if (existing != null) clear(existing);
+        if (facetValues == null) return;
+        int ord = existing != null ? existing : newOrdinal(providerId);
+        String[][] keys = new String[FACETS.length][];
+        for (int f = 0; f < FACETS.length; f++) {
+            Map<String, String> vals = facetValues.get(f);
+            keys[f] = vals.keySet().toArray(new String[0]);
+            for (Map.Entry<String, String> e : vals.entrySet()) {
+                values.get(f).computeIfAbsent(e.getKey(), k -> new Bitmap(e.getValue())).add(ord, size);
+            }
+        }
+        keysOf[ord] = keys;
+        live[ord >>> 6] |= 1L << ord;
+    }
+
+    private int newOrdinal(String providerId) {
+        int ord = size++;
+        if (ord == providerIds.length) {
+            providerIds = Arrays.copyOf(providerIds, ord * 2);
+            keysOf = Arrays.copyOf(keysOf, ord * 2);
+        }
+        if (ord >>> 6 >= live.length) live = Arrays.copyOf(live, live.length * 2);
+        providerIds[ord] = providerId;
+        ordinals.put(providerId, ord);
+        return ord;
+    }
+
+    private void clear(int ord) {
+        String[][] keys = keysOf[ord];
+        if (keys == null) return;
+        for (int f = 0; f < FACETS.length; f++) {
+            for (String k : keys[f]) {
+                Bitmap b = values.get(f).get(k);
+                if (b == null) continue;
+                b.remove(ord);
+                if (b.cardinality() == 0 && (f == F_CATEGORY || f == F_SUBCATEGORY)) values.get(f).remove(k);
+            }
+        }
+        keysOf[ord] = null;
+        live[ord >>> 6] &= ~(1L << ord);
+    }
+
+    /**
+     * Providers matching every facet in filters (any of the listed values within a facet), a page
+     * of their ids in ordinal order, and for each facet the counts of its values under the
+     * filters on the other facets.
+     */
+    public ProviderFacetResult query(Map<String, ? extends Collection<String>> filters, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int nWords = (size + 63) >>> 6;
+            long[][] masks = new long[FACETS.length][];
+            for (int f = 0; f < FACETS.length; f++) {
+                Collection<String> selected = filters.get(FACETS[f]);
+                if (selected == null || selected.isEmpty()) continue;
+                long[] m = new long[nWords];
+                for (String v : selected) {
+                    Bitmap b = values.get(f).get(key(f, v));
+                    if (b != null) b.orInto(m);
+                }
+                masks[f] = m;
+            }
+
+            long[] match = andAll(masks, -1, nWords);
+            if (match == null) match = Arrays.copyOf(live, nWords);
+            int total = 0;
+            for (long w : match) total += Long.bitCount(w);
+            List<String> page = new ArrayList<>(Math.max(0, Math.min(limit, total - offset)));
+            int seen = 0;
+            for (int i = 0; i < nWords && page.size() < limit; i++) {
+                long w = match[i];
+                if (seen + Long.bitCount(w) <= offset) {
+                    seen += Long.bitCount(w);
+                    continue;
+                }
+                while (w != 0 && page.size() < limit) {
+                    int ord = (i << 6) + Long.numberOfTrailingZeros(w);
+                    w &= w - 1;
+                    if (seen++ >= offset) page.add(providerIds[ord]);
+                }
+            }
+
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            for (int f = 0; f < FACETS.length; f++) {
+                // null: no filter on the other facets, and every bitmap only holds live providers
+                long[] others = andAll(masks, f, nWords);
+                List<FacetCount> counts = new ArrayList<>();
+                for (Bitmap b : values.get(f).values()) {
+                    int c = others == null ? b.cardinality() : b.countIn(others);
+                    if (c > 0) counts.add(new FacetCount(b.label, c));
+                }
+                if (f == F_CATEGORY || f == F_SUBCATEGORY) {
+                    counts.sort(Comparator.comparingInt(FacetCount::count).reversed().thenComparing(FacetCount::value));
+                    if (counts.size() > MAX_VALUES_PER_FACET) counts = new ArrayList<>(counts.subList(0, MAX_VALUES_PER_FACET));
+                }
+                facets.put(FACETS[f], counts);
+            }
+            return new ProviderFacetResult(total, page, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // AND of every facet mask except skip, restricted to live providers; null when there is none
+    private long[] andAll(long[][] masks, int skip, int nWords) {
+        long[] out = null;
+        for (int f = 0; f < masks.length; f++) {
+            if (f == skip || masks[f] == null) continue;
+            if (out == null) {
+                out = masks[f].clone();
+            } else {
+                long[] m = masks[f];
+                for (int i = 0; i < nWords; i++) out[i] &= m[i];
+            }
+        }
+        if (out != null) {
+            for (int i = 0; i < nWords; i++) out[i] &= live[i];
+        }
+        return out;
+    }
+
+    private static String key(int facet, String value) {
+        if (value == null) return "";
+        String v = value.trim();
+        switch (facet) {
+            case F_VERIFIED:
+                return v.toUpperCase(Locale.ROOT);
+            case F_DAY:
+                DayOfWeek d = WeeklySchedule.parseDay(v);
+                return d == null ? "" : d.name();
+            default:
+                return v.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // per facet, value key -> label, over all of one provider's services
+    private List<Map<String, String>> extract(List<Object[]> rows) {
+        List<Map<String, String>> out = new ArrayList<>(FACETS.length);
+        for (int f = 0; f < FACETS.length; f++) out.add(new LinkedHashMap<>());
+        for (Object[] r : rows) {
+            addValue(out, F_CATEGORY, (String) r[1]);
+            for (String sub : subcategoryNames((String) r[2])) addValue(out, F_SUBCATEGORY, sub);
+            if (r[3] != null) addValue(out, F_VERIFIED, ((ServicesVerified) r[3]).name());
+            for (DayOfWeek d : WeeklySchedule.of((byte[]) r[4], (String) r[5]).days()) addValue(out, F_DAY, d.name());
+        }
+        return out;
+    }
+
+    private static void addValue(List<Map<String, String>> out, int facet, String label) {
+        if (label == null || label.isBlank()) return;
+        out.get(facet).putIfAbsent(key(facet, label), label.trim());
+    }
+
+    // {"Leak repair": 300, ...} -> its keys; a plain string is one name
+    private List<String> subcategoryNames(String subcategory) {
+        if (subcategory == null || subcategory.isBlank()) return List.of();
+        String s = subcategory.trim();
+        if (!s.startsWith("{") && !s.startsWith("[")) return List.of(s);
+        try {
+            JsonNode node = objectMapper.readTree(s);
+            List<String> names = new ArrayList<>();
+            if (node.isObject()) {
+                node.fieldNames().forEachRemaining(names::add);
+            } else {
+                for (JsonNode n : node) {
+                    if (n.isTextual()) names.add(n.asText());
+                }
+            }
+            return names;
+        } catch (Exception e) {
+            return List.of();
+        }
+    }
+}
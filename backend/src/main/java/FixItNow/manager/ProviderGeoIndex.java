@@ -0,0 +1,200 @@
+package FixItNow.manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import FixItNow.model.NearbyProvider;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.UsersRepository;
+
+/**
+ * In-memory grid index over provider coordinates. The world is cut into fixed
+ * CELL_DEG x CELL_DEG cells, kept per row in column order. A nearest-k search visits rows
+ * outwards from the query's row and, in each, only the columns that can still hold a provider
+ * within the search distance at that row's latitude; it stops at the first row whose latitude
+ * gap alone is farther than the k-th best hit so far.
+ */
+@Service
+public class ProviderGeoIndex {
+
+    static final double CELL_DEG = 0.1;           // ~11 km at the equator
+    static final int ROWS = (int) Math.round(180 / CELL_DEG);
+    static final int COLS = (int) Math.round(360 / CELL_DEG);
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    // length of a degree of latitude on the haversine sphere, so row gaps never overestimate distance
+    private static final double KM_PER_DEG = EARTH_RADIUS_KM * Math.PI / 180;
+
+    @Autowired
+    private UsersRepository ur;
+
+    // row -> column -> providers in that cell
+    private final Map<Integer, NavigableMap<Integer, Map<String, Point>>> rows = new ConcurrentHashMap<>();
+    private final Map<String, Point> byId = new ConcurrentHashMap<>();
+
+    private record Point(String id, String name, String location, double lat, double lon, int row, int col) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        rows.clear();
+        byId.clear();
+        for (Users u : ur.findByRole(UserRole.PROVIDER)) {
+            put(u);
+        }
+    }
+
+    /** Insert, move or drop a provider after its coordinates change. Non-providers are ignored. */
+    public synchronized void put(Users u) {
+        if (u == null || u.getId() == null) return;
+        remove(u.getId());
+        if (u.getRole() != UserRole.PROVIDER || u.getLatitude() == null || u.getLongitude() == null) return;
+
+        double lat = u.getLatitude();
+        double lon = u.getLongitude();
+        Point p = new Point(u.getId(), u.getName(), u.getLocation(), lat, lon, row(lat), col(lon));
+        byId.put(p.id(), p);
+        rows.computeIfAbsent(p.row(), r -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(p.col(), c -> new ConcurrentHashMap<>())
+                .put(p.id(), p);
+    }
+
+    public synchronized void remove(String providerId) {
+        Point old = byId.remove(providerId);
+        if (old == null) return;
+        NavigableMap<Integer, Map<String, Point>> row = rows.get(old.row());
+        if (row == null) return;
+        Map<String, Point> bucket = row.get(old.col());
+        if (bucket != null) {
+            bucket.remove(providerId);
+            if (bucket.isEmpty()) row.remove(old.col());
+        }
+        if (row.isEmpty()) rows.remove(old.row());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /** Up to limit providers within radiusKm of (lat, lon), nearest first. */
+    public List<NearbyProvider> nearby(double lat, double lon, double radiusKm, int limit) {
+        if (limit <= 0 || radiusKm <= 0) return new ArrayList<>();
+
+        // max-heap on distance holding the best candidates found so far
+        PriorityQueue<NearbyProvider> best = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(NearbyProvider::getDistanceKm).reversed());
+
+        int row0 = row(lat);
+        for (int k = 0; k < ROWS; k++) {
+            boolean any = false;
+            for (int rr : k == 0 ? new int[] {row0} : new int[] {row0 - k, row0 + k}) {
+                if (rr < 0 || rr >= ROWS) continue;
+                double bound = best.size() == limit ? Math.min(radiusKm, best.peek().getDistanceKm()) : radiusKm;
+                double lo = rr * CELL_DEG - 90;
+                double hi = lo + CELL_DEG;
+                if (Math.max(0, Math.max(lo - lat, lat - hi)) * KM_PER_DEG > bound) continue;
+                any = true;
+                NavigableMap<Integer, Map<String, Point>> row = rows.get(rr);
+                if (row == null) continue;
+                for (Map<String, Point> bucket : columns(row, lon, maxLonDeg(lat, lo, hi, bound))) {
+                    for (Point p : bucket.values()) {
+                        double d = haversineKm(lat, lon, p.lat(), p.lon());
+                        if (d > radiusKm) continue;
+                        if (best.size() < limit) {
+                            best.add(toResult(p, d));
+                        } else if (d < best.peek().getDistanceKm()) {
+                            best.poll();
+                            best.add(toResult(p, d));
+                        }
+                    }
+                }
+            }
+            // row gaps only grow from here on
+            if (!any) break;
+        }
+
+        List<NearbyProvider> out = new ArrayList<>(best);
+        out.sort(Comparator.comparingDouble(NearbyProvider::getDistanceKm));
+        return out;
+    }
+
+    /**
+     * Cells of row whose columns lie within halfDeg of lon, each once: the span is capped at the
+     * whole row and, when it crosses the antimeridian, split into two disjoint column ranges.
+     */
+    private static Collection<Map<String, Point>> columns(NavigableMap<Integer, Map<String, Point>> row,
+                                                          double lon, double halfDeg) {
+        if (2 * halfDeg + CELL_DEG >= 360) return row.values();
+        int from = col(lon - halfDeg);
+        int to = col(lon + halfDeg);
+        if (from <= to) return row.subMap(from, true, to, true).values();
+        List<Map<String, Point>> out = new ArrayList<>(row.tailMap(from, true).values());
+        out.addAll(row.headMap(to, true).values());
+        return out;
+    }
+
+    /**
+     * Widest longitude offset (degrees) at which a point with latitude in [lo, hi] can be within
+     * km of latitude lat0; 180 when the whole parallel is in reach (near the poles). From the
+     * spherical law of cosines: cos(dLon) >= (cos(d) - sin(lat0) sin(lat)) / (cos(lat0) cos(lat)),
+     * maximised over the row at its edges or at asin(sin(lat0) / cos(d)).
+     */
+    static double maxLonDeg(double lat0, double lo, double hi, double km) {
+        double d = km / EARTH_RADIUS_KM;
+        if (d >= Math.PI / 2) return 180;
+        double phi0 = Math.toRadians(lat0);
+        double reach = Math.toDegrees(d);
+        lo = Math.max(lo, lat0 - reach);
+        hi = Math.min(hi, lat0 + reach);
+        if (lo > hi) return 0;
+        double widest = Math.max(lonReach(phi0, Math.toRadians(lo), d), lonReach(phi0, Math.toRadians(hi), d));
+        double s = Math.sin(phi0) / Math.cos(d);
+        if (Math.abs(s) <= 1) {
+            double peak = Math.toDegrees(Math.asin(s));
+            if (peak > lo && peak < hi) widest = Math.max(widest, lonReach(phi0, Math.toRadians(peak), d));
+        }
+        // a hair extra so a provider exactly on the limit is not lost to rounding
+        return Math.min(180, widest + 1e-9);
+    }
+
+    private static double lonReach(double phi0, double phi, double d) {
+        double den = Math.cos(phi0) * Math.cos(phi);
+        if (den < 1e-12) return 180;
+        double x = (Math.cos(d) - Math.sin(phi0) * Math.sin(phi)) / den;
+        if (x <= -1) return 180;
+        if (x >= 1) return 0;
+        return Math.toDegrees(Math.acos(x));
+    }
+
+    private static NearbyProvider toResult(Point p, double distanceKm) {
+        return new NearbyProvider(p.id(), p.name(), p.location(), p.lat(), p.lon(), distanceKm);
+    }
+
+    private static int row(double lat) {
+        int r = (int) Math.floor((lat + 90) / CELL_DEG);
+        return Math.min(Math.max(r, 0), ROWS - 1);
+    }
+
+    private static int col(double lon) {
+        return Math.floorMod((int) Math.floor((lon + 180) / CELL_DEG), COLS);
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
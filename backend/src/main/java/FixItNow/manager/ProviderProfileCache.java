@@ -0,0 +1,175 @@
+package FixItNow.manager;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+/**
+ * Read model behind GET /users/providers. Every provider's profile is kept as ready-to-write
+ * JSON bytes and the whole response array is assembled once and reused until something changes,
+ * so the endpoint does no DB or JSON work in steady state. Writers call refresh(providerId)
+ * after changing a provider's user row or service.
+ */
+@Service
+public class ProviderProfileCache {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private UsersRepository ur;
+
+    @Autowired
+    private ServicesRepository sr;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, byte[]> profiles = new ConcurrentSkipListMap<>();
+    private volatile byte[] assembled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        // first service per provider, the same one the old per-request lookup used
+        Map<String, Services> firstService = new HashMap<>();
+        for (Services s : sr.findAll()) {
+            if (s.getProvider() != null) firstService.putIfAbsent(s.getProvider().getId(), s);
+        }
+        profiles.clear();
+        for (Users u : ur.findByRole(UserRole.PROVIDER)) {
+            profiles.put(u.getId(), render(u, firstService.get(u.getId())));
+        }
+        assembled = null;
+    }
+
+    /** The JSON array served by /users/providers. */
+    public byte[] allProfilesJson() {
+        byte[] out = assembled;
+        if (out == null) {
+            synchronized (this) {
+                out = assembled;
+                if (out == null) {
+                    out = assemble();
+                    assembled = out;
+                }
+            }
+        }
+        return out;
+    }
+
+    /** The profiles of just these providers, in the order given; unknown ids are skipped. */
+    public byte[] profilesJson(Collection<String> ids) {
+        List<byte[]> picked = new ArrayList<>(ids.size());
+        for (String id : new LinkedHashSet<>(ids)) {
+            byte[] p = profiles.get(id);
+            if (p != null) picked.add(p);
+        }
+        return join(picked);
+    }
+
+    /**
+     * Re-render one provider (or drop it if it is no longer a provider). Inside a transaction
+     * the refresh runs after commit, so a rolled-back change never reaches the cache.
+     */
+    public void refresh(String providerId) {
+        if (providerId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(providerId);
+                }
+            });
+        } else {
+            reload(providerId);
+        }
+    }
+
+    private synchronized void reload(String providerId) {
+        Users u = ur.findById(providerId).orElse(null);
+        if (u == null || u.getRole() != UserRole.PROVIDER) {
+            profiles.remove(providerId);
+        } else {
+            List<Services> services = sr.findByProvider(u);
+            profiles.put(providerId, render(u, services == null || services.isEmpty() ? null : services.get(0)));
+        }
+        assembled = null;
+    }
+
+    private byte[] assemble() {
+        return join(profiles.values());
+    }
+
+    private static byte[] join(Collection<byte[]> parts) {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(Math.max(64, parts.size() * 512));
+        buf.write('[');
+        boolean first = true;
+        for (byte[] p : parts) {
+            if (!first) buf.write(',');
+            buf.writeBytes(p);
+            first = false;
+        }
+        buf.write(']');
+        return buf.toByteArray();
+    }
+
+    private byte[] render(Users user, Services service) {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("id", user.getId());
+        profile.put("name", user.getName());
+        profile.put("location", user.getLocation());
+        profile.put("phone", user.getPhno());
+        profile.put("email", user.getEmail());
+
+        if (service != null) {
+            profile.put("description", service.getDescription() == null ? "" : service.getDescription());
+            profile.put("availability", parseObject(service.getAvailability()));
+            profile.put("category", service.getCategory() == null ? "" : service.getCategory());
+            profile.put("verified", service.getVerified() == null ? "" : service.getVerified());
+            profile.put("subcategory", parseObject(service.getSubcategory()));
+        } else {
+            profile.put("description", "");
+            profile.put("availability", new HashMap<String, Object>());
+            profile.put("category", "");
+            profile.put("verified", "");
+            profile.put("subcategory", new HashMap<String, Object>());
+        }
+
+        try {
+            return objectMapper.writeValueAsBytes(profile);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render profile for provider " + user.getId(), e);
+        }
+    }
+
+    private Map<String, Object> parseObject(String json) {
+        if (json == null || json.trim().isEmpty()) return new HashMap<>();
+        try {
+            return objectMapper.readValue(json, MAP_TYPE);
+        } catch (Exception e) {
+            return new HashMap<>();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package FixItNow.manager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import FixItNow.model.ProviderRating;
+import FixItNow.model.ProviderRatingSummary;
+import FixItNow.repository.ProviderRatingRepository;
+import FixItNow.repository.ReviewsRepository;
+
+/**
+ * Per-provider rating aggregates (count, sum, star histogram, last review time).
+ * ReviewsManager.createReview calls ensureRow() before its transaction opens and record() in
+ * the same transaction as the review insert, so the aggregate commits or rolls back together
+ * with it and that transaction only ever updates an existing row.
+ */
+@Service
+public class ProviderRatingManager {
+
+    public static final int MAX_BULK_IDS = 500;
+    private static final int REBUILD_CHUNK = 500;
+
+    @Autowired
+    private ProviderRatingRepository prr;
+
+    @Autowired
+    private ReviewsRepository reviewsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Add one review to the provider's aggregate. Must run inside the review's transaction,
+     * after ensureRow() for the provider.
+     */
+    public void record(String providerId, int rating, LocalDateTime at) {
+        if (rating < 1 || rating > 5) throw new IllegalArgumentException("rating must be between 1 and 5");
+        if (prr.addRating(providerId, rating, at) == 0) {
+            throw new IllegalStateException("No rating aggregate for provider " + providerId);
+        }
+    }
+
+    /**
+     * Create the provider's zero row if missing. Call outside any transaction: the insert gets a
+     * pooled connection of its own, and a review transaction never takes a gap lock on a missing key.
+     */
+    public void ensureRow(String providerId) {
+        if (!prr.existsById(providerId)) createRow(providerId);
+    }
+
+    private void createRow(String providerId) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            tx.executeWithoutResult(status -> prr.insertEmpty(providerId));
+        } catch (DataIntegrityViolationException ignored) {
+            // another review created it first
+        }
+    }
+
+    public ProviderRatingSummary summary(String providerId) {
+        return prr.findById(providerId)
+                .map(ProviderRatingSummary::from)
+                .orElseGet(() -> ProviderRatingSummary.empty(providerId));
+    }
+
+    /** Summaries keyed by provider id, in request order; providers without reviews get an empty summary. */
+    public Map<String, ProviderRatingSummary> summaries(List<String> providerIds) {
+        Map<String, ProviderRatingSummary> ordered = new LinkedHashMap<>();
+        if (providerIds == null || providerIds.isEmpty()) return ordered;
+        if (providerIds.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_IDS + " provider ids per request");
+        }
+        Map<String, ProviderRatingSummary> found = new HashMap<>();
+        for (ProviderRating r : prr.findByProviderIdIn(providerIds)) {
+            found.put(r.getProviderId(), ProviderRatingSummary.from(r));
+        }
+        for (String id : providerIds) {
+            ordered.put(id, found.getOrDefault(id, ProviderRatingSummary.empty(id)));
+        }
+        return ordered;
+    }
+
+    /**
+     * Recompute every aggregate from the reviews table. Returns the number of providers with reviews.
+     * <p>
+     * Runs per chunk of providers while reviews keep coming in: each chunk's aggregate rows are
+     * locked first (a provider's first review creates its row beforehand, as record() does), and
+     * only then are its reviews counted. A review whose addRating already ran is committed and
+     * counted; one that has not yet run waits for the lock and lands on top of the recomputed row.
+     * Rows of providers left without reviews are zeroed rather than deleted, so a waiting addRating
+     * always finds its row.
+     */
+    public int rebuild() {
+        Set<String> ids = new TreeSet<>(prr.findAllProviderIds());
+        for (String id : reviewsRepository.findReviewedProviderIds()) {
+            if (ids.add(id)) createRow(id);
+        }
+        List<String> all = new ArrayList<>(ids);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int reviewed = 0;
+        for (int i = 0; i < all.size(); i += REBUILD_CHUNK) {
+            List<String> chunk = all.subList(i, Math.min(all.size(), i + REBUILD_CHUNK));
+            reviewed += tx.execute(status -> recompute(chunk));
+        }
+        return reviewed;
+    }
+
+    // locking read first, so the snapshot the GROUP BY reads from starts after the locks are held
+    private int recompute(List<String> providerIds) {
+        Map<String, ProviderRating> rows = new HashMap<>();
+        for (ProviderRating r : prr.lockByProviderIdIn(providerIds)) rows.put(r.getProviderId(), r);
+        Map<String, Object[]> totals = new HashMap<>();
+        for (Object[] a : reviewsRepository.aggregateByProviderIn(providerIds)) totals.put((String) a[0], a);
+
+        for (ProviderRating r : rows.values()) {
+            Object[] a = totals.getOrDefault(r.getProviderId(), new Object[9]);
+            r.setReviewCount(toLong(a[1]));
+            r.setRatingSum(toLong(a[2]));
+            r.setStars1(toLong(a[3]));
+            r.setStars2(toLong(a[4]));
+            r.setStars3(toLong(a[5]));
+            r.setStars4(toLong(a[6]));
+            r.setStars5(toLong(a[7]));
+            r.setLastReviewAt((LocalDateTime) a[8]);
+        }
+        return totals.size();
+    }
+
+    // first start after upgrading: fill the table from existing reviews
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (prr.count() == 0 && reviewsRepository.count() > 0) rebuild();
+    }
+
+    private static long toLong(Object o) {
+        return o == null ? 0 : ((Number) o).longValue();
+    }
+}
@@ -1,6 +1,7 @@
 package FixItNow.manager;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +15,7 @@ import FixItNow.repository.ServicesRepository;
 import FixItNow.repository.UsersRepository;
 
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Optional;
 
 @Service
@@ -27,6 +29,9 @@ public class ReportManager {
 	
 	@Autowired
     private BookingRepository bookingRepository;
+
+	@Autowired
+    private AnalyticsManager analytics;
 	
 
     @Transactional
@@ -56,7 +61,9 @@ public class ReportManager {
         r.setCategory(category);
         r.setBooking(booking);
 
-        return reportRepository.save(r);
+        Report saved = reportRepository.save(r);
+        analytics.record(AnalyticsManager.REPORTS, category + "/" + ReportEnum.Status.PENDING, AnalyticsManager.dayOf(saved.getCreatedAt()), 1);
+        return saved;
     }
     
     @Transactional(readOnly = true)
@@ -69,6 +76,16 @@ public class ReportManager {
         return reportRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<Report> findPage(Integer after, int limit) {
+        return reportRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0 : after, Limit.of(limit));
+    }
+
+    // Must be consumed inside a transaction (see NdjsonExporter)
+    public Stream<Report> streamAll() {
+        return reportRepository.streamAllOrderById();
+    }
+
     public java.util.List<Report> findByReportedOn(String reportedOnId) {
         return reportRepository.findByReportedOn_Id(reportedOnId);
     }
@@ -82,7 +99,11 @@ public class ReportManager {
         Optional<Report> opt = reportRepository.findById(id);
         if (opt.isEmpty()) return null;
         Report r = opt.get();
-        if (status != null) r.setStatus(status);
+        if (status != null && status != r.getStatus()) {
+            analytics.move(AnalyticsManager.REPORTS, r.getCategory() + "/" + r.getStatus(), r.getCategory() + "/" + status,
+                    AnalyticsManager.dayOf(r.getCreatedAt()));
+            r.setStatus(status);
+        }
         // allow explicit null to clear reply if client sends null
         r.setReply(reply);
         Report saved = reportRepository.save(r);
@@ -0,0 +1,58 @@
+package FixItNow.manager;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many SQL statements and entity loads each request cost, per method and URI
+ * template (the same uri tag http.server.requests uses). Only work on the request thread is
+ * counted; a streamed NDJSON body written on the async thread is not.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private HibernateRequestStats stats;
+
+    @Autowired
+    private MeterRegistry meters;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long[] counts = stats.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            stats.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : response.getStatus() == 404 ? "NOT_FOUND" : "UNKNOWN";
+            summary("hibernate.request.statements", "SQL statements prepared per request", request, uri).record(counts[0]);
+            summary("hibernate.request.entity.loads", "Entities loaded per request", request, uri).record(counts[1]);
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, HttpServletRequest request, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meters);
+    }
+}
@@ -7,9 +7,13 @@ import FixItNow.repository.BookingRepository;
 import FixItNow.repository.ReviewsRepository;
 import FixItNow.repository.UsersRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,25 +30,28 @@ public class ReviewsManager {
     @Autowired
     private UsersRepository usersRepository;
 
+    @Autowired
+    private IdAllocator ids;
+
+    @Autowired
+    private ProviderRatingManager ratings;
+
+    @Autowired
+    private AnalyticsManager analytics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private final DateTimeFormatter ISO = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     
- // Replace existing method in UsersManager
     public String generateNextReviewsId() {
-        int max = 0;
-        // load all users (lightweight for modest user counts). If you prefer, add a repository query to return only ids.
-        for (Reviews u : reviewsRepository.findAll()) {
-            String id = u.getId();
-            if (id != null && id.startsWith("R")) {
-                try {
-                    int n = Integer.parseInt(id.substring(1));
-                    if (n > max) max = n;
-                } catch (NumberFormatException ignored) {
-                    // ignore non-numeric suffixes
-                }
-            }
-        }
-        return "R" + (max + 1);
+        return ids.next("R", reviewsRepository::findIdsHighestFirst);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchIds() {
+        ids.prefetch("R", reviewsRepository::findIdsHighestFirst);
     }
     
     
@@ -70,13 +77,19 @@ public class ReviewsManager {
         return out;
     }
     
-    @Transactional
     public Reviews createReview(String bookingId, String customerId, Integer rating, String comment) {
         if (bookingId == null || bookingId.isBlank()) throw new IllegalArgumentException("bookingId is required");
         if (customerId == null || customerId.isBlank()) throw new IllegalArgumentException("customerId is required");
         if (rating == null) throw new IllegalArgumentException("rating is required");
         if (rating < 1 || rating > 5) throw new IllegalArgumentException("rating must be between 1 and 5");
 
+        // the aggregate row is created before the review's transaction opens
+        br.findById(bookingId).map(Booking::getProvider).ifPresent(p -> ratings.ensureRow(p.getId()));
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> insertReview(bookingId, customerId, rating, comment));
+    }
+
+    private Reviews insertReview(String bookingId, String customerId, int rating, String comment) {
         Booking booking = br.findById(bookingId).orElseThrow(() -> new IllegalArgumentException("Booking not found"));
         Users customer = usersRepository.findById(customerId).orElseThrow(() -> new IllegalArgumentException("Customer not found"));
 
@@ -97,7 +110,11 @@ public class ReviewsManager {
         review.setRating(rating);
         review.setComment(comment == null ? "" : comment);
 
-        return reviewsRepository.save(review);
+        Reviews saved = reviewsRepository.save(review);
+        ratings.record(provider.getId(), rating,
+                saved.getCreatedAt() != null ? saved.getCreatedAt() : LocalDateTime.now());
+        analytics.record(AnalyticsManager.REVIEWS, rating, AnalyticsManager.dayOf(saved.getCreatedAt()), 1);
+        return saved;
     }
 
 
@@ -0,0 +1,445 @@
+package FixItNow.manager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.model.ServiceSearchHit;
+import FixItNow.model.Services;
+import FixItNow.repository.ServicesRepository;
+
+/**
+ * In-memory inverted index over service category, subcategory names and description, behind
+ * GET /service/search. Every service gets an int ordinal; each term maps to a postings list of
+ * (ordinal, weighted term frequency) and queries are ranked with BM25. The last query word
+ * also matches as a prefix, so "plumb" finds "plumbing" while the user is still typing.
+ *
+ * Each posting carries its BM25 term weight precomputed against an average service length,
+ * so a query is one multiply-add per posting. The weights are recomputed when the real
+ * average drifts more than REWEIGHT_DRIFT from the one they were computed with.
+ */
+@Service
+public class ServiceSearchIndex {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    // a word in the category counts as three occurrences, in a subcategory name as two
+    static final int CATEGORY_WEIGHT = 3;
+    static final int SUBCATEGORY_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+    static final int MIN_PREFIX = 3;
+    static final int MAX_PREFIX_TERMS = 32;
+    static final double REWEIGHT_DRIFT = 0.1;
+    private static final Set<String> STOPWORDS = Set.of("an", "and", "at", "by", "for", "in", "of", "on", "or", "the", "to", "with");
+
+    @Autowired
+    private ServicesRepository sr;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    // by ordinal; a removed service leaves a null slot that its next put reuses
+    private Doc[] docs = new Doc[1024];
+    private int[] lengths = new int[1024];
+    private int size;
+    private int live;
+    private long totalLength;
+    // average length the posting weights were computed with
+    private double weightAvg;
+
+    // puts and removes made while a rebuild reads the table, replayed over its result; null otherwise
+    private List<Runnable> duringRebuild;
+    // one rebuild at a time
+    private final Object rebuilding = new Object();
+
+    // per-thread score accumulator, indexed by ordinal; only touched slots are non-zero
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private record Doc(String serviceId, String providerId, String category, String[] terms) {}
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] tf = new int[4];
+        float[] w = new float[4];
+        int n;
+
+        void add(int doc, int f, float weight) {
+            if (n == docs.length) {
+                docs = Arrays.copyOf(docs, n * 2);
+                tf = Arrays.copyOf(tf, n * 2);
+                w = Arrays.copyOf(w, n * 2);
+            }
+            docs[n] = doc;
+            tf[n] = f;
+            w[n] = weight;
+            n++;
+        }
+
+        // order does not matter for scoring, so the last entry fills the gap
+        void remove(int doc) {
+            for (int i = 0; i < n; i++) {
+                if (docs[i] == doc) {
+                    n--;
+                    docs[i] = docs[n];
+                    tf[i] = tf[n];
+                    w[i] = w[n];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Scratch {
+        double[] score = new double[0];
+        int[] touched = new int[0];
+        int[] heap = new int[0];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuilding) {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                rebuildFromTable();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    duringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    // the table is read without the lock so searches go on meanwhile; a put or remove that lands
+    // in between may or may not be in the rows, so it is applied again on top (both are idempotent)
+    private void rebuildFromTable() {
+        List<Object[]> rows = sr.findSearchFields();
+        List<String[]> ids = new ArrayList<>(rows.size());
+        List<Map<String, Integer>> tfs = new ArrayList<>(rows.size());
+        long total = 0;
+        for (Object[] r : rows) {
+            ids.add(new String[] {(String) r[0], (String) r[1], (String) r[2]});
+            Map<String, Integer> tf = termFrequencies((String) r[2], (String) r[3], (String) r[4]);
+            tfs.add(tf);
+            for (int f : tf.values()) total += f;
+        }
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            ordinals.clear();
+            docs = new Doc[Math.max(1024, rows.size())];
+            lengths = new int[docs.length];
+            size = 0;
+            live = 0;
+            totalLength = 0;
+            weightAvg = rows.isEmpty() ? 0 : (double) total / rows.size();
+            for (int i = 0; i < ids.size(); i++) {
+                String[] d = ids.get(i);
+                add(d[0], d[1], d[2], tfs.get(i));
+            }
+            duringRebuild.forEach(Runnable::run);
+            reweightIfDrifted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index one service after its text changed. Inside a transaction this runs after commit,
+     * so a rolled-back change never becomes searchable.
+     */
+    public void put(Services s) {
+        if (s == null || s.getId() == null) return;
+        String id = s.getId();
+        String providerId = s.getProvider() == null ? null : s.getProvider().getId();
+        String category = s.getCategory();
+        String subcategory = s.getSubcategory();
+        String description = s.getDescription();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(id, providerId, category, subcategory, description);
+                }
+            });
+        } else {
+            index(id, providerId, category, subcategory, description);
+        }
+    }
+
+    public void remove(String serviceId) {
+        lock.writeLock().lock();
+        try {
+            Runnable op = () -> {
+                Integer ord = ordinals.get(serviceId);
+                if (ord != null) drop(ord);
+            };
+            op.run();
+            if (duringRebuild != null) duringRebuild.add(op);
+            reweightIfDrifted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(String id, String providerId, String category, String subcategory, String description) {
+        Map<String, Integer> tf = termFrequencies(category, subcategory, description);
+        lock.writeLock().lock();
+        try {
+            add(id, providerId, category, tf);
+            if (duringRebuild != null) duringRebuild.add(() -> add(id, providerId, category, tf));
+            reweightIfDrifted();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(String id, String providerId, String category, Map<String, Integer> tf) {
+        Integer existing = ordinals.get(id);
+        int ord;
+        if (existing != null) {
+            ord = existing;
+            drop(ord);
+        } else {
+            ord = size++;
+            if (ord == docs.length) {
+                docs = Arrays.copyOf(docs, ord * 2);
+                lengths = Arrays.copyOf(lengths, ord * 2);
+            }
+            ordinals.put(id, ord);
+        }
+        int length = 0;
+        for (int f : tf.values()) length += f;
+        if (weightAvg == 0) weightAvg = Math.max(length, 1);
+        for (Map.Entry<String, Integer> e : tf.entrySet()) {
+            terms.computeIfAbsent(e.getKey(), t -> new Postings()).add(ord, e.getValue(), weight(e.getValue(), length));
+        }
+        docs[ord] = new Doc(id, providerId, category, tf.keySet().toArray(new String[0]));
+        lengths[ord] = length;
+        totalLength += length;
+        live++;
+    }
+
+    private void drop(int ord) {
+        Doc old = docs[ord];
+        if (old == null) return;
+        for (String t : old.terms()) {
+            Postings p = terms.get(t);
+            if (p == null) continue;
+            p.remove(ord);
+            if (p.n == 0) terms.remove(t);
+        }
+        totalLength -= lengths[ord];
+        lengths[ord] = 0;
+        docs[ord] = null;
+        live--;
+    }
+
+    private float weight(int f, int length) {
+        return (float) (f * (K1 + 1) / (f + K1 * (1 - B + B * length / weightAvg)));
+    }
+
+    private void reweightIfDrifted() {
+        if (live == 0) return;
+        double avg = (double) totalLength / live;
+        if (Math.abs(avg - weightAvg) <= REWEIGHT_DRIFT * weightAvg) return;
+        weightAvg = Math.max(avg, 1);
+        for (Postings p : terms.values()) {
+            for (int i = 0; i < p.n; i++) p.w[i] = weight(p.tf[i], lengths[p.docs[i]]);
+        }
+    }
+
+    /** Up to limit services ranked by BM25 against q; ties go to the service indexed first. */
+    public List<ServiceSearchHit> search(String q, int limit) {
+        List<String> words = new ArrayList<>(tokenize(q, new LinkedHashSet<>()));
+        if (words.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Scratch s = scratch.get();
+            if (s.score.length < size) {
+                s.score = new double[docs.length];
+                s.touched = new int[docs.length];
+            }
+            if (s.heap.length < limit) s.heap = new int[limit];
+            double[] score = s.score;
+            int[] touched = s.touched;
+            int nTouched = 0;
+
+            for (int w = 0; w < words.size(); w++) {
+                for (Postings p : matching(words.get(w), w == words.size() - 1)) {
+                    double idf = Math.log(1 + (live - p.n + 0.5) / (p.n + 0.5));
+                    int[] pd = p.docs;
+                    float[] pw = p.w;
+                    for (int i = 0; i < p.n; i++) {
+                        int d = pd[i];
+                        if (score[d] == 0) touched[nTouched++] = d;
+                        score[d] += idf * pw[i];
+                    }
+                }
+            }
+
+            // min-heap of the best limit so far, weakest at the root; primitive so a broad
+            // query does not box every match
+            int[] heap = s.heap;
+            int n = 0;
+            for (int i = 0; i < nTouched; i++) {
+                int d = touched[i];
+                if (n < limit) {
+                    heap[n] = d;
+                    siftUp(heap, n++, score);
+                } else if (stronger(d, heap[0], score)) {
+                    heap[0] = d;
+                    siftDown(heap, n, score);
+                }
+            }
+
+            ServiceSearchHit[] out = new ServiceSearchHit[n];
+            while (n > 0) {
+                int d = heap[0];
+                heap[0] = heap[--n];
+                siftDown(heap, n, score);
+                Doc doc = docs[d];
+                out[n] = new ServiceSearchHit(doc.serviceId(), doc.providerId(), doc.category(), score[d]);
+            }
+            for (int i = 0; i < nTouched; i++) score[touched[i]] = 0;
+            return Arrays.asList(out);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean stronger(int a, int b, double[] score) {
+        return score[a] > score[b] || (score[a] == score[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int i, double[] score) {
+        int d = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!stronger(heap[parent], d, score)) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = d;
+    }
+
+    private static void siftDown(int[] heap, int n, double[] score) {
+        if (n == 0) return;
+        int d = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && stronger(heap[child], heap[child + 1], score)) child++;
+            if (!stronger(d, heap[child], score)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = d;
+    }
+
+    private List<Postings> matching(String word, boolean last) {
+        Postings exact = terms.get(word);
+        if (!last || word.length() < MIN_PREFIX) return exact == null ? List.of() : List.of(exact);
+        List<Postings> out = new ArrayList<>();
+        if (exact != null) out.add(exact);
+        Iterator<Map.Entry<String, Postings>> it = terms.tailMap(word, false).entrySet().iterator();
+        while (out.size() < MAX_PREFIX_TERMS && it.hasNext()) {
+            Map.Entry<String, Postings> e = it.next();
+            if (!e.getKey().startsWith(word)) break;
+            out.add(e.getValue());
+        }
+        return out;
+    }
+
+    private Map<String, Integer> termFrequencies(String category, String subcategory, String description) {
+        Map<String, Integer> tf = new HashMap<>();
+        count(tf, category, CATEGORY_WEIGHT);
+        count(tf, subcategoryText(subcategory), SUBCATEGORY_WEIGHT);
+        count(tf, description, DESCRIPTION_WEIGHT);
+        return tf;
+    }
+
+    private static void count(Map<String, Integer> tf, String text, int weight) {
+        for (String t : tokenize(text, new ArrayList<>())) tf.merge(t, weight, Integer::sum);
+    }
+
+    // subcategory is usually {"Leak repair": 300, ...}: index the names, not the prices
+    private String subcategoryText(String subcategory) {
+        if (subcategory == null) return null;
+        String s = subcategory.trim();
+        if (!s.startsWith("{") && !s.startsWith("[")) return s;
+        try {
+            StringBuilder out = new StringBuilder();
+            collectText(objectMapper.readTree(s), out);
+            return out.toString();
+        } catch (Exception e) {
+            return s;
+        }
+    }
+
+    private static void collectText(JsonNode node, StringBuilder out) {
+        if (node.isObject()) {
+            node.properties().forEach(e -> {
+                out.append(e.getKey()).append(' ');
+                collectText(e.getValue(), out);
+            });
+        } else if (node.isArray()) {
+            node.forEach(n -> collectText(n, out));
+        } else if (node.isTextual()) {
+            out.append(node.asText()).append(' ');
+        }
+    }
+
+    /** Lower-cased, accent-free words of at least two characters, stopwords dropped. */
+    static <C extends Collection<String>> C tokenize(String text, C out) {
+        if (text == null || text.isBlank()) return out;
+        String s = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        for (String t : s.split("[^\\p{L}\\p{N}]+")) {
+            if (t.length() >= 2 && !STOPWORDS.contains(t)) out.add(t);
+        }
+        return out;
+    }
+}
@@ -1,8 +1,13 @@
 package FixItNow.manager;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -22,23 +27,38 @@ public class ServicesManager {
 
     @Autowired
     private ServicesRepository sr;
+
+    @Autowired
+    private IdAllocator ids;
+
+    @Autowired
+    private ProviderProfileCache profiles;
+
+    @Autowired
+    private SlotCalendar calendar;
+
+    @Autowired
+    private AnalyticsManager analytics;
+
+    @Autowired
+    private ServiceSearchIndex search;
+
+    @Autowired
+    private ProviderFacetIndex facets;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     
- // Replace existing method in UsersManager
     public String generateNextServiceId() {
-        int max = 0;
-        // load all users (lightweight for modest user counts). If you prefer, add a repository query to return only ids.
-        for (Services u : sr.findAll()) {
-            String id = u.getId();
-            if (id != null && id.startsWith("S")) {
-                try {
-                    int n = Integer.parseInt(id.substring(1));
-                    if (n > max) max = n;
-                } catch (NumberFormatException ignored) {
-                    // ignore non-numeric suffixes
-                }
-            }
-        }
-        return "S" + (max + 1);
+        return ids.next("S", sr::findIdsHighestFirst);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchIds() {
+        ids.prefetch("S", sr::findIdsHighestFirst);
     }
     
 
@@ -51,7 +71,13 @@ public class ServicesManager {
         service.setSubcategory("Default Subcategory");
         service.setDescription("Default description for new provider");
         service.setAvailability("{\"Monday\": \"9-5\"}");
-        return sr.save(service);
+        service.setWeeklySchedule(WeeklySchedule.decode(service.getAvailability()).toBytes());
+        Services saved = sr.save(service);
+        analytics.record(AnalyticsManager.VERIFICATION, saved.getVerified(), AnalyticsManager.UNDATED, 1);
+        profiles.refresh(provider.getId());
+        facets.refresh(provider.getId());
+        search.put(saved);
+        return saved;
     }
     
     
@@ -60,8 +86,13 @@ public class ServicesManager {
         Optional<Services> opt = sr.findById(id);
         if (opt.isEmpty()) return false;
         Services s = opt.get();
+        analytics.move(AnalyticsManager.VERIFICATION, s.getVerified(), status, AnalyticsManager.UNDATED);
         s.setVerified(status);
         sr.save(s);
+        if (s.getProvider() != null) {
+            profiles.refresh(s.getProvider().getId());
+            facets.refresh(s.getProvider().getId());
+        }
         return true;
     }
 
@@ -71,6 +102,9 @@ public class ServicesManager {
             throw new IllegalArgumentException("provider must not be null");
         }
 
+        // validated before anything is written (IllegalArgumentException: PUT /service/me answers 400)
+        WeeklySchedule schedule = data.containsKey("availability") ? WeeklySchedule.parse(data.get("availability")) : null;
+
         List<Services> servicesList = sr.findByProvider(provider);
         if (servicesList == null) {
             servicesList = new ArrayList<>();
@@ -135,6 +169,7 @@ public class ServicesManager {
         for (Services service : servicesList) {
             if (availabilityJson != null) {
                 service.setAvailability(availabilityJson);
+                service.setWeeklySchedule(schedule.toBytes());
             }
             if (description != null) {
                 service.setDescription(description);
@@ -146,6 +181,32 @@ public class ServicesManager {
                 service.setSubcategory(subcategoryJson);
             }
             sr.save(service);
+            search.put(service);
+        }
+        profiles.refresh(provider.getId());
+        facets.refresh(provider.getId());
+        if (availabilityJson != null) {
+            calendar.invalidate(provider.getId());
+            availabilityIndex.refresh(provider.getId());
         }
     }
+
+    /**
+     * One-off migration: fill weekly_schedule for services saved before the column existed, 500
+     * rows per transaction. Until a row is reached, readers decode its availability JSON instead.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillWeeklySchedules() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int updated;
+        do {
+            updated = tx.execute(status -> {
+                List<Object[]> rows = sr.findUnscheduledAvailability(Limit.of(500));
+                for (Object[] row : rows) {
+                    sr.setWeeklySchedule((String) row[0], WeeklySchedule.decode((String) row[1]).toBytes());
+                }
+                return rows.size();
+            });
+        } while (updated > 0);
+    }
 }
\ No newline at end of file
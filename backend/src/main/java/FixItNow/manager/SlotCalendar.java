@@ -0,0 +1,263 @@
+package FixItNow.manager;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import FixItNow.model.FreeSlot;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ServicesRepository;
+
+/**
+ * In-memory booking calendar per provider: the start times their weekly schedule allows (every
+ * 30 minutes from "from" until two hours before "to" on their working days, the same slots
+ * ProviderModal offers) and the slots already held by an active booking. A provider's calendar is loaded on first use and
+ * only touched under that provider's lock stripe, so two createBooking calls for the same slot
+ * cannot both pass reserve(). The unique key on bookings (provider, date, slot, slot_hold) is
+ * the final guard, e.g. across instances. A hold this instance did not take itself may have been
+ * cancelled through another one, so reserve() asks the table before refusing it.
+ */
+@Service
+public class SlotCalendar {
+
+    static final int SLOT_MINUTES = 30;
+    static final int JOB_MINUTES = 120;
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ServicesRepository servicesRepository;
+
+    // how far ahead free slots are offered (the booking modal allows today + 13 days)
+    @Value("${app.booking.horizon-days:14}")
+    private int horizonDays = 14;
+
+    // a calendar nobody has touched for this long is dropped, and reloaded if used again
+    @Value("${app.booking.calendar-idle-minutes:60}")
+    private long idleMinutes = 60;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Map<String, ProviderCalendar> calendars = new ConcurrentHashMap<>();
+
+    public SlotCalendar() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    private static final class ProviderCalendar {
+        final WeeklySchedule schedule;
+        final Map<LocalDate, Set<LocalTime>> held = new HashMap<>();
+        // holds taken by reserve() whose booking has not committed yet; the table cannot see them
+        final Map<LocalDate, Set<LocalTime>> reserving = new HashMap<>();
+        // days before this are no longer kept
+        LocalDate prunedTo;
+        volatile long lastUsedMillis;
+
+        ProviderCalendar(WeeklySchedule schedule) {
+            this.schedule = schedule;
+        }
+
+        boolean isHeld(LocalDate date, LocalTime slot) {
+            return contains(held, date, slot);
+        }
+
+        static boolean contains(Map<LocalDate, Set<LocalTime>> slots, LocalDate date, LocalTime slot) {
+            Set<LocalTime> s = slots.get(date);
+            return s != null && s.contains(slot);
+        }
+
+        static void remove(Map<LocalDate, Set<LocalTime>> slots, LocalDate date, LocalTime slot) {
+            Set<LocalTime> s = slots.get(date);
+            if (s != null && s.remove(slot) && s.isEmpty()) slots.remove(date);
+        }
+    }
+
+    /**
+     * Hold the slot for a new booking until settle() or release(). Throws SlotTakenException when
+     * it is already held and IllegalArgumentException when the provider's availability does not
+     * include it.
+     */
+    public void reserve(String providerId, LocalDate date, LocalTime slot) {
+        ReentrantLock lock = stripe(providerId);
+        lock.lock();
+        try {
+            ProviderCalendar cal = calendar(providerId);
+            if (!cal.schedule.isEmpty() && !cal.schedule.canStart(date.getDayOfWeek(), slot)) {
+                throw new IllegalArgumentException("timeSlot is outside the provider's availability");
+            }
+            if (cal.isHeld(date, slot)) {
+                // loaded from the table or settled here: still held unless cancelled through another instance
+                if (ProviderCalendar.contains(cal.reserving, date, slot)
+                        || bookingRepository.isSlotHeld(providerId, date, format(slot))) {
+                    throw new SlotTakenException("This time slot is already booked");
+                }
+            }
+            cal.held.computeIfAbsent(date, d -> new HashSet<>()).add(slot);
+            cal.reserving.computeIfAbsent(date, d -> new HashSet<>()).add(slot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Free a slot again (booking cancelled, or its insert rolled back). */
+    public void release(String providerId, LocalDate date, LocalTime slot) {
+        ReentrantLock lock = stripe(providerId);
+        lock.lock();
+        try {
+            ProviderCalendar cal = calendars.get(providerId);
+            if (cal == null) return;
+            ProviderCalendar.remove(cal.held, date, slot);
+            ProviderCalendar.remove(cal.reserving, date, slot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The booking that reserved the slot committed: the table now shows the hold. */
+    public void settle(String providerId, LocalDate date, LocalTime slot) {
+        ReentrantLock lock = stripe(providerId);
+        lock.lock();
+        try {
+            ProviderCalendar cal = calendars.get(providerId);
+            if (cal != null) ProviderCalendar.remove(cal.reserving, date, slot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Forget the provider's calendar (availability changed, or the DB knows better); reloaded on next use. */
+    public void invalidate(String providerId) {
+        ReentrantLock lock = stripe(providerId);
+        lock.lock();
+        try {
+            calendars.remove(providerId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The next n free slots at or after from, within the booking horizon. */
+    public List<FreeSlot> nextFree(String providerId, LocalDateTime from, int n) {
+        ReentrantLock lock = stripe(providerId);
+        lock.lock();
+        try {
+            ProviderCalendar cal = calendar(providerId);
+            if (cal.schedule.isEmpty() || n <= 0) return Collections.emptyList();
+            List<FreeSlot> out = new ArrayList<>(n);
+            LocalDate last = LocalDate.now().plusDays(horizonDays - 1);
+            for (LocalDate d = from.toLocalDate(); !d.isAfter(last) && out.size() < n; d = d.plusDays(1)) {
+                for (LocalTime t : cal.schedule.starts(d.getDayOfWeek())) {
+                    if (d.equals(from.toLocalDate()) && t.isBefore(from.toLocalTime())) continue;
+                    if (cal.isHeld(d, t)) continue;
+                    out.add(new FreeSlot(d, format(t)));
+                    if (out.size() == n) break;
+                }
+            }
+            return out;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drop the calendars idle for longer than app.booking.calendar-idle-minutes. */
+    @Scheduled(fixedDelayString = "${app.booking.calendar-evict-ms:600000}")
+    public int evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMinutes * 60_000;
+        int evicted = 0;
+        for (Map.Entry<String, ProviderCalendar> e : calendars.entrySet()) {
+            if (e.getValue().lastUsedMillis >= cutoff) continue;
+            ReentrantLock lock = stripe(e.getKey());
+            lock.lock();
+            try {
+                ProviderCalendar cal = calendars.get(e.getKey());
+                // a hold still in flight is only known here
+                if (cal != null && cal.lastUsedMillis < cutoff && cal.reserving.isEmpty()) {
+                    calendars.remove(e.getKey());
+                    evicted++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return evicted;
+    }
+
+    // caller holds the provider's stripe
+    private ProviderCalendar calendar(String providerId) {
+        LocalDate today = LocalDate.now();
+        ProviderCalendar cal = calendars.get(providerId);
+        if (cal != null) {
+            if (cal.prunedTo.isBefore(today)) {
+                cal.held.keySet().removeIf(d -> d.isBefore(today));
+                cal.prunedTo = today;
+            }
+            cal.lastUsedMillis = System.currentTimeMillis();
+            return cal;
+        }
+        List<Object[]> first = servicesRepository.findScheduleByProviderId(providerId, Limit.of(1));
+        cal = new ProviderCalendar(first.isEmpty() ? WeeklySchedule.EMPTY
+                : WeeklySchedule.of((byte[]) first.get(0)[0], (String) first.get(0)[1]));
+        for (Object[] row : bookingRepository.findHeldSlots(providerId, today)) {
+            LocalTime t = parseTime((String) row[1]);
+            if (t != null) cal.held.computeIfAbsent((LocalDate) row[0], d -> new HashSet<>()).add(t);
+        }
+        cal.prunedTo = today;
+        cal.lastUsedMillis = System.currentTimeMillis();
+        calendars.put(providerId, cal);
+        return cal;
+    }
+
+    private ReentrantLock stripe(String providerId) {
+        return stripes[Math.floorMod(providerId.hashCode(), STRIPES)];
+    }
+
+    private static final Pattern AM_PM = Pattern.compile("^(\\d{1,2})(?::(\\d{2}))?\\s*(am|pm)$");
+    private static final Pattern HH_MM = Pattern.compile("^(\\d{1,2}):(\\d{2})$");
+    private static final Pattern HH = Pattern.compile("^(\\d{1,2})$");
+
+    /** "9:30 am", "9 pm", "09:30" or "9"; null when not a time of day. */
+    public static LocalTime parseTime(String s) {
+        if (s == null) return null;
+        String v = s.trim().toLowerCase();
+        try {
+            Matcher m = AM_PM.matcher(v);
+            if (m.matches()) {
+                int h = Integer.parseInt(m.group(1));
+                int min = m.group(2) == null ? 0 : Integer.parseInt(m.group(2));
+                if (m.group(3).equals("pm") && h != 12) h += 12;
+                if (m.group(3).equals("am") && h == 12) h = 0;
+                return LocalTime.of(h, min);
+            }
+            m = HH_MM.matcher(v);
+            if (m.matches()) return LocalTime.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+            m = HH.matcher(v);
+            if (m.matches()) return LocalTime.of(Integer.parseInt(m.group(1)), 0);
+        } catch (DateTimeException e) {
+            return null;
+        }
+        return null;
+    }
+
+    public static String format(LocalTime t) {
+        return String.format("%02d:%02d", t.getHour(), t.getMinute());
+    }
+}
@@ -0,0 +1,10 @@
+package FixItNow.manager;
+
+/** The requested provider slot already has an active booking. */
+public class SlotTakenException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SlotTakenException(String message) {
+        super(message);
+    }
+}
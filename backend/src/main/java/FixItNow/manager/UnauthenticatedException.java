@@ -0,0 +1,14 @@
+package FixItNow.manager;
+
+/**
+ * Thrown for a required @AuthUser when the request is not authenticated. That includes a
+ * valid token whose user has since been deleted: 401, where the controllers' own lookups
+ * used to answer 404 "User not found".
+ */
+public class UnauthenticatedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public UnauthenticatedException() {
+        super("Missing, invalid or expired token");
+    }
+}
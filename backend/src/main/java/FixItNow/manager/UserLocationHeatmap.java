@@ -0,0 +1,210 @@
+package FixItNow.manager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.UsersRepository;
+
+/**
+ * Users per location bucket, split by role, behind GET /users/locations/heatmap. Buckets are
+ * the normalized location text and, for users with coordinates, a CELL_DEG grid cell. Counts
+ * move as users sign up or change location; the response is rendered once per change, so a
+ * request costs O(buckets) no matter how many users there are.
+ */
+@Service
+public class UserLocationHeatmap {
+
+    static final double CELL_DEG = 0.5;
+    private static final UserRole[] ROLES = UserRole.values();
+
+    @Autowired
+    private UsersRepository ur;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // counts indexed by role ordinal
+    private final Map<String, int[]> byLocation = new TreeMap<>();
+    private final Map<Long, int[]> byCell = new TreeMap<>();
+    // where each user is counted, so a move can take them out of the old buckets
+    private final Map<String, Placement> placed = new HashMap<>();
+    private volatile byte[] rendered;
+
+    private record Placement(UserRole role, String location, Long cell) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        byLocation.clear();
+        byCell.clear();
+        placed.clear();
+        for (Object[] r : ur.findLocations()) {
+            place((String) r[0], (UserRole) r[1], (String) r[2], (Double) r[3], (Double) r[4]);
+        }
+        rendered = null;
+    }
+
+    /**
+     * Count the user in the buckets for their current role and location. Inside a transaction
+     * this runs after commit, so a rolled-back change never reaches the counts.
+     */
+    public void put(Users u) {
+        if (u == null || u.getId() == null) return;
+        String id = u.getId();
+        UserRole role = u.getRole();
+        String location = u.getLocation();
+        Double lat = u.getLatitude();
+        Double lon = u.getLongitude();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update(id, role, location, lat, lon);
+                }
+            });
+        } else {
+            update(id, role, location, lat, lon);
+        }
+    }
+
+    public synchronized void remove(String userId) {
+        if (unplace(userId)) rendered = null;
+    }
+
+    private synchronized void update(String id, UserRole role, String location, Double lat, Double lon) {
+        unplace(id);
+        place(id, role, location, lat, lon);
+        rendered = null;
+    }
+
+    private void place(String id, UserRole role, String location, Double lat, Double lon) {
+        if (role == null) return;
+        String key = normalize(location);
+        Long cell = lat == null || lon == null ? null : cellOf(lat, lon);
+        byLocation.computeIfAbsent(key, k -> new int[ROLES.length])[role.ordinal()]++;
+        if (cell != null) byCell.computeIfAbsent(cell, c -> new int[ROLES.length])[role.ordinal()]++;
+        placed.put(id, new Placement(role, key, cell));
+    }
+
+    private boolean unplace(String id) {
+        Placement old = placed.remove(id);
+        if (old == null) return false;
+        decrement(byLocation, old.location(), old.role());
+        if (old.cell() != null) decrement(byCell, old.cell(), old.role());
+        return true;
+    }
+
+    private static <K> void decrement(Map<K, int[]> buckets, K key, UserRole role) {
+        int[] counts = buckets.get(key);
+        if (counts == null) return;
+        counts[role.ordinal()]--;
+        for (int c : counts) {
+            if (c != 0) return;
+        }
+        buckets.remove(key);
+    }
+
+    /**
+     * {"roles": [...], "locations": [[label, n per role...], ...], "cells": [[lat, lon, n per role...], ...]}
+     * where lat/lon is the south-west corner of the cell.
+     */
+    public byte[] json() {
+        byte[] out = rendered;
+        if (out == null) {
+            synchronized (this) {
+                out = rendered;
+                if (out == null) {
+                    out = render();
+                    rendered = out;
+                }
+            }
+        }
+        return out;
+    }
+
+    private byte[] render() {
+        List<Object> locations = new ArrayList<>(byLocation.size());
+        byLocation.forEach((key, counts) -> locations.add(row(label(key), null, counts)));
+        List<Object> cells = new ArrayList<>(byCell.size());
+        byCell.forEach((cell, counts) -> cells.add(row(cellLat(cell), cellLon(cell), counts)));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("roles", ROLES);
+        body.put("locations", locations);
+        body.put("cells", cells);
+        try {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(64 + 24 * (locations.size() + cells.size()));
+            objectMapper.writeValue(buf, body);
+            return buf.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not render location heatmap", e);
+        }
+    }
+
+    private static Object[] row(Object a, Object b, int[] counts) {
+        int head = b == null ? 1 : 2;
+        Object[] r = new Object[head + counts.length];
+        r[0] = a;
+        if (b != null) r[1] = b;
+        for (int i = 0; i < counts.length; i++) r[head + i] = counts[i];
+        return r;
+    }
+
+    /** "  Hyderabad ,Telangana " and "hyderabad, telangana" share a bucket; blank is "". */
+    static String normalize(String location) {
+        if (location == null) return "";
+        String s = Normalizer.normalize(location, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(s.length());
+        for (String part : s.split(",")) {
+            String p = part.trim().replaceAll("\\s+", " ");
+            if (p.isEmpty()) continue;
+            if (out.length() > 0) out.append(", ");
+            out.append(p);
+        }
+        return out.toString();
+    }
+
+    private static String label(String key) {
+        if (key.isEmpty()) return "Unknown";
+        StringBuilder out = new StringBuilder(key.length());
+        boolean start = true;
+        for (char c : key.toCharArray()) {
+            out.append(start ? Character.toUpperCase(c) : c);
+            start = c == ' ';
+        }
+        return out.toString();
+    }
+
+    private static long cellOf(double lat, double lon) {
+        long row = (long) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / CELL_DEG);
+        long col = Math.floorMod((long) Math.floor((lon + 180) / CELL_DEG), Math.round(360 / CELL_DEG));
+        return row * 10_000 + col;
+    }
+
+    private static double cellLat(long cell) {
+        return cell / 10_000 * CELL_DEG - 90;
+    }
+
+    private static double cellLon(long cell) {
+        return cell % 10_000 * CELL_DEG - 180;
+    }
+}
@@ -0,0 +1,81 @@
+package FixItNow.manager;
+
+import java.util.Set;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import FixItNow.model.Users;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Drops a user's cached principals once a change to their password or role (or the deletion of
+ * the row) has committed, whichever code path saved it. Hooked into Hibernate's post-commit
+ * events so a rolled-back change never invalidates and a committed one always does.
+ */
+@Component
+public class UsersAuthInvalidator implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Set<String> AUTH_PROPERTIES = Set.of("password", "role");
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private AuthPrincipalCache principals;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Users u && touchesAuth(event)) {
+            principals.invalidateUser(u.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Users u) {
+            principals.invalidateUser(u.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Users.class.equals(persister.getMappedClass());
+    }
+
+    // without dirty-tracking information assume the worst
+    private static boolean touchesAuth(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) return true;
+        String[] names = event.getPersister().getPropertyNames();
+        for (int i : dirty) {
+            if (AUTH_PROPERTIES.contains(names[i])) return true;
+        }
+        return false;
+    }
+}
@@ -3,6 +3,8 @@ package FixItNow.manager;
 import java.math.BigDecimal;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import FixItNow.model.*;
@@ -24,22 +26,26 @@ public class UsersManager {
 	@Autowired
     ServicesRepository sr;
 	
-	// Replace existing method in UsersManager
+	@Autowired
+	IdAllocator ids;
+	@Autowired
+	ProviderProfileCache profiles;
+	@Autowired
+	AnalyticsManager analytics;
+	@Autowired
+	UserLocationHeatmap heatmap;
+	@Autowired
+	ServiceSearchIndex search;
+	@Autowired
+	ProviderFacetIndex facets;
+	
 	public String generateNextUserId() {
-	    int max = 0;
-	    // load all users (lightweight for modest user counts). If you prefer, add a repository query to return only ids.
-	    for (Users u : ur.findAll()) {
-	        String id = u.getId();
-	        if (id != null && id.startsWith("U")) {
-	            try {
-	                int n = Integer.parseInt(id.substring(1));
-	                if (n > max) max = n;
-	            } catch (NumberFormatException ignored) {
-	                // ignore non-numeric suffixes
-	            }
-	        }
-	    }
-	    return "U" + (max + 1);
+	    return ids.next("U", ur::findIdsHighestFirst);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void prefetchIds() {
+		ids.prefetch("U", ur::findIdsHighestFirst);
 	}
 	
 	public String AddUsers(Users u)
@@ -51,6 +57,8 @@ public class UsersManager {
 		u.setId(generateNextUserId());
 		
 		Users savedUsers = ur.save(u);
+		analytics.record(AnalyticsManager.SIGNUPS, savedUsers.getRole(), AnalyticsManager.dayOf(savedUsers.getCreatedOn()), 1);
+		heatmap.put(savedUsers);
 		if (u.getRole() == UserRole.PROVIDER) {
             Services service = new Services();
             service.setId(sm.generateNextServiceId());
@@ -59,8 +67,13 @@ public class UsersManager {
             service.setSubcategory("Default Subcategory");   // <-- Set a default value
             service.setDescription("Default service description"); // If nullable, can omit             // <-- Set a default value
             service.setAvailability("{}");      
+            service.setWeeklySchedule(WeeklySchedule.EMPTY.toBytes());
             
             sr.save(service);
+            search.put(service);
+            analytics.record(AnalyticsManager.VERIFICATION, service.getVerified(), AnalyticsManager.UNDATED, 1);
+            profiles.refresh(savedUsers.getId());
+            facets.refresh(savedUsers.getId());
         }
 		return "200::User Registration Successful";	
 		
@@ -97,6 +110,15 @@ public class UsersManager {
 	}
 	
 	 
+	 /** The sign-in projection for email (one query), or null when no such user. */
+	 public SignInRow findSignIn(String email) {
+		    return email == null ? null : ur.findSignInByEmail(email);
+		}
+
+	 public String issueToken(String email) {
+		    return jwt.generateToken(email);
+		}
+	 
 	 public String validateToken(String token) {
 		    return jwt.validateToken(token);
 		}
@@ -110,6 +132,7 @@ public class UsersManager {
 		    if (user != null) {
 		        user.setPhno(phone);
 		        ur.save(user);
+		        profiles.refresh(user.getId());
 		    }
 		}
 	 
@@ -0,0 +1,229 @@
+package FixItNow.manager;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A provider's working week as 7 x 48 half-hour bits (Monday 00:00 is bit 0), built from
+ * Services.availability ({"from": "9:00 am", "to": "6:00 pm", "days": ["Mon", ...]}, every day
+ * when "days" is absent). Stored next to the JSON in services.weekly_schedule as 42 bytes, so
+ * the booking calendar and the availability index never re-parse the JSON. Writes go through
+ * parse(), which rejects what decode() would silently drop.
+ */
+public final class WeeklySchedule {
+
+    public static final int SLOTS_PER_DAY = 48;
+    public static final int BITS = 7 * SLOTS_PER_DAY;
+    public static final int BYTES = BITS / 8;
+    // half-hours a booking occupies (SlotCalendar.JOB_MINUTES)
+    public static final int JOB_SLOTS = SlotCalendar.JOB_MINUTES / SlotCalendar.SLOT_MINUTES;
+    static final int WORDS = (BITS + 63) / 64;
+
+    public static final WeeklySchedule EMPTY = new WeeklySchedule(new long[WORDS]);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final long[] words;
+
+    private WeeklySchedule(long[] words) {
+        this.words = words;
+    }
+
+    public static int bit(DayOfWeek day, int slot) {
+        return (day.getValue() - 1) * SLOTS_PER_DAY + slot;
+    }
+
+    /** Open from "from" until "to" on each of days. */
+    public static WeeklySchedule of(Set<DayOfWeek> days, LocalTime from, LocalTime to) {
+        long[] w = new long[WORDS];
+        int first = from.toSecondOfDay() / 60 / SlotCalendar.SLOT_MINUTES;
+        int last = to.toSecondOfDay() / 60 / SlotCalendar.SLOT_MINUTES;
+        for (DayOfWeek d : days) {
+            for (int s = first; s < last; s++) {
+                int b = bit(d, s);
+                w[b >>> 6] |= 1L << b;
+            }
+        }
+        return new WeeklySchedule(w);
+    }
+
+    /**
+     * Validated schedule for an availability value a client sent (a JSON object, or its text).
+     * No "from"/"to" at all means no bookable hours; anything else must be two half-hour aligned
+     * times with "from" first and, if "days" is given, a list of weekday names.
+     */
+    public static WeeklySchedule parse(Object availability) {
+        JsonNode node;
+        try {
+            node = availability instanceof String s ? MAPPER.readTree(s) : MAPPER.valueToTree(availability);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("availability must be a JSON object");
+        }
+        if (node == null || node.isNull() || node.isMissingNode()) return EMPTY;
+        if (!node.isObject()) throw new IllegalArgumentException("availability must be a JSON object");
+        String fromText = text(node, "from");
+        String toText = text(node, "to");
+        if (fromText == null && toText == null) return EMPTY;
+        LocalTime from = parseSlot(fromText, "from");
+        LocalTime to = parseSlot(toText, "to");
+        if (!from.isBefore(to)) throw new IllegalArgumentException("availability.to must be after availability.from");
+
+        Set<DayOfWeek> days = EnumSet.allOf(DayOfWeek.class);
+        JsonNode listed = node.path("days");
+        if (!listed.isMissingNode() && !listed.isNull()) {
+            if (!listed.isArray()) throw new IllegalArgumentException("availability.days must be a list of weekdays");
+            if (!listed.isEmpty()) days = EnumSet.noneOf(DayOfWeek.class);
+            for (JsonNode n : listed) {
+                DayOfWeek d = n.isTextual() ? parseDay(n.asText()) : null;
+                if (d == null) throw new IllegalArgumentException("availability.days: not a weekday: " + n);
+                days.add(d);
+            }
+        }
+        return of(days, from, to);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode v = node.get(field);
+        if (v == null || v.isNull()) return null;
+        String s = v.asText();
+        return s.isBlank() ? null : s;
+    }
+
+    private static LocalTime parseSlot(String s, String field) {
+        LocalTime t = SlotCalendar.parseTime(s);
+        if (t == null) throw new IllegalArgumentException("availability." + field + " must be a time of day like 9:00 am");
+        if (t.getMinute() % SlotCalendar.SLOT_MINUTES != 0 || t.getSecond() != 0) {
+            throw new IllegalArgumentException("availability." + field + " must be on the hour or half hour");
+        }
+        return t;
+    }
+
+    /**
+     * Best-effort schedule for a stored availability string (rows written before validation):
+     * EMPTY when it has no usable from/to, times rounded inwards to the half hour, unknown days skipped.
+     */
+    public static WeeklySchedule decode(String availability) {
+        if (availability == null || availability.isBlank()) return EMPTY;
+        try {
+            JsonNode node = MAPPER.readTree(availability);
+            LocalTime from = SlotCalendar.parseTime(node.path("from").asText(null));
+            LocalTime to = SlotCalendar.parseTime(node.path("to").asText(null));
+            if (from == null || to == null || !from.isBefore(to)) return EMPTY;
+            int step = SlotCalendar.SLOT_MINUTES;
+            int start = (from.toSecondOfDay() / 60 + step - 1) / step * step;
+            int end = to.toSecondOfDay() / 60 / step * step;
+            if (start >= end) return EMPTY;
+            Set<DayOfWeek> days = EnumSet.allOf(DayOfWeek.class);
+            JsonNode listed = node.path("days");
+            if (listed.isArray() && !listed.isEmpty()) {
+                days = EnumSet.noneOf(DayOfWeek.class);
+                for (JsonNode n : listed) {
+                    DayOfWeek d = parseDay(n.asText(null));
+                    if (d != null) days.add(d);
+                }
+            }
+            return of(days, LocalTime.of(start / 60, start % 60), LocalTime.of(end / 60, end % 60));
+        } catch (Exception e) {
+            return EMPTY;
+        }
+    }
+
+    /** The stored column, falling back to the JSON for rows not backfilled yet. */
+    public static WeeklySchedule of(byte[] stored, String availability) {
+        return stored != null ? fromBytes(stored) : decode(availability);
+    }
+
+    public static WeeklySchedule fromBytes(byte[] b) {
+        if (b == null || b.length != BYTES) return EMPTY;
+        long[] w = new long[WORDS];
+        for (int i = 0; i < BYTES; i++) w[i >>> 3] |= (b[i] & 0xFFL) << ((i & 7) << 3);
+        return new WeeklySchedule(w);
+    }
+
+    public byte[] toBytes() {
+        byte[] b = new byte[BYTES];
+        for (int i = 0; i < BYTES; i++) b[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+        return b;
+    }
+
+    public boolean isEmpty() {
+        for (long w : words) {
+            if (w != 0) return false;
+        }
+        return true;
+    }
+
+    public boolean isOpen(DayOfWeek day, int slot) {
+        return isOpen(bit(day, slot));
+    }
+
+    boolean isOpen(int bit) {
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /** Whether a booking starting at t fits: t is on a half hour and the job's half-hours are all open. */
+    public boolean canStart(DayOfWeek day, LocalTime t) {
+        int minutes = t.toSecondOfDay() / 60;
+        if (minutes % SlotCalendar.SLOT_MINUTES != 0 || t.getSecond() != 0) return false;
+        int slot = minutes / SlotCalendar.SLOT_MINUTES;
+        if (slot + JOB_SLOTS > SLOTS_PER_DAY) return false;
+        for (int s = slot; s < slot + JOB_SLOTS; s++) {
+            if (!isOpen(day, s)) return false;
+        }
+        return true;
+    }
+
+    /** Start times on day that canStart allows, earliest first. */
+    public List<LocalTime> starts(DayOfWeek day) {
+        List<LocalTime> out = new ArrayList<>();
+        for (int s = 0; s + JOB_SLOTS <= SLOTS_PER_DAY; s++) {
+            LocalTime t = LocalTime.ofSecondOfDay(s * SlotCalendar.SLOT_MINUTES * 60L);
+            if (canStart(day, t)) out.add(t);
+        }
+        return out;
+    }
+
+    /** Weekdays with at least one open half-hour. */
+    public Set<DayOfWeek> days() {
+        Set<DayOfWeek> out = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values()) {
+            for (int s = 0; s < SLOTS_PER_DAY; s++) {
+                if (isOpen(d, s)) {
+                    out.add(d);
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+
+    /** "Monday", "mon" or "MONDAY"; null when not a weekday. */
+    public static DayOfWeek parseDay(String s) {
+        if (s == null) return null;
+        String v = s.trim().toUpperCase(Locale.ROOT);
+        if (v.length() < 3) return null;
+        for (DayOfWeek d : DayOfWeek.values()) {
+            if (d.name().startsWith(v)) return d;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof WeeklySchedule other && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
@@ -0,0 +1,44 @@
+package FixItNow.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A running count for one (metric, dimension, day) cell of the admin analytics, kept up to
+ * date by AnalyticsManager so the admin dashboard never scans the base tables.
+ */
+@Entity
+@Table(name = "admin_stats")
+public class AdminStat {
+
+    @EmbeddedId
+    private AdminStatKey key;
+
+    @Column(name = "stat_count", nullable = false)
+    private long count;
+
+    public AdminStat() {
+    }
+
+    public AdminStat(AdminStatKey key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    // Getters and setters
+
+    public AdminStatKey getKey() {
+        return key;
+    }
+
+    public void setKey(AdminStatKey key) {
+        this.key = key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
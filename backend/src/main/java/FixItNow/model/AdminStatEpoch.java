@@ -0,0 +1,54 @@
+package FixItNow.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+
+/**
+ * The single row recording when admin_stats was last rebuilt. A node holding deltas buffered
+ * before rebuilt_at knows the rebuild already counted them; reconciled_on lets only one node
+ * run the nightly reconcile.
+ */
+@Entity
+@Table(name = "admin_stat_epoch")
+public class AdminStatEpoch {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private Integer id;
+
+    // microseconds since the epoch, taken just before the rebuild read the base tables; 0 if never
+    @Column(name = "rebuilt_at_micros", nullable = false)
+    private long rebuiltAtMicros;
+
+    @Column(name = "reconciled_on")
+    private LocalDate reconciledOn;
+
+    // Getters and setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public long getRebuiltAtMicros() {
+        return rebuiltAtMicros;
+    }
+
+    public void setRebuiltAtMicros(long rebuiltAtMicros) {
+        this.rebuiltAtMicros = rebuiltAtMicros;
+    }
+
+    public LocalDate getReconciledOn() {
+        return reconciledOn;
+    }
+
+    public void setReconciledOn(LocalDate reconciledOn) {
+        this.reconciledOn = reconciledOn;
+    }
+}
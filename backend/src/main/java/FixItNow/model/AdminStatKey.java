@@ -0,0 +1,15 @@
+package FixItNow.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/** One rollup cell: a metric ("bookings"), a dimension value ("PENDING") and a day. */
+@Embeddable
+public record AdminStatKey(
+        @Column(name = "metric", length = 32, nullable = false) String metric,
+        @Column(name = "dim", length = 64, nullable = false) String dim,
+        @Column(name = "stat_day", nullable = false) LocalDate day) implements Serializable {
+}
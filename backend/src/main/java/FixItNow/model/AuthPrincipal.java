@@ -0,0 +1,15 @@
+package FixItNow.model;
+
+/**
+ * The authenticated caller of a request, resolved once from its bearer token by AuthFilter.
+ * Controllers receive it through an @AuthUser parameter.
+ */
+public record AuthPrincipal(String userId, String email, UserRole role) {
+
+    /** Request attribute AuthFilter stores the principal under. */
+    public static final String ATTRIBUTE = AuthPrincipal.class.getName();
+
+    public boolean hasRole(UserRole r) {
+        return role == r;
+    }
+}
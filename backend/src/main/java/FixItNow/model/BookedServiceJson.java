@@ -0,0 +1,66 @@
+package FixItNow.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Encoding of booked services. New bookings store a canonical JSON object in
+ * bookings.booked_service_items once, at write time, so reads can emit it verbatim;
+ * the legacy bookings.booked_service text is only decoded for rows not yet backfilled.
+ */
+public final class BookedServiceJson {
+
+    public static final String EMPTY = "{}";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private BookedServiceJson() {}
+
+    public static Map<String, Object> parse(String json) {
+        if (json == null || json.trim().isEmpty()) return Collections.emptyMap();
+        try {
+            return MAPPER.readValue(json, MAP_TYPE);
+        } catch (Exception e) {
+            // fallback: return raw string under key "raw"
+            Map<String, Object> fallback = new HashMap<>();
+            fallback.put("raw", json);
+            return fallback;
+        }
+    }
+
+    /**
+     * Canonical JSON object for whatever the client posted as bookedServices. Anything that is
+     * not a JSON object ends up as {"raw": "..."}, matching what the old per-read decoding returned.
+     */
+    public static String canonicalize(Object bookedServices) {
+        if (bookedServices == null) return EMPTY;
+        try {
+            if (bookedServices instanceof Map) {
+                return MAPPER.writeValueAsString(bookedServices);
+            }
+            return MAPPER.writeValueAsString(parse(MAPPER.writeValueAsString(bookedServices)));
+        } catch (JsonProcessingException e) {
+            return EMPTY;
+        }
+    }
+
+    /** Canonical form of a legacy booked_service value (used by the backfill and for unmigrated rows). */
+    public static String fromLegacy(String legacyJson) {
+        try {
+            return MAPPER.writeValueAsString(parse(legacyJson));
+        } catch (JsonProcessingException e) {
+            return EMPTY;
+        }
+    }
+
+    /** The JSON to emit for a view row: the canonical column when present, else the decoded legacy text. */
+    public static String forView(String canonical, String legacyJson) {
+        return canonical != null ? canonical : fromLegacy(legacyJson);
+    }
+}
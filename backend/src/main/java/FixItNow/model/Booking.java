@@ -3,6 +3,8 @@ package FixItNow.model;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import FixItNow.model.Services;
 import FixItNow.model.Users;
 
@@ -10,9 +12,15 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+// one active booking per provider slot; slot_hold is NULL once cancelled, and NULLs never collide
+// (date, slot) lookups across providers come from GET /service/available
+@Table(name = "bookings", uniqueConstraints = @UniqueConstraint(name = Booking.SLOT_CONSTRAINT,
+        columnNames = {"provider_id", "booking_date", "time_slot", "slot_hold"}),
+        indexes = @Index(name = "idx_bookings_date_slot", columnList = "booking_date, time_slot"))
 public class Booking {
 
+    public static final String SLOT_CONSTRAINT = "uk_bookings_provider_slot";
+
     @Id
     @Column(name = "booking_id", unique = true, updatable = false, nullable = false)
     private String id;
@@ -32,12 +40,23 @@ public class Booking {
     @Column(columnDefinition = "TEXT") 
     private String bookedService;
 
-    @Column(nullable = false)
+    // Canonical JSON object ({"service": price, ...}) produced once when the booking is written;
+    // the booking list views emit it verbatim instead of decoding bookedService per read
+    @JsonIgnore
+    @Column(name = "booked_service_items", columnDefinition = "TEXT")
+    private String bookedServiceItems;
+
+    @Column(name = "booking_date", nullable = false)
     private LocalDate bookingDate;
 
-    @Column(nullable = false)
+    @Column(name = "time_slot", nullable = false)
     private String timeSlot;
 
+    // TRUE while the booking holds its slot, NULL when cancelled (see the unique key above)
+    @JsonIgnore
+    @Column(name = "slot_hold")
+    private Boolean slotHold;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BookingStatus status;
@@ -88,6 +107,14 @@ public class Booking {
         this.bookedService = bookedService;
     }
 
+    public String getBookedServiceItems() {
+        return bookedServiceItems;
+    }
+
+    public void setBookedServiceItems(String bookedServiceItems) {
+        this.bookedServiceItems = bookedServiceItems;
+    }
+
     public LocalDate getBookingDate() {
         return bookingDate;
     }
@@ -104,6 +131,14 @@ public class Booking {
         this.timeSlot = timeSlot;
     }
 
+    public Boolean getSlotHold() {
+        return slotHold;
+    }
+
+    public void setSlotHold(Boolean slotHold) {
+        this.slotHold = slotHold;
+    }
+
     public BookingStatus getStatus() {
         return status;
     }
@@ -0,0 +1,5 @@
+package FixItNow.model;
+
+/** One item of POST /bookings/status/batch. */
+public record BookingStatusChange(String bookingId, String status) {
+}
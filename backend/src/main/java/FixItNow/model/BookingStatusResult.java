@@ -0,0 +1,20 @@
+package FixItNow.model;
+
+/**
+ * Outcome of one item of a batched status change. result is one of updated, unchanged,
+ * not_found, forbidden, invalid or conflict; message is set for the failures.
+ */
+public record BookingStatusResult(String bookingId, String result, String message) {
+
+    public static BookingStatusResult ok(String bookingId, String result) {
+        return new BookingStatusResult(bookingId, result, null);
+    }
+
+    public static BookingStatusResult failed(String bookingId, String result, String message) {
+        return new BookingStatusResult(bookingId, result, message);
+    }
+
+    public boolean applied() {
+        return "updated".equals(result);
+    }
+}
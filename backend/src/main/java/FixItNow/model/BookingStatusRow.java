@@ -0,0 +1,7 @@
+package FixItNow.model;
+
+import java.time.LocalDate;
+
+/** What a status change needs to know about a booking, read by BookingRepository.findStatusRows. */
+public record BookingStatusRow(String id, String providerId, BookingStatus status, LocalDate bookingDate, String timeSlot) {
+}
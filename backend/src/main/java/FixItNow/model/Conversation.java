@@ -0,0 +1,133 @@
+package FixItNow.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * One row per pair of users who have exchanged messages, kept current by
+ * MessageManager.saveMessage. userA is always the smaller id of the pair, so
+ * both directions land on the same row; unreadA/unreadB count messages the
+ * respective side has not opened yet.
+ */
+@Entity
+@Table(name = "conversations", indexes = {
+        @Index(name = "idx_conversations_user_a_last_at", columnList = "user_a, last_at"),
+        @Index(name = "idx_conversations_user_b_last_at", columnList = "user_b, last_at")
+})
+public class Conversation {
+
+    public static final int PREVIEW_LENGTH = 500;
+
+    @Id
+    @Column(name = "conversation_id", updatable = false, nullable = false)
+    private String id;
+
+    @Column(name = "user_a", updatable = false, nullable = false)
+    private String userA;
+
+    @Column(name = "user_b", updatable = false, nullable = false)
+    private String userB;
+
+    @Column(name = "last_message_id")
+    private String lastMessageId;
+
+    @Column(name = "last_sender_id")
+    private String lastSenderId;
+
+    @Column(name = "last_preview", length = PREVIEW_LENGTH)
+    private String lastPreview;
+
+    @Column(name = "last_at")
+    private LocalDateTime lastAt;
+
+    @Column(name = "unread_a", nullable = false)
+    private int unreadA;
+
+    @Column(name = "unread_b", nullable = false)
+    private int unreadB;
+
+    /** Row id for the pair, the same whichever side is passed first. */
+    public static String keyOf(String user1, String user2) {
+        return user1.compareTo(user2) <= 0 ? user1 + "|" + user2 : user2 + "|" + user1;
+    }
+
+    public static String preview(String content) {
+        if (content == null) return "";
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
+    }
+
+    // Getters and setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserA() {
+        return userA;
+    }
+
+    public void setUserA(String userA) {
+        this.userA = userA;
+    }
+
+    public String getUserB() {
+        return userB;
+    }
+
+    public void setUserB(String userB) {
+        this.userB = userB;
+    }
+
+    public String getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(String lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public String getLastSenderId() {
+        return lastSenderId;
+    }
+
+    public void setLastSenderId(String lastSenderId) {
+        this.lastSenderId = lastSenderId;
+    }
+
+    public String getLastPreview() {
+        return lastPreview;
+    }
+
+    public void setLastPreview(String lastPreview) {
+        this.lastPreview = lastPreview;
+    }
+
+    public LocalDateTime getLastAt() {
+        return lastAt;
+    }
+
+    public void setLastAt(LocalDateTime lastAt) {
+        this.lastAt = lastAt;
+    }
+
+    public int getUnreadA() {
+        return unreadA;
+    }
+
+    public void setUnreadA(int unreadA) {
+        this.unreadA = unreadA;
+    }
+
+    public int getUnreadB() {
+        return unreadB;
+    }
+
+    public void setUnreadB(int unreadB) {
+        this.unreadB = unreadB;
+    }
+}
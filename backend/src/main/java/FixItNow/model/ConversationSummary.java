@@ -7,6 +7,7 @@ public class ConversationSummary {
     private String peerName;
     private String lastMessage;
     private LocalDateTime lastAt;
+    private int unreadCount;
 
     public ConversationSummary() {}
 
@@ -17,6 +18,11 @@ public class ConversationSummary {
         this.lastAt = lastAt;
     }
 
+    public ConversationSummary(String peerId, String peerName, String lastMessage, LocalDateTime lastAt, int unreadCount) {
+        this(peerId, peerName, lastMessage, lastAt);
+        this.unreadCount = unreadCount;
+    }
+
     public String getPeerId() {
         return peerId;
     }
@@ -48,4 +54,12 @@ public class ConversationSummary {
     public void setLastAt(LocalDateTime lastAt) {
         this.lastAt = lastAt;
     }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
 }
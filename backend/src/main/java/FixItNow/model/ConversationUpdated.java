@@ -0,0 +1,26 @@
+package FixItNow.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by MessageManager after a message changes a conversation row. Carries the
+ * state of both sides so each participant can be sent its own view without another query.
+ */
+public record ConversationUpdated(
+        String userA,
+        String nameA,
+        int unreadA,
+        String userB,
+        String nameB,
+        int unreadB,
+        String lastMessageId,
+        String lastSenderId,
+        String lastPreview,
+        LocalDateTime lastAt) {
+
+    /** The conversation as userId's inbox shows it (peer, preview, time, userId's unread count). */
+    public ConversationSummary summaryFor(String userId) {
+        if (userId.equals(userA)) return new ConversationSummary(userB, nameB, lastPreview, lastAt, unreadA);
+        return new ConversationSummary(userA, nameA, lastPreview, lastAt, unreadB);
+    }
+}
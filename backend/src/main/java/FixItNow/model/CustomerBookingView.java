@@ -0,0 +1,28 @@
+package FixItNow.model;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * One row of /bookings/customer/me, filled by a single JPQL constructor query
+ * (BookingRepository.findCustomerBookingViews) and serialized as-is.
+ */
+public record CustomerBookingView(
+        String bookingId,
+        LocalDate bookingDate,
+        String timeSlot,
+        BookingStatus status,
+        @JsonIgnore String bookedServiceItems,
+        @JsonIgnore String legacyBookedService,
+        String providerId) {
+
+    // written verbatim: booked_service_items is canonical JSON, no decode/encode per row
+    @JsonProperty("bookedServices")
+    @JsonRawValue
+    public String bookedServices() {
+        return BookedServiceJson.forView(bookedServiceItems, legacyBookedService);
+    }
+}
@@ -0,0 +1,5 @@
+package FixItNow.model;
+
+/** How many providers match the other facets' filters and have this value. */
+public record FacetCount(String value, int count) {
+}
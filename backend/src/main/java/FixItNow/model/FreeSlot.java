@@ -0,0 +1,7 @@
+package FixItNow.model;
+
+import java.time.LocalDate;
+
+/** A bookable start time of a provider (timeSlot is "HH:mm", the form bookings store). */
+public record FreeSlot(LocalDate date, String timeSlot) {
+}
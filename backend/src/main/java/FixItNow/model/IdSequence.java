@@ -0,0 +1,37 @@
+package FixItNow.model;
+
+import jakarta.persistence.*;
+
+/**
+ * One row per id prefix ("U", "S", "B", "R"). next_value is the first number
+ * not yet handed out to any node; nodes reserve blocks by bumping it.
+ */
+@Entity
+@Table(name = "id_sequences")
+public class IdSequence {
+
+    @Id
+    @Column(name = "prefix", length = 8, updatable = false, nullable = false)
+    private String prefix;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    // Getters and setters
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -0,0 +1,54 @@
+package FixItNow.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. nextCursor is the sort key of the last
+ * item; pass it back as "after" to get the following page. It is null on the last page.
+ */
+public class KeysetPage<T> {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    private String nextCursor;
+
+    public KeysetPage() {}
+
+    public KeysetPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /** Build a page from rows fetched with limit; a short page means there is nothing after it. */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, ?> sortKey) {
+        String next = null;
+        if (rows.size() == limit && !rows.isEmpty()) {
+            next = String.valueOf(sortKey.apply(rows.get(rows.size() - 1)));
+        }
+        return new KeysetPage<>(rows, next);
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
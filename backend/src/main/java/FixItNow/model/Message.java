@@ -7,7 +7,10 @@ import jakarta.persistence.PrePersist;
 import java.util.UUID;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        // serves /api/chat/history pages: equality on the pair, then (sent_at, message_id) in index order
+        @Index(name = "idx_messages_conversation_sent", columnList = "conversation_id, sent_at, message_id")
+})
 public class Message {
 
     @Id
@@ -25,7 +28,12 @@ public class Message {
     @Lob
     private String content;
 
+    // Conversation.keyOf(sender, receiver), set on insert
+    @Column(name = "conversation_id")
+    private String conversationId;
+
     @CreationTimestamp
+    @Column(name = "sent_at")
     private LocalDateTime sentAt;
 
     @PrePersist
@@ -33,6 +41,9 @@ public class Message {
         if (this.id == null || this.id.isBlank()) {
             this.id = "M" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
         }
+        if (this.conversationId == null && sender != null && receiver != null) {
+            this.conversationId = Conversation.keyOf(sender.getId(), receiver.getId());
+        }
     }
 
     // Getters and setters (same as you had)
@@ -48,6 +59,9 @@ public class Message {
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
 
+    public String getConversationId() { return conversationId; }
+    public void setConversationId(String conversationId) { this.conversationId = conversationId; }
+
     public LocalDateTime getSentAt() { return sentAt; }
     public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
 }
\ No newline at end of file
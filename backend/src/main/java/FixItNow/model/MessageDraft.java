@@ -0,0 +1,4 @@
+package FixItNow.model;
+
+/** An inbound chat message that has not been stored yet. */
+public record MessageDraft(String senderId, String receiverId, String content) {}
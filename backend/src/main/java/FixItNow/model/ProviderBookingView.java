@@ -0,0 +1,38 @@
+package FixItNow.model;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * One row of /bookings/provider/me, filled by a single JPQL constructor query
+ * (BookingRepository.findProviderBookingViews) and serialized as-is.
+ */
+public record ProviderBookingView(
+        String bookingId,
+        LocalDate bookingDate,
+        String timeSlot,
+        BookingStatus status,
+        @JsonIgnore String bookedServiceItems,
+        @JsonIgnore String legacyBookedService,
+        String customerName,
+        String customerEmail,
+        String customerPhone,
+        String customerLocation) {
+
+    public ProviderBookingView {
+        customerName = customerName != null ? customerName : "";
+        customerEmail = customerEmail != null ? customerEmail : "";
+        customerPhone = customerPhone != null ? customerPhone : "";
+        customerLocation = customerLocation != null ? customerLocation : "";
+    }
+
+    // written verbatim: booked_service_items is canonical JSON, no decode/encode per row
+    @JsonProperty("bookedServices")
+    @JsonRawValue
+    public String bookedServices() {
+        return BookedServiceJson.forView(bookedServiceItems, legacyBookedService);
+    }
+}
@@ -0,0 +1,11 @@
+package FixItNow.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response of GET /service/facets: the matching providers (a page of ids, in id order) and,
+ * per facet, the value counts given the filters on every other facet.
+ */
+public record ProviderFacetResult(int total, List<String> providerIds, Map<String, List<FacetCount>> facets) {
+}
@@ -0,0 +1,116 @@
+package FixItNow.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Running rating totals for one provider, kept in step with the reviews table by
+ * ProviderRatingManager so profile views never have to read individual reviews.
+ */
+@Entity
+@Table(name = "provider_ratings")
+public class ProviderRating {
+
+    @Id
+    @Column(name = "provider_id", updatable = false, nullable = false)
+    private String providerId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "stars_1", nullable = false)
+    private long stars1;
+
+    @Column(name = "stars_2", nullable = false)
+    private long stars2;
+
+    @Column(name = "stars_3", nullable = false)
+    private long stars3;
+
+    @Column(name = "stars_4", nullable = false)
+    private long stars4;
+
+    @Column(name = "stars_5", nullable = false)
+    private long stars5;
+
+    @Column(name = "last_review_at")
+    private LocalDateTime lastReviewAt;
+
+    // Getters and setters
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(String providerId) {
+        this.providerId = providerId;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public long getStars1() {
+        return stars1;
+    }
+
+    public void setStars1(long stars1) {
+        this.stars1 = stars1;
+    }
+
+    public long getStars2() {
+        return stars2;
+    }
+
+    public void setStars2(long stars2) {
+        this.stars2 = stars2;
+    }
+
+    public long getStars3() {
+        return stars3;
+    }
+
+    public void setStars3(long stars3) {
+        this.stars3 = stars3;
+    }
+
+    public long getStars4() {
+        return stars4;
+    }
+
+    public void setStars4(long stars4) {
+        this.stars4 = stars4;
+    }
+
+    public long getStars5() {
+        return stars5;
+    }
+
+    public void setStars5(long stars5) {
+        this.stars5 = stars5;
+    }
+
+    public LocalDateTime getLastReviewAt() {
+        return lastReviewAt;
+    }
+
+    public void setLastReviewAt(LocalDateTime lastReviewAt) {
+        this.lastReviewAt = lastReviewAt;
+    }
+}
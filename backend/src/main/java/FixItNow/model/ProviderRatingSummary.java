@@ -0,0 +1,35 @@
+package FixItNow.model;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Body of /reviews/provider/{id}/summary. histogram maps each star value (1-5)
+ * to the number of reviews with that rating.
+ */
+public record ProviderRatingSummary(
+        String providerId,
+        long count,
+        double average,
+        Map<Integer, Long> histogram,
+        LocalDateTime lastReviewAt) {
+
+    public static ProviderRatingSummary empty(String providerId) {
+        return of(providerId, 0, 0, new long[5], null);
+    }
+
+    public static ProviderRatingSummary from(ProviderRating r) {
+        return of(r.getProviderId(), r.getReviewCount(), r.getRatingSum(),
+                new long[] { r.getStars1(), r.getStars2(), r.getStars3(), r.getStars4(), r.getStars5() },
+                r.getLastReviewAt());
+    }
+
+    private static ProviderRatingSummary of(String providerId, long count, long sum, long[] stars, LocalDateTime last) {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) histogram.put(i + 1, stars[i]);
+        // two decimals, as the profile modal shows it
+        double average = count == 0 ? 0 : Math.round(sum * 100.0 / count) / 100.0;
+        return new ProviderRatingSummary(providerId, count, average, histogram, last);
+    }
+}
@@ -0,0 +1,5 @@
+package FixItNow.model;
+
+/** One ranked result of GET /service/search; score is the BM25 relevance, higher is better. */
+public record ServiceSearchHit(String serviceId, String providerId, String category, double score) {
+}
@@ -3,6 +3,8 @@ package FixItNow.model;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Entity
 @Table(name = "services")
 public class Services {
@@ -32,6 +34,11 @@ public class Services {
     @Column(columnDefinition = "TEXT")
     private String availability; // JSON stored as String
 
+    // availability as 7 x 48 half-hour bits (manager.WeeklySchedule), written with it; NULL on rows
+    // not backfilled yet
+    @JsonIgnore
+    @Column(name = "weekly_schedule", length = 42)
+    private byte[] weeklySchedule;
 
     // Getters and setters
     
@@ -92,4 +99,12 @@ public class Services {
         this.availability = availability;
     }
 
+    public byte[] getWeeklySchedule() {
+        return weeklySchedule;
+    }
+
+    public void setWeeklySchedule(byte[] weeklySchedule) {
+        this.weeklySchedule = weeklySchedule;
+    }
+
 }
\ No newline at end of file
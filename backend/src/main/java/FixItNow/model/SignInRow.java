@@ -0,0 +1,9 @@
+package FixItNow.model;
+
+/**
+ * Everything sign-in needs about a user, read in one query by UsersRepository.findSignInByEmail.
+ * verified is the status of the provider's first service; null for non-providers or a provider
+ * without a service row.
+ */
+public record SignInRow(String id, String password, UserRole role, ServicesVerified verified) {
+}
@@ -31,6 +31,12 @@ public class Users {
     @Column(name = "location")
     private String location; // Store location data from frontend
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @CreationTimestamp
     @Column(name = "created_on", updatable = false)
     private LocalDateTime createdOn; // Automatically set date & time when created
@@ -88,6 +94,20 @@ public class Users {
         this.location = location;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     public LocalDateTime getCreatedOn() {
         return createdOn;
     }
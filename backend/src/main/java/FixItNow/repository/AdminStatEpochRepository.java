@@ -0,0 +1,39 @@
+package FixItNow.repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import FixItNow.model.AdminStatEpoch;
+import jakarta.persistence.LockModeType;
+
+public interface AdminStatEpochRepository extends JpaRepository<AdminStatEpoch, Integer> {
+
+    // Shared row lock: flushes from several nodes proceed together, but not while a rebuild holds the row
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT e FROM AdminStatEpoch e WHERE e.id = :id")
+    Optional<AdminStatEpoch> lockShared(@Param("id") int id);
+
+    // Exclusive row lock until the rebuild commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM AdminStatEpoch e WHERE e.id = :id")
+    Optional<AdminStatEpoch> lockExclusive(@Param("id") int id);
+
+    @Modifying
+    @Query("UPDATE AdminStatEpoch e SET e.rebuiltAtMicros = :at WHERE e.id = :id")
+    int markRebuilt(@Param("id") int id, @Param("at") long at);
+
+    @Modifying
+    @Query("UPDATE AdminStatEpoch e SET e.reconciledOn = :day WHERE e.id = :id")
+    int markReconciled(@Param("id") int id, @Param("day") LocalDate day);
+
+    // Plain INSERT so two nodes seeding the row collide on the primary key instead of overwriting
+    @Modifying
+    @Query(value = "INSERT INTO admin_stat_epoch (id, rebuilt_at_micros) VALUES (:id, 0)", nativeQuery = true)
+    int insertEpoch(@Param("id") int id);
+}
@@ -0,0 +1,33 @@
+package FixItNow.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import FixItNow.model.AdminStat;
+import FixItNow.model.AdminStatKey;
+
+public interface AdminStatRepository extends JpaRepository<AdminStat, AdminStatKey> {
+
+    // In-place increment so concurrent flushes of the same cell serialize on the row lock
+    @Modifying
+    @Query("UPDATE AdminStat a SET a.count = a.count + :delta "
+            + "WHERE a.key.metric = :metric AND a.key.dim = :dim AND a.key.day = :day")
+    int add(@Param("metric") String metric, @Param("dim") String dim, @Param("day") LocalDate day, @Param("delta") long delta);
+
+    // Plain INSERT so two nodes creating the same cell collide on the primary key instead of overwriting
+    @Modifying
+    @Query(value = "INSERT INTO admin_stats (metric, dim, stat_day, stat_count) VALUES (:metric, :dim, :day, 0)", nativeQuery = true)
+    int insertEmpty(@Param("metric") String metric, @Param("dim") String dim, @Param("day") LocalDate day);
+
+    // metric, dim, total over all days
+    @Query("SELECT a.key.metric, a.key.dim, SUM(a.count) FROM AdminStat a GROUP BY a.key.metric, a.key.dim")
+    List<Object[]> totals();
+
+    @Query("SELECT a FROM AdminStat a WHERE a.key.day BETWEEN :from AND :to")
+    List<AdminStat> findDays(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,22 +1,109 @@
 package FixItNow.repository;
 
 import FixItNow.model.Booking;
+import FixItNow.model.BookingStatus;
+import FixItNow.model.BookingStatusRow;
+import FixItNow.model.CustomerBookingView;
+import FixItNow.model.ProviderBookingView;
 import FixItNow.model.Users;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, String> {
     List<Booking> findByProvider(Users provider);
     List<Booking> findByCustomer(Users customer);
+
+    // Dashboard list reads: exactly the displayed columns in one round trip, no entity graphs
+    // the legacy booked_service text is only selected for rows the backfill has not reached yet
+    @Query("SELECT new FixItNow.model.ProviderBookingView(b.id, b.bookingDate, b.timeSlot, b.status, "
+            + "b.bookedServiceItems, CASE WHEN b.bookedServiceItems IS NULL THEN b.bookedService ELSE NULL END, "
+            + "c.name, c.email, c.phno, c.location) "
+            + "FROM Booking b JOIN b.customer c WHERE b.provider.id = :providerId")
+    List<ProviderBookingView> findProviderBookingViews(@Param("providerId") String providerId);
+
+    @Query("SELECT new FixItNow.model.CustomerBookingView(b.id, b.bookingDate, b.timeSlot, b.status, "
+            + "b.bookedServiceItems, CASE WHEN b.bookedServiceItems IS NULL THEN b.bookedService ELSE NULL END, "
+            + "b.provider.id) "
+            + "FROM Booking b WHERE b.customer.id = :customerId")
+    List<CustomerBookingView> findCustomerBookingViews(@Param("customerId") String customerId);
     
     @Override
     Optional<Booking> findById(String id);
 
     Optional<Booking> findBookingById(String id);
 
+    // (bookingDate, timeSlot) of the provider's active bookings from a date on; served by the slot unique key
+    @Query("SELECT b.bookingDate, b.timeSlot FROM Booking b WHERE b.provider.id = :providerId "
+            + "AND b.bookingDate >= :from AND b.status <> FixItNow.model.BookingStatus.CANCELLED")
+    List<Object[]> findHeldSlots(@Param("providerId") String providerId, @Param("from") LocalDate from);
+
+    // whether an active booking holds (date, slot) right now; served by the slot unique key
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.provider.id = :providerId AND b.bookingDate = :date "
+            + "AND b.timeSlot = :slot AND b.status <> FixItNow.model.BookingStatus.CANCELLED")
+    boolean isSlotHeld(@Param("providerId") String providerId, @Param("date") LocalDate date, @Param("slot") String slot);
+
+    // providers with an active booking starting at (date, slot); served by idx_bookings_date_slot
+    @Query("SELECT b.provider.id FROM Booking b WHERE b.bookingDate = :date AND b.timeSlot = :slot "
+            + "AND b.status <> FixItNow.model.BookingStatus.CANCELLED")
+    List<String> findProvidersHoldingSlot(@Param("date") LocalDate date, @Param("slot") String slot);
+
+    // batched status changes: every row in one query, then one UPDATE per (target status, slot hold change)
+    @Query("SELECT new FixItNow.model.BookingStatusRow(b.id, b.provider.id, b.status, b.bookingDate, b.timeSlot) "
+            + "FROM Booking b WHERE b.id IN :ids")
+    List<BookingStatusRow> findStatusRows(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id IN :ids")
+    int updateStatus(@Param("ids") Collection<String> ids, @Param("status") BookingStatus status);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.slotHold = NULL WHERE b.id IN :ids")
+    int updateStatusReleasingSlot(@Param("ids") Collection<String> ids, @Param("status") BookingStatus status);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.slotHold = TRUE WHERE b.id IN :ids")
+    int updateStatusHoldingSlot(@Param("ids") Collection<String> ids, @Param("status") BookingStatus status);
+
     @Query("SELECT MAX(b.id) FROM Booking b")
     String findMaxBookingId();
-}
\ No newline at end of file
+
+    // ids of the prefix, highest numeric suffix first; only read to seed the id sequence (see IdAllocator)
+    @Query("SELECT b.id FROM Booking b WHERE b.id LIKE 'B%' ORDER BY LENGTH(b.id) DESC, b.id DESC")
+    List<String> findIdsHighestFirst(Pageable page);
+
+    // rows written before booked_service_items existed: [id, booked_service]
+    @Query("SELECT b.id, b.bookedService FROM Booking b WHERE b.bookedServiceItems IS NULL")
+    List<Object[]> findUncanonicalBookedServices(Limit limit);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.bookedServiceItems = :items WHERE b.id = :id")
+    int setBookedServiceItems(@Param("id") String id, @Param("items") String items);
+
+    // keyset page ordered by primary key; pass "" as after for the first page
+    List<Booking> findByIdGreaterThanOrderByIdAsc(String after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.STREAM_FETCH_SIZE))
+    @Query("SELECT b FROM Booking b JOIN FETCH b.service s JOIN FETCH s.provider JOIN FETCH b.customer JOIN FETCH b.provider ORDER BY b.id")
+    Stream<Booking> streamAllOrderById();
+
+    // status, booking day, count - used to rebuild admin_stats
+    @Query("SELECT b.status, b.bookingDate, COUNT(b) FROM Booking b GROUP BY b.status, b.bookingDate")
+    List<Object[]> countByStatusAndDay();
+
+    // service category, booking day, count - used to rebuild admin_stats
+    @Query("SELECT s.category, b.bookingDate, COUNT(b) FROM Booking b JOIN b.service s GROUP BY s.category, b.bookingDate")
+    List<Object[]> countByCategoryAndDay();
+}
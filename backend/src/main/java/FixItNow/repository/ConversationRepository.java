@@ -0,0 +1,50 @@
+package FixItNow.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import FixItNow.model.Conversation;
+import FixItNow.model.ConversationSummary;
+
+public interface ConversationRepository extends JpaRepository<Conversation, String> {
+
+    // Sets the last message and adds a batch's unread counts in place; the row lock serializes concurrent writers
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessageId = :messageId, c.lastSenderId = :senderId, "
+            + "c.lastPreview = :preview, c.lastAt = :at, "
+            + "c.unreadA = c.unreadA + :unreadA, c.unreadB = c.unreadB + :unreadB "
+            + "WHERE c.id = :id")
+    int recordMessages(@Param("id") String id, @Param("messageId") String messageId, @Param("senderId") String senderId,
+            @Param("preview") String preview, @Param("at") LocalDateTime at,
+            @Param("unreadA") int unreadA, @Param("unreadB") int unreadB);
+
+    // ids only, so no Conversation is loaded (and left stale) before the bulk update
+    @Query("SELECT c.id FROM Conversation c WHERE c.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    // Plain INSERT so two first messages between the same pair collide on the primary key instead of overwriting
+    @Modifying
+    @Query(value = "INSERT INTO conversations (conversation_id, user_a, user_b, unread_a, unread_b) "
+            + "VALUES (:id, :userA, :userB, 0, 0)", nativeQuery = true)
+    int insertEmpty(@Param("id") String id, @Param("userA") String userA, @Param("userB") String userB);
+
+    // The inbox is read from both sides of the pair; each query walks its own (user, last_at) index
+    @Query("SELECT new FixItNow.model.ConversationSummary(c.userB, p.name, c.lastPreview, c.lastAt, c.unreadA) "
+            + "FROM Conversation c, Users p WHERE c.userA = :userId AND p.id = c.userB ORDER BY c.lastAt DESC")
+    List<ConversationSummary> findInboxAsUserA(@Param("userId") String userId);
+
+    @Query("SELECT new FixItNow.model.ConversationSummary(c.userA, p.name, c.lastPreview, c.lastAt, c.unreadB) "
+            + "FROM Conversation c, Users p WHERE c.userB = :userId AND p.id = c.userA ORDER BY c.lastAt DESC")
+    List<ConversationSummary> findInboxAsUserB(@Param("userId") String userId);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.unreadA = CASE WHEN c.userA = :userId THEN 0 ELSE c.unreadA END, "
+            + "c.unreadB = CASE WHEN c.userB = :userId THEN 0 ELSE c.unreadB END WHERE c.id = :id")
+    int markRead(@Param("id") String id, @Param("userId") String userId);
+}
@@ -0,0 +1,24 @@
+package FixItNow.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import FixItNow.model.IdSequence;
+
+public interface IdSequenceRepository extends JpaRepository<IdSequence, String> {
+
+    // Bumps the sequence row by one block; the row lock is held until the surrounding transaction commits
+    @Modifying
+    @Query("UPDATE IdSequence s SET s.nextValue = s.nextValue + :size WHERE s.prefix = :prefix")
+    int advance(@Param("prefix") String prefix, @Param("size") long size);
+
+    @Query("SELECT s.nextValue FROM IdSequence s WHERE s.prefix = :prefix")
+    Long currentValue(@Param("prefix") String prefix);
+
+    // Plain INSERT (no merge) so two nodes seeding the same prefix collide on the primary key instead of overwriting
+    @Modifying
+    @Query(value = "INSERT INTO id_sequences (prefix, next_value) VALUES (:prefix, :nextValue)", nativeQuery = true)
+    int insertSequence(@Param("prefix") String prefix, @Param("nextValue") long nextValue);
+}
@@ -1,18 +1,57 @@
 package FixItNow.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import FixItNow.model.Message;
+import FixItNow.model.MessageDTO;
+import jakarta.persistence.QueryHint;
 
 public interface MessageRepository extends JpaRepository<Message, String> {
 
     @Query("SELECT m FROM Message m WHERE (m.sender.id = :a AND m.receiver.id = :b) OR (m.sender.id = :b AND m.receiver.id = :a) ORDER BY m.sentAt ASC")
     List<Message> findConversation(@Param("a") String a, @Param("b") String b);
 
+    // History pages for one conversation (key = Conversation.keyOf). All three walk idx_messages_conversation_sent,
+    // so a page costs the same however long the conversation is; no sender/receiver join is needed for the DTO.
+    @Query("SELECT new FixItNow.model.MessageDTO(m.id, m.sender.id, m.receiver.id, m.content, m.sentAt) "
+            + "FROM Message m WHERE m.conversationId = :key ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findLatestInConversation(@Param("key") String key, Limit limit);
+
+    @Query("SELECT new FixItNow.model.MessageDTO(m.id, m.sender.id, m.receiver.id, m.content, m.sentAt) "
+            + "FROM Message m WHERE m.conversationId = :key "
+            + "AND (m.sentAt < :sentAt OR (m.sentAt = :sentAt AND m.id < :id)) ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageDTO> findBeforeInConversation(@Param("key") String key, @Param("sentAt") LocalDateTime sentAt,
+            @Param("id") String id, Limit limit);
+
+    @Query("SELECT new FixItNow.model.MessageDTO(m.id, m.sender.id, m.receiver.id, m.content, m.sentAt) "
+            + "FROM Message m WHERE m.conversationId = :key "
+            + "AND (m.sentAt > :sentAt OR (m.sentAt = :sentAt AND m.id > :id)) ORDER BY m.sentAt ASC, m.id ASC")
+    List<MessageDTO> findAfterInConversation(@Param("key") String key, @Param("sentAt") LocalDateTime sentAt,
+            @Param("id") String id, Limit limit);
+
+    // Messages stored before conversation_id existed: id, sender id, receiver id
+    @Query("SELECT m.id, m.sender.id, m.receiver.id FROM Message m WHERE m.conversationId IS NULL")
+    List<Object[]> findWithoutConversationId(Limit limit);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.conversationId = :key WHERE m.id = :id")
+    int setConversationId(@Param("id") String id, @Param("key") String key);
+
     // Find all messages where the given user is either sender or receiver, ordered by sentAt desc
     List<Message> findBySender_IdOrReceiver_IdOrderBySentAtDesc(String senderId, String receiverId);
+
+    // Only used to backfill the conversations table
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.STREAM_FETCH_SIZE))
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver ORDER BY m.sentAt, m.id")
+    Stream<Message> streamAllOrderBySentAt();
 }
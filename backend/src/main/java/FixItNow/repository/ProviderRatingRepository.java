@@ -0,0 +1,45 @@
+package FixItNow.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import FixItNow.model.ProviderRating;
+import jakarta.persistence.LockModeType;
+
+public interface ProviderRatingRepository extends JpaRepository<ProviderRating, String> {
+
+    // In-place increment so concurrent reviews for the same provider serialize on the row lock instead of losing updates
+    @Modifying
+    @Query("UPDATE ProviderRating p SET p.reviewCount = p.reviewCount + 1, p.ratingSum = p.ratingSum + :rating, "
+            + "p.stars1 = p.stars1 + CASE WHEN :rating = 1 THEN 1 ELSE 0 END, "
+            + "p.stars2 = p.stars2 + CASE WHEN :rating = 2 THEN 1 ELSE 0 END, "
+            + "p.stars3 = p.stars3 + CASE WHEN :rating = 3 THEN 1 ELSE 0 END, "
+            + "p.stars4 = p.stars4 + CASE WHEN :rating = 4 THEN 1 ELSE 0 END, "
+            + "p.stars5 = p.stars5 + CASE WHEN :rating = 5 THEN 1 ELSE 0 END, "
+            + "p.lastReviewAt = CASE WHEN p.lastReviewAt IS NULL OR p.lastReviewAt < :at THEN :at ELSE p.lastReviewAt END "
+            + "WHERE p.providerId = :providerId")
+    int addRating(@Param("providerId") String providerId, @Param("rating") int rating, @Param("at") LocalDateTime at);
+
+    // Plain INSERT so two first reviews for the same provider collide on the primary key instead of overwriting
+    @Modifying
+    @Query(value = "INSERT INTO provider_ratings (provider_id, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5) "
+            + "VALUES (:providerId, 0, 0, 0, 0, 0, 0, 0)", nativeQuery = true)
+    int insertEmpty(@Param("providerId") String providerId);
+
+    List<ProviderRating> findByProviderIdIn(List<String> providerIds);
+
+    // SELECT ... FOR UPDATE: holds off addRating for these providers until the rebuild commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ProviderRating p WHERE p.providerId IN :providerIds")
+    List<ProviderRating> lockByProviderIdIn(@Param("providerIds") Collection<String> providerIds);
+
+    @Query("SELECT p.providerId FROM ProviderRating p")
+    List<String> findAllProviderIds();
+}
@@ -1,8 +1,14 @@
 package FixItNow.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
 import FixItNow.model.Report;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ReportRepository extends JpaRepository<Report, Integer> {
     // Derived query that looks up Report.reportedOn.id (uses property name "id" on Users)
@@ -10,4 +16,16 @@ public interface ReportRepository extends JpaRepository<Report, Integer> {
 
     // Derived query that looks up Report.reportedBy.id
     List<Report> findByReportedBy_Id(String reportedById);
-}
\ No newline at end of file
+
+    // keyset page ordered by primary key; pass 0 as after for the first page
+    List<Report> findByIdGreaterThanOrderByIdAsc(Integer after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.STREAM_FETCH_SIZE))
+    @Query("SELECT r FROM Report r JOIN FETCH r.reportedOn JOIN FETCH r.reportedBy JOIN FETCH r.booking b JOIN FETCH b.service s JOIN FETCH s.provider JOIN FETCH b.customer JOIN FETCH b.provider ORDER BY r.id")
+    Stream<Report> streamAllOrderById();
+
+    // category, status, day, count - used to rebuild admin_stats
+    @Query("SELECT r.category, r.status, extract(date from r.createdAt), COUNT(r) FROM Report r "
+            + "GROUP BY r.category, r.status, extract(date from r.createdAt)")
+    List<Object[]> countByCategoryStatusAndDay();
+}
@@ -3,9 +3,12 @@ package FixItNow.repository;
 import FixItNow.model.Reviews;
 import FixItNow.model.Users;
 import FixItNow.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewsRepository extends JpaRepository<Reviews, String> {
@@ -15,4 +18,23 @@ public interface ReviewsRepository extends JpaRepository<Reviews, String> {
 	
 	@Query("SELECT MAX(r.id) FROM Reviews r")
 	String findMaxReviewsId();
+
+	// ids of the prefix, highest numeric suffix first; only read to seed the id sequence (see IdAllocator)
+	@Query("SELECT r.id FROM Reviews r WHERE r.id LIKE 'R%' ORDER BY LENGTH(r.id) DESC, r.id DESC")
+	List<String> findIdsHighestFirst(Pageable page);
+
+	// providerId, count, sum, 1..5 star counts, latest createdAt - used to rebuild provider_ratings
+	@Query("SELECT r.provider.id, COUNT(r), SUM(r.rating), "
+			+ "SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END), "
+			+ "SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END), "
+			+ "SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END), MAX(r.createdAt) "
+			+ "FROM Reviews r WHERE r.provider.id IN :providerIds GROUP BY r.provider.id")
+	List<Object[]> aggregateByProviderIn(@Param("providerIds") Collection<String> providerIds);
+
+	@Query("SELECT DISTINCT r.provider.id FROM Reviews r")
+	List<String> findReviewedProviderIds();
+
+	// rating, day, count - used to rebuild admin_stats
+	@Query("SELECT r.rating, extract(date from r.createdAt), COUNT(r) FROM Reviews r GROUP BY r.rating, extract(date from r.createdAt)")
+	List<Object[]> countByRatingAndDay();
 }
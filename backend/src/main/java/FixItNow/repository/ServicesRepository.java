@@ -1,9 +1,17 @@
 package FixItNow.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
 
 import FixItNow.model.Services;
 import FixItNow.model.Users;
@@ -13,5 +21,48 @@ public interface ServicesRepository extends JpaRepository<Services, String> {
     
     @Query("SELECT MAX(s.id) FROM Services s")
     String findMaxServiceId();
-    
-}
\ No newline at end of file
+
+    // ids of the prefix, highest numeric suffix first; only read to seed the id sequence (see IdAllocator)
+    @Query("SELECT s.id FROM Services s WHERE s.id LIKE 'S%' ORDER BY LENGTH(s.id) DESC, s.id DESC")
+    List<String> findIdsHighestFirst(Pageable page);
+
+    // weekly_schedule, availability of the provider's services, first service first (what the
+    // slot calendar and the availability index go by)
+    @Query("SELECT s.weeklySchedule, s.availability FROM Services s WHERE s.provider.id = :providerId ORDER BY s.id")
+    List<Object[]> findScheduleByProviderId(@Param("providerId") String providerId, Limit limit);
+
+    // provider id, weekly_schedule, availability - used to rebuild the availability index
+    @Query("SELECT s.provider.id, s.weeklySchedule, s.availability FROM Services s ORDER BY s.provider.id, s.id")
+    List<Object[]> findScheduleFields();
+
+    // rows written before weekly_schedule existed: [id, availability]
+    @Query("SELECT s.id, s.availability FROM Services s WHERE s.weeklySchedule IS NULL")
+    List<Object[]> findUnscheduledAvailability(Limit limit);
+
+    @Modifying
+    @Query("UPDATE Services s SET s.weeklySchedule = :schedule WHERE s.id = :id")
+    int setWeeklySchedule(@Param("id") String id, @Param("schedule") byte[] schedule);
+
+    List<Services> findByIdGreaterThanOrderByIdAsc(String after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.STREAM_FETCH_SIZE))
+    @Query("SELECT s FROM Services s JOIN FETCH s.provider ORDER BY s.id")
+    Stream<Services> streamAllOrderById();
+
+    // verification state, count - used to rebuild admin_stats
+    @Query("SELECT s.verified, COUNT(s) FROM Services s GROUP BY s.verified")
+    List<Object[]> countByVerified();
+
+    // id, provider id, category, subcategory, description - used to rebuild the search index
+    @Query("SELECT s.id, s.provider.id, s.category, s.subcategory, s.description FROM Services s")
+    List<Object[]> findSearchFields();
+
+    // provider id, category, subcategory, verified, weekly_schedule, availability - used by the provider facet index
+    @Query("SELECT s.provider.id, s.category, s.subcategory, s.verified, s.weeklySchedule, s.availability FROM Services s "
+            + "ORDER BY s.provider.id, s.id")
+    List<Object[]> findFacetFields();
+
+    @Query("SELECT s.provider.id, s.category, s.subcategory, s.verified, s.weeklySchedule, s.availability FROM Services s "
+            + "WHERE s.provider.id = :providerId ORDER BY s.id")
+    List<Object[]> findFacetFieldsByProviderId(@Param("providerId") String providerId);
+}
@@ -0,0 +1,19 @@
+package FixItNow.repository;
+
+/**
+ * Query hint values shared by the repositories' Stream-returning export queries.
+ */
+public final class StreamingHints {
+
+    /*
+     * Rows fetched per round trip while an export streams. A positive size is portable: PostgreSQL
+     * and H2 page through the result inside the transaction, and MySQL Connector/J does the same
+     * with a server-side cursor when the JDBC URL has useCursorFetch=true (the default URL in
+     * application.properties sets it). Without that flag Connector/J ignores the size and buffers
+     * the whole result. Its row-at-a-time mode (fetch size Integer.MIN_VALUE) is MySQL-only and
+     * rejected by other drivers, so it is not used here.
+     */
+    public static final String STREAM_FETCH_SIZE = "500";
+
+    private StreamingHints() {}
+}
@@ -1,15 +1,22 @@
 package FixItNow.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import FixItNow.model.SignInRow;
 import FixItNow.model.Users;
 import FixItNow.model.UserRole;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UsersRepository extends JpaRepository<Users, String> { // <-- Change primary key type to Long
@@ -22,6 +29,13 @@ public interface UsersRepository extends JpaRepository<Users, String> { // <-- C
 
     boolean existsByEmail(String email);
 
+    // sign-in in one round trip: unique email index plus the provider's first service (services.provider_id FK index)
+    @Query("SELECT new FixItNow.model.SignInRow(u.id, u.password, u.role, "
+            + "(SELECT s.verified FROM Services s WHERE s.provider = u AND s.id = "
+            + "(SELECT MIN(s2.id) FROM Services s2 WHERE s2.provider = u))) "
+            + "FROM Users u WHERE u.email = :email")
+    SignInRow findSignInByEmail(@Param("email") String email);
+
     Users findByEmail(String email);
     Optional<Users> findById(String userId);
     // Find all users with a specific role (for finding all providers)
@@ -29,6 +43,22 @@ public interface UsersRepository extends JpaRepository<Users, String> { // <-- C
     
     @Query("SELECT MAX(u.id) FROM Users u")
     String findMaxUserId();
-    
-    
-}
\ No newline at end of file
+
+    // ids of the prefix, highest numeric suffix first; only read to seed the id sequence (see IdAllocator)
+    @Query("SELECT u.id FROM Users u WHERE u.id LIKE 'U%' ORDER BY LENGTH(u.id) DESC, u.id DESC")
+    List<String> findIdsHighestFirst(Pageable page);
+
+    List<Users> findByRoleAndIdGreaterThanOrderByIdAsc(UserRole role, String after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.STREAM_FETCH_SIZE))
+    @Query("SELECT u FROM Users u WHERE u.role = :role ORDER BY u.id")
+    Stream<Users> streamByRoleOrderById(@Param("role") UserRole role);
+
+    // role, signup day, count - used to rebuild admin_stats
+    @Query("SELECT u.role, extract(date from u.createdOn), COUNT(u) FROM Users u GROUP BY u.role, extract(date from u.createdOn)")
+    List<Object[]> countByRoleAndDay();
+
+    // id, role, location, latitude, longitude - used to rebuild the location heatmap
+    @Query("SELECT u.id, u.role, u.location, u.latitude, u.longitude FROM Users u")
+    List<Object[]> findLocations();
+}
@@ -0,0 +1,61 @@
+package FixItNow.websocket;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Delivers outbound chat frames off the caller's thread (the chat writer must never wait on a
+ * socket). Each user is pinned to one single-threaded stripe, so frames to a user keep the
+ * order they were sent in while different users are served in parallel.
+ */
+@Component
+public class ChatFanout {
+
+    @Autowired
+    private WebSocketSessionRegistry registry;
+
+    @Value("${app.websocket.fanout-threads:4}")
+    private int threads = 4;
+
+    private ThreadPoolExecutor[] stripes;
+
+    @PostConstruct
+    public void start() {
+        stripes = new ThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; i++) {
+            int n = i;
+            // single-threaded; a ThreadPoolExecutor rather than newSingleThreadExecutor so queued() can read the queue
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "chat-fanout-" + n);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /** Queue a text frame for every open session of userId. */
+    public void send(String userId, String text) {
+        if (userId == null) return;
+        stripes[Math.floorMod(userId.hashCode(), stripes.length)].execute(() -> registry.sendTo(userId, text));
+    }
+
+    /** Frames waiting for a fanout thread. */
+    public int queued() {
+        int total = 0;
+        if (stripes != null) for (ThreadPoolExecutor s : stripes) total += s.getQueue().size();
+        return total;
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (ThreadPoolExecutor s : stripes) s.shutdown();
+    }
+}
@@ -0,0 +1,53 @@
+package FixItNow.websocket;
+
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import FixItNow.manager.ChatWritePipeline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Chat socket gauges and counters, read from the registry, fanout and write pipeline when
+ * scraped (none of those classes depend on Micrometer).
+ */
+@Component
+public class ChatMetrics implements MeterBinder {
+
+    @Autowired
+    private WebSocketSessionRegistry registry;
+
+    @Autowired
+    private ChatFanout fanout;
+
+    @Autowired
+    private ChatWritePipeline pipeline;
+
+    @Override
+    public void bindTo(MeterRegistry meters) {
+        Gauge.builder("chat.ws.sessions", registry, WebSocketSessionRegistry::sessionCount)
+                .description("Open chat sockets").register(meters);
+        Gauge.builder("chat.ws.users", registry, WebSocketSessionRegistry::userCount)
+                .description("Users with at least one chat socket").register(meters);
+        Gauge.builder("chat.ws.send.queue", fanout, ChatFanout::queued)
+                .description("Frames waiting for a fanout thread").register(meters);
+        Gauge.builder("chat.ws.send.buffer", registry, WebSocketSessionRegistry::bufferedBytes)
+                .description("Bytes buffered in sessions, not yet written").baseUnit("bytes").register(meters);
+        Gauge.builder("chat.write.queue", pipeline, ChatWritePipeline::queued)
+                .description("Messages waiting for the chat writer").register(meters);
+        dropped(meters, "overflow", WebSocketSessionRegistry::droppedOverflow);
+        dropped(meters, "slow_client", WebSocketSessionRegistry::droppedSlow);
+        dropped(meters, "send_failed", WebSocketSessionRegistry::droppedFailed);
+    }
+
+    private void dropped(MeterRegistry meters, String reason, ToDoubleFunction<WebSocketSessionRegistry> count) {
+        FunctionCounter.builder("chat.ws.frames.dropped", registry, count)
+                .description("Frames that never reached a client")
+                .tag("reason", reason)
+                .register(meters);
+    }
+}
@@ -11,11 +11,13 @@ import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.util.UriUtils;
 import org.springframework.web.socket.CloseStatus;
 
-import FixItNow.manager.MessageManager;
+import FixItNow.manager.ChatWritePipeline;
 import FixItNow.manager.UsersManager;
 import FixItNow.model.Message;
 
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @Component
 public class ChatWebSocketHandler extends TextWebSocketHandler {
@@ -24,7 +26,10 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
     private WebSocketSessionRegistry registry;
 
     @Autowired
-    private MessageManager messageManager;
+    private ChatWritePipeline writePipeline;
+
+    @Autowired
+    private ChatFanout fanout;
 
     @Autowired
     private UsersManager usersManager;
@@ -41,7 +46,8 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
             return;
         }
         String userId = String.valueOf(uid);
-        registry.register(userId, session);
+        // every send (including this welcome) goes through the registry's decorated session
+        WebSocketSession out = registry.register(userId, session);
         System.out.println("[ChatWS] connection established: userId=" + userId + " sessionId=" + session.getId());
 
 
@@ -49,7 +55,7 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
         ObjectNode sys = mapper.createObjectNode();
         sys.put("system", true);
         sys.put("message", "connected");
-        session.sendMessage(new TextMessage(mapper.writeValueAsString(sys)));
+        out.sendMessage(new TextMessage(mapper.writeValueAsString(sys)));
     }
 
     @Override
@@ -79,10 +85,22 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
             return;
         }
 
-        // Persist message using MessageManager (resolves Users)
-        Message saved = messageManager.saveMessage(senderId, to, content);
+        // Queue the write; the echo goes out once the message's batch has committed
+        try {
+            writePipeline.submit(senderId, to, content).whenComplete((saved, err) -> {
+                if (err != null) {
+                    Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+                    sendError(senderId, "failed", "Message not sent: " + cause.getMessage(), tempId);
+                } else {
+                    echo(saved, senderId, to, tempId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            sendError(senderId, "busy", "Server busy, message not sent", tempId);
+        }
+    }
 
-        // Build outgoing JSON
+    private void echo(Message saved, String senderId, String to, String tempId) {
         ObjectNode out = mapper.createObjectNode();
         out.put("id", saved.getId());
         out.put("from", saved.getSender() != null ? saved.getSender().getId() : senderId);
@@ -92,18 +110,31 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
         
         if (tempId != null) { out.put("tempId", tempId); }
 
-        String outText = mapper.writeValueAsString(out);
+        String outText;
+        try {
+            outText = mapper.writeValueAsString(out);
+        } catch (Exception e) {
+            return;
+        }
 
         // Send to recipient if online
-        WebSocketSession recipientSession = registry.getSession(to);
-        if (recipientSession != null && recipientSession.isOpen()) {
-            recipientSession.sendMessage(new TextMessage(outText));
-        }
+        fanout.send(to, outText);
 
         // Also send back to sender (so optimistic pending message gets replaced)
-        WebSocketSession senderSession = registry.getSession(senderId);
-        if (senderSession != null && senderSession.isOpen()) {
-            senderSession.sendMessage(new TextMessage(outText));
+        if (!senderId.equals(to)) {
+            fanout.send(senderId, outText);
+        }
+    }
+
+    private void sendError(String senderId, String error, String message, String tempId) {
+        ObjectNode sys = mapper.createObjectNode();
+        sys.put("system", true);
+        sys.put("error", error);
+        sys.put("message", message);
+        if (tempId != null) { sys.put("tempId", tempId); }
+        try {
+            fanout.send(senderId, mapper.writeValueAsString(sys));
+        } catch (Exception ignored) {
         }
     }
 
@@ -0,0 +1,50 @@
+package FixItNow.websocket;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import FixItNow.model.ConversationSummary;
+import FixItNow.model.ConversationUpdated;
+
+/**
+ * Pushes a typed "conversation-updated" frame to both participants once a message's
+ * transaction has committed, so inbox lists update without polling /api/chat/conversations.
+ * The frame carries the same fields as a ConversationSummary from that endpoint.
+ */
+@Component
+public class ConversationPushListener {
+
+    public static final String TYPE = "conversation-updated";
+
+    @Autowired
+    private WebSocketSessionRegistry registry;
+
+    @Autowired
+    private ChatFanout fanout;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConversationUpdated(ConversationUpdated event) {
+        push(event.userA(), event.summaryFor(event.userA()));
+        if (!event.userB().equals(event.userA())) {
+            push(event.userB(), event.summaryFor(event.userB()));
+        }
+    }
+
+    private void push(String userId, ConversationSummary summary) {
+        if (!registry.isOnline(userId)) return;
+        ObjectNode frame = objectMapper.valueToTree(summary);
+        frame.put("type", TYPE);
+        try {
+            fanout.send(userId, objectMapper.writeValueAsString(frame));
+        } catch (Exception e) {
+            System.out.println("[ChatWS] conversation push to " + userId + " failed: " + e.getMessage());
+        }
+    }
+}
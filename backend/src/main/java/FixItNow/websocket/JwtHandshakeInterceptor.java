@@ -12,15 +12,15 @@ import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import FixItNow.manager.UsersManager;
-import FixItNow.model.Users;
+import FixItNow.manager.AuthPrincipalCache;
+import FixItNow.model.AuthPrincipal;
 
 
 @Component
 public class JwtHandshakeInterceptor implements HandshakeInterceptor {
 
     @Autowired
-    private UsersManager usersManager;
+    private AuthPrincipalCache principals;
 
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
@@ -54,23 +54,14 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
         System.out.println("[JwtHandshake] token=" + (token == null ? "<null>" : token.substring(0, Math.min(token.length(), 16)) + "..."));
 
 
-        // Validate token using your UsersManager (returns email or "401")
-        String email = usersManager.validateToken(token);
-        System.out.println("[JwtHandshake] validateToken -> " + email);
-
-        if (email == null || "401".equals(email)) {
-            return false;
-        }
-        
-
-        // Map email -> Users and set userId in attributes
-        Users user = usersManager.getUserByEmail(email);
-        if (user == null || user.getId() == null) {
+        // Validate token and map it to the user (cached per token, same as REST requests)
+        AuthPrincipal principal = principals.resolve(token);
+        if (principal == null) {
             return false;
         }
 
-        attributes.put("userId", user.getId());
-        attributes.put("authEmail", email);
+        attributes.put("userId", principal.userId());
+        attributes.put("authEmail", principal.email());
         return true;
     }
 
@@ -1,48 +1,172 @@
 package FixItNow.websocket;
 
-import java.util.Map;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
-
+/**
+ * Open chat sessions by user. A user may have several sessions (tabs, devices); each one is
+ * wrapped in a ConcurrentWebSocketSessionDecorator so any thread can send to it without
+ * blocking on another thread's write. A client that stops reading is cut off by the send-time
+ * and buffer limits: "disconnect" closes it, "drop" discards its oldest buffered frames.
+ */
 @Component
 public class WebSocketSessionRegistry {
-    private final ConcurrentMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
 
-    public void register(String userId, WebSocketSession session) {
-        if (userId == null || session == null) return;
-        sessions.put(userId, session);
+    private final ConcurrentMap<String, Set<WebSocketSession>> sessionsByUser = new ConcurrentHashMap<>();
+    // reverse index: raw session id -> registration, so a disconnect is removed without scanning
+    private final ConcurrentMap<String, Registration> bySessionId = new ConcurrentHashMap<>();
+
+    // frames that never reached a client: discarded by the "drop" policy, refused by a slow session, failed writes
+    private final LongAdder droppedOverflow = new LongAdder();
+    private final LongAdder droppedSlow = new LongAdder();
+    private final LongAdder droppedFailed = new LongAdder();
+
+    @Value("${app.websocket.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs = 5000;
+
+    @Value("${app.websocket.send-buffer-limit-bytes:524288}")
+    private int sendBufferLimitBytes = 512 * 1024;
+
+    @Value("${app.websocket.slow-client-policy:disconnect}")
+    private String slowClientPolicy = "disconnect";
+
+    private record Registration(String userId, WebSocketSession session) {}
+
+    /** Register the session for userId and return the decorated session all sends must go through. */
+    public WebSocketSession register(String userId, WebSocketSession session) {
+        if (userId == null || session == null) return session;
+        ConcurrentWebSocketSessionDecorator decorated = new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimitMs, sendBufferLimitBytes, overflowStrategy());
+        decorated.setMessageCallback(m -> droppedOverflow.increment());
+        bySessionId.put(session.getId(), new Registration(userId, decorated));
+        // compute() so a concurrent removal of the user's last session cannot drop this one
+        sessionsByUser.compute(userId, (k, set) -> {
+            Set<WebSocketSession> s = set != null ? set : ConcurrentHashMap.newKeySet();
+            s.add(decorated);
+            return s;
+        });
+        return decorated;
     }
 
+    /** Remove all of the user's sessions (they are not closed). */
     public void unregister(String userId) {
         if (userId == null) return;
-        sessions.remove(userId);
+        Set<WebSocketSession> removed = sessionsByUser.remove(userId);
+        if (removed != null) {
+            for (WebSocketSession s : removed) bySessionId.remove(s.getId());
+        }
     }
 
-    public WebSocketSession getSession(String userId) {
-        return sessions.get(userId);
+    /** The user's open sessions (decorated); empty when offline. */
+    public Set<WebSocketSession> getSessions(String userId) {
+        Set<WebSocketSession> s = sessionsByUser.get(userId);
+        return s == null ? Collections.emptySet() : Collections.unmodifiableSet(s);
     }
 
     public boolean isOnline(String userId) {
-        WebSocketSession s = sessions.get(userId);
-        return s != null && s.isOpen();
+        for (WebSocketSession s : getSessions(userId)) {
+            if (s.isOpen()) return true;
+        }
+        return false;
     }
 
     /**
-     * Remove the mapping whose session equals the provided session.
-     * Returns removed userId or null.
+     * Send a text frame to every open session of the user. A session that hits the slow-client
+     * limits (or whose write fails) is closed and dropped from the registry.
+     * Returns false when no session took the frame.
+     */
+    public boolean sendTo(String userId, String text) {
+        boolean delivered = false;
+        TextMessage message = new TextMessage(text);
+        for (WebSocketSession s : getSessions(userId)) {
+            if (!s.isOpen()) {
+                removeBySession(s);
+                continue;
+            }
+            try {
+                s.sendMessage(message);
+                delivered = true;
+            } catch (SessionLimitExceededException e) {
+                // slow client: the decorator refuses further frames, so close it and forget it
+                droppedSlow.increment();
+                System.out.println("[ChatWS] disconnecting slow session " + s.getId() + " of " + userId + ": " + e.getMessage());
+                removeBySession(s);
+                closeQuietly(s, e.getStatus());
+            } catch (IOException | RuntimeException e) {
+                droppedFailed.increment();
+                System.out.println("[ChatWS] dropping session " + s.getId() + " of " + userId + ": " + e.getMessage());
+                removeBySession(s);
+                closeQuietly(s, CloseStatus.SERVER_ERROR);
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Remove the mapping for the provided session (raw or decorated) in O(1).
+     * Returns the userId it belonged to, or null.
      */
     public String removeBySession(WebSocketSession session) {
         if (session == null) return null;
-        for (Map.Entry<String, WebSocketSession> e : sessions.entrySet()) {
-            if (e.getValue().equals(session)) {
-                sessions.remove(e.getKey());
-                return e.getKey();
-            }
+        Registration r = bySessionId.remove(session.getId());
+        if (r == null) return null;
+        sessionsByUser.computeIfPresent(r.userId(), (k, set) -> {
+            set.remove(r.session());
+            return set.isEmpty() ? null : set;
+        });
+        return r.userId();
+    }
+
+    public int sessionCount() {
+        return bySessionId.size();
+    }
+
+    public int userCount() {
+        return sessionsByUser.size();
+    }
+
+    /** Bytes accepted for sending but not yet written, over all sessions. */
+    public long bufferedBytes() {
+        long total = 0;
+        for (Registration r : bySessionId.values()) {
+            if (r.session() instanceof ConcurrentWebSocketSessionDecorator d) total += d.getBufferSize();
         }
-        return null;
+        return total;
+    }
+
+    public long droppedOverflow() {
+        return droppedOverflow.sum();
+    }
+
+    public long droppedSlow() {
+        return droppedSlow.sum();
+    }
+
+    public long droppedFailed() {
+        return droppedFailed.sum();
+    }
+
+    private static void closeQuietly(WebSocketSession s, CloseStatus status) {
+        try {
+            s.close(status);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private OverflowStrategy overflowStrategy() {
+        return "drop".equalsIgnoreCase(slowClientPolicy) ? OverflowStrategy.DROP : OverflowStrategy.TERMINATE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package FixItNow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.manager.ProviderRatingManager;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SyntheticDataSeederTest {
+
+    private static final String SEEDED = "SELECT user_id FROM users WHERE email LIKE '%" + SyntheticDataSeeder.EMAIL_DOMAIN + "'";
+
+    @Autowired
+    private AutowireCapableBeanFactory beans;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private ProviderRatingManager ratings;
+
+    private SyntheticDataSeeder seeder() {
+        SyntheticDataSeeder s = beans.createBean(SyntheticDataSeeder.class);
+        ReflectionTestUtils.setField(s, "customers", 60);
+        ReflectionTestUtils.setField(s, "providers", 8);
+        ReflectionTestUtils.setField(s, "bookingsPerProvider", 30);
+        ReflectionTestUtils.setField(s, "reports", 10);
+        ReflectionTestUtils.setField(s, "conversations", 25);
+        ReflectionTestUtils.setField(s, "messages", 400L);
+        ReflectionTestUtils.setField(s, "batchSize", 64);
+        return s;
+    }
+
+    @AfterEach
+    void purge() {
+        jdbc.update("DELETE FROM messages WHERE sender_id IN (" + SEEDED + ")");
+        jdbc.update("DELETE FROM conversations WHERE user_a IN (" + SEEDED + ") OR user_b IN (" + SEEDED + ")");
+        jdbc.update("DELETE FROM reports WHERE reported_by IN (" + SEEDED + ")");
+        jdbc.update("DELETE FROM reviews WHERE customer_id IN (" + SEEDED + ")");
+        jdbc.update("DELETE FROM bookings WHERE provider_id IN (" + SEEDED + ")");
+        jdbc.update("DELETE FROM services WHERE provider_id IN (" + SEEDED + ")");
+        jdbc.update("DELETE FROM users WHERE email LIKE '%" + SyntheticDataSeeder.EMAIL_DOMAIN + "'");
+        ratings.rebuild();
+    }
+
+    private long count(String sql) {
+        return jdbc.queryForObject(sql, Long.class);
+    }
+
+    // the data's shape with the reserved id ranges taken out
+    private List<String> fingerprint() {
+        return jdbc.queryForList("SELECT CONCAT(b.booking_date, ' ', b.time_slot, ' ', b.status, ' ', s.category, ' ', "
+                + "COALESCE(CAST(r.rating AS VARCHAR), '-')) FROM bookings b JOIN services s ON s.service_id = b.service_id "
+                + "LEFT JOIN reviews r ON r.booking_id = b.booking_id WHERE b.provider_id IN (" + SEEDED + ") "
+                + "ORDER BY LENGTH(b.booking_id), b.booking_id", String.class);
+    }
+
+    @Test
+    void seedsEveryTableDeterministically() {
+        seeder().run();
+
+        assertEquals(68, count(SEEDED.replace("user_id", "COUNT(*)")));
+        assertEquals(8, count("SELECT COUNT(*) FROM services WHERE provider_id IN (" + SEEDED + ")"));
+        assertEquals(240, count("SELECT COUNT(*) FROM bookings WHERE provider_id IN (" + SEEDED + ")"));
+        assertEquals(400, count("SELECT COUNT(*) FROM messages WHERE sender_id IN (" + SEEDED + ")"));
+        assertEquals(25, count("SELECT COUNT(*) FROM conversations WHERE user_a IN (" + SEEDED + ")"));
+        assertTrue(count("SELECT COUNT(*) FROM reviews WHERE customer_id IN (" + SEEDED + ")") > 0);
+        assertTrue(count("SELECT COUNT(*) FROM reports WHERE reported_by IN (" + SEEDED + ")") > 0);
+        assertTrue(count("SELECT COUNT(*) FROM provider_ratings WHERE provider_id IN (" + SEEDED + ")") > 0);
+
+        // the app keeps allocating after the seeded range
+        long maxSeeded = jdbc.queryForList(SEEDED, String.class).stream()
+                .mapToLong(id -> Long.parseLong(id.substring(1))).max().orElseThrow();
+        assertTrue(count("SELECT next_value FROM id_sequences WHERE prefix = 'U'") > maxSeeded);
+
+        // a second run is skipped
+        seeder().run();
+        assertEquals(68, count(SEEDED.replace("user_id", "COUNT(*)")));
+
+        List<String> first = fingerprint();
+        purge();
+        seeder().run();
+        assertEquals(first, fingerprint());
+    }
+}
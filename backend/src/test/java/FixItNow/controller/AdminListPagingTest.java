@@ -0,0 +1,146 @@
+package FixItNow.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.manager.NdjsonExporter;
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+/** GET /service's keyset pages and NDJSON export, over fixture rows keyed after everything else ("ZZ..."). */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminListPagingTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+
+    @BeforeEach
+    void setUp() {
+        Users u = new Users();
+        u.setId("ZZPP1");
+        u.setName("paging provider");
+        u.setEmail("zzpp1@paging.test");
+        u.setPassword("secret");
+        u.setRole(UserRole.PROVIDER);
+        usersRepository.save(u);
+        for (String id : List.of("ZZPS1", "ZZPS2", "ZZPS3")) {
+            Services s = new Services();
+            s.setId(id);
+            s.setProvider(u);
+            s.setCategory("Paging");
+            servicesRepository.save(s);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        servicesRepository.deleteAllById(List.of("ZZPS1", "ZZPS2", "ZZPS3"));
+        usersRepository.deleteById("ZZPP1");
+    }
+
+    @Test
+    void keysetPagesEndWithAnEmptyPageAfterAFullOne() throws Exception {
+        mvc.perform(get("/service").param("after", "ZZPS0").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", Matchers.contains("ZZPS1", "ZZPS2")))
+                .andExpect(jsonPath("$.nextCursor").value("ZZPS2"));
+
+        // short page: the last one, no cursor
+        mvc.perform(get("/service").param("after", "ZZPS2").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", Matchers.contains("ZZPS3")))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        // a page that happens to end exactly on the last row still hands out a cursor, which then yields nothing
+        mvc.perform(get("/service").param("after", "ZZPS1").param("limit", "2"))
+                .andExpect(jsonPath("$.nextCursor").value("ZZPS3"));
+        mvc.perform(get("/service").param("after", "ZZPS3").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void limitIsClamped() throws Exception {
+        mvc.perform(get("/service").param("after", "ZZPS0").param("limit", "0"))
+                .andExpect(jsonPath("$.items.length()").value(3));
+    }
+
+    @Test
+    void ndjsonStreamsEveryRowInKeyOrder() throws Exception {
+        List<String> byParam = ndjsonIds(get("/service").param("format", "ndjson"));
+        List<String> byAccept = ndjsonIds(get("/service").accept(NdjsonExporter.NDJSON));
+
+        assertEquals(servicesRepository.count(), byParam.size());
+        assertEquals(byParam, byAccept);
+        assertEquals(List.of("ZZPS1", "ZZPS2", "ZZPS3"), byParam.subList(byParam.size() - 3, byParam.size()));
+        List<String> sorted = new ArrayList<>(byParam);
+        sorted.sort(null);
+        assertEquals(sorted, byParam);
+    }
+
+    @Test
+    void ndjsonOfNoRowsIsAnEmptyBody() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = ndjsonExporter.stream(Stream::empty, x -> x);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        assertEquals(NdjsonExporter.NDJSON, response.getHeaders().getContentType());
+        assertEquals(0, out.size());
+    }
+
+    private List<String> ndjsonIds(RequestBuilder listing) throws Exception {
+        MvcResult started = mvc.perform(listing).andExpect(request().asyncStarted()).andReturn();
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(NdjsonExporter.NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<String> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (line.isEmpty()) continue;
+            JsonNode row = objectMapper.readTree(line);
+            ids.add(row.get("id").asText());
+        }
+        return ids;
+    }
+}
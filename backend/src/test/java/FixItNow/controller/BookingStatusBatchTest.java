@@ -0,0 +1,202 @@
+package FixItNow.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import FixItNow.manager.AuthPrincipalCache;
+import FixItNow.manager.BookingManager;
+import FixItNow.manager.JWTManager;
+import FixItNow.manager.SlotCalendar;
+import FixItNow.model.Booking;
+import FixItNow.model.BookingStatus;
+import FixItNow.model.FreeSlot;
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingStatusBatchTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private BookingManager bookingManager;
+    @Autowired
+    private SlotCalendar calendar;
+    @Autowired
+    private JWTManager jwt;
+    @Autowired
+    private AuthPrincipalCache principals;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private final LocalDate day = LocalDate.now().plusDays(2);
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        Users provider = user("QP0", UserRole.PROVIDER);
+        Users other = user("QP9", UserRole.PROVIDER);
+        user("QC1", UserRole.CUSTOMER);
+        user("QC2", UserRole.CUSTOMER);
+        service("QS0", provider, "{\"from\":\"9:00 am\",\"to\":\"1:00 pm\"}");
+        service("QS9", other, null);
+        calendar.invalidate("QP0");
+        calendar.invalidate("QP9");
+        token = jwt.generateToken("qp0@batch.test");
+        principals.resolve(token);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(bookingRepository.findAll().stream()
+                .filter(b -> b.getProvider().getId().startsWith("QP")).toList());
+        servicesRepository.deleteAllById(List.of("QS0", "QS9"));
+        usersRepository.deleteAllById(List.of("QP0", "QP9", "QC1", "QC2"));
+        calendar.invalidate("QP0");
+        calendar.invalidate("QP9");
+    }
+
+    private Users user(String id, UserRole role) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("batch " + id);
+        u.setEmail(id.toLowerCase() + "@batch.test");
+        u.setPassword("secret");
+        u.setRole(role);
+        return usersRepository.save(u);
+    }
+
+    private void service(String id, Users provider, String availability) {
+        Services s = new Services();
+        s.setId(id);
+        s.setProvider(provider);
+        s.setCategory("Plumbing");
+        s.setSubcategory("{\"Leak repair\":300}");
+        s.setAvailability(availability);
+        servicesRepository.save(s);
+    }
+
+    private String book(String providerId, String customerId, String slot) {
+        return bookingManager.createBooking(providerId, customerId, day, slot, Map.of("Leak repair", 1)).getId();
+    }
+
+    private static String item(String bookingId, String status) {
+        return "{\"bookingId\":\"" + bookingId + "\",\"status\":\"" + status + "\"}";
+    }
+
+    @Test
+    void appliesValidItemsWithOneReadAndOneUpdatePerKind() throws Exception {
+        String a = book("QP0", "QC1", "09:00");
+        String b = book("QP0", "QC1", "09:30");
+        String c = book("QP0", "QC2", "10:00");
+        String d = book("QP0", "QC2", "10:30");
+        String foreign = book("QP9", "QC1", "11:00");
+
+        String body = "[" + String.join(",", item(a, "CONFIRMED"), item(b, "cancelled"), item(c, "PENDING"),
+                item(d, "CONFIRMED"), item(foreign, "CONFIRMED"), item("B999999", "CONFIRMED"), item(a, "COMPLETED"),
+                item(c, "BOGUS")) + "]";
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        mvc.perform(post("/bookings/status/batch").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(3))
+                .andExpect(jsonPath("$.results[0].result").value("updated"))
+                .andExpect(jsonPath("$.results[1].result").value("updated"))
+                .andExpect(jsonPath("$.results[2].result").value("unchanged"))
+                .andExpect(jsonPath("$.results[3].result").value("updated"))
+                .andExpect(jsonPath("$.results[4].result").value("forbidden"))
+                .andExpect(jsonPath("$.results[5].result").value("not_found"))
+                .andExpect(jsonPath("$.results[6].result").value("invalid"))
+                .andExpect(jsonPath("$.results[7].result").value("invalid"));
+        // one SELECT, one UPDATE for the two confirmations, one for the cancellation
+        assertEquals(3, stats.getPrepareStatementCount());
+
+        assertEquals(BookingStatus.CONFIRMED, bookingRepository.findById(a).orElseThrow().getStatus());
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(b).orElseThrow().getStatus());
+        assertEquals(BookingStatus.CONFIRMED, bookingRepository.findById(d).orElseThrow().getStatus());
+        assertEquals(BookingStatus.PENDING, bookingRepository.findById(foreign).orElseThrow().getStatus());
+        assertTrue(bookingManager.nextFreeSlots("QP0", day, 3).contains(new FreeSlot(day, "09:30")));
+    }
+
+    @Test
+    void unCancellingATakenSlotIsAConflictForThatItemOnly() throws Exception {
+        String a = book("QP0", "QC1", "09:00");
+        String b = book("QP0", "QC1", "09:30");
+        bookingManager.updateBookingStatusByString(a, "CANCELLED");
+        book("QP0", "QC2", "09:00");
+
+        mvc.perform(post("/bookings/status/batch").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON).content("[" + item(a, "PENDING") + "," + item(b, "CONFIRMED") + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].result").value("conflict"))
+                .andExpect(jsonPath("$.results[1].result").value("updated"));
+        Booking still = bookingRepository.findById(a).orElseThrow();
+        assertEquals(BookingStatus.CANCELLED, still.getStatus());
+    }
+
+    @Test
+    void slotBookedThroughAnotherInstanceFailsTheBatchAndStaysHeld() throws Exception {
+        String a = book("QP0", "QC1", "09:00");
+        bookingManager.updateBookingStatusByString(a, "CANCELLED");
+        assertTrue(bookingManager.nextFreeSlots("QP0", day, 1).contains(new FreeSlot(day, "09:00")));
+        // written behind this instance's cached calendar, as another node would
+        Booking other = new Booking();
+        other.setId("QB-other");
+        other.setService(servicesRepository.findById("QS0").orElseThrow());
+        other.setProvider(usersRepository.findById("QP0").orElseThrow());
+        other.setCustomer(usersRepository.findById("QC2").orElseThrow());
+        other.setBookingDate(day);
+        other.setTimeSlot("09:00");
+        other.setSlotHold(Boolean.TRUE);
+        other.setStatus(BookingStatus.PENDING);
+        bookingRepository.save(other);
+
+        mvc.perform(post("/bookings/status/batch").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON).content("[" + item(a, "PENDING") + "]"))
+                .andExpect(status().isConflict());
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(a).orElseThrow().getStatus());
+        assertFalse(bookingManager.nextFreeSlots("QP0", day, 5).contains(new FreeSlot(day, "09:00")));
+    }
+
+    @Test
+    void emptyBatchIsABadRequest() throws Exception {
+        mvc.perform(post("/bookings/status/batch").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+}
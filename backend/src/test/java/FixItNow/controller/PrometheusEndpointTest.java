@@ -0,0 +1,73 @@
+package FixItNow.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.UsersRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @BeforeEach
+    void setUp() {
+        Users u = new Users();
+        u.setId("MC0");
+        u.setName("metrics");
+        u.setEmail("mc0@metrics.test");
+        u.setPassword("secret");
+        u.setRole(UserRole.CUSTOMER);
+        usersRepository.save(u);
+    }
+
+    @AfterEach
+    void tearDown() {
+        usersRepository.deleteAllById(List.of("MC0"));
+    }
+
+    @Test
+    void exposesRequestServiceAndSocketMetrics() throws Exception {
+        mvc.perform(post("/users/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"mc0@metrics.test\",\"password\":\"secret\",\"role\":\"CUSTOMER\"}"))
+                .andExpect(status().isOk());
+
+        String scrape = mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), "request histogram");
+        assertTrue(scrape.matches("(?s).*app_method_seconds_count\\{[^}]*class=\"UsersManager\",exception=\"none\",method=\"findSignIn\"} 1\\n.*"),
+                "service method timer");
+        // sign-in is one projection query
+        assertTrue(scrape.matches("(?s).*hibernate_request_statements_sum\\{[^}]*method=\"POST\",uri=\"/users/signin\"} 1\\.0.*"),
+                "statements per request");
+        assertTrue(scrape.contains("hibernate_request_entity_loads_count{"), "entity loads per request");
+        assertTrue(scrape.contains("chat_ws_sessions{"), "open sockets");
+        assertTrue(scrape.contains("chat_ws_send_queue{"), "fanout queue");
+        assertTrue(scrape.contains("chat_ws_frames_dropped_total{application=\"FixItNow\",reason=\"overflow\"}"), "dropped frames");
+    }
+}
@@ -0,0 +1,97 @@
+package FixItNow.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import FixItNow.model.Services;
+import FixItNow.model.ServicesVerified;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UsersSignInTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @AfterEach
+    void tearDown() {
+        servicesRepository.deleteAllById(List.of("SV1"));
+        usersRepository.deleteAllById(List.of("SI1", "SI2"));
+    }
+
+    private Users user(String id, UserRole role) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("sign in " + id);
+        u.setEmail(id.toLowerCase() + "@signin.test");
+        u.setPassword("secret1");
+        u.setRole(role);
+        return usersRepository.save(u);
+    }
+
+    private static String body(String email, String password, String role) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + password + "\",\"role\":\"" + role + "\"}";
+    }
+
+    @Test
+    void providerSignInIsOneQuery() throws Exception {
+        Users provider = user("SI1", UserRole.PROVIDER);
+        Services s = new Services();
+        s.setId("SV1");
+        s.setProvider(provider);
+        s.setCategory("Plumbing");
+        s.setVerified(ServicesVerified.APPROVED);
+        servicesRepository.save(s);
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        mvc.perform(post("/users/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content(body("si1@signin.test", "secret1", "provider")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isString())
+                .andExpect(jsonPath("$.verified").value("APPROVED"));
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void rejectsBadPasswordAndWrongRole() throws Exception {
+        user("SI2", UserRole.CUSTOMER);
+        mvc.perform(post("/users/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content(body("si2@signin.test", "wrong", "customer")))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(post("/users/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content(body("si2@signin.test", "secret1", "provider")))
+                .andExpect(status().isForbidden());
+        mvc.perform(post("/users/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content(body("si2@signin.test", "secret1", "customer")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.verified").doesNotExist());
+    }
+}
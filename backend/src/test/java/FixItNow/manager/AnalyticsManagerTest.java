@@ -0,0 +1,181 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import FixItNow.model.AdminStatEpoch;
+import FixItNow.model.Booking;
+import FixItNow.model.BookingStatus;
+import FixItNow.model.ServicesVerified;
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.AdminStatEpochRepository;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AnalyticsManagerTest {
+
+    @Autowired
+    private AnalyticsManager analytics;
+    @Autowired
+    private BookingManager bookingManager;
+    @Autowired
+    private ServicesManager servicesManager;
+    @Autowired
+    private SlotCalendar calendar;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private AdminStatEpochRepository epochs;
+
+    private final LocalDate day = LocalDate.now().plusDays(3);
+
+    @BeforeEach
+    void setUp() {
+        Users provider = user("NP0", UserRole.PROVIDER);
+        user("NC0", UserRole.CUSTOMER);
+        Services s = new Services();
+        s.setId("NS0");
+        s.setProvider(provider);
+        s.setCategory("Gardening");
+        s.setSubcategory("{\"Mowing\":200}");
+        s.setAvailability("{\"from\":\"9:00 am\",\"to\":\"1:00 pm\"}");
+        servicesRepository.save(s);
+        calendar.invalidate("NP0");
+        // fixtures were saved behind the manager's back: start from the base tables
+        analytics.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(bookingRepository.findAll().stream()
+                .filter(b -> b.getProvider().getId().equals("NP0")).toList());
+        servicesRepository.deleteById("NS0");
+        usersRepository.deleteAllById(List.of("NP0", "NC0"));
+        calendar.invalidate("NP0");
+        analytics.rebuild();
+    }
+
+    private Users user(String id, UserRole role) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("stats " + id);
+        u.setEmail(id.toLowerCase() + "@stats.test");
+        u.setPassword("secret");
+        u.setRole(role);
+        return usersRepository.save(u);
+    }
+
+    private Booking book(String slot) {
+        return bookingManager.createBooking("NP0", "NC0", day, slot, Map.of("Mowing", 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private long total(String metric, String dim) {
+        Map<String, Map<String, Long>> totals = (Map<String, Map<String, Long>>) analytics.stats(day, day).get("totals");
+        return totals.getOrDefault(metric, Map.of()).getOrDefault(dim, 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long onDay(String metric, String dim) {
+        Map<String, Map<LocalDate, Map<String, Long>>> daily =
+                (Map<String, Map<LocalDate, Map<String, Long>>>) analytics.stats(day, day).get("daily");
+        return daily.getOrDefault(metric, Map.of()).getOrDefault(day, Map.of()).getOrDefault(dim, 0L);
+    }
+
+    @Test
+    void writePathsKeepTheRollupsEqualToTheBaseTables() {
+        long pending = total(AnalyticsManager.BOOKINGS, "PENDING");
+        long confirmed = total(AnalyticsManager.BOOKINGS, "CONFIRMED");
+        long approved = total(AnalyticsManager.VERIFICATION, "APPROVED");
+
+        Booking a = book("09:00");
+        Booking b = book("09:30");
+        book("10:00");
+        bookingManager.updateBookingStatusByString(a.getId(), "CONFIRMED");
+        servicesManager.updateVerified("NS0", ServicesVerified.APPROVED);
+
+        // a rolled-back change leaves no trace
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> {
+            bookingManager.updateBookingStatusByString(b.getId(), "COMPLETED");
+            throw new IllegalStateException("abort");
+        }));
+
+        // visible before the flush
+        assertEquals(pending + 2, total(AnalyticsManager.BOOKINGS, "PENDING"));
+        assertEquals(confirmed + 1, total(AnalyticsManager.BOOKINGS, "CONFIRMED"));
+        assertEquals(approved + 1, total(AnalyticsManager.VERIFICATION, "APPROVED"));
+        assertEquals(3, onDay(AnalyticsManager.BOOKING_CATEGORIES, "Gardening"));
+        assertEquals(0, onDay(AnalyticsManager.BOOKINGS, "COMPLETED"));
+
+        analytics.flush();
+        assertEquals(pending + 2, total(AnalyticsManager.BOOKINGS, "PENDING"));
+        assertEquals(1, onDay(AnalyticsManager.BOOKINGS, "CONFIRMED"));
+
+        // re-deriving from the base tables finds nothing to correct
+        assertEquals(0, analytics.rebuild()[1]);
+        assertEquals(2, onDay(AnalyticsManager.BOOKINGS, "PENDING"));
+    }
+
+    @Test
+    void anotherNodesBufferIsNotCountedAgainAfterARebuild() {
+        // a second node, sharing the table, that booked NP0 and has not flushed yet
+        AnalyticsManager other = new AnalyticsManager();
+        for (String field : List.of("asr", "epochs", "transactionManager")) {
+            ReflectionTestUtils.setField(other, field, ReflectionTestUtils.getField(analytics, field));
+        }
+        Booking b = book("11:00");
+        analytics.flush();
+        other.record(AnalyticsManager.BOOKINGS, BookingStatus.CONFIRMED, day, 1);
+        bookingManager.updateBookingStatusByString(b.getId(), "CONFIRMED");
+        analytics.flush();
+
+        analytics.rebuild();
+        // buffered after the rebuild read the tables, flushed together with the one before it
+        other.record(AnalyticsManager.BOOKINGS, BookingStatus.COMPLETED, day, 1);
+        assertEquals(1, other.flush());
+        assertEquals(1, onDay(AnalyticsManager.BOOKINGS, "CONFIRMED"));
+        assertEquals(1, onDay(AnalyticsManager.BOOKINGS, "COMPLETED"));
+    }
+
+    @Test
+    void nightlyReconcileRunsOnOneNodePerDay() {
+        analytics.reconcile();
+        AdminStatEpoch first = epochs.findById(AdminStatEpoch.ID).orElseThrow();
+        analytics.reconcile();
+        AdminStatEpoch second = epochs.findById(AdminStatEpoch.ID).orElseThrow();
+        assertEquals(LocalDate.now(), second.getReconciledOn());
+        assertEquals(first.getRebuiltAtMicros(), second.getRebuiltAtMicros());
+    }
+
+    @Test
+    void rangeIsValidated() {
+        assertThrows(IllegalArgumentException.class, () -> analytics.stats(day, day.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> analytics.stats(day, day.plusDays(400)));
+    }
+}
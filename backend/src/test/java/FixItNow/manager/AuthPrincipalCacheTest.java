@@ -0,0 +1,93 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import FixItNow.model.AuthPrincipal;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.UsersRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthPrincipalCacheTest {
+
+    @Autowired
+    private AuthPrincipalCache principals;
+    @Autowired
+    private JWTManager jwt;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private EntityManagerFactory emf;
+    @Autowired
+    private MockMvc mvc;
+
+    @AfterEach
+    void tearDown() {
+        usersRepository.deleteAllById(List.of("AP1"));
+    }
+
+    private Users user() {
+        Users u = new Users();
+        u.setId("AP1");
+        u.setName("auth user");
+        u.setEmail("ap1@auth.test");
+        u.setPassword("secret");
+        u.setRole(UserRole.CUSTOMER);
+        return usersRepository.save(u);
+    }
+
+    @Test
+    void repeatRequestsSkipTheUsersLookupUntilTheRowChanges() {
+        Users u = user();
+        String token = jwt.generateToken(u.getEmail());
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+
+        assertEquals(new AuthPrincipal("AP1", "ap1@auth.test", UserRole.CUSTOMER), principals.resolve(token));
+        stats.clear();
+        for (int i = 0; i < 100; i++) principals.resolve(token);
+        assertEquals(0, stats.getPrepareStatementCount());
+
+        // a role (or password) change drops the cached principal
+        u.setRole(UserRole.ADMIN);
+        usersRepository.save(u);
+        assertEquals(UserRole.ADMIN, principals.resolve(token).role());
+    }
+
+    @Test
+    void badTokensResolveToNothing() {
+        user();
+        assertNull(principals.resolve("not-a-jwt"));
+        String token = jwt.generateToken("ap1@auth.test");
+        assertNull(principals.resolve(token.substring(0, token.length() - 2) + "xx"));
+        assertNull(principals.resolve(jwt.generateToken("nobody@auth.test")));
+    }
+
+    @Test
+    void authUserParameterAnswers401WithoutAToken() throws Exception {
+        user();
+        mvc.perform(get("/bookings/customer/me"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").exists());
+        mvc.perform(get("/bookings/customer/me").header("Authorization", "Bearer " + jwt.generateToken("ap1@auth.test")))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,163 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AvailabilityIndexTest {
+
+    @Autowired
+    private AvailabilityIndex index;
+    @Autowired
+    private ServicesManager servicesManager;
+    @Autowired
+    private BookingManager bookingManager;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDate saturday = LocalDate.now().plusDays(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY));
+    private final LocalDate monday = saturday.plusDays(2);
+
+    @BeforeEach
+    void setUp() {
+        user("WC1", UserRole.CUSTOMER);
+        provider("WP1", "{\"from\":\"9:00 am\",\"to\":\"1:00 pm\",\"days\":[\"Sat\"]}");
+        provider("WP2", "{\"from\":\"9:00 am\",\"to\":\"5:00 pm\"}");
+        provider("WP3", "{}");
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(bookingRepository.findAll().stream()
+                .filter(b -> b.getProvider().getId().startsWith("WP")).toList());
+        servicesRepository.deleteAllById(List.of("WS1", "WS2", "WS3"));
+        usersRepository.deleteAllById(List.of("WP1", "WP2", "WP3", "WC1"));
+        index.rebuild();
+    }
+
+    private Users user(String id, UserRole role) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("schedule " + id);
+        u.setEmail(id.toLowerCase() + "@schedule.test");
+        u.setPassword("secret");
+        u.setRole(role);
+        return usersRepository.save(u);
+    }
+
+    // saved straight through the repository, so weekly_schedule is NULL like a pre-migration row
+    private void provider(String id, String availability) {
+        Users u = user(id, UserRole.PROVIDER);
+        Services s = new Services();
+        s.setId(id.replace('P', 'S'));
+        s.setProvider(u);
+        s.setCategory("Zscheduling");
+        s.setSubcategory("{\"Leak repair\":300}");
+        s.setAvailability(availability);
+        servicesRepository.save(s);
+    }
+
+    private List<String> available(LocalDate date, int hour, int minute) {
+        return index.available(date, LocalTime.of(hour, minute)).stream().filter(id -> id.startsWith("WP")).toList();
+    }
+
+    @Test
+    void answersFromTheWeeklySchedules() {
+        assertEquals(List.of("WP1", "WP2"), available(saturday, 10, 0));
+        // a two-hour job from 11:30 runs past WP1's 1 pm
+        assertEquals(List.of("WP2"), available(saturday, 11, 30));
+        assertEquals(List.of("WP2"), available(monday, 9, 0));
+        assertEquals(List.of(), available(monday, 15, 30));
+        assertEquals(List.of(), available(monday, 23, 0));
+
+        bookingManager.createBooking("WP2", "WC1", saturday, "10:00", Map.of("Leak repair", 1));
+        assertEquals(List.of("WP1"), available(saturday, 10, 0));
+        assertEquals(List.of("WP1", "WP2"), available(saturday, 10, 30));
+    }
+
+    @Test
+    void validatesAndStoresTheScheduleOnUpdate() {
+        Users wp3 = usersRepository.findById("WP3").orElseThrow();
+        assertThrows(IllegalArgumentException.class, () -> servicesManager.updateServiceDetails(wp3,
+                Map.of("availability", Map.of("from", "9:15 am", "to", "5:00 pm"))));
+        assertThrows(IllegalArgumentException.class, () -> servicesManager.updateServiceDetails(wp3,
+                Map.of("availability", Map.of("from", "5:00 pm", "to", "9:00 am"))));
+        assertThrows(IllegalArgumentException.class, () -> servicesManager.updateServiceDetails(wp3,
+                Map.of("availability", Map.of("from", "9:00 am", "to", "5:00 pm", "days", List.of("Funday")))));
+        assertNull(servicesRepository.findById("WS3").orElseThrow().getWeeklySchedule());
+
+        servicesManager.updateServiceDetails(wp3,
+                Map.of("availability", Map.of("from", "2:00 pm", "to", "6:00 pm", "days", List.of("Monday"))));
+        WeeklySchedule stored = WeeklySchedule.fromBytes(servicesRepository.findById("WS3").orElseThrow().getWeeklySchedule());
+        assertEquals(WeeklySchedule.of(EnumSet.of(DayOfWeek.MONDAY), LocalTime.of(14, 0), LocalTime.of(18, 0)), stored);
+        assertEquals(List.of("WP2", "WP3"), available(monday, 15, 0));
+        assertEquals(List.of("WP1", "WP2"), available(saturday, 10, 0));
+    }
+
+    @Test
+    void backfillMatchesTheJson() {
+        servicesManager.backfillWeeklySchedules();
+        for (String id : List.of("WS1", "WS2", "WS3")) {
+            Services s = servicesRepository.findById(id).orElseThrow();
+            assertArrayEquals(WeeklySchedule.decode(s.getAvailability()).toBytes(), s.getWeeklySchedule());
+        }
+        index.rebuild();
+        assertEquals(List.of("WP1", "WP2"), available(saturday, 10, 0));
+    }
+
+    @Test
+    void rebuildKeepsRefreshesMadeWhileItReadsTheTable() {
+        // WP3 gets hours after the rebuild read the table but before it swapped the result in
+        ServicesRepository real = servicesRepository;
+        ServicesRepository table = (ServicesRepository) Proxy.newProxyInstance(ServicesRepository.class.getClassLoader(),
+                new Class<?>[] {ServicesRepository.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(real, args);
+                    if (method.getName().equals("findScheduleFields")) {
+                        Services s = real.findById("WS3").orElseThrow();
+                        s.setAvailability("{\"from\":\"9:00 am\",\"to\":\"5:00 pm\"}");
+                        real.save(s);
+                        index.refresh("WP3");
+                    }
+                    return result;
+                });
+        ReflectionTestUtils.setField(index, "sr", table);
+        try {
+            index.rebuild();
+        } finally {
+            ReflectionTestUtils.setField(index, "sr", real);
+        }
+        assertEquals(List.of("WP2", "WP3"), available(monday, 9, 0));
+    }
+}
@@ -0,0 +1,144 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.model.Booking;
+import FixItNow.model.BookingStatus;
+import FixItNow.model.CustomerBookingView;
+import FixItNow.model.ProviderBookingView;
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingReadPathQueryCountTest {
+
+    @Autowired
+    private BookingManager bookingManager;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManagerFactory emf;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        servicesRepository.deleteAll();
+        usersRepository.deleteAll();
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Users user(String id, UserRole role) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("name " + id);
+        u.setEmail(id + "@test.local");
+        u.setPassword("secret");
+        u.setRole(role);
+        u.setPhno("9999999999");
+        return usersRepository.save(u);
+    }
+
+    private void seed(Users provider, int customers, int bookingsPerCustomer) {
+        Services s = new Services();
+        s.setId("S-" + provider.getId());
+        s.setProvider(provider);
+        s.setCategory("Plumbing");
+        servicesRepository.save(s);
+        for (int c = 0; c < customers; c++) {
+            Users customer = user(provider.getId() + "-C" + c, UserRole.CUSTOMER);
+            for (int b = 0; b < bookingsPerCustomer; b++) {
+                Booking booking = new Booking();
+                booking.setId(provider.getId() + "-B" + c + "-" + b);
+                booking.setService(s);
+                booking.setProvider(provider);
+                booking.setCustomer(customer);
+                booking.setBookedService("{\"Leak repair\":1}");
+                booking.setBookingDate(LocalDate.of(2025, 1, 1).plusDays(b));
+                booking.setTimeSlot("10:00");
+                booking.setStatus(BookingStatus.PENDING);
+                bookingRepository.save(booking);
+            }
+        }
+    }
+
+    private long statementsFor(Runnable r) {
+        stats.clear();
+        r.run();
+        return stats.getPrepareStatementCount();
+    }
+
+    @Test
+    void providerListIsOneQueryRegardlessOfBookingCount() {
+        Users small = user("P1", UserRole.PROVIDER);
+        Users large = user("P2", UserRole.PROVIDER);
+        seed(small, 1, 1);
+        seed(large, 20, 5);
+
+        long[] rows = new long[2];
+        assertEquals(1, statementsFor(() -> rows[0] = bookingManager.getBookingsForProvider(small).size()));
+        assertEquals(1, statementsFor(() -> rows[1] = bookingManager.getBookingsForProvider(large).size()));
+        assertEquals(1, rows[0]);
+        assertEquals(100, rows[1]);
+
+        List<ProviderBookingView> views = bookingManager.getBookingsForProvider(small);
+        assertEquals("name P1-C0", views.get(0).customerName());
+        assertEquals("{\"Leak repair\":1}", views.get(0).bookedServices());
+    }
+
+    @Test
+    void bookedServicesAreEmittedVerbatimAfterBackfill() throws Exception {
+        Users provider = user("P4", UserRole.PROVIDER);
+        seed(provider, 1, 2);
+        bookingManager.backfillBookedServiceItems();
+
+        Booking b = bookingRepository.findById("P4-B0-0").orElseThrow();
+        assertEquals("{\"Leak repair\":1}", b.getBookedServiceItems());
+
+        String json = objectMapper.writeValueAsString(bookingManager.getBookingsForProvider(provider));
+        assertTrue(json.contains("\"bookedServices\":{\"Leak repair\":1}"), json);
+        assertTrue(json.contains("\"bookingDate\":\"2025-01-01\""), json);
+        assertFalse(json.contains("bookedServiceItems"), json);
+    }
+
+    @Test
+    void customerListIsOneQueryRegardlessOfBookingCount() {
+        Users provider = user("P3", UserRole.PROVIDER);
+        seed(provider, 2, 40);
+        Users customer = usersRepository.findById("P3-C1").orElseThrow();
+
+        AtomicReference<List<CustomerBookingView>> out = new AtomicReference<>();
+        assertEquals(1, statementsFor(() -> out.set(bookingManager.getBookingsForCustomer(customer))));
+        assertEquals(40, out.get().size());
+        assertEquals("P3", out.get().get(0).providerId());
+    }
+}
@@ -0,0 +1,147 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.model.Conversation;
+import FixItNow.model.Message;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.ConversationRepository;
+import FixItNow.repository.MessageRepository;
+import FixItNow.repository.UsersRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ChatWritePipelineTest {
+
+    private static final List<String> USERS = List.of("CW1", "CW2", "CW3", "CW4");
+
+    @Autowired
+    private ChatWritePipeline pipeline;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private ConversationRepository conversationRepository;
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @AfterEach
+    void tearDown() {
+        messageRepository.deleteAll();
+        conversationRepository.deleteAll();
+        usersRepository.deleteAllById(USERS);
+    }
+
+    private void user(String id) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("name " + id);
+        u.setEmail(id + "@pipeline.test");
+        u.setPassword("secret");
+        u.setRole(UserRole.CUSTOMER);
+        usersRepository.save(u);
+    }
+
+    @Test
+    void concurrentSendersShareCommits() throws Exception {
+        USERS.forEach(this::user);
+        int threads = 8;
+        int perThread = 50;
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        // every sender writes to CW1, so all messages land on three conversations
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<CompletableFuture<Message>>>> senders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String from = USERS.get(1 + t % 3);
+            senders.add(pool.submit(() -> {
+                start.await();
+                List<CompletableFuture<Message>> mine = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) mine.add(pipeline.submit(from, "CW1", "msg " + i));
+                return mine;
+            }));
+        }
+        start.countDown();
+        List<CompletableFuture<Message>> all = new ArrayList<>();
+        for (Future<List<CompletableFuture<Message>>> f : senders) all.addAll(f.get(30, TimeUnit.SECONDS));
+        pool.shutdown();
+        CompletableFuture.allOf(all.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        int total = threads * perThread;
+        assertEquals(total, all.stream().map(CompletableFuture::join).map(Message::getId).distinct().count());
+        assertEquals(total, messageRepository.count());
+        assertTrue(stats.getSuccessfulTransactionCount() < total,
+                "expected batched commits, got " + stats.getSuccessfulTransactionCount());
+
+        // unread counts are folded per batch, not lost
+        long unread = conversationRepository.findAll().stream().mapToLong(this::unreadForCw1).sum();
+        assertEquals(total, unread);
+    }
+
+    private long unreadForCw1(Conversation c) {
+        return "CW1".equals(c.getUserA()) ? c.getUnreadA() : c.getUnreadB();
+    }
+
+    @Test
+    void unknownUserFailsOnlyItsOwnMessage() throws Exception {
+        user("CW1");
+        user("CW2");
+        CompletableFuture<Message> good = pipeline.submit("CW2", "CW1", "hello");
+        CompletableFuture<Message> bad = pipeline.submit("CW2", "CW9", "nobody home");
+
+        assertEquals("hello", good.get(10, TimeUnit.SECONDS).getContent());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> bad.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void fullQueueRejects() {
+        // not started: nothing drains the queue
+        ChatWritePipeline idle = new ChatWritePipeline();
+        ReflectionTestUtils.setField(idle, "capacity", 2);
+        idle.open();
+        idle.submit("CW1", "CW2", "one");
+        idle.submit("CW1", "CW2", "two");
+        assertThrows(RejectedExecutionException.class, () -> idle.submit("CW1", "CW2", "three"));
+        assertEquals(2, idle.queued());
+    }
+
+    @Test
+    void stoppedPipelineRejectsAndFailsWhatItLeftBehind() throws Exception {
+        // never started, so stop() finds the queued message still there
+        ChatWritePipeline idle = new ChatWritePipeline();
+        idle.open();
+        CompletableFuture<Message> queued = idle.submit("CW1", "CW2", "one");
+        idle.stop();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertThrows(RejectedExecutionException.class, () -> idle.submit("CW1", "CW2", "two"));
+    }
+}
@@ -0,0 +1,136 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Several allocator instances stand in for several JVMs; they share one
+ * "sequence row" (an AtomicLong bumped the way the UPDATE bumps next_value).
+ */
+class IdAllocatorTest {
+
+    private static final long BLOCK = 100;
+
+    /** Allocator whose database round trip is replaced by the shared counter. */
+    static class SharedRowAllocator extends IdAllocator {
+        final AtomicLong row;
+        final AtomicInteger reservations = new AtomicInteger();
+
+        SharedRowAllocator(AtomicLong row) {
+            this.row = row;
+            ReflectionTestUtils.setField(this, "blockSize", BLOCK);
+        }
+
+        @Override
+        protected long reserveBlock(String prefix, IdSource existingIds) {
+            reservations.incrementAndGet();
+            return row.addAndGet(BLOCK);
+        }
+    }
+
+    @Test
+    void concurrentNodesNeverCollide() throws Exception {
+        // pretend 1M users already exist: the row starts right after them
+        AtomicLong row = new AtomicLong(1_000_001);
+        List<SharedRowAllocator> nodes = List.of(
+                new SharedRowAllocator(row), new SharedRowAllocator(row),
+                new SharedRowAllocator(row), new SharedRowAllocator(row));
+
+        int threadsPerNode = 8;
+        int idsPerThread = 5_000;
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(nodes.size() * threadsPerNode);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (SharedRowAllocator node : nodes) {
+            for (int t = 0; t < threadsPerNode; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; i++) {
+                        seen.add(node.next("U", page -> List.of("U1000000")));
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        int total = nodes.size() * threadsPerNode * idsPerThread;
+        assertEquals(total, seen.size(), "duplicate ids handed out");
+        assertTrue(seen.stream().allMatch(id -> Long.parseLong(id.substring(1)) > 1_000_000));
+
+        // the database is touched once per block, never per id; each node may end with a partly
+        // used block and one reserved ahead
+        int reservations = nodes.stream().mapToInt(n -> n.reservations.get()).sum();
+        assertTrue(reservations <= total / BLOCK + 2 * nodes.size(), "reservations=" + reservations);
+    }
+
+    @Test
+    void seedIgnoresNonNumericSuffixes() {
+        // IdSource order: longest first, then descending
+        assertEquals(12, IdAllocator.maxSuffix("U", pages(List.of("Uabc", "U-P4", "U12", "U3"))));
+        assertEquals(0, IdAllocator.maxSuffix("U", pages(List.of("U-1", "Uxy"))));
+        assertEquals(0, IdAllocator.maxSuffix("U", pages(List.of())));
+
+        // the numeric ids only start on a later page
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < IdAllocator.SEED_PAGE * 2; i++) ids.add("U-fixture-" + (100 + i));
+        ids.add("U7");
+        assertEquals(7, IdAllocator.maxSuffix("U", pages(ids)));
+    }
+
+    private static IdAllocator.IdSource pages(List<String> ids) {
+        return page -> ids.subList((int) Math.min(page.getOffset(), ids.size()),
+                (int) Math.min(page.getOffset() + page.getPageSize(), ids.size()));
+    }
+
+    @Test
+    void allocationCostDoesNotDependOnExistingRows() {
+        SharedRowAllocator small = new SharedRowAllocator(new AtomicLong(1));
+        SharedRowAllocator large = new SharedRowAllocator(new AtomicLong(1_000_001));
+        // refill inline, so both have reserved the same blocks ahead when counted
+        ReflectionTestUtils.setField(small, "refills", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(large, "refills", (Executor) Runnable::run);
+
+        for (int i = 0; i < 10_000; i++) {
+            small.next("B", page -> List.of());
+            large.next("B", page -> List.of("B1000000"));
+        }
+        assertEquals(small.reservations.get(), large.reservations.get());
+        assertEquals("B1010001", large.next("B", page -> List.of("B1000000")));
+    }
+
+    @Test
+    void nextBlockIsReservedOffTheCallingThread() {
+        AtomicLong row = new AtomicLong(1);
+        Set<Thread> reservers = ConcurrentHashMap.newKeySet();
+        IdAllocator node = new SharedRowAllocator(row) {
+            @Override
+            protected long reserveBlock(String prefix, IdSource existingIds) {
+                reservers.add(Thread.currentThread());
+                return super.reserveBlock(prefix, existingIds);
+            }
+        };
+        node.prefetch("R", page -> List.of());
+        for (int i = 0; i < 3 * BLOCK; i++) assertEquals("R" + (i + 1), node.next("R", page -> List.of()));
+        assertTrue(!reservers.isEmpty() && !reservers.contains(Thread.currentThread()), reservers.toString());
+    }
+}
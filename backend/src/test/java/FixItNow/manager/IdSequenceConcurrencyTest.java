@@ -0,0 +1,117 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.IdSequenceRepository;
+import FixItNow.repository.UsersRepository;
+
+/**
+ * IdAllocator against the real id_sequences SQL (H2): separate allocator instances stand in for
+ * separate JVMs, racing both to seed a new prefix and to reserve blocks from it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdSequenceConcurrencyTest {
+
+    private static final String PREFIX = "ZQ";
+
+    @Autowired
+    private IdSequenceRepository isr;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @AfterEach
+    void tearDown() {
+        isr.deleteById(PREFIX);
+        usersRepository.deleteAllById(List.of("U990000009", "U1000000001", "UZZZZZZZZZZZZZ"));
+    }
+
+    private IdAllocator node(long blockSize) {
+        IdAllocator a = new IdAllocator();
+        ReflectionTestUtils.setField(a, "isr", isr);
+        ReflectionTestUtils.setField(a, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(a, "blockSize", blockSize);
+        return a;
+    }
+
+    @Test
+    void nodesSeedAndReserveWithoutCollisions() throws Exception {
+        List<IdAllocator> nodes = List.of(node(7), node(7), node(13), node(13));
+        int threadsPerNode = 4;
+        int idsPerThread = 150;
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(nodes.size() * threadsPerNode);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (IdAllocator node : nodes) {
+            for (int t = 0; t < threadsPerNode; t++) {
+                boolean bulk = t == 0;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; i++) {
+                        if (bulk && i % 50 == 0) {
+                            // a bulk reservation in between must not overlap anything next() hands out
+                            long first = node.reserveRange(PREFIX, 5, page -> List.of("ZQ41"));
+                            for (long n = first; n < first + 5; n++) assertTrue(seen.add(PREFIX + n), PREFIX + n);
+                        }
+                        String id = node.next(PREFIX, page -> List.of("ZQ41"));
+                        assertTrue(seen.add(id), id);
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        int total = nodes.size() * threadsPerNode * idsPerThread + nodes.size() * 3 * 5;
+        assertEquals(total, seen.size());
+        long min = seen.stream().mapToLong(id -> Long.parseLong(id.substring(PREFIX.length()))).min().orElseThrow();
+        assertEquals(42, min);
+        // everything handed out, or still sitting in a node's current block, lies below the row
+        long next = isr.currentValue(PREFIX);
+        assertTrue(seen.stream().allMatch(id -> Long.parseLong(id.substring(PREFIX.length())) < next));
+    }
+
+    @Test
+    void seedReadsTheHighestNumericIdFromTheTable() {
+        user("U990000009");
+        user("U1000000001");
+        user("UZZZZZZZZZZZZZ");
+        assertEquals(1_000_000_001L, IdAllocator.maxSuffix("U", usersRepository::findIdsHighestFirst));
+    }
+
+    private void user(String id) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("seed " + id);
+        u.setEmail(id.toLowerCase() + "@ids.test");
+        u.setPassword("secret");
+        u.setRole(UserRole.CUSTOMER);
+        usersRepository.save(u);
+    }
+}
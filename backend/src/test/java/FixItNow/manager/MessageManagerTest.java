@@ -0,0 +1,126 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import FixItNow.model.ConversationSummary;
+import FixItNow.model.KeysetPage;
+import FixItNow.model.MessageDTO;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.ConversationRepository;
+import FixItNow.repository.MessageRepository;
+import FixItNow.repository.UsersRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MessageManagerTest {
+
+    private static final List<String> USERS = List.of("CM1", "CM2", "CM3");
+
+    @Autowired
+    private MessageManager messageManager;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private ConversationRepository conversationRepository;
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @AfterEach
+    void tearDown() {
+        messageRepository.deleteAll();
+        conversationRepository.deleteAll();
+        usersRepository.deleteAllById(USERS);
+    }
+
+    private void user(String id) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("name " + id);
+        u.setEmail(id + "@chat.test");
+        u.setPassword("secret");
+        u.setRole(UserRole.CUSTOMER);
+        usersRepository.save(u);
+    }
+
+    @Test
+    void inboxReadsOneRowPerPeerWithUnreadCounts() {
+        USERS.forEach(this::user);
+        for (int i = 0; i < 30; i++) {
+            messageManager.saveMessage("CM2", "CM1", "from two " + i);
+        }
+        messageManager.saveMessage("CM1", "CM2", "reply");
+        messageManager.saveMessage("CM3", "CM1", "hello from three");
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        List<ConversationSummary> inbox = messageManager.getConversations("CM1");
+        assertEquals(2, stats.getPrepareStatementCount());
+
+        assertEquals(List.of("CM3", "CM2"), inbox.stream().map(ConversationSummary::getPeerId).toList());
+        assertEquals("hello from three", inbox.get(0).getLastMessage());
+        assertEquals("name CM3", inbox.get(0).getPeerName());
+        assertEquals(1, inbox.get(0).getUnreadCount());
+        assertEquals("reply", inbox.get(1).getLastMessage());
+        assertEquals(30, inbox.get(1).getUnreadCount());
+
+        // the other side sees the same conversation with its own unread count
+        assertEquals(1, messageManager.getConversations("CM2").get(0).getUnreadCount());
+
+        messageManager.markRead("CM1", "CM2");
+        ConversationSummary two = messageManager.getConversations("CM1").stream()
+                .filter(c -> "CM2".equals(c.getPeerId())).findFirst().orElseThrow();
+        assertEquals(0, two.getUnreadCount());
+        assertEquals(1, messageManager.getConversations("CM2").get(0).getUnreadCount());
+    }
+
+    @Test
+    void historyPagesWalkBackAndForwardWithoutGapsOrRepeats() {
+        USERS.forEach(this::user);
+        for (int i = 0; i < 120; i++) {
+            messageManager.saveMessage(i % 2 == 0 ? "CM1" : "CM2", i % 2 == 0 ? "CM2" : "CM1", "m" + i);
+        }
+        messageManager.saveMessage("CM1", "CM3", "other conversation");
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            stats.clear();
+            KeysetPage<MessageDTO> page = messageManager.getHistoryPage("CM2", "CM1", cursor, null, 50);
+            assertEquals(1, stats.getPrepareStatementCount());
+            List<String> contents = page.getItems().stream().map(m -> m.content).toList();
+            seen.addAll(0, contents);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<String> expected = IntStream.range(0, 120).mapToObj(i -> "m" + i).toList();
+        assertEquals(expected, seen);
+
+        // forward from the oldest page's first message returns everything after it, in order
+        KeysetPage<MessageDTO> oldest = messageManager.getHistoryPage("CM1", "CM2", null, null, 120);
+        String first = MessageManager.cursorOf(oldest.getItems().get(0));
+        List<String> newer = messageManager.getHistoryPage("CM1", "CM2", null, first, 500).getItems().stream()
+                .map(m -> m.content).toList();
+        assertEquals(expected.subList(1, 120), newer);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> messageManager.getHistoryPage("CM1", "CM2", "not-a-cursor", null, 10));
+    }
+}
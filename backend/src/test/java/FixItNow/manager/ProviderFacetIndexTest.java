@@ -0,0 +1,139 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.model.FacetCount;
+import FixItNow.model.ProviderFacetResult;
+import FixItNow.model.Services;
+import FixItNow.model.ServicesVerified;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProviderFacetIndexTest {
+
+    @Autowired
+    private ProviderFacetIndex facets;
+    @Autowired
+    private ServicesManager servicesManager;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+
+    @BeforeEach
+    void setUp() {
+        provider("FP1", "Zplumbing", "{\"Leak repair\":300,\"Tap fitting\":200}", ServicesVerified.APPROVED,
+                "{\"from\":\"9:00 am\",\"to\":\"5:00 pm\",\"days\":[\"Sat\",\"Sunday\"]}");
+        provider("FP2", "Zplumbing", "{\"Leak repair\":250}", ServicesVerified.PENDING,
+                "{\"from\":\"9:00 am\",\"to\":\"5:00 pm\"}");
+        provider("FP3", "Zcleaning", "{\"Deep cleaning\":900}", ServicesVerified.APPROVED, "{}");
+        facets.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servicesRepository.deleteAllById(List.of("FS1", "FS2", "FS3"));
+        usersRepository.deleteAllById(List.of("FP1", "FP2", "FP3"));
+        facets.rebuild();
+    }
+
+    private void provider(String id, String category, String subcategory, ServicesVerified verified, String availability) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("facet " + id);
+        u.setEmail(id.toLowerCase() + "@facet.test");
+        u.setPassword("secret");
+        u.setRole(UserRole.PROVIDER);
+        usersRepository.save(u);
+        Services s = new Services();
+        s.setId(id.replace('P', 'S'));
+        s.setProvider(u);
+        s.setCategory(category);
+        s.setSubcategory(subcategory);
+        s.setVerified(verified);
+        s.setAvailability(availability);
+        servicesRepository.save(s);
+    }
+
+    private ProviderFacetResult query(Map<String, List<String>> filters) {
+        return facets.query(filters, 0, 10);
+    }
+
+    private static List<FacetCount> counts(ProviderFacetResult r, String facet) {
+        return r.facets().get(facet);
+    }
+
+    @Test
+    void filtersAndCountsAgainstTheOtherFacets() {
+        ProviderFacetResult r = query(Map.of(ProviderFacetIndex.CATEGORY, List.of("zplumbing")));
+        assertEquals(2, r.total());
+        assertEquals(List.of("FP1", "FP2"), r.providerIds());
+        assertEquals(List.of(new FacetCount("Leak repair", 2), new FacetCount("Tap fitting", 1)),
+                counts(r, ProviderFacetIndex.SUBCATEGORY));
+        assertEquals(List.of(new FacetCount("PENDING", 1), new FacetCount("APPROVED", 1)),
+                counts(r, ProviderFacetIndex.VERIFIED));
+
+        // FP1 only works weekends, FP3 has no bookable hours
+        r = query(Map.of(ProviderFacetIndex.CATEGORY, List.of("Zplumbing", "Zcleaning"), ProviderFacetIndex.DAY, List.of("monday")));
+        assertEquals(List.of("FP2"), r.providerIds());
+        // the category counts ignore the category filter itself
+        assertEquals(List.of(new FacetCount("Zplumbing", 1)), counts(r, ProviderFacetIndex.CATEGORY));
+        assertEquals(2, counts(r, ProviderFacetIndex.DAY).stream()
+                .filter(c -> c.value().equals("SATURDAY")).findFirst().orElseThrow().count());
+
+        r = query(Map.of(ProviderFacetIndex.CATEGORY, List.of("zplumbing", "zcleaning"), ProviderFacetIndex.VERIFIED, List.of("approved")));
+        assertEquals(List.of("FP1", "FP3"), r.providerIds());
+        assertEquals(List.of("FP2"), facets.query(Map.of(ProviderFacetIndex.CATEGORY, List.of("zplumbing")), 1, 5).providerIds());
+    }
+
+    @Test
+    void followsServiceUpdatesAndVerification() {
+        servicesManager.updateVerified("FS2", ServicesVerified.APPROVED);
+        servicesManager.updateServiceDetails(usersRepository.findById("FP3").orElseThrow(), Map.of("category", "Zplumbing"));
+
+        ProviderFacetResult r = query(Map.of(ProviderFacetIndex.CATEGORY, List.of("zplumbing"), ProviderFacetIndex.VERIFIED, List.of("APPROVED")));
+        assertEquals(List.of("FP1", "FP2", "FP3"), r.providerIds());
+        assertEquals(0, query(Map.of(ProviderFacetIndex.CATEGORY, List.of("zcleaning"))).total());
+    }
+
+    @Test
+    void rebuildKeepsRefreshesMadeWhileItReadsTheTable() {
+        // FP3 moves to Zplumbing after the rebuild read the table but before it swapped the result in
+        ServicesRepository real = servicesRepository;
+        ServicesRepository table = (ServicesRepository) Proxy.newProxyInstance(ServicesRepository.class.getClassLoader(),
+                new Class<?>[] {ServicesRepository.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(real, args);
+                    if (method.getName().equals("findFacetFields")) {
+                        Services s = real.findById("FS3").orElseThrow();
+                        s.setCategory("Zplumbing");
+                        real.save(s);
+                        facets.refresh("FP3");
+                    }
+                    return result;
+                });
+        ReflectionTestUtils.setField(facets, "sr", table);
+        try {
+            facets.rebuild();
+        } finally {
+            ReflectionTestUtils.setField(facets, "sr", real);
+        }
+        assertEquals(List.of("FP1", "FP2", "FP3"), query(Map.of(ProviderFacetIndex.CATEGORY, List.of("zplumbing"))).providerIds());
+        assertEquals(0, query(Map.of(ProviderFacetIndex.CATEGORY, List.of("zcleaning"))).total());
+    }
+}
@@ -0,0 +1,100 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import FixItNow.model.NearbyProvider;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+
+class ProviderGeoIndexTest {
+
+    private static Users provider(String id, double lat, double lon) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("P" + id);
+        u.setRole(UserRole.PROVIDER);
+        u.setLatitude(lat);
+        u.setLongitude(lon);
+        return u;
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        ProviderGeoIndex index = new ProviderGeoIndex();
+        Random rnd = new Random(42);
+        List<Users> all = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            // cluster around Bangalore plus a few far away
+            double lat = i % 10 == 0 ? -60 + rnd.nextDouble() * 120 : 12.5 + rnd.nextDouble();
+            double lon = i % 10 == 0 ? -179 + rnd.nextDouble() * 358 : 77.0 + rnd.nextDouble();
+            Users u = provider("U" + i, lat, lon);
+            all.add(u);
+            index.put(u);
+        }
+
+        for (int q = 0; q < 50; q++) {
+            double lat = 12.5 + rnd.nextDouble();
+            double lon = 77.0 + rnd.nextDouble();
+            double radius = 1 + rnd.nextDouble() * 40;
+
+            List<Double> expected = all.stream()
+                    .map(u -> ProviderGeoIndex.haversineKm(lat, lon, u.getLatitude(), u.getLongitude()))
+                    .filter(d -> d <= radius)
+                    .sorted(Comparator.naturalOrder())
+                    .limit(10)
+                    .toList();
+            List<Double> actual = index.nearby(lat, lon, radius, 10).stream()
+                    .map(NearbyProvider::getDistanceKm)
+                    .toList();
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void moveAndWrapAroundAntimeridian() {
+        ProviderGeoIndex index = new ProviderGeoIndex();
+        index.put(provider("U1", 0, 179.99));
+        index.put(provider("U2", 0, 10));
+
+        List<NearbyProvider> hits = index.nearby(0, -179.99, 10, 5);
+        assertEquals(1, hits.size());
+        assertEquals("U1", hits.get(0).getId());
+
+        // moving a provider takes it out of its old cell
+        index.put(provider("U1", 50, 50));
+        assertTrue(index.nearby(0, -179.99, 10, 5).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void wideSearchesNearThePoleVisitEachCellOnce() {
+        ProviderGeoIndex index = new ProviderGeoIndex();
+        Random rnd = new Random(7);
+        List<Users> all = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Users u = provider("U" + i, 55 + rnd.nextDouble() * 35, -180 + rnd.nextDouble() * 360);
+            all.add(u);
+            index.put(u);
+        }
+
+        for (double[] q : new double[][] {{80, 0, 2000}, {89.95, 120, 500}, {70, 179.9, 1500}, {-85, 10, 3000}}) {
+            List<Double> expected = all.stream()
+                    .map(u -> ProviderGeoIndex.haversineKm(q[0], q[1], u.getLatitude(), u.getLongitude()))
+                    .filter(d -> d <= q[2])
+                    .sorted(Comparator.naturalOrder())
+                    .limit(200)
+                    .toList();
+            List<NearbyProvider> hits = index.nearby(q[0], q[1], q[2], 200);
+            assertEquals(expected, hits.stream().map(NearbyProvider::getDistanceKm).toList());
+            assertEquals(hits.size(), hits.stream().map(NearbyProvider::getId).distinct().count());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.model.Services;
+import FixItNow.model.ServicesVerified;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.ServicesRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProviderProfileCacheTest {
+
+    @Autowired
+    private ProviderProfileCache cache;
+    @Autowired
+    private UsersManager usersManager;
+    @Autowired
+    private ServicesManager servicesManager;
+    @Autowired
+    private ServicesRepository servicesRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private List<Map<String, Object>> profiles() throws Exception {
+        String json = new String(cache.allProfilesJson(), StandardCharsets.UTF_8);
+        return objectMapper.readValue(json, new TypeReference<List<Map<String, Object>>>() {});
+    }
+
+    private Map<String, Object> profileOf(String id) throws Exception {
+        return profiles().stream().filter(p -> id.equals(p.get("id"))).findFirst().orElseThrow();
+    }
+
+    @Test
+    void steadyStateServesWithoutQueriesAndWritesInvalidate() throws Exception {
+        Users u = new Users();
+        u.setName("Cache Provider");
+        u.setEmail("cache-provider@test.local");
+        u.setPassword("secret1");
+        u.setRole(UserRole.PROVIDER);
+        usersManager.AddUsers(u);
+        Users provider = usersManager.getUserByEmail("cache-provider@test.local");
+
+        assertEquals("Default Category", profileOf(provider.getId()).get("category"));
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        byte[] first = cache.allProfilesJson();
+        byte[] second = cache.allProfilesJson();
+        assertSame(first, second);
+        assertEquals(0, stats.getPrepareStatementCount());
+
+        servicesManager.updateServiceDetails(provider, Map.of(
+                "category", "Electrician",
+                "availability", Map.of("Monday", "9-5")));
+        Map<String, Object> p = profileOf(provider.getId());
+        assertEquals("Electrician", p.get("category"));
+        assertEquals(Map.of("Monday", "9-5"), p.get("availability"));
+
+        usersManager.updatePhone(provider.getEmail(), "9123456789");
+        assertEquals("9123456789", profileOf(provider.getId()).get("phone"));
+
+        Services s = servicesRepository.findByProvider(provider).get(0);
+        servicesManager.updateVerified(s.getId(), ServicesVerified.APPROVED);
+        assertEquals("APPROVED", profileOf(provider.getId()).get("verified"));
+
+        assertTrue(profiles().stream().noneMatch(x -> "alice@gmail.com".equals(x.get("email"))));
+
+        // the ?ids= subset: requested order, unknown ids and repeats dropped
+        String subset = new String(cache.profilesJson(List.of(provider.getId(), "NOPE", provider.getId())), StandardCharsets.UTF_8);
+        List<Map<String, Object>> picked = objectMapper.readValue(subset, new TypeReference<List<Map<String, Object>>>() {});
+        assertEquals(1, picked.size());
+        assertEquals("Electrician", picked.get(0).get("category"));
+    }
+}
@@ -0,0 +1,146 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import FixItNow.model.Booking;
+import FixItNow.model.BookingStatus;
+import FixItNow.model.ProviderRatingSummary;
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ProviderRatingRepository;
+import FixItNow.repository.ReviewsRepository;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProviderRatingManagerTest {
+
+    @Autowired
+    private ProviderRatingManager ratings;
+    @Autowired
+    private ReviewsManager reviewsManager;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+    @Autowired
+    private ReviewsRepository reviewsRepository;
+    @Autowired
+    private ProviderRatingRepository ratingRepository;
+
+    @AfterEach
+    void tearDown() {
+        reviewsRepository.deleteAll();
+        ratingRepository.deleteAll();
+        bookingRepository.deleteAll();
+        servicesRepository.deleteById("RS1");
+        usersRepository.deleteAll(usersRepository.findAllById(List.of("RP1", "RC1")));
+    }
+
+    private Users user(String id, UserRole role) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("name " + id);
+        u.setEmail(id + "@ratings.test");
+        u.setPassword("secret");
+        u.setRole(role);
+        return usersRepository.save(u);
+    }
+
+    private String booking(String id, Services service, Users customer) {
+        Booking b = new Booking();
+        b.setId(id);
+        b.setService(service);
+        b.setProvider(service.getProvider());
+        b.setCustomer(customer);
+        b.setBookingDate(LocalDate.now());
+        b.setTimeSlot("10:00");
+        b.setStatus(BookingStatus.COMPLETED);
+        return bookingRepository.save(b).getId();
+    }
+
+    @Test
+    void createReviewMaintainsAggregateAndRebuildAgrees() {
+        Users provider = user("RP1", UserRole.PROVIDER);
+        Users customer = user("RC1", UserRole.CUSTOMER);
+        Services s0 = new Services();
+        s0.setId("RS1");
+        s0.setProvider(provider);
+        s0.setCategory("Plumbing");
+        Services service = servicesRepository.save(s0);
+        int[] stars = { 5, 4, 4, 1 };
+        for (int i = 0; i < stars.length; i++) {
+            reviewsManager.createReview(booking("RB" + i, service, customer), customer.getId(), stars[i], "ok");
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> reviewsManager.createReview(booking("RB9", service, customer), customer.getId(), 6, "bad"));
+
+        ProviderRatingSummary s = ratings.summary("RP1");
+        assertEquals(4, s.count());
+        assertEquals(3.5, s.average());
+        assertEquals(Map.of(1, 1L, 2, 0L, 3, 0L, 4, 2L, 5, 1L), s.histogram());
+
+        assertEquals(1, ratings.rebuild());
+        ProviderRatingSummary rebuilt = ratings.summary("RP1");
+        assertEquals(s.count(), rebuilt.count());
+        assertEquals(s.histogram(), rebuilt.histogram());
+
+        Map<String, ProviderRatingSummary> bulk = ratings.summaries(List.of("nobody", "RP1"));
+        assertEquals(List.of("nobody", "RP1"), List.copyOf(bulk.keySet()));
+        assertEquals(0, bulk.get("nobody").count());
+        assertEquals(4, bulk.get("RP1").count());
+    }
+
+    @Test
+    void rebuildRunningAlongsideNewReviewsLosesNone() throws Exception {
+        Users provider = user("RP1", UserRole.PROVIDER);
+        Users customer = user("RC1", UserRole.CUSTOMER);
+        Services s0 = new Services();
+        s0.setId("RS1");
+        s0.setProvider(provider);
+        s0.setCategory("Plumbing");
+        Services service = servicesRepository.save(s0);
+        int writers = 2;
+        int perWriter = 15;
+        List<String> bookings = new ArrayList<>();
+        for (int i = 0; i < writers * perWriter; i++) bookings.add(booking("RB" + i, service, customer));
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<?>> done = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            List<String> mine = bookings.subList(w * perWriter, (w + 1) * perWriter);
+            done.add(pool.submit(() -> {
+                for (String b : mine) reviewsManager.createReview(b, customer.getId(), 4, "ok");
+                return null;
+            }));
+        }
+        while (done.stream().anyMatch(f -> !f.isDone())) ratings.rebuild();
+        for (Future<?> f : done) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(writers * perWriter, ratings.summary("RP1").count());
+        ratings.rebuild();
+        assertEquals(writers * perWriter, ratings.summary("RP1").count());
+    }
+}
@@ -0,0 +1,107 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.model.ServiceSearchHit;
+import FixItNow.model.Services;
+import FixItNow.model.Users;
+import FixItNow.repository.ServicesRepository;
+
+class ServiceSearchIndexTest {
+
+    private ServiceSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ServiceSearchIndex();
+        ReflectionTestUtils.setField(index, "objectMapper", new ObjectMapper());
+        index.put(service("S1", "Plumbing", "{\"Leak repair\":300,\"Tap installation\":250}", "Plumbing and leak fixes in Pune"));
+        index.put(service("S2", "Electrical", "{\"Fan installation\":200,\"Wiring\":900}", "Electrician for homes and offices"));
+        index.put(service("S3", "Cleaning", "{\"Deep cleaning\":1500}", "Kitchen and bathroom cleaning, no leak repair"));
+        index.put(service("S4", "Default Category", "Default Subcategory", "Default description for new provider"));
+    }
+
+    private static Services service(String id, String category, String subcategory, String description) {
+        Users provider = new Users();
+        provider.setId("U" + id);
+        Services s = new Services();
+        s.setId(id);
+        s.setProvider(provider);
+        s.setCategory(category);
+        s.setSubcategory(subcategory);
+        s.setDescription(description);
+        return s;
+    }
+
+    private List<String> ids(String q) {
+        return index.search(q, 10).stream().map(ServiceSearchHit::serviceId).toList();
+    }
+
+    @Test
+    void ranksByBm25AcrossFields() {
+        // category and subcategory matches outweigh a passing mention in a description
+        assertEquals(List.of("S1", "S3"), ids("leak repair"));
+        // same term frequency: the shorter service ranks first
+        assertEquals(List.of("S2", "S1"), ids("installation"));
+        assertEquals(List.of("S2"), ids("wiring"));
+        // subcategory prices and stopwords are not terms
+        assertEquals(List.of(), ids("300"));
+        assertEquals(List.of(), ids("and the"));
+        ServiceSearchHit hit = index.search("plumbing", 1).get(0);
+        assertEquals("US1", hit.providerId());
+        assertEquals("Plumbing", hit.category());
+        assertTrue(hit.score() > 0);
+    }
+
+    @Test
+    void lastWordMatchesAsPrefix() {
+        assertEquals(List.of("S1"), ids("plumb"));
+        assertEquals(List.of("S2"), ids("electric"));
+        // words are OR-ed; only the last one is expanded, and not below three characters
+        assertEquals(List.of("S1", "S3"), ids("leak plumb"));
+        assertEquals(List.of("S1", "S3"), ids("plumb leak"));
+        assertTrue(index.search("leak plumb", 1).get(0).score() > index.search("plumb leak", 1).get(0).score());
+        assertEquals(List.of(), ids("pl"));
+    }
+
+    @Test
+    void updatesReplaceTheOldText() {
+        index.put(service("S4", "Gardening", "{\"Lawn mowing\":400}", "Garden care"));
+        assertEquals(List.of("S4"), ids("mowing"));
+        assertEquals(List.of(), ids("default"));
+        index.remove("S1");
+        assertEquals(List.of("S3"), ids("leak"));
+        assertEquals(3, index.size());
+        assertEquals(2, index.search("installation cleaning", 2).size());
+    }
+
+    @Test
+    void rebuildKeepsWritesMadeWhileItReadsTheTable() {
+        // the table as read holds S1 and S2 only; S5 is put and S2 removed while it is being read
+        ServicesRepository table = (ServicesRepository) Proxy.newProxyInstance(ServicesRepository.class.getClassLoader(),
+                new Class<?>[] {ServicesRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findSearchFields")) throw new UnsupportedOperationException(method.getName());
+                    index.put(service("S5", "Carpentry", "{\"Door fitting\":500}", "Wooden doors"));
+                    index.remove("S2");
+                    return List.<Object[]>of(
+                            new Object[] {"S1", "US1", "Plumbing", "{\"Leak repair\":300}", "Plumbing and leak fixes"},
+                            new Object[] {"S2", "US2", "Electrical", "{\"Wiring\":900}", "Electrician"});
+                });
+        ReflectionTestUtils.setField(index, "sr", table);
+        index.rebuild();
+        assertEquals(List.of("S5"), ids("carpentry"));
+        assertEquals(List.of(), ids("wiring"));
+        assertEquals(List.of("S1"), ids("leak"));
+        assertEquals(2, index.size());
+    }
+}
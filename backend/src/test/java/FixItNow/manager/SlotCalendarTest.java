@@ -0,0 +1,224 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import FixItNow.model.Booking;
+import FixItNow.model.BookingStatus;
+import FixItNow.model.FreeSlot;
+import FixItNow.model.Services;
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+import FixItNow.repository.BookingRepository;
+import FixItNow.repository.ServicesRepository;
+import FixItNow.repository.UsersRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SlotCalendarTest {
+
+    private static final int CUSTOMERS = 16;
+
+    @Autowired
+    private BookingManager bookingManager;
+    @Autowired
+    private SlotCalendar calendar;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private ServicesRepository servicesRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDate day = LocalDate.now().plusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        Users provider = user("KP0", UserRole.PROVIDER);
+        for (int i = 1; i <= CUSTOMERS; i++) user("KC" + i, UserRole.CUSTOMER);
+        Services s = new Services();
+        s.setId("KS0");
+        s.setProvider(provider);
+        s.setCategory("Plumbing");
+        s.setSubcategory("{\"Leak repair\":300}");
+        s.setAvailability("{\"from\":\"9:00 am\",\"to\":\"1:00 pm\"}");
+        servicesRepository.save(s);
+        calendar.invalidate("KP0");
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(bookingRepository.findAll().stream()
+                .filter(b -> b.getProvider().getId().equals("KP0")).toList());
+        servicesRepository.deleteById("KS0");
+        List<String> ids = new ArrayList<>();
+        ids.add("KP0");
+        for (int i = 1; i <= CUSTOMERS; i++) ids.add("KC" + i);
+        usersRepository.deleteAllById(ids);
+        calendar.invalidate("KP0");
+    }
+
+    private Users user(String id, UserRole role) {
+        Users u = new Users();
+        u.setId(id);
+        u.setName("name " + id);
+        u.setEmail(id.toLowerCase() + "@slots.test");
+        u.setPassword("secret");
+        u.setRole(role);
+        return usersRepository.save(u);
+    }
+
+    private Booking book(String customerId, String slot) {
+        return bookingManager.createBooking("KP0", customerId, day, slot, Map.of("Leak repair", 1));
+    }
+
+    @Test
+    void concurrentRequestsForOneSlotBookItOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CUSTOMERS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Booking>> results = new ArrayList<>();
+        for (int i = 1; i <= CUSTOMERS; i++) {
+            String customer = "KC" + i;
+            results.add(pool.submit(() -> {
+                go.await();
+                return book(customer, "10:00");
+            }));
+        }
+        go.countDown();
+        int booked = 0, taken = 0;
+        for (Future<Booking> f : results) {
+            try {
+                f.get(30, TimeUnit.SECONDS);
+                booked++;
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof SlotTakenException, e.getCause().toString());
+                taken++;
+            }
+        }
+        pool.shutdown();
+        assertEquals(1, booked);
+        assertEquals(CUSTOMERS - 1, taken);
+        assertEquals(1, bookingRepository.findAll().stream()
+                .filter(b -> b.getProvider().getId().equals("KP0")).count());
+    }
+
+    @Test
+    void cancellingFreesTheSlotAndFreeListSkipsHeldOnes() {
+        Booking first = book("KC1", "9:00 am");
+        assertEquals("09:00", first.getTimeSlot());
+        assertThrows(SlotTakenException.class, () -> book("KC2", "09:00"));
+        assertThrows(IllegalArgumentException.class, () -> book("KC2", "12:00"));
+
+        List<FreeSlot> free = bookingManager.nextFreeSlots("KP0", day, 5);
+        assertEquals(List.of(new FreeSlot(day, "09:30"), new FreeSlot(day, "10:00"), new FreeSlot(day, "10:30"),
+                new FreeSlot(day, "11:00"), new FreeSlot(day.plusDays(1), "09:00")), free);
+
+        bookingManager.updateBookingStatusByString(first.getId(), "CANCELLED");
+        assertEquals(new FreeSlot(day, "09:00"), bookingManager.nextFreeSlots("KP0", day, 1).get(0));
+        book("KC2", "09:00");
+
+        // a fresh calendar rebuilt from the table agrees
+        calendar.invalidate("KP0");
+        assertFalse(bookingManager.nextFreeSlots("KP0", day, 5).contains(new FreeSlot(day, "09:00")));
+    }
+
+    // written behind this instance's cached calendar, as another node would
+    private void bookElsewhere(String id, String customerId, String slot) {
+        Booking other = new Booking();
+        other.setId(id);
+        other.setService(servicesRepository.findById("KS0").orElseThrow());
+        other.setProvider(usersRepository.findById("KP0").orElseThrow());
+        other.setCustomer(usersRepository.findById(customerId).orElseThrow());
+        other.setBookingDate(day);
+        other.setTimeSlot(slot);
+        other.setSlotHold(Boolean.TRUE);
+        other.setStatus(BookingStatus.PENDING);
+        bookingRepository.save(other);
+    }
+
+    @Test
+    void slotBookedThroughAnotherInstanceIsReportedTakenAndStaysHeld() {
+        assertTrue(bookingManager.nextFreeSlots("KP0", day, 1).contains(new FreeSlot(day, "09:00")));
+        bookElsewhere("KB-other", "KC1", "09:00");
+
+        assertThrows(SlotTakenException.class, () -> book("KC2", "09:00"));
+        assertFalse(bookingManager.nextFreeSlots("KP0", day, 5).contains(new FreeSlot(day, "09:00")));
+    }
+
+    @Test
+    void unCancellingASlotBookedThroughAnotherInstanceIsReportedTaken() {
+        Booking first = book("KC1", "09:00");
+        bookingManager.updateBookingStatusByString(first.getId(), "CANCELLED");
+        assertTrue(bookingManager.nextFreeSlots("KP0", day, 1).contains(new FreeSlot(day, "09:00")));
+        bookElsewhere("KB-other", "KC2", "09:00");
+
+        assertThrows(SlotTakenException.class, () -> bookingManager.updateBookingStatusByString(first.getId(), "PENDING"));
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertFalse(bookingManager.nextFreeSlots("KP0", day, 5).contains(new FreeSlot(day, "09:00")));
+    }
+
+    @Test
+    void slotCancelledThroughAnotherInstanceCanBeBookedAgain() {
+        Booking first = book("KC1", "09:00");
+        // cancelled behind this instance's cached calendar, as another node would
+        Booking stale = bookingRepository.findById(first.getId()).orElseThrow();
+        stale.setStatus(BookingStatus.CANCELLED);
+        stale.setSlotHold(null);
+        bookingRepository.save(stale);
+
+        assertEquals("09:00", book("KC2", "09:00").getTimeSlot());
+        assertThrows(SlotTakenException.class, () -> book("KC3", "09:00"));
+    }
+
+    @Test
+    void idleCalendarsAreEvictedAndReloaded() {
+        book("KC1", "09:00");
+        Map<?, ?> calendars = (Map<?, ?>) ReflectionTestUtils.getField(calendar, "calendars");
+        assertTrue(calendars.containsKey("KP0"));
+        long idle = (long) ReflectionTestUtils.getField(calendar, "idleMinutes");
+        ReflectionTestUtils.setField(calendar, "idleMinutes", -1L);
+        try {
+            assertTrue(calendar.evictIdle() > 0);
+        } finally {
+            ReflectionTestUtils.setField(calendar, "idleMinutes", idle);
+        }
+        assertFalse(calendars.containsKey("KP0"));
+        assertFalse(bookingManager.nextFreeSlots("KP0", day, 5).contains(new FreeSlot(day, "09:00")));
+    }
+
+    @Test
+    void availabilityParsesToHalfHourStarts() {
+        assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(9, 30), LocalTime.of(10, 0), LocalTime.of(10, 30),
+                LocalTime.of(11, 0)), starts("{\"from\":\"9:00 am\",\"to\":\"1:00 pm\"}"));
+        assertEquals(2, starts("{\"from\":\"12 pm\",\"to\":\"14:30\"}").size());
+        assertTrue(starts("{\"from\":\"late\"}").isEmpty());
+        assertTrue(starts(null).isEmpty());
+    }
+
+    private static List<LocalTime> starts(String availability) {
+        return WeeklySchedule.decode(availability).starts(DayOfWeek.MONDAY);
+    }
+}
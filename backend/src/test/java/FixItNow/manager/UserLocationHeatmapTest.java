@@ -0,0 +1,59 @@
+package FixItNow.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import FixItNow.model.UserRole;
+import FixItNow.model.Users;
+
+class UserLocationHeatmapTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static Users user(String id, UserRole role, String location, Double lat, Double lon) {
+        Users u = new Users();
+        u.setId(id);
+        u.setRole(role);
+        u.setLocation(location);
+        u.setLatitude(lat);
+        u.setLongitude(lon);
+        return u;
+    }
+
+    @Test
+    void countsFollowSignupsAndMoves() throws Exception {
+        UserLocationHeatmap heatmap = new UserLocationHeatmap();
+        ReflectionTestUtils.setField(heatmap, "objectMapper", mapper);
+
+        heatmap.put(user("U1", UserRole.CUSTOMER, "Hyderabad, Telangana", 17.38, 78.48));
+        heatmap.put(user("U2", UserRole.CUSTOMER, "  hyderabad ,TELANGANA ", 17.41, 78.45));
+        heatmap.put(user("U3", UserRole.PROVIDER, "Hyderabad, Telangana", null, null));
+        heatmap.put(user("U4", UserRole.CUSTOMER, "Pune", 18.52, 73.85));
+        heatmap.put(user("U5", UserRole.CUSTOMER, null, null, null));
+
+        JsonNode json = mapper.readTree(heatmap.json());
+        assertEquals("[\"CUSTOMER\",\"PROVIDER\",\"ADMIN\"]", json.get("roles").toString());
+        assertEquals(List.of("[\"Unknown\",1,0,0]", "[\"Hyderabad, Telangana\",2,1,0]", "[\"Pune\",1,0,0]"),
+                rows(json.get("locations")));
+        assertEquals(List.of("[17.0,78.0,2,0,0]", "[18.5,73.5,1,0,0]"), rows(json.get("cells")));
+
+        // U2 moves to Pune and U5 is deleted: emptied buckets disappear
+        heatmap.put(user("U2", UserRole.CUSTOMER, "Pune", 18.6, 73.9));
+        heatmap.remove("U5");
+        json = mapper.readTree(heatmap.json());
+        assertEquals(List.of("[\"Hyderabad, Telangana\",1,1,0]", "[\"Pune\",2,0,0]"), rows(json.get("locations")));
+        assertEquals(List.of("[17.0,78.0,1,0,0]", "[18.5,73.5,2,0,0]"), rows(json.get("cells")));
+    }
+
+    private static List<String> rows(JsonNode array) {
+        return StreamSupport.stream(array.spliterator(), false).map(JsonNode::toString).toList();
+    }
+}
@@ -0,0 +1,71 @@
+package FixItNow.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import FixItNow.model.ConversationUpdated;
+
+class ConversationPushListenerTest {
+
+    /** Registry that records frames instead of writing to sockets; only "U1" and "U2" are online. */
+    static class RecordingRegistry extends WebSocketSessionRegistry {
+        final Map<String, String> sent = new LinkedHashMap<>();
+
+        @Override
+        public boolean isOnline(String userId) {
+            return userId.equals("U1") || userId.equals("U2");
+        }
+
+        @Override
+        public boolean sendTo(String userId, String text) {
+            sent.put(userId, text);
+            return true;
+        }
+    }
+
+    @Test
+    void eachParticipantGetsItsOwnView() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        RecordingRegistry registry = new RecordingRegistry();
+        ConversationPushListener listener = new ConversationPushListener();
+        ReflectionTestUtils.setField(listener, "registry", registry);
+        ReflectionTestUtils.setField(listener, "objectMapper", mapper);
+        ReflectionTestUtils.setField(listener, "fanout", new ChatFanout() {
+            @Override
+            public void send(String userId, String text) {
+                registry.sendTo(userId, text);
+            }
+        });
+
+        listener.onConversationUpdated(new ConversationUpdated("U1", "Asha", 0, "U2", "Ravi", 3,
+                "M1", "U1", "see you at 10", LocalDateTime.of(2025, 1, 31, 10, 0)));
+
+        JsonNode toA = mapper.readTree(registry.sent.get("U1"));
+        assertEquals("conversation-updated", toA.get("type").asText());
+        assertEquals("U2", toA.get("peerId").asText());
+        assertEquals("Ravi", toA.get("peerName").asText());
+        assertEquals("see you at 10", toA.get("lastMessage").asText());
+        assertEquals(0, toA.get("unreadCount").asInt());
+
+        JsonNode toB = mapper.readTree(registry.sent.get("U2"));
+        assertEquals("U1", toB.get("peerId").asText());
+        assertEquals("Asha", toB.get("peerName").asText());
+        assertEquals(3, toB.get("unreadCount").asInt());
+
+        // offline participants are skipped
+        registry.sent.clear();
+        listener.onConversationUpdated(new ConversationUpdated("U1", "Asha", 0, "U9", "Offline", 1,
+                "M2", "U1", "hi", LocalDateTime.now()));
+        assertEquals(1, registry.sent.size());
+    }
+}
@@ -0,0 +1,190 @@
+package FixItNow.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+class WebSocketSessionRegistryTest {
+
+    /** In-memory session; sendMessage blocks while "stalled" is held, like a client that stopped reading. */
+    static class StubSession implements WebSocketSession {
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        final String id = "s" + IDS.incrementAndGet();
+        final AtomicInteger received = new AtomicInteger();
+        volatile boolean open = true;
+        volatile CountDownLatch stalled;
+
+        @Override public String getId() { return id; }
+        @Override public URI getUri() { return null; }
+        @Override public HttpHeaders getHandshakeHeaders() { return new HttpHeaders(); }
+        @Override public Map<String, Object> getAttributes() { return new ConcurrentHashMap<>(); }
+        @Override public Principal getPrincipal() { return null; }
+        @Override public InetSocketAddress getLocalAddress() { return null; }
+        @Override public InetSocketAddress getRemoteAddress() { return null; }
+        @Override public String getAcceptedProtocol() { return null; }
+        @Override public void setTextMessageSizeLimit(int messageSizeLimit) {}
+        @Override public int getTextMessageSizeLimit() { return 0; }
+        @Override public void setBinaryMessageSizeLimit(int messageSizeLimit) {}
+        @Override public int getBinaryMessageSizeLimit() { return 0; }
+        @Override public List<WebSocketExtension> getExtensions() { return List.of(); }
+        @Override public boolean isOpen() { return open; }
+        @Override public void close() { open = false; }
+        @Override public void close(CloseStatus status) { open = false; }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            CountDownLatch s = stalled;
+            if (s != null) {
+                try {
+                    s.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.incrementAndGet();
+        }
+    }
+
+    @Test
+    void tenThousandSessionsConnectAndDisconnectConcurrently() throws Exception {
+        WebSocketSessionRegistry registry = new WebSocketSessionRegistry();
+        int users = 2_000;
+        int sessionsPerUser = 5;
+        int threads = 16;
+
+        List<StubSession> all = new ArrayList<>();
+        for (int i = 0; i < users * sessionsPerUser; i++) all.add(new StubSession());
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = worker; i < all.size(); i += threads) {
+                    StubSession s = all.get(i);
+                    String user = "U" + (i % users);
+                    registry.register(user, s);
+                    // traffic to random users while others connect and disconnect
+                    registry.sendTo("U" + ThreadLocalRandom.current().nextInt(users), "ping");
+                    assertTrue(registry.sendTo(user, "hello"));
+                    assertEquals(user, registry.removeBySession(s));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(0, registry.sessionCount());
+        assertEquals(0, registry.userCount());
+        assertTrue(all.stream().allMatch(s -> s.received.get() >= 1));
+    }
+
+    @Test
+    void everyTabOfAUserReceivesTheFrame() throws Exception {
+        WebSocketSessionRegistry registry = new WebSocketSessionRegistry();
+        StubSession tab1 = new StubSession();
+        StubSession tab2 = new StubSession();
+        registry.register("U1", tab1);
+        registry.register("U1", tab2);
+
+        registry.sendTo("U1", "hi");
+        assertEquals(1, tab1.received.get());
+        assertEquals(1, tab2.received.get());
+
+        // closing one tab leaves the other connected
+        registry.removeBySession(tab1);
+        assertTrue(registry.isOnline("U1"));
+        registry.removeBySession(tab2);
+        assertFalse(registry.isOnline("U1"));
+        assertEquals(0, registry.userCount());
+    }
+
+    @Test
+    void slowClientIsDisconnectedWithoutBlockingOtherSenders() throws Exception {
+        WebSocketSessionRegistry registry = slowClientRegistry("disconnect");
+        StubSession slow = new StubSession();
+        registry.register("U1", slow);
+
+        CountDownLatch release = stallAndSendInBackground(registry, slow);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < 100 && registry.isOnline("U1"); i++) {
+            registry.sendTo("U1", "x".repeat(200));
+        }
+        release.countDown();
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0) < 2_000, "senders were blocked");
+        assertFalse(slow.isOpen());
+        assertEquals(0, registry.sessionCount());
+    }
+
+    @Test
+    void dropPolicyKeepsSlowClientButBoundsItsBuffer() throws Exception {
+        WebSocketSessionRegistry registry = slowClientRegistry("drop");
+        StubSession slow = new StubSession();
+        registry.register("U1", slow);
+
+        CountDownLatch release = stallAndSendInBackground(registry, slow);
+        for (int i = 0; i < 100; i++) {
+            registry.sendTo("U1", "x".repeat(200));
+        }
+        release.countDown();
+
+        assertTrue(slow.isOpen());
+        assertEquals(1, registry.sessionCount());
+    }
+
+    private static WebSocketSessionRegistry slowClientRegistry(String policy) {
+        WebSocketSessionRegistry registry = new WebSocketSessionRegistry();
+        ReflectionTestUtils.setField(registry, "sendBufferLimitBytes", 1024);
+        ReflectionTestUtils.setField(registry, "sendTimeLimitMs", 60_000);
+        ReflectionTestUtils.setField(registry, "slowClientPolicy", policy);
+        return registry;
+    }
+
+    // one frame gets stuck in the socket write; everything after it has to be buffered
+    private static CountDownLatch stallAndSendInBackground(WebSocketSessionRegistry registry, StubSession slow)
+            throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        slow.stalled = release;
+        Thread writer = new Thread(() -> {
+            try {
+                registry.sendTo("U1", "first");
+            } catch (Exception ignored) {
+            }
+        });
+        writer.setDaemon(true);
+        writer.start();
+        while (slow.received.get() == 0 && writer.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+        return release;
+    }
+}
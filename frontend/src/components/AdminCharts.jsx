@@ -127,10 +127,13 @@ const AdminCharts = ({ bookings = [], providers = [] }) => {
     let mounted = true;
     (async () => {
       try {
-        const res = await fetch(`${API_BASE}/users/locations`);
+        // one row per distinct location instead of one per user
+        const res = await fetch(`${API_BASE}/users/locations/heatmap`);
         if (!res.ok) throw new Error("Failed to fetch locations");
         const data = await res.json();
-        if (mounted && Array.isArray(data)) setLocationList(data);
+        if (mounted && Array.isArray(data?.locations)) {
+          setLocationList(data.locations.map(([location]) => ({ location })));
+        }
       } catch (err) {
         console.warn("locations fetch failed", err);
         if (mounted) setLocationList([]);
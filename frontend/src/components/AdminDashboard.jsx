@@ -8,6 +8,7 @@ import {
 import "./AdminDashboard.css";
 import Reviews from "./Reviews";
 import ChatPanel from "./ChatPanel";
+import { subscribeChat, applyConversationUpdate, CONVERSATION_UPDATED } from "./chatSocket";
 import AdminCharts from "./AdminCharts";
 import Sidebar from "./Sidebar"
 
@@ -193,6 +194,26 @@ const AdminDashboard = () => {
       });
   }, []);
 
+  // dashboard counters come from the server-side rollups
+  const [serverStats, setServerStats] = useState(null);
+  useEffect(() => {
+    const token = localStorage.getItem('token');
+    if (!token) return;
+
+    fetch(`${API_BASE}/admin/stats`, {
+      method: 'GET',
+      headers: { 'Authorization': `Bearer ${token}`, 'Content-Type': 'application/json' }
+    })
+      .then(res => {
+        if (!res.ok) throw new Error('Failed to fetch admin stats: ' + res.status);
+        return res.json();
+      })
+      .then(data => setServerStats(data.totals || null))
+      .catch(err => {
+        console.error('Error fetching admin stats:', err);
+      });
+  }, []);
+
   useEffect(() => {
     const loadConversations = async () => {
       const token = localStorage.getItem('token');
@@ -213,7 +234,8 @@ const AdminDashboard = () => {
           peerId: c.peerId,
           peerName: c.peerName || c.peer_name || c.peer || c.peerId,
           lastMessage: c.lastMessage || c.last_message || '',
-          lastAt: c.lastAt || c.last_at || ''
+          lastAt: c.lastAt || c.last_at || '',
+          unreadCount: c.unreadCount || 0
         }));
         setConversations(convs);
       } catch (err) {
@@ -226,10 +248,12 @@ const AdminDashboard = () => {
 
     if (activeTab === 'chat') {
       loadConversations();
-      const interval = setInterval(() => {
-        loadConversations().catch(() => {});
-      }, 5000);
-      return () => clearInterval(interval);
+      // the server pushes every change to this inbox; no polling needed
+      return subscribeChat((ev) => {
+        if (ev.kind === 'frame' && ev.data.type === CONVERSATION_UPDATED) {
+          setConversations(prev => applyConversationUpdate(prev, ev.data));
+        }
+      });
     }
   }, [activeTab, adminUser]);
 
@@ -465,12 +489,23 @@ const AdminDashboard = () => {
     return bookings.filter(b => ["in_progress", "confirmed", "pending"].includes(String(b.status || "").toLowerCase())).length;
   }, [bookings]);
 
-  const statsData = useMemo(() => [
-    { value: (customers?.length || 0) + verifiedProvidersCount, label: "Total Users" },
-    { value: activeBookingsCount, label: "Active Bookings" },
-    { value: verifiedProvidersCount, label: "Verified Providers" },
-    { value: pendingApprovalsCount, label: "Pending Approvals" },
-  ], [customers, activeBookingsCount, verifiedProvidersCount, pendingApprovalsCount]);
+  const statsData = useMemo(() => {
+    if (serverStats) {
+      const n = (metric, dim) => serverStats[metric]?.[dim] || 0;
+      return [
+        { value: n("signups", "CUSTOMER") + n("verification", "APPROVED"), label: "Total Users" },
+        { value: n("bookings", "PENDING") + n("bookings", "CONFIRMED") + n("bookings", "IN_PROGRESS"), label: "Active Bookings" },
+        { value: n("verification", "APPROVED"), label: "Verified Providers" },
+        { value: n("verification", "PENDING"), label: "Pending Approvals" },
+      ];
+    }
+    return [
+      { value: (customers?.length || 0) + verifiedProvidersCount, label: "Total Users" },
+      { value: activeBookingsCount, label: "Active Bookings" },
+      { value: verifiedProvidersCount, label: "Verified Providers" },
+      { value: pendingApprovalsCount, label: "Pending Approvals" },
+    ];
+  }, [serverStats, customers, activeBookingsCount, verifiedProvidersCount, pendingApprovalsCount]);
 
 
   const topServices = useMemo(() => {
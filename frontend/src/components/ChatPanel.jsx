@@ -1,8 +1,9 @@
 import React, { useState, useRef, useEffect } from "react";
 import "./ChatPanel.css";
+import { subscribeChat, sendChat } from "./chatSocket";
 
-const WS_BASE = `${window.location.protocol === 'https:' ? 'wss:' : 'ws:'}//${window.location.hostname}:8087/ws/chat`;
 export const API_BASE = process.env.REACT_APP_API_URL || "http://localhost:8087";
+const HISTORY_PAGE_SIZE = 50;
 
 function normalizeId(raw) {
   if (raw == null) return "";
@@ -33,10 +34,12 @@ function normalizeId(raw) {
  */
 const ChatPanel = ({ currentUserId, peerId, peerName = "Peer", onBack }) => {
   const [connected, setConnected] = useState(false);
-  const [messages, setMessages] = useState([]); // { id, from, to, content, sentAt, pending? }
+  const [messages, setMessages] = useState([]); // { id, from, to, content, sentAt, pending?, failed? }
   const [input, setInput] = useState("");
   const [status, setStatus] = useState("");
-  const wsRef = useRef(null);
+  const [olderCursor, setOlderCursor] = useState(null); // null = no older messages
+  const [loadingOlder, setLoadingOlder] = useState(false);
+  const skipScrollRef = useRef(false);
   const messagesEndRef = useRef(null);
 
   // canonical current user id (string), fallback to localStorage
@@ -54,13 +57,24 @@ const ChatPanel = ({ currentUserId, peerId, peerName = "Peer", onBack }) => {
     };
   };
 
-  const handleIncomingWsMessage = (raw) => {
+  const mapHistory = (items) =>
+    (items || []).map((m) => {
+      const mm = mapServerMessage(m);
+      return { id: mm.id || `${Math.random().toString(36).slice(2)}`, from: mm.from, to: mm.to, content: mm.content, sentAt: mm.sentAt };
+    });
+
+  const handleIncomingWsMessage = (data) => {
     try {
-      const data = JSON.parse(raw);
       if (data.system) {
         setStatus(String(data.message || ""));
+        // the server could not store (or is shedding) this message: stop showing it as sending
+        if (data.error && data.tempId) {
+          setMessages(prev => prev.map(m => (m.id === data.tempId && m.pending ? { ...m, pending: false, failed: true } : m)));
+        }
         return;
       }
+      // typed frames (e.g. conversation-updated) are for the inbox list, not the message view
+      if (data.type) return;
 
       const incoming = mapServerMessage(data);
 
@@ -92,50 +106,22 @@ const ChatPanel = ({ currentUserId, peerId, peerName = "Peer", onBack }) => {
       });
 
     } catch (err) {
-      console.error("[ChatPanel] invalid WS message", err, raw);
+      console.error("[ChatPanel] invalid WS message", err, data);
     }
   };
 
 
-  // Connection useEffect
+  // Connection useEffect: the socket itself is shared with the dashboard's inbox list
   useEffect(() => {
-    const token = localStorage.getItem("token");
-    if (!token) {
-      console.warn("[ChatPanel] no token found - won't connect");
-      return;
-    }
-
-    const url = `${WS_BASE}?token=${encodeURIComponent(token)}`;
-    console.log("[ChatPanel] connecting to", url);
-    const ws = new window.WebSocket(url);
-    wsRef.current = ws;
-
-    ws.onopen = () => {
-      console.log("[ChatPanel] ws.onopen");
-      setConnected(true);
-      setStatus("Connected");
-    };
-
-    ws.onmessage = (ev) => {
-      handleIncomingWsMessage(ev.data);
-    };
-
-    ws.onerror = (ev) => {
-      console.log("[ChatPanel] ws.onerror", ev);
-      setStatus("Error");
-    };
-
-    ws.onclose = (ev) => {
-      console.log("[ChatPanel] ws.onclose", ev);
-      setConnected(false);
-      setStatus("Disconnected");
-    };
-
-    return () => {
-      try {
-        if (ws && ws.readyState === WebSocket.OPEN) ws.close();
-      } catch (_) {}
-    };
+    const unsubscribe = subscribeChat((ev) => {
+      if (ev.kind === "status") {
+        setConnected(ev.connected);
+        setStatus(ev.status);
+      } else {
+        handleIncomingWsMessage(ev.data);
+      }
+    });
+    return unsubscribe;
   }, []); // run once on mount
 
   // fetch message history
@@ -147,7 +133,7 @@ const ChatPanel = ({ currentUserId, peerId, peerName = "Peer", onBack }) => {
       return;
     }
 
-    const histUrl = `${API_BASE}/api/chat/history?userA=${encodeURIComponent(uid)}&userB=${encodeURIComponent(peerId)}`;
+    const histUrl = `${API_BASE}/api/chat/history?userA=${encodeURIComponent(uid)}&userB=${encodeURIComponent(peerId)}&limit=${HISTORY_PAGE_SIZE}`;
     console.log("[ChatPanel] fetching history", histUrl);
     fetch(histUrl, {
       headers: token ? { Authorization: `Bearer ${token}` } : undefined,
@@ -156,21 +142,52 @@ const ChatPanel = ({ currentUserId, peerId, peerName = "Peer", onBack }) => {
         if (!res.ok) throw new Error(`History fetch failed ${res.status}`);
         return res.json();
       })
-      .then((arr) => {
-        const mapped = (arr || []).map((m) => {
-          const mm = mapServerMessage(m);
-          return { id: mm.id || `${Math.random().toString(36).slice(2)}`, from: mm.from, to: mm.to, content: mm.content, sentAt: mm.sentAt };
-        });
+      .then((page) => {
+        const mapped = mapHistory(page?.items);
         console.log("[ChatPanel] history loaded, messages:", mapped.length);
         setMessages(mapped);
+        setOlderCursor(page?.nextCursor || null);
+        // opening the conversation clears its unread count
+        fetch(`${API_BASE}/api/chat/conversations/read?peerId=${encodeURIComponent(peerId)}`, {
+          method: "POST",
+          headers: token ? { Authorization: `Bearer ${token}` } : undefined,
+        }).catch(() => {});
       })
       .catch((err) => {
         console.error("Failed to load history", err);
       });
   }, [peerId, myId]);
 
-  // scroll to bottom
+  // fetch the page before the oldest loaded message
+  const loadOlder = () => {
+    if (!olderCursor || loadingOlder) return;
+    const token = localStorage.getItem("token");
+    const url = `${API_BASE}/api/chat/history?userA=${encodeURIComponent(myId)}&userB=${encodeURIComponent(peerId)}&limit=${HISTORY_PAGE_SIZE}&before=${encodeURIComponent(olderCursor)}`;
+    setLoadingOlder(true);
+    fetch(url, {
+      headers: token ? { Authorization: `Bearer ${token}` } : undefined,
+    })
+      .then((res) => {
+        if (!res.ok) throw new Error(`History fetch failed ${res.status}`);
+        return res.json();
+      })
+      .then((page) => {
+        skipScrollRef.current = true;
+        setMessages(prev => [...mapHistory(page?.items), ...prev]);
+        setOlderCursor(page?.nextCursor || null);
+      })
+      .catch((err) => {
+        console.error("Failed to load older messages", err);
+      })
+      .finally(() => setLoadingOlder(false));
+  };
+
+  // scroll to bottom (but stay put when older messages were prepended)
   useEffect(() => {
+    if (skipScrollRef.current) {
+      skipScrollRef.current = false;
+      return;
+    }
     messagesEndRef.current?.scrollIntoView({ behavior: "smooth" });
   }, [messages]);
 
@@ -192,10 +209,7 @@ const ChatPanel = ({ currentUserId, peerId, peerName = "Peer", onBack }) => {
     setMessages(prev => [...prev, optimistic]);
     setInput("");
 
-    const ws = wsRef.current;
-    if (ws && ws.readyState === WebSocket.OPEN) {
-      ws.send(JSON.stringify(payload));
-    } else {
+    if (!sendChat(payload)) {
       setStatus("Not connected");
       console.warn("[ChatPanel] ws not ready; message queued locally");
     }
@@ -221,6 +235,11 @@ const ChatPanel = ({ currentUserId, peerId, peerName = "Peer", onBack }) => {
       </div>
 
       <div className="chat-messages">
+        {olderCursor && (
+          <button className="chat-load-older" onClick={loadOlder} disabled={loadingOlder}>
+            {loadingOlder ? "Loading…" : "Load earlier messages"}
+          </button>
+        )}
         {messages
           .filter((m) => m)
           .map((m, i) => {
@@ -236,6 +255,7 @@ const ChatPanel = ({ currentUserId, peerId, peerName = "Peer", onBack }) => {
                       {m.sentAt ? new Date(m.sentAt).toLocaleTimeString([], { hour: "2-digit", minute: "2-digit" }) : ""}
                     </div>
                     {m.pending && <div style={{ fontSize: 11, color: "#888", marginLeft: 8 }}>Sending…</div>}
+                    {m.failed && <div style={{ fontSize: 11, color: "#c0392b", marginLeft: 8 }}>Not sent</div>}
                   </div>
                 </div>
               </div>
@@ -3,6 +3,7 @@ import { FaMapMarkerAlt, FaSearch, FaTools, FaStar, FaPhone, FaEnvelope, FaFaceb
 import './CustomerDashboard.css';
 import ProviderModal from "./ProviderModal";
 import ChatPanel from "./ChatPanel";
+import { subscribeChat, applyConversationUpdate, CONVERSATION_UPDATED } from "./chatSocket";
 import Sidebar from "./Sidebar"
 
 import { MapContainer, TileLayer, Marker, Popup } from 'react-leaflet';
@@ -21,6 +22,9 @@ L.Icon.Default.mergeOptions({
   shadowUrl: markerShadow,
 });
 
+const NEARBY_RADIUS_KM = 50;
+const NEARBY_LIMIT = 100;
+
 const categories = [
   { id: 'all', name: 'All Services' },
   { id: 'plumbing', name: 'Plumbing' },
@@ -30,21 +34,12 @@ const categories = [
   { id: 'appliance', name: 'Appliance Repair' }
 ];
 
-async function geocodeAddress(address) {
-  const res = await fetch(`https://nominatim.openstreetmap.org/search?format=json&q=${encodeURIComponent(address)}`);
-  const data = await res.json();
-  if (data && data.length > 0) {
-    return { lat: parseFloat(data[0].lat), lng: parseFloat(data[0].lon) };
-  }
-  return null;
-}
-
 const CustomerDashboard = () => {
   const [location, setLocation] = useState('');
   const [isEditingLocation, setIsEditingLocation] = useState(false);
   const [locationInput, setLocationInput] = useState('');
   const [latLng, setLatLng] = useState(null);
-  const [isLoadingLocation, setIsLoadingLocation] = useState(false);
+  const [isLoadingLocation, setIsLoadingLocation] = useState(true);
 
   const [serviceProviders, setServiceProviders] = useState([]);
   const [searchQuery, setSearchQuery] = useState('');
@@ -84,21 +79,19 @@ const CustomerDashboard = () => {
   const [showModal, setShowModal] = useState(false);
   const [modalProvider, setModalProvider] = useState(null);
  
+  // Nearest providers from the backend's geo index; null until known (no location -> show everyone)
+  const [nearbyProviders, setNearbyProviders] = useState(null);
+
   useEffect(() => {
-    const fetchProviders = async () => {
-      try {
-        const res = await fetch(`${API_BASE}/users/providers`);
-        if (!res.ok) throw new Error('Failed to fetch providers');
-        const providers = await res.json();
-        const providersArray = Array.isArray(providers) ? providers : [providers];
-        setServiceProviders(providersArray);
-      } catch (error) {
-        console.error('Error fetching providers:', error);
-        setServiceProviders([]);
-      }
-    };
-    fetchProviders();
-  }, []);
+    if (!latLng) return;
+    fetch(`${API_BASE}/service/providers/nearby?lat=${latLng.lat}&lon=${latLng.lng}&radiusKm=${NEARBY_RADIUS_KM}&limit=${NEARBY_LIMIT}`)
+      .then(res => res.ok ? res.json() : Promise.reject('Failed to fetch nearby providers'))
+      .then(data => setNearbyProviders(Array.isArray(data) ? data : []))
+      .catch(err => {
+        console.error('Error fetching nearby providers:', err);
+        setNearbyProviders([]);
+      });
+  }, [latLng]);
 
 
   // Get geolocation and address using OpenStreetMap Nominatim
@@ -117,14 +110,14 @@ const CustomerDashboard = () => {
               setLocation(locationText);
               setLocationInput(locationText);
               setIsLoadingLocation(false);
-              saveLocationToBackend(locationText);
+              saveLocationToBackend(locationText, { lat, lng });
             })
             .catch(err => {
               const locationText = `${lat.toFixed(4)}, ${lng.toFixed(4)}`;
               setLocation(locationText);
               setLocationInput(locationText);
               setIsLoadingLocation(false);
-              saveLocationToBackend(locationText);
+              saveLocationToBackend(locationText, { lat, lng });
             });
         },
         (error) => {
@@ -200,33 +193,39 @@ const CustomerDashboard = () => {
   }, []);
 
 
+  // Profiles for the nearby providers plus anyone the customer has booked; the full list only
+  // when the browser gave us no location to search around
   useEffect(() => {
-    async function fetchAndGeocodeProviders() {
-      try {
-        const res = await fetch(`${API_BASE}/users/providers`);
-        const providers = await res.json();
-        const providersArray = Array.isArray(providers) ? providers : [providers];
-
-        // Geocode each provider's location field
-        const providersWithCoords = await Promise.all(
-          providersArray.map(async (provider) => {
-            const coords = provider.location
-              ? await geocodeAddress(provider.location)
-              : null;
-            return coords
-              ? { ...provider, ...coords }
-              : provider;
-          })
-        );
-        setServiceProviders(providersWithCoords);
-      } catch (error) {
+    if (!latLng && isLoadingLocation) return;
+    const nearby = nearbyProviders || [];
+    const ids = [...new Set([
+      ...nearby.map(p => String(p.id)),
+      ...(customerBookings || []).filter(b => b && b.providerId).map(b => String(b.providerId)),
+    ])];
+    if (latLng && nearbyProviders === null) return;
+    if (latLng && ids.length === 0) {
+      setServiceProviders([]);
+      return;
+    }
+    const url = latLng
+      ? `${API_BASE}/users/providers?ids=${ids.map(encodeURIComponent).join(',')}`
+      : `${API_BASE}/users/providers`;
+    fetch(url)
+      .then(res => res.ok ? res.json() : Promise.reject('Failed to fetch providers'))
+      .then(profiles => {
+        const byId = new Map(nearby.map(p => [String(p.id), p]));
+        setServiceProviders((Array.isArray(profiles) ? profiles : [profiles]).map(profile => {
+          const hit = byId.get(String(profile.id));
+          return hit
+            ? { ...profile, lat: hit.latitude, lng: hit.longitude, distanceKm: hit.distanceKm }
+            : profile;
+        }));
+      })
+      .catch(error => {
         console.error('Error fetching providers:', error);
         setServiceProviders([]);
-      }
-    }
-
-    fetchAndGeocodeProviders();
-  }, []);
+      });
+  }, [nearbyProviders, customerBookings, latLng, isLoadingLocation]);
 
 
 
@@ -335,6 +334,7 @@ const CustomerDashboard = () => {
 
   const homeProviders = filteredProviders.filter(p => {
     const pid = String(p.id ?? '');
+    if (nearbyProviders && p.distanceKm === undefined) return false;
     return !activeBookedProviderIds.has(pid);
   });
   
@@ -468,7 +468,8 @@ const CustomerDashboard = () => {
           peerId: c.peerId,
           peerName: c.peerName || c.peer_name || c.peer || c.peerId,
           lastMessage: c.lastMessage || c.last_message || '',
-          lastAt: c.lastAt || c.last_at || ''
+          lastAt: c.lastAt || c.last_at || '',
+          unreadCount: c.unreadCount || 0
         }));
 
         // Ensure admin conversation is present. If server already returned admin conv, keep it.
@@ -501,10 +502,12 @@ const CustomerDashboard = () => {
 
     if (activePage === 'Chat') {
       loadConversations();
-      const interval = setInterval(() => {
-        loadConversations().catch(() => {});
-      }, 3000);
-      return () => clearInterval(interval);
+      // the server pushes every change to this inbox; no polling needed
+      return subscribeChat((ev) => {
+        if (ev.kind === 'frame' && ev.data.type === CONVERSATION_UPDATED) {
+          setConversations(prev => applyConversationUpdate(prev, ev.data));
+        }
+      });
     }
   }, [activePage, userData]);
 
@@ -568,7 +571,7 @@ const handleConnect = (provider, bookingDate, selectedServicesFromModal, selecte
     alert("Phone number saved!");
   };
 
-  const saveLocationToBackend = async (locationText) => {
+  const saveLocationToBackend = async (locationText, coords) => {
     const token = localStorage.getItem('token');
     if (!token) {
       alert('No token found. Please login.');
@@ -581,7 +584,9 @@ const handleConnect = (provider, bookingDate, selectedServicesFromModal, selecte
           'Content-Type': 'application/json',
           'Authorization': `Bearer ${token}`,
         },
-        body: JSON.stringify({ location: locationText }),
+        body: JSON.stringify(coords
+          ? { location: locationText, latitude: coords.lat, longitude: coords.lng }
+          : { location: locationText }),
       });
       if (!response.ok) throw new Error('Failed to save location');
       // optionally show a success message here
@@ -796,8 +801,8 @@ const handleConnect = (provider, bookingDate, selectedServicesFromModal, selecte
               <div style={{ margin: "2em 0" }}>
                 <MapContainer
                   center={[
-                    homeProviders[0]?.lat || 20,
-                    homeProviders[0]?.lng || 80
+                    latLng?.lat || homeProviders[0]?.lat || 20,
+                    latLng?.lng || homeProviders[0]?.lng || 80
                   ]}
                   zoom={4}
                   style={{ height: '400px', width: '100%', borderRadius: '1em' }}
@@ -3,6 +3,7 @@ import { FaMapMarkerAlt, FaUserCircle, FaPhone, FaEnvelope, FaHome, FaCalendarAl
 import './ProviderDashboard.css';
 import CustomerWideCard from './CustomerWideCard';
 import ChatPanel from './ChatPanel';
+import { subscribeChat, applyConversationUpdate, CONVERSATION_UPDATED } from './chatSocket';
 import Sidebar from "./Sidebar"
 
 export const API_BASE = process.env.REACT_APP_API_URL || "http://localhost:8087";
@@ -115,7 +116,11 @@ const ProviderDashboard = () => {
           description: descriptionInput,
         }),
       });
-      if (!response.ok) throw new Error('Failed to save availability/description');
+      if (!response.ok) {
+        // 400 carries the reason, e.g. "availability.to must be after availability.from"
+        const body = await response.json().catch(() => ({}));
+        throw new Error(body.message || 'Failed to save availability/description');
+      }
       //alert('Availability and description updated!');
     } catch (error) {
       alert('Availability/description update failed: ' + error.message);
@@ -161,7 +166,7 @@ const ProviderDashboard = () => {
 
 
   //save location to backend
-  const saveLocationToBackend = async (locationText) => {
+  const saveLocationToBackend = async (locationText, coords) => {
     const token = localStorage.getItem('token');
     if (!token) {
       alert('No token found. Please login.');
@@ -174,7 +179,9 @@ const ProviderDashboard = () => {
           'Content-Type': 'application/json',
           'Authorization': `Bearer ${token}`,
         },
-        body: JSON.stringify({ location: locationText }),
+        body: JSON.stringify(coords
+          ? { location: locationText, latitude: coords.lat, longitude: coords.lng }
+          : { location: locationText }),
       });
       if (!response.ok) throw new Error('Failed to save location');
       // optionally show a success message here
@@ -325,7 +332,8 @@ useEffect(() => {
         peerId: c.peerId,
         peerName: c.peerName || c.peer_name || c.peer || c.peerId,
         lastMessage: c.lastMessage || c.last_message || '',
-        lastAt: c.lastAt || c.last_at || ''
+        lastAt: c.lastAt || c.last_at || '',
+        unreadCount: c.unreadCount || 0
       }));
       setConversations(convs);
     } catch (err) {
@@ -336,7 +344,15 @@ useEffect(() => {
     }
   };
 
-  if (activePage === 'Chat' && (userData && userData.id)) loadConversations();
+  if (activePage === 'Chat' && (userData && userData.id)) {
+    loadConversations();
+    // the server pushes every change to this inbox; no polling needed
+    return subscribeChat((ev) => {
+      if (ev.kind === 'frame' && ev.data.type === CONVERSATION_UPDATED) {
+        setConversations(prev => applyConversationUpdate(prev, ev.data));
+      }
+    });
+  }
 }, [activePage, userData]);
 
 
@@ -361,7 +377,7 @@ useEffect(() => {
               setIsLoadingLocation(false);
 
               // Save location to backend
-              saveLocationToBackend(locationText);
+              saveLocationToBackend(locationText, { lat, lng });
             })
             .catch(err => {
               const locationText = `${lat.toFixed(4)}, ${lng.toFixed(4)}`;
@@ -370,7 +386,7 @@ useEffect(() => {
               setIsLoadingLocation(false);
 
               // Save fallback location to backend
-              saveLocationToBackend(locationText);
+              saveLocationToBackend(locationText, { lat, lng });
             });
         },
         (error) => {
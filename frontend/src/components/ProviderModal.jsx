@@ -83,6 +83,8 @@ const ProviderModal = ({
   const [timeSlots, setTimeSlots] = useState([]);
   const [selectedSlot, setSelectedSlot] = useState("");
   const [slotError, setSlotError] = useState("");
+  // start times still free on selectedDate (null until loaded: nothing is disabled)
+  const [freeSlots, setFreeSlots] = useState(null);
 
   // rightPanel: booking, reviews, chat
   const [rightPanel, setRightPanel] = useState('booking'); 
@@ -120,6 +122,10 @@ const ProviderModal = ({
         body: JSON.stringify(payload),
       });
 
+      if (response.status === 409) {
+        setFreeSlots((prev) => (prev ? prev.filter((v) => v !== selectedSlot) : prev));
+        throw new Error("That time slot was just booked. Please pick another.");
+      }
       if (!response.ok) {
         throw new Error("Failed to submit booking");
       }
@@ -163,36 +169,50 @@ const ProviderModal = ({
     setSlotError("");
   }, [provider]);
 
-  const [allReviews, setAllReviews] = useState([]);
+  useEffect(() => {
+    if (!provider?.id || !selectedDate) return;
+    let cancelled = false;
+    setFreeSlots(null);
+    fetch(`${API_BASE}/bookings/slots/${encodeURIComponent(provider.id)}?date=${selectedDate}&limit=48`)
+      .then((res) => (res.ok ? res.json() : null))
+      .then((data) => {
+        if (cancelled || !Array.isArray(data)) return;
+        setFreeSlots(data.filter((s) => s.date === selectedDate).map((s) => s.timeSlot));
+      })
+      .catch(() => {});
+    return () => {
+      cancelled = true;
+    };
+  }, [provider, selectedDate]);
+
+  const [ratingSummary, setRatingSummary] = useState(null);
   const [loadingReviews, setLoadingReviews] = useState(true);
 
-  // Fetch reviews when modal opens
+  // Fetch this provider's rating summary when modal opens
   useEffect(() => {
     if (rightPanel === 'booking' || rightPanel === 'reviews') {
-      const fetchReviews = async () => {
+      const fetchSummary = async () => {
         try {
-          const response = await fetch(`${API_BASE}/reviews/all`);
-          if (!response.ok) throw new Error("Error fetching reviews");
+          const response = await fetch(`${API_BASE}/reviews/provider/${encodeURIComponent(provider.id)}/summary`);
+          if (!response.ok) throw new Error("Error fetching rating summary");
           const data = await response.json();
-          setAllReviews(data);
+          setRatingSummary(data);
         } catch (err) {
           console.error(err);
-          setAllReviews([]);
+          setRatingSummary(null);
         }
         setLoadingReviews(false);
       };
-      fetchReviews();
+      fetchSummary();
     }
-  }, [rightPanel]);
+  }, [rightPanel, provider?.id]);
 
-  const providerReviews = allReviews.filter(r => r.provider_id === provider.id);
+  const totalReviews = ratingSummary ? ratingSummary.count : 0;
 
-  const overallRating = providerReviews.length > 0
-    ? (providerReviews.reduce((sum, r) => sum + r.rating, 0) / providerReviews.length).toFixed(2)
+  const overallRating = totalReviews > 0
+    ? ratingSummary.average.toFixed(2)
     : "0.0";
 
-  const totalReviews = providerReviews.length;
-
   useEffect(() => {
     if (scrollRef.current) {
       setTimeout(() => {
@@ -372,8 +392,13 @@ const ProviderModal = ({
                         }}
                       >
                         {timeSlots.map((s) => (
-                          <option key={s.value} value={s.value}>
+                          <option
+                            key={s.value}
+                            value={s.value}
+                            disabled={freeSlots != null && !freeSlots.includes(s.value)}
+                          >
                             {s.label}
+                            {freeSlots != null && !freeSlots.includes(s.value) ? " (booked)" : ""}
                           </option>
                         ))}
                       </select>
@@ -0,0 +1,103 @@
+// One chat WebSocket per browser tab, shared by ChatPanel and the dashboards' inbox lists.
+// The socket opens with the first subscriber and closes when the last one unsubscribes.
+
+const WS_BASE = `${window.location.protocol === 'https:' ? 'wss:' : 'ws:'}//${window.location.hostname}:8087/ws/chat`;
+
+// typed frame the server pushes to both participants whenever a message is saved
+export const CONVERSATION_UPDATED = "conversation-updated";
+
+const listeners = new Set();
+let socket = null;
+let connected = false;
+
+function emit(event) {
+  listeners.forEach((l) => {
+    try {
+      l(event);
+    } catch (err) {
+      console.error("[chatSocket] listener failed", err);
+    }
+  });
+}
+
+function open() {
+  const token = localStorage.getItem("token");
+  if (!token) {
+    console.warn("[chatSocket] no token found - won't connect");
+    return;
+  }
+  const ws = new window.WebSocket(`${WS_BASE}?token=${encodeURIComponent(token)}`);
+  socket = ws;
+
+  ws.onopen = () => {
+    connected = true;
+    emit({ kind: "status", connected: true, status: "Connected" });
+  };
+  ws.onmessage = (ev) => {
+    let data;
+    try {
+      data = JSON.parse(ev.data);
+    } catch (err) {
+      console.error("[chatSocket] invalid WS message", err, ev.data);
+      return;
+    }
+    emit({ kind: "frame", data });
+  };
+  ws.onerror = (ev) => {
+    console.log("[chatSocket] ws.onerror", ev);
+    emit({ kind: "status", connected, status: "Error" });
+  };
+  ws.onclose = () => {
+    if (socket === ws) {
+      socket = null;
+      connected = false;
+    }
+    emit({ kind: "status", connected: false, status: "Disconnected" });
+  };
+}
+
+/**
+ * Register a listener for { kind: "frame", data } and { kind: "status", connected, status }
+ * events. Returns the unsubscribe function.
+ */
+export function subscribeChat(listener) {
+  listeners.add(listener);
+  if (!socket) open();
+  else if (connected) listener({ kind: "status", connected: true, status: "Connected" });
+
+  return () => {
+    listeners.delete(listener);
+    if (listeners.size === 0 && socket) {
+      const ws = socket;
+      socket = null;
+      connected = false;
+      try {
+        if (ws.readyState === WebSocket.OPEN || ws.readyState === WebSocket.CONNECTING) ws.close();
+      } catch (_) {}
+    }
+  };
+}
+
+/** Send a JSON payload; returns false when the socket is not open. */
+export function sendChat(payload) {
+  if (socket && socket.readyState === WebSocket.OPEN) {
+    socket.send(JSON.stringify(payload));
+    return true;
+  }
+  return false;
+}
+
+/**
+ * Merge a conversation-updated frame into an inbox list of { peerId, peerName, lastMessage, lastAt,
+ * unreadCount }: the conversation moves to the top, replacing its previous entry.
+ */
+export function applyConversationUpdate(list, data) {
+  const updated = {
+    peerId: data.peerId,
+    peerName: data.peerName || data.peerId,
+    lastMessage: data.lastMessage || '',
+    lastAt: data.lastAt || '',
+    unreadCount: data.unreadCount || 0
+  };
+  return [updated, ...(list || []).filter((c) => String(c.peerId) !== String(updated.peerId))];
+}